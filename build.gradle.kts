@@ -208,6 +208,9 @@ dependencies {
     // since jna is a transitive runtime dependency of opus-java we don't include it explicitly as dependency
     compileOnly(libs.jna)
 
+    //Optional zstd-stream transport compression, only used if present at runtime
+    compileOnly(libs.zstd.jni)
+
     /* Internal dependencies */
 
     //General Utility
@@ -233,6 +236,7 @@ dependencies {
     testImplementation(libs.commons.lang3)
     testImplementation(libs.logback.classic)
     testImplementation(libs.archunit)
+    testImplementation(libs.zstd.jni)
 
     testJava8Implementation(libs.bundles.junit.java8)
     testJava8Implementation(libs.assertj)
@@ -600,7 +604,9 @@ tasks.register<Test>("updateTestSnapshots") {
 }
 
 tasks.test {
-    useJUnitPlatform()
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
     failFast = false
 
     jvmArgs = listOf(
@@ -618,6 +624,28 @@ tasks.test {
     }
 }
 
+val benchmark by tasks.registering(Test::class) {
+    group = "verification"
+    description = "Runs the timing and throughput tests excluded from the default test task."
+
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+
+    jvmArgs = listOf(
+            "-javaagent:${mockitoAgent.asPath}",
+            "-Dnet.bytebuddy.safe=true"
+    )
+
+    testLogging {
+        events("passed", "failed")
+        showStandardStreams = true
+    }
+}
+
 val testJava8Compatibility by tasks.registering(Test::class) {
     group = "verification"
 
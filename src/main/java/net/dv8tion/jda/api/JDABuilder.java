@@ -32,6 +32,8 @@ import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.requests.RestConfig;
 import net.dv8tion.jda.api.utils.*;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.metrics.GatewayMetrics;
+import net.dv8tion.jda.api.utils.metrics.GatewayMetricsRecorder;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.managers.PresenceImpl;
 import net.dv8tion.jda.internal.utils.Checks;
@@ -43,6 +45,7 @@ import net.dv8tion.jda.internal.utils.config.ThreadingConfig;
 import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
 import okhttp3.OkHttpClient;
 
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.stream.Collectors;
@@ -97,10 +100,13 @@ public class JDABuilder {
     protected int intents = -1; // don't use intents by default
     protected EnumSet<ConfigFlag> flags = ConfigFlag.getDefault();
     protected ChunkingFilter chunkingFilter = ChunkingFilter.ALL;
+    protected DispatchFilter dispatchFilter = null;
+    protected GatewayMetrics gatewayMetrics = null;
     protected MemberCachePolicy memberCachePolicy = MemberCachePolicy.ALL;
     protected GatewayEncoding encoding = GatewayEncoding.JSON;
     protected RestConfig restConfig = new RestConfig();
     protected AudioModuleConfig audioModuleConfig = null;
+    protected Path cacheSnapshotFile = null;
 
     protected JDABuilder(@Nullable String token, int intents) {
         this.token = token;
@@ -511,6 +517,173 @@ public class JDABuilder {
         return setFlag(ConfigFlag.RAW_EVENTS, enable);
     }
 
+    /**
+     * Whether JDA should decode gateway payloads lazily.
+     * <br>When enabled, only the offsets of the fields in each JSON payload are indexed and values are decoded
+     * on first access, instead of materializing the entire payload up front.
+     * This reduces allocations for events which only read a few fields or are discarded entirely.
+     *
+     * <p>This only applies to {@link GatewayEncoding#JSON}, and requires one copy of every compressed payload.
+     * <br>Default: {@code false}
+     *
+     * @param  enable
+     *         True, if JDA should decode gateway payloads lazily
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public JDABuilder setLazyParsingEnabled(boolean enable) {
+        return setFlag(ConfigFlag.LAZY_PARSING, enable);
+    }
+
+    /**
+     * Whether JDA should use a compact representation for cached members.
+     * <br>When enabled, the roles of each member are stored as a sorted array of role ids, instead of a concurrent set of roles.
+     * The role instances are resolved from the guild cache when accessed.
+     * This considerably reduces the memory used per cached member, which matters most for guilds with many members.
+     *
+     * <p>Modifying member roles becomes slightly more expensive, since the array is copied on every modification.
+     * <br>Default: {@code false}
+     *
+     * @param  enable
+     *         True, if JDA should use compact member storage
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public JDABuilder setCompactMemberCacheEnabled(boolean enable) {
+        return setFlag(ConfigFlag.COMPACT_MEMBER_CACHE, enable);
+    }
+
+    /**
+     * Whether JDA should maintain secondary indexes of the member cache.
+     * <br>When enabled, each guild indexes its cached members by username, nickname, and role.
+     * This makes {@link net.dv8tion.jda.api.utils.cache.MemberCacheView#getElementsByUsername(String, boolean) getElementsByUsername},
+     * {@link net.dv8tion.jda.api.utils.cache.MemberCacheView#getElementsByNickname(String, boolean) getElementsByNickname},
+     * and {@link net.dv8tion.jda.api.utils.cache.MemberCacheView#getElementsWithRoles(net.dv8tion.jda.api.entities.Role...) getElementsWithRoles}
+     * independent of the number of cached members, instead of scanning the entire cache.
+     *
+     * <p>The indexes use additional memory for each cached member, and are updated whenever a member changes.
+     * <br>Default: {@code false}
+     *
+     * @param  enable
+     *         True, if JDA should index cached members
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public JDABuilder setMemberIndexEnabled(boolean enable) {
+        return setFlag(ConfigFlag.MEMBER_INDEX, enable);
+    }
+
+    /**
+     * Whether JDA should optimize the user, guild, and member caches for reads.
+     * <br>When enabled, lookups by id and iteration of these caches use a shared copy of the elements,
+     * instead of acquiring the read-lock of the cache on every access.
+     * This avoids contention with the gateway thread, for bots which read the cache much more often than it changes.
+     *
+     * <p>The copy is discarded on every modification, and only created again after enough reads to make up for it.
+     * Caches which change frequently, such as during member chunking, behave the same as without this setting,
+     * but keep an additional copy of the elements in memory.
+     * <br>Default: {@code false}
+     *
+     * @param  enable
+     *         True, if JDA should optimize caches for reads
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public JDABuilder setReadOptimizedCacheEnabled(boolean enable) {
+        return setFlag(ConfigFlag.READ_OPTIMIZED_CACHE, enable);
+    }
+
+    /**
+     * Whether JDA should cache the effective permissions of members in guild channels.
+     * <br>When enabled, the result of {@link net.dv8tion.jda.api.entities.Member#getPermissions(net.dv8tion.jda.api.entities.channel.middleman.GuildChannel) Member.getPermissions(GuildChannel)}
+     * and the permission checks of JDA are cached per member and channel, instead of computing them from all roles and permission overrides on every call.
+     *
+     * <p>The cache is invalidated whenever the roles or time out of a member, the permissions of a role,
+     * or the permission overrides of a channel are updated. Permissions of members that are timed out are never cached.
+     * <br>Default: {@code false}
+     *
+     * @param  enable
+     *         True, if JDA should cache member permissions
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public JDABuilder setPermissionCacheEnabled(boolean enable) {
+        return setFlag(ConfigFlag.PERMISSION_CACHE, enable);
+    }
+
+    /**
+     * Whether JDA should use virtual threads instead of its default thread pools.
+     * <br>When enabled, the callback pool, the event pool, and the rate-limit elastic pool use a new virtual thread for every task,
+     * unless a custom pool is configured. This allows listeners and callbacks to block on {@link net.dv8tion.jda.api.requests.RestAction#complete() RestAction.complete()}
+     * without starving other tasks.
+     *
+     * <p>Events are handled by an {@link net.dv8tion.jda.api.hooks.OrderedEventPool OrderedEventPool} instead of the gateway thread,
+     * which still handles events of the same guild in the order they were received.
+     *
+     * <p>Virtual threads require Java 21 or newer. On older versions, this setting is ignored and the default thread pools are used.
+     * <br>Default: {@code false}
+     *
+     * @param  enable
+     *         True, if JDA should use virtual threads
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public JDABuilder setVirtualThreadsEnabled(boolean enable) {
+        return setFlag(ConfigFlag.VIRTUAL_THREADS, enable);
+    }
+
+    /**
+     * Whether JDA should build members incrementally while a guild is being chunked.
+     * <br>By default, the raw member payloads of every {@link net.dv8tion.jda.api.requests.GatewayIntent#GUILD_MEMBERS member chunk}
+     * are kept until the last chunk arrived, and all members are created at once when the guild is ready.
+     * When enabled, members and users are created as soon as their chunk arrives, and the raw payloads are released immediately.
+     * This lowers the peak memory usage and avoids a large allocation spike when the setup of a guild with many members completes.
+     *
+     * <p>The {@link net.dv8tion.jda.api.utils.MemberCachePolicy MemberCachePolicy}, voice states, and presences are still applied
+     * once the guild is ready, so the resulting cache is the same.
+     * <br>Default: {@code false}
+     *
+     * @param  enable
+     *         True, if JDA should build members incrementally
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public JDABuilder setIncrementalGuildSetupEnabled(boolean enable) {
+        return setFlag(ConfigFlag.INCREMENTAL_GUILD_SETUP, enable);
+    }
+
+    /**
+     * The file used to keep a snapshot of the cache between restarts.
+     *
+     * <p>When JDA is {@link JDA#shutdown() shut down} with a ready session, the cached guilds, roles, channels, members,
+     * voice states and emojis are written to this file, together with the gateway session.
+     * The connection is then closed in a way which keeps the session alive on Discord's side for a few minutes.
+     * <br>On the next startup, the cache is restored from this file and JDA attempts to resume the session,
+     * which replays the events that were missed in the meantime. When the session can no longer be resumed,
+     * JDA discards the restored cache and starts a new session, the same as without a snapshot.
+     * The file is deleted once it was loaded, since a session can only be resumed once.
+     *
+     * <p>Presences, stickers, scheduled events, and stage instances are not part of the snapshot.
+     * <br>Default: {@code null}
+     *
+     * @param  file
+     *         The snapshot file, or {@code null} to disable snapshots
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public JDABuilder setCacheSnapshotFile(@Nullable Path file) {
+        this.cacheSnapshotFile = file;
+        return this;
+    }
+
     /**
      * Whether JDA should store the raw {@link net.dv8tion.jda.api.utils.data.DataObject DataObject} for every discord event, accessible through {@link net.dv8tion.jda.api.events.GenericEvent#getRawData() getRawData()}.
      * <br>You can expect to receive the full gateway message payload, including sequence, event name and dispatch type of the events
@@ -1066,6 +1239,9 @@ public class JDABuilder {
      * Sets the {@link ExecutorService ExecutorService} that should be used by the
      * event proxy to schedule events. This will be done on the calling thread by default.
      *
+     * <p>Events submitted to a regular executor are not handled in order.
+     * Use an {@link net.dv8tion.jda.api.hooks.OrderedEventPool OrderedEventPool} to keep the order of events within each guild.
+     *
      * @param  executor
      *         The executor for the event proxy, or null to use calling thread
      * @param  automaticShutdown
@@ -1456,6 +1632,51 @@ public class JDABuilder {
         return this;
     }
 
+    /**
+     * The {@link DispatchFilter} to decide which gateway dispatches should be handled.
+     * <br>Dispatches which are rejected by this filter are discarded before their payload is decoded.
+     * This reduces the overhead of high-volume events you don't use, such as {@code TYPING_START}.
+     *
+     * <p>Once a filter is set, JDA also discards dispatches it has no use for on its own,
+     * for instance {@code PRESENCE_UPDATE} when no presence related {@link CacheFlag CacheFlags} are enabled.
+     * This automatic filter is disabled when {@link #setRawEventsEnabled(boolean) raw events} are enabled.
+     * By default, no dispatches are discarded.
+     *
+     * <p><b>Discarding dispatches which update cached entities will cause the cache to become outdated!</b>
+     *
+     * @param  filter
+     *         The filter to apply, or null to handle all dispatches
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     *
+     * @see    DispatchFilter#exclude(String...)
+     */
+    @Nonnull
+    public JDABuilder setDispatchFilter(@Nullable DispatchFilter filter) {
+        this.dispatchFilter = filter;
+        return this;
+    }
+
+    /**
+     * The {@link GatewayMetrics} to observe the performance of the gateway connection.
+     * <br>This reports the time spent decompressing, parsing, and handling each dispatch type,
+     * as well as the time events wait in the {@link #setEventPool(ExecutorService) event pool}.
+     *
+     * <p>You can use {@link GatewayMetricsRecorder} to record these measurements into histograms.
+     *
+     * <p>Default: {@code null}
+     *
+     * @param  metrics
+     *         The metrics listener, or null to disable measurements
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    @Nonnull
+    public JDABuilder setGatewayMetrics(@Nullable GatewayMetrics metrics) {
+        this.gatewayMetrics = metrics;
+        return this;
+    }
+
     /**
      * Configures which events will be disabled.
      * Bots which did not enable presence/member updates in the developer dashboard are required to disable {@link GatewayIntent#GUILD_PRESENCES} and {@link GatewayIntent#GUILD_MEMBERS}!
@@ -1761,8 +1982,12 @@ public class JDABuilder {
         threadingConfig.setRateLimitElastic(rateLimitElastic, shutdownRateLimitElastic);
         threadingConfig.setEventPool(eventPool, shutdownEventPool);
         threadingConfig.setAudioPool(audioPool, shutdownAudioPool);
+        if (flags.contains(ConfigFlag.VIRTUAL_THREADS)) {
+            threadingConfig.enableVirtualThreads();
+        }
         SessionConfig sessionConfig = new SessionConfig(
                 controller, httpClient, wsFactory, voiceDispatchInterceptor, flags, maxReconnectDelay, largeThreshold);
+        sessionConfig.setCacheSnapshotFile(cacheSnapshotFile);
         MetaConfig metaConfig = new MetaConfig(maxBufferSize, contextMap, cacheFlags, flags);
 
         JDAImpl jda =
@@ -1774,6 +1999,8 @@ public class JDABuilder {
         } else {
             jda.setChunkingFilter(chunkingFilter);
         }
+        jda.setDispatchFilter(dispatchFilter);
+        jda.setGatewayMetrics(gatewayMetrics);
 
         if (eventManager != null) {
             jda.setEventManager(eventManager);
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.audio.factory;
+
+import net.dv8tion.jda.api.utils.metrics.Histogram;
+import net.dv8tion.jda.internal.audio.AudioConnection;
+import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.concurrent.CountingThreadFactory;
+import org.slf4j.MDC;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import static net.dv8tion.jda.api.audio.OpusPacket.OPUS_FRAME_TIME_AMOUNT;
+
+/**
+ * Implementation of {@link IAudioSendFactory} which drives all audio connections from a shared scheduler,
+ * instead of using one thread per connection like the {@link DefaultSendFactory}.
+ *
+ * <p>Each connection schedules the next frame on the scheduler, 20ms after the previous frame.
+ * A small pool of threads can handle thousands of connections this way,
+ * since preparing and sending a single frame only takes a few microseconds.
+ * If a connection falls more than 3 frames behind, it skips ahead instead of sending the missed frames in a burst.
+ *
+ * <p>The same factory instance should be shared between all shards, by using the same
+ * {@link net.dv8tion.jda.api.audio.AudioModuleConfig AudioModuleConfig} for every shard.
+ *
+ * <p>The factory records how late each frame was sent compared to its scheduled time in {@link #getJitter()}.
+ * A growing jitter means the pool is too small for the number of connections.
+ *
+ * <p><b>Example</b><br>
+ * {@snippet lang="java":
+ * ScheduledSendFactory sendFactory = new ScheduledSendFactory(2);
+ * JDABuilder.createDefault(token)
+ *     .setAudioModuleConfig(new AudioModuleConfig().withAudioSendFactory(sendFactory))
+ *     .build();
+ * }
+ */
+public class ScheduledSendFactory implements IAudioSendFactory {
+    private static final long FRAME_TIME_NANOS = TimeUnit.MILLISECONDS.toNanos(OPUS_FRAME_TIME_AMOUNT);
+    private static final long MAX_FRAME_DELAY_NANOS = 3 * FRAME_TIME_NANOS;
+
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final Histogram jitter = new Histogram();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    /**
+     * Creates a new factory with its own scheduler, using the provided number of threads.
+     * <br>The threads are daemon threads, and can be stopped with {@link #shutdown()}.
+     *
+     * @param  poolSize
+     *         The number of threads used to send audio for all connections
+     *
+     * @throws IllegalArgumentException
+     *         If the pool size is not positive
+     */
+    @SuppressWarnings("ThreadPriorityCheck")
+    public ScheduledSendFactory(int poolSize) {
+        Checks.positive(poolSize, "Pool size");
+        ThreadFactory threadFactory = new CountingThreadFactory(() -> "JDA", "Audio-Send");
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(poolSize, r -> {
+            Thread thread = threadFactory.newThread(r);
+            thread.setPriority((Thread.NORM_PRIORITY + Thread.MAX_PRIORITY) / 2);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+        this.ownsScheduler = true;
+    }
+
+    /**
+     * Creates a new factory which uses the provided scheduler to send audio.
+     * <br>The scheduler is not shut down by {@link #shutdown()}.
+     *
+     * @param  scheduler
+     *         The scheduler used to send audio for all connections
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     */
+    public ScheduledSendFactory(@Nonnull ScheduledExecutorService scheduler) {
+        Checks.notNull(scheduler, "Scheduler");
+        this.scheduler = scheduler;
+        this.ownsScheduler = false;
+    }
+
+    @Nonnull
+    @Override
+    public IAudioSendSystem createSendSystem(@Nonnull IPacketProvider packetProvider) {
+        return new ScheduledSendSystem(packetProvider);
+    }
+
+    /**
+     * The histogram of how late frames were sent compared to their scheduled time, in nanoseconds.
+     *
+     * @return The jitter histogram
+     */
+    @Nonnull
+    public Histogram getJitter() {
+        return jitter;
+    }
+
+    /**
+     * The number of connections which are currently sending audio through this factory.
+     *
+     * @return The number of active connections
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Shuts down the scheduler, if it was created by this factory.
+     * <br>Connections using this factory will stop sending audio.
+     */
+    public void shutdown() {
+        if (ownsScheduler) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private class ScheduledSendSystem implements IAudioSendSystem {
+        private final IPacketProvider packetProvider;
+        private ConcurrentMap<String, String> contextMap;
+        private ScheduledFuture<?> future;
+        private boolean running;
+        // Identifies the current chain of frames, a frame of a previous start() must not schedule another one
+        private long generation;
+        private boolean sentPacket = true;
+        private long nextFrame;
+
+        private ScheduledSendSystem(IPacketProvider packetProvider) {
+            this.packetProvider = packetProvider;
+        }
+
+        @Override
+        public void setContextMap(@CheckForNull ConcurrentMap<String, String> contextMap) {
+            this.contextMap = contextMap;
+        }
+
+        @Override
+        public synchronized void start() {
+            if (running) {
+                return;
+            }
+            running = true;
+            generation++;
+            sentPacket = true;
+            nextFrame = System.nanoTime();
+            connections.incrementAndGet();
+            schedule(generation, 0);
+        }
+
+        @Override
+        public synchronized void shutdown() {
+            if (!running) {
+                return;
+            }
+            running = false;
+            connections.decrementAndGet();
+            if (future != null) {
+                future.cancel(false);
+                future = null;
+            }
+        }
+
+        private void sendFrame(long generation) {
+            if (!isCurrent(generation)) {
+                return;
+            }
+
+            DatagramSocket udpSocket = packetProvider.getUdpSocket();
+            if (udpSocket.isClosed()) {
+                shutdown(generation);
+                return;
+            }
+
+            long delay = System.nanoTime() - nextFrame;
+            jitter.record(delay);
+
+            if (contextMap != null) {
+                MDC.setContextMap(contextMap);
+            }
+            try {
+                boolean changeTalking = !sentPacket || delay > FRAME_TIME_NANOS;
+                DatagramPacket packet = packetProvider.getNextPacket(changeTalking);
+
+                sentPacket = packet != null;
+                if (sentPacket) {
+                    udpSocket.send(packet);
+                }
+            } catch (NoRouteToHostException e) {
+                packetProvider.onConnectionLost();
+            } catch (SocketException e) {
+                // Most likely the socket has been closed due to the audio connection be closed.
+                // Next frame will stop the system.
+            } catch (Exception e) {
+                AudioConnection.LOG.error("Error while sending udp audio data", e);
+            } finally {
+                if (contextMap != null) {
+                    MDC.clear();
+                }
+                scheduleNextFrame(generation);
+            }
+        }
+
+        private synchronized boolean isCurrent(long generation) {
+            return running && this.generation == generation;
+        }
+
+        private synchronized void shutdown(long generation) {
+            if (this.generation == generation) {
+                shutdown();
+            }
+        }
+
+        private synchronized void scheduleNextFrame(long generation) {
+            if (!isCurrent(generation)) {
+                return;
+            }
+
+            long now = System.nanoTime();
+            if (now - nextFrame < MAX_FRAME_DELAY_NANOS) {
+                nextFrame += FRAME_TIME_NANOS;
+            } else {
+                // Skip the missed frames, instead of sending them all at once
+                nextFrame = now;
+            }
+            schedule(generation, nextFrame - now);
+        }
+
+        private void schedule(long generation, long delay) {
+            try {
+                future = scheduler.schedule(() -> sendFrame(generation), Math.max(0, delay), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                AudioConnection.LOG.error(
+                        "Audio send scheduler rejected connection {}", packetProvider.getIdentifier(), e);
+                running = false;
+                connections.decrementAndGet();
+            }
+        }
+    }
+}
@@ -18,5 +18,7 @@
  * Audio send factories that can be implemented to generate
  * custom audio send packages to be provided to Discord.
  * <br>A default factory is provided by {@link net.dv8tion.jda.api.audio.factory.DefaultSendFactory DefaultSendFactory}.
+ * <br>For many concurrent connections, {@link net.dv8tion.jda.api.audio.factory.ScheduledSendFactory ScheduledSendFactory}
+ * sends audio for all connections from a shared thread pool.
  */
 package net.dv8tion.jda.api.audio.factory;
@@ -62,6 +62,7 @@ import net.dv8tion.jda.api.requests.restaction.pagination.PaginationAction;
 import net.dv8tion.jda.api.utils.*;
 import net.dv8tion.jda.api.utils.DiscordAssets;
 import net.dv8tion.jda.api.utils.cache.*;
+import net.dv8tion.jda.api.utils.concurrent.BulkRoleJob;
 import net.dv8tion.jda.api.utils.concurrent.Task;
 import net.dv8tion.jda.internal.interactions.CommandDataImpl;
 import net.dv8tion.jda.internal.requests.DeferredRestAction;
@@ -80,6 +81,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
@@ -4714,6 +4716,34 @@ public interface Guild extends IGuildChannelContainer<GuildChannel>, ISnowflake,
     @CheckReturnValue
     AuditableRestAction<Void> removeRoleFromMember(@Nonnull UserSnowflake user, @Nonnull Role role);
 
+    /**
+     * Creates a {@link BulkRoleJob} which adds or removes roles for a large number of members.
+     * <br>Each {@link BulkRoleJob.Mutation Mutation} is applied with {@link #addRoleToMember(UserSnowflake, Role)}
+     * or {@link #removeRoleFromMember(UserSnowflake, Role)} respectively.
+     *
+     * <p>The mutations are consumed lazily, only keeping a {@link BulkRoleJob#setMaxPending(int) bounded number}
+     * of requests pending at a time. This means the stream can be backed by a large data source without loading it entirely into memory.
+     * The requests are paced by the rate-limiter, like any other request.
+     *
+     * <p>The job has to be started with {@link BulkRoleJob#start()}.
+     * Failed mutations are reported to {@link BulkRoleJob#onFailure(java.util.function.BiConsumer)} and do not stop the job.
+     *
+     * @param  mutations
+     *         The stream of mutations, this stream is closed once the job is done or cancelled
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     * @throws net.dv8tion.jda.api.exceptions.InsufficientPermissionException
+     *         If the currently logged in account does not have {@link net.dv8tion.jda.api.Permission#MANAGE_ROLES Permission.MANAGE_ROLES}
+     * @throws net.dv8tion.jda.api.exceptions.DetachedEntityException
+     *         If this entity is {@link #isDetached() detached}
+     *
+     * @return {@link BulkRoleJob} which has not been started yet
+     */
+    @Nonnull
+    @CheckReturnValue
+    BulkRoleJob modifyMemberRolesInBulk(@Nonnull Stream<? extends BulkRoleJob.Mutation> mutations);
+
     /**
      * Modifies the {@link Role Roles} of the specified {@link Member Member}
      * by adding and removing a collection of roles.
@@ -51,11 +51,15 @@ import javax.annotation.Nullable;
  * <br><b>Note:</b> Message order is always in recent to past order. I.e: A message at index 0
  * of a list is more recent than a message at index 1.
  *
+ * <p>All retrieved messages are kept in this history. To archive large channels without retaining every message,
+ * use a {@link net.dv8tion.jda.api.utils.MessageHistoryExporter MessageHistoryExporter} instead.
+ *
  * @see net.dv8tion.jda.api.entities.channel.middleman.MessageChannel#getHistory()
  * @see net.dv8tion.jda.api.entities.channel.middleman.MessageChannel#getHistoryAfter(String, int)
  * @see net.dv8tion.jda.api.entities.channel.middleman.MessageChannel#getHistoryBefore(String, int)
  * @see net.dv8tion.jda.api.entities.channel.middleman.MessageChannel#getHistoryAround(String, int)
  * @see net.dv8tion.jda.api.entities.channel.middleman.MessageChannel#getHistoryFromBeginning(int)
+ * @see net.dv8tion.jda.api.utils.MessageHistoryExporter
  */
 public class MessageHistory {
     protected final MessageChannel channel;
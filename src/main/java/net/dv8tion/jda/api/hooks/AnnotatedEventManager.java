@@ -23,7 +23,9 @@ import net.dv8tion.jda.internal.utils.JDALogger;
 import org.jetbrains.annotations.Unmodifiable;
 import org.slf4j.Logger;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
@@ -54,8 +56,14 @@ import javax.annotation.Nonnull;
  */
 public class AnnotatedEventManager implements IEventManager {
     private static final Logger LOGGER = JDALogger.getLog(AnnotatedEventManager.class);
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Void.TYPE, GenericEvent.class);
+    private static final MethodHandle[] EMPTY = new MethodHandle[0];
+
     private final Set<Object> listeners = ConcurrentHashMap.newKeySet();
-    private final Map<Class<?>, Map<Object, List<Method>>> methods = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Map<Object, List<MethodHandle>>> methods = new ConcurrentHashMap<>();
+    // Replaced whenever the listeners change, which avoids stale entries from handle calls that are still running
+    private volatile Map<Class<?>, MethodHandle[]> invokers = new ConcurrentHashMap<>();
 
     @Override
     public void register(@Nonnull Object listener) {
@@ -68,6 +76,7 @@ public class AnnotatedEventManager implements IEventManager {
 
         if (listeners.add(listener)) {
             registerListenerMethods(listener);
+            invokers = new ConcurrentHashMap<>();
         }
     }
 
@@ -82,6 +91,7 @@ public class AnnotatedEventManager implements IEventManager {
 
         if (listeners.remove(listener)) {
             updateMethods();
+            invokers = new ConcurrentHashMap<>();
         }
     }
 
@@ -94,24 +104,33 @@ public class AnnotatedEventManager implements IEventManager {
 
     @Override
     public void handle(@Nonnull GenericEvent event) {
-        for (Class<?> eventClass : ClassWalker.walk(event.getClass())) {
-            Map<Object, List<Method>> listeners = methods.get(eventClass);
+        Map<Class<?>, MethodHandle[]> invokers = this.invokers;
+        MethodHandle[] handles = invokers.get(event.getClass());
+        if (handles == null) {
+            handles = invokers.computeIfAbsent(event.getClass(), this::resolveInvokers);
+        }
+
+        for (MethodHandle handle : handles) {
+            try {
+                handle.invokeExact(event);
+            } catch (Throwable throwable) {
+                JDAImpl.LOG.error("One of the EventListeners had an uncaught exception", throwable);
+                if (throwable instanceof Error) {
+                    throw (Error) throwable;
+                }
+            }
+        }
+    }
+
+    private MethodHandle[] resolveInvokers(Class<?> type) {
+        List<MethodHandle> handles = new ArrayList<>();
+        for (Class<?> eventClass : ClassWalker.walk(type)) {
+            Map<Object, List<MethodHandle>> listeners = methods.get(eventClass);
             if (listeners != null) {
-                listeners.forEach((key, value) -> value.forEach(method -> {
-                    try {
-                        method.setAccessible(true);
-                        method.invoke(key, event);
-                    } catch (IllegalAccessException | InvocationTargetException e1) {
-                        JDAImpl.LOG.error("Couldn't access annotated EventListener method", e1);
-                    } catch (Throwable throwable) {
-                        JDAImpl.LOG.error("One of the EventListeners had an uncaught exception", throwable);
-                        if (throwable instanceof Error) {
-                            throw (Error) throwable;
-                        }
-                    }
-                }));
+                listeners.values().forEach(handles::addAll);
             }
         }
+        return handles.isEmpty() ? EMPTY : handles.toArray(EMPTY);
     }
 
     private void updateMethods() {
@@ -130,7 +149,8 @@ public class AnnotatedEventManager implements IEventManager {
                 continue;
             }
             // Skip member methods if listener is a Class
-            if (isClass && !Modifier.isStatic(m.getModifiers())) {
+            boolean isStatic = Modifier.isStatic(m.getModifiers());
+            if (isClass && !isStatic) {
                 continue;
             }
 
@@ -143,10 +163,23 @@ public class AnnotatedEventManager implements IEventManager {
                 continue;
             }
 
+            MethodHandle handle;
+            try {
+                m.setAccessible(true);
+                handle = LOOKUP.unreflect(m);
+                if (!isStatic) {
+                    handle = handle.bindTo(listener);
+                }
+                handle = handle.asType(INVOKER_TYPE);
+            } catch (IllegalAccessException | RuntimeException e) {
+                JDAImpl.LOG.error("Couldn't access annotated EventListener method", e);
+                continue;
+            }
+
             Class<?> eventClass = parameterTypes[0];
             methods.computeIfAbsent(eventClass, k -> new ConcurrentHashMap<>())
                     .computeIfAbsent(listener, k -> new CopyOnWriteArrayList<>())
-                    .add(m);
+                    .add(handle);
         }
     }
 }
@@ -97,7 +97,10 @@ import net.dv8tion.jda.internal.utils.ClassWalker;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -637,11 +640,18 @@ public abstract class ListenerAdapter implements EventListener {
     public void onGenericForumTagUpdate(@Nonnull GenericForumTagUpdateEvent<?> event) {}
 
     private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
-    private static final ConcurrentMap<Class<?>, MethodHandle> methods = new ConcurrentHashMap<>();
+    private static final MethodType handlerType =
+            MethodType.methodType(Void.TYPE, ListenerAdapter.class, GenericEvent.class);
     private static final Set<Class<?>> unresolved;
+    private static final ClassValue<DispatchTable> dispatchTables = new ClassValue<DispatchTable>() {
+        @Override
+        protected DispatchTable computeValue(Class<?> type) {
+            return new DispatchTable(type);
+        }
+    };
 
     static {
-        unresolved = ConcurrentHashMap.newKeySet();
+        unresolved = new HashSet<>();
         Collections.addAll(
                 unresolved,
                 Object.class, // Objects aren't events
@@ -658,18 +668,9 @@ public abstract class ListenerAdapter implements EventListener {
             onGenericUpdate((UpdateEvent<?, ?>) event);
         }
 
-        for (Class<?> clazz : ClassWalker.range(event.getClass(), GenericEvent.class)) {
-            if (unresolved.contains(clazz)) {
-                continue;
-            }
-            MethodHandle mh = methods.computeIfAbsent(clazz, ListenerAdapter::findMethod);
-            if (mh == null) {
-                unresolved.add(clazz);
-                continue;
-            }
-
+        for (MethodHandle mh : dispatchTables.get(getClass()).getHandlers(event.getClass())) {
             try {
-                mh.invoke(this, event);
+                mh.invokeExact(this, event);
             } catch (Throwable throwable) {
                 if (throwable instanceof RuntimeException) {
                     throw (RuntimeException) throwable;
@@ -682,14 +683,72 @@ public abstract class ListenerAdapter implements EventListener {
         }
     }
 
-    private static MethodHandle findMethod(Class<?> clazz) {
+    private static String getMethodName(Class<?> clazz) {
         String name = clazz.getSimpleName();
+        if (!name.endsWith("Event")) {
+            return null;
+        }
+        return "on" + name.substring(0, name.length() - "Event".length());
+    }
+
+    private static MethodHandle findMethod(Class<?> listener, Class<?> clazz) {
+        String name = getMethodName(clazz);
+        if (name == null) {
+            return null; // this means this is probably a custom event!
+        }
+
+        try {
+            // Skip handlers which are not overridden, since they would do nothing anyway
+            if (listener.getMethod(name, clazz).getDeclaringClass() == ListenerAdapter.class) {
+                return null;
+            }
+        } catch (NoSuchMethodException ignored) {
+            return null;
+        } catch (SecurityException ignored) {
+        } // we can't tell if it's overridden, so we have to call it
+
         MethodType type = MethodType.methodType(Void.TYPE, clazz);
         try {
-            name = "on" + name.substring(0, name.length() - "Event".length());
-            return lookup.findVirtual(ListenerAdapter.class, name, type);
+            return lookup.findVirtual(ListenerAdapter.class, name, type).asType(handlerType);
         } catch (NoSuchMethodException | IllegalAccessException ignored) {
         } // this means this is probably a custom event!
         return null;
     }
+
+    /**
+     * Resolved handler methods of a listener class, mapped by event class.
+     * <br>The handlers are in the same order as the event class hierarchy, starting with the most specific one.
+     */
+    private static class DispatchTable {
+        private static final MethodHandle[] EMPTY = new MethodHandle[0];
+
+        private final Class<?> listener;
+        private final ConcurrentMap<Class<?>, MethodHandle[]> handlers = new ConcurrentHashMap<>();
+
+        private DispatchTable(Class<?> listener) {
+            this.listener = listener;
+        }
+
+        private MethodHandle[] getHandlers(Class<?> event) {
+            MethodHandle[] resolved = handlers.get(event);
+            if (resolved == null) {
+                resolved = handlers.computeIfAbsent(event, this::resolve);
+            }
+            return resolved;
+        }
+
+        private MethodHandle[] resolve(Class<?> event) {
+            List<MethodHandle> resolved = new ArrayList<>();
+            for (Class<?> clazz : ClassWalker.range(event, GenericEvent.class)) {
+                if (unresolved.contains(clazz)) {
+                    continue;
+                }
+                MethodHandle mh = findMethod(listener, clazz);
+                if (mh != null) {
+                    resolved.add(mh);
+                }
+            }
+            return resolved.isEmpty() ? EMPTY : resolved.toArray(EMPTY);
+        }
+    }
 }
@@ -0,0 +1,460 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.hooks;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.channel.GenericChannelEvent;
+import net.dv8tion.jda.api.events.guild.GenericGuildEvent;
+import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
+import net.dv8tion.jda.api.events.thread.GenericThreadEvent;
+import net.dv8tion.jda.api.events.user.UserTypingEvent;
+import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.internal.utils.concurrent.CountingThreadFactory;
+import net.dv8tion.jda.internal.utils.concurrent.VirtualThreads;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Event pool which handles events in parallel, while keeping the order of events with the same key.
+ *
+ * <p>Every event is assigned to one of several serial lanes, based on its {@link #setKeyExtractor(ToLongFunction) key}.
+ * By default, this key is the id of the guild the event happened in, or the channel id for events outside of guilds.
+ * Events without either are all handled on the same lane. This means events of one guild are always handled in the same
+ * order they were received, but a slow listener for one guild does not delay the events of guilds on other lanes.
+ *
+ * <p>Each lane has a bounded queue. When a queue is full, the thread submitting the event has to wait until
+ * the lane catches up, which applies backpressure to the gateway connection instead of buffering events indefinitely.
+ * You can monitor this with {@link #getQueuedTasks()}, {@link #getBlockedSubmissions()}, and {@link #getBlockedTime(TimeUnit)}.
+ *
+ * <p>This pool can be used with {@link net.dv8tion.jda.api.JDABuilder#setEventPool(ExecutorService, boolean)}
+ * or {@link net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder#setEventPool(ExecutorService, boolean)}.
+ * When shared by multiple shards, it should not be shutdown automatically.
+ *
+ * <p><b>Example</b><br>
+ * {@snippet lang="java":
+ * JDABuilder.createDefault(token)
+ *     .setEventPool(new OrderedEventPool(Runtime.getRuntime().availableProcessors()), true)
+ *     .build();
+ * }
+ */
+public class OrderedEventPool extends AbstractExecutorService {
+    /**
+     * The default capacity of each lane queue.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    private static final Logger LOG = JDALogger.getLog(OrderedEventPool.class);
+    private static final Runnable SHUTDOWN = () -> {};
+
+    private final Lane[] lanes;
+    private final CountDownLatch terminated;
+    private final AtomicLong blockedSubmissions = new AtomicLong();
+    private final AtomicLong blockedNanos = new AtomicLong();
+    private volatile ToLongFunction<? super GenericEvent> keyExtractor = OrderedEventPool::getDefaultKey;
+    private volatile boolean shutdown;
+
+    /**
+     * Creates a new pool with the provided number of lanes and the {@link #DEFAULT_QUEUE_CAPACITY default queue capacity}.
+     *
+     * @param  lanes
+     *         The number of lanes, usually the number of available processors
+     *
+     * @throws IllegalArgumentException
+     *         If the number of lanes is not positive
+     */
+    public OrderedEventPool(int lanes) {
+        this(lanes, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a new pool with the provided number of lanes and queue capacity.
+     *
+     * @param  lanes
+     *         The number of lanes, usually the number of available processors
+     * @param  queueCapacity
+     *         The maximum number of queued events per lane
+     *
+     * @throws IllegalArgumentException
+     *         If either of the numbers is not positive
+     */
+    public OrderedEventPool(int lanes, int queueCapacity) {
+        this(lanes, queueCapacity, new CountingThreadFactory(() -> "JDA", "OrderedEventPool"));
+    }
+
+    /**
+     * Creates a new pool with the provided number of lanes and queue capacity.
+     *
+     * @param  lanes
+     *         The number of lanes, usually the number of available processors
+     * @param  queueCapacity
+     *         The maximum number of queued events per lane
+     * @param  threadFactory
+     *         The factory used to create one thread per lane
+     *
+     * @throws IllegalArgumentException
+     *         If either of the numbers is not positive or the thread factory is null
+     */
+    public OrderedEventPool(int lanes, int queueCapacity, @Nonnull ThreadFactory threadFactory) {
+        Checks.positive(lanes, "Lanes");
+        Checks.positive(queueCapacity, "Queue capacity");
+        Checks.notNull(threadFactory, "ThreadFactory");
+
+        this.lanes = new Lane[lanes];
+        this.terminated = new CountDownLatch(lanes);
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = new Lane(queueCapacity, threadFactory);
+        }
+        for (Lane lane : this.lanes) {
+            lane.thread.start();
+        }
+    }
+
+    /**
+     * Creates a new pool which uses a virtual thread for each lane.
+     * <br>Since virtual threads are cheap, this allows using many more lanes than available processors,
+     * which further reduces the chance of events from different guilds waiting on each other.
+     *
+     * @param  lanes
+     *         The number of lanes
+     * @param  queueCapacity
+     *         The maximum number of queued events per lane
+     *
+     * @throws IllegalArgumentException
+     *         If either of the numbers is not positive
+     * @throws IllegalStateException
+     *         If virtual threads are not supported by the runtime, which requires Java 21 or newer
+     *
+     * @return The new pool
+     */
+    @Nonnull
+    public static OrderedEventPool ofVirtualThreads(int lanes, int queueCapacity) {
+        ThreadFactory threadFactory = VirtualThreads.newThreadFactory("JDA OrderedEventPool-Worker ");
+        return new OrderedEventPool(lanes, queueCapacity, threadFactory);
+    }
+
+    /**
+     * The default key used for events, which is the id of the guild, the id of the channel for events outside guilds,
+     * or {@code 0} for other events.
+     *
+     * @param  event
+     *         The event
+     *
+     * @return The key for this event
+     */
+    public static long getDefaultKey(@Nonnull GenericEvent event) {
+        if (event instanceof GenericGuildEvent) {
+            return ((GenericGuildEvent) event).getGuild().getIdLong();
+        }
+        if (event instanceof GenericMessageEvent) {
+            GenericMessageEvent messageEvent = (GenericMessageEvent) event;
+            return messageEvent.isFromGuild()
+                    ? messageEvent.getGuild().getIdLong()
+                    : messageEvent.getChannel().getIdLong();
+        }
+        if (event instanceof GenericChannelEvent) {
+            GenericChannelEvent channelEvent = (GenericChannelEvent) event;
+            return channelEvent.isFromGuild()
+                    ? channelEvent.getGuild().getIdLong()
+                    : channelEvent.getChannel().getIdLong();
+        }
+        if (event instanceof GenericThreadEvent) {
+            return ((GenericThreadEvent) event).getGuild().getIdLong();
+        }
+        if (event instanceof GenericInteractionCreateEvent) {
+            GenericInteractionCreateEvent interaction = (GenericInteractionCreateEvent) event;
+            return interaction.getGuild() != null
+                    ? interaction.getGuild().getIdLong()
+                    : interaction.getChannelIdLong();
+        }
+        if (event instanceof UserTypingEvent) {
+            UserTypingEvent typingEvent = (UserTypingEvent) event;
+            return typingEvent.getGuild() != null
+                    ? typingEvent.getGuild().getIdLong()
+                    : typingEvent.getChannel().getIdLong();
+        }
+        return 0L;
+    }
+
+    /**
+     * Changes how events are assigned to lanes.
+     * <br>Events with the same key are always handled in order.
+     *
+     * @param  keyExtractor
+     *         The function computing the key of an event
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     *
+     * @return The current pool for chaining convenience
+     *
+     * @see    #getDefaultKey(GenericEvent)
+     */
+    @Nonnull
+    public OrderedEventPool setKeyExtractor(@Nonnull ToLongFunction<? super GenericEvent> keyExtractor) {
+        Checks.notNull(keyExtractor, "Key extractor");
+        this.keyExtractor = keyExtractor;
+        return this;
+    }
+
+    /**
+     * Computes the key for the provided event, using the configured {@link #setKeyExtractor(ToLongFunction) key extractor}.
+     *
+     * @param  event
+     *         The event
+     *
+     * @return The key for this event
+     */
+    public long getKey(@Nonnull GenericEvent event) {
+        return keyExtractor.applyAsLong(event);
+    }
+
+    /**
+     * Schedules the task on the lane of the provided key.
+     * <br>Tasks with the same key are executed in the order they are submitted.
+     *
+     * <p>If the lane is full, this blocks until the lane has capacity again.
+     * Tasks submitted from one of the lane threads are always accepted, to avoid deadlocks.
+     *
+     * @param  key
+     *         The key, such as a guild id
+     * @param  task
+     *         The task to execute
+     *
+     * @throws IllegalArgumentException
+     *         If the task is null
+     * @throws RejectedExecutionException
+     *         If the pool is shutdown, or the thread was interrupted while waiting for capacity
+     */
+    public void execute(long key, @Nonnull Runnable task) {
+        Checks.notNull(task, "Task");
+        if (shutdown) {
+            throw new RejectedExecutionException("The event pool has been shutdown");
+        }
+        lanes[Math.floorMod(Long.hashCode(key * 0x9E3779B97F4A7C15L), lanes.length)].submit(task);
+    }
+
+    /**
+     * Schedules the task on the lane for key {@code 0}.
+     *
+     * @param  task
+     *         The task to execute
+     *
+     * @throws IllegalArgumentException
+     *         If the task is null
+     * @throws RejectedExecutionException
+     *         If the pool is shutdown, or the thread was interrupted while waiting for capacity
+     */
+    @Override
+    public void execute(@Nonnull Runnable task) {
+        execute(0L, task);
+    }
+
+    /**
+     * The number of lanes used by this pool.
+     *
+     * @return The number of lanes
+     */
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * The number of tasks currently waiting in the lane queues.
+     *
+     * @return The number of queued tasks
+     */
+    public int getQueuedTasks() {
+        int queued = 0;
+        for (Lane lane : lanes) {
+            queued += lane.queue.size();
+        }
+        return queued;
+    }
+
+    /**
+     * The number of submissions which had to wait for a full lane.
+     *
+     * @return The number of blocked submissions
+     */
+    public long getBlockedSubmissions() {
+        return blockedSubmissions.get();
+    }
+
+    /**
+     * The total time submitting threads had to wait for a full lane.
+     *
+     * @param  unit
+     *         The time unit for the returned time
+     *
+     * @throws IllegalArgumentException
+     *         If the unit is null
+     *
+     * @return The total blocked time
+     */
+    public long getBlockedTime(@Nonnull TimeUnit unit) {
+        Checks.notNull(unit, "TimeUnit");
+        return unit.convert(blockedNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        for (Lane lane : lanes) {
+            synchronized (lane) {
+                lane.queue.add(SHUTDOWN);
+            }
+        }
+    }
+
+    @Nonnull
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        List<Runnable> tasks = new ArrayList<>();
+        for (Lane lane : lanes) {
+            synchronized (lane) {
+                int drained = lane.queue.drainTo(tasks);
+                lane.queue.add(SHUTDOWN);
+                lane.capacity.release(drained);
+            }
+            lane.thread.interrupt();
+        }
+        tasks.removeIf(task -> task == SHUTDOWN);
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    private boolean isLaneThread() {
+        Thread current = Thread.currentThread();
+        for (Lane lane : lanes) {
+            if (lane.thread == current) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class Lane implements Runnable {
+        private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+        private final Semaphore capacity;
+        // Tasks which were accepted without capacity, since they were submitted by a lane thread
+        private final AtomicInteger overflow = new AtomicInteger();
+        private final Thread thread;
+
+        private Lane(int capacity, ThreadFactory threadFactory) {
+            this.capacity = new Semaphore(capacity);
+            this.thread = threadFactory.newThread(this);
+        }
+
+        private void submit(Runnable task) {
+            boolean overflowed = false;
+            if (!capacity.tryAcquire()) {
+                if (isLaneThread()) {
+                    overflowed = true;
+                } else {
+                    awaitCapacity();
+                }
+            }
+
+            synchronized (this) {
+                if (!shutdown) {
+                    if (overflowed) {
+                        overflow.incrementAndGet();
+                    }
+                    queue.add(task);
+                    return;
+                }
+            }
+
+            if (!overflowed) {
+                capacity.release();
+            }
+            throw new RejectedExecutionException("The event pool has been shutdown");
+        }
+
+        private void awaitCapacity() {
+            blockedSubmissions.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                capacity.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for event pool capacity", e);
+            } finally {
+                blockedNanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+
+        private void release() {
+            int current;
+            do {
+                current = overflow.get();
+                if (current == 0) {
+                    capacity.release();
+                    return;
+                }
+            } while (!overflow.compareAndSet(current, current - 1));
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Runnable task = queue.take();
+                    if (task == SHUTDOWN) {
+                        break;
+                    }
+
+                    release();
+                    try {
+                        task.run();
+                    } catch (Throwable throwable) {
+                        LOG.error("Encountered uncaught exception in event pool", throwable);
+                    }
+                }
+            } catch (InterruptedException ignored) {
+                // shutdownNow was called
+            } finally {
+                terminated.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.requests;
+
+import net.dv8tion.jda.internal.utils.JDALogger;
+import okhttp3.Headers;
+import okhttp3.Response;
+import org.slf4j.Logger;
+
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Bucket handling shared by {@link SequentialRestRateLimiter} and {@link ConcurrentRestRateLimiter}.
+ * <br>Subclasses decide how buckets are stored and synchronized, and when bucket workers are scheduled.
+ */
+abstract class AbstractRestRateLimiter implements RestRateLimiter {
+    protected static final Logger log = JDALogger.getLog(RestRateLimiter.class);
+    protected static final String UNINIT_BUCKET =
+            "uninit"; // we generate an uninit bucket for every major parameter configuration
+
+    protected final CompletableFuture<?> shutdownHandle = new CompletableFuture<>();
+
+    protected final Future<?> cleanupWorker;
+    protected final RateLimitConfig config;
+
+    protected volatile boolean isStopped, isShutdown;
+
+    // Route -> Should we print warning for 429? AKA did we already hit it once before
+    protected final Set<Route> hitRatelimit = ConcurrentHashMap.newKeySet(5);
+    // Route -> Hash
+    protected final ConcurrentMap<Route, String> hashes = new ConcurrentHashMap<>();
+
+    protected AbstractRestRateLimiter(@Nonnull RateLimitConfig config) {
+        this.config = config;
+        this.cleanupWorker = config.getScheduler().scheduleAtFixedRate(this::cleanup, 30, 30, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public boolean isStopped() {
+        return isStopped;
+    }
+
+    @Override
+    public int cancelRequests() {
+        // Empty buckets will be removed by the cleanup worker,
+        // which also checks for rate limit parameters
+        int cancelled = (int) getBuckets().stream()
+                .map(Bucket::getRequests)
+                .flatMap(Collection::stream)
+                .filter(request -> !request.isPriority() && !request.isCancelled())
+                .peek(Work::cancel)
+                .count();
+
+        if (cancelled == 1) {
+            log.warn("Cancelled 1 request!");
+        } else if (cancelled > 1) {
+            log.warn("Cancelled {} requests!", cancelled);
+        }
+        return cancelled;
+    }
+
+    // Removes buckets that are no longer needed, called every 30 seconds
+    protected abstract void cleanup();
+
+    @Nonnull
+    protected abstract Bucket getBucket(@Nonnull Route.CompiledRoute route);
+
+    @Nonnull
+    protected abstract Collection<? extends Bucket> getBuckets();
+
+    protected int getPendingCount() {
+        return getBuckets().stream()
+                .mapToInt(bucket -> bucket.getRequests().size())
+                .sum();
+    }
+
+    @Nonnull
+    protected String getBucketId(@Nonnull Route.CompiledRoute route) {
+        // Retrieve the hash via the route
+        Route baseRoute = route.getBaseRoute();
+        String hash = hashes.getOrDefault(baseRoute, UNINIT_BUCKET + "+" + baseRoute);
+        // The bucket is identified by the hash + major parameters
+        return hash + ":" + route.getMajorParameters();
+    }
+
+    protected void scheduleElastic(@Nonnull Bucket bucket) {
+        if (isShutdown) {
+            return;
+        }
+
+        ExecutorService elastic = config.getElastic();
+        ScheduledExecutorService scheduler = config.getScheduler();
+
+        try {
+            // Avoid context switch if unnecessary
+            if (elastic == scheduler) {
+                bucket.run();
+            } else {
+                elastic.execute(bucket);
+            }
+        } catch (RejectedExecutionException ex) {
+            if (!isShutdown) {
+                log.error("Failed to execute bucket worker", ex);
+            }
+        } catch (Throwable t) {
+            log.error("Caught throwable in bucket worker", t);
+            if (t instanceof Error) {
+                throw t;
+            }
+        }
+    }
+
+    protected long parseLong(String input) {
+        return input == null ? 0L : Long.parseLong(input);
+    }
+
+    protected long parseDouble(String input) {
+        // The header value is using a double to represent milliseconds and seconds:
+        // 5.250 this is 5 seconds and 250 milliseconds (5250 milliseconds)
+        return input == null ? 0L : (long) (Double.parseDouble(input) * 1000);
+    }
+
+    protected long getNow() {
+        return System.currentTimeMillis();
+    }
+
+    protected void updateBucket(@Nonnull Route.CompiledRoute route, @Nonnull Response response) {
+        Bucket bucket = getBucket(route);
+        try {
+            Headers headers = response.headers();
+
+            boolean global = headers.get(GLOBAL_HEADER) != null;
+            boolean cloudflare = headers.get("via") == null;
+            String hash = headers.get(HASH_HEADER);
+            String scope = headers.get(SCOPE_HEADER);
+            long now = getNow();
+
+            // Create a new bucket for the hash if needed
+            Route baseRoute = route.getBaseRoute();
+            if (hash != null) {
+                if (hashes.putIfAbsent(baseRoute, hash) == null) {
+                    log.debug("Caching bucket hash {} -> {}", baseRoute, hash);
+                }
+
+                bucket = getBucket(route);
+            }
+
+            if (response.code() == 429) {
+                String retryAfterHeader = headers.get(RETRY_AFTER_HEADER);
+                long retryAfter = parseLong(retryAfterHeader) * 1000; // seconds precision
+                // Handle global rate limit if necessary
+                if (global) {
+                    config.getGlobalRateLimit().setClassic(now + retryAfter);
+                    log.error(
+                            "Encountered global rate limit!"
+                                    + "\n\tRetry-After: {} ms"
+                                    + "\n\tScope: {}"
+                                    + "\n\tRoute: {}"
+                                    + "\n\tCompiled Route: {}"
+                                    + "\n\tMajor Parameters: {}"
+                                    + "\n\tBucket: {}"
+                                    + "\n\tBucket Hash: {}"
+                                    + "\n\tLimit: {}"
+                                    + "\n\tRemaining: {}"
+                                    + "\n\tReset-After: {}"
+                                    + "\n\tPending in this bucket: {}"
+                                    + "\n\tTotal pending across all buckets: {}"
+                                    + "\n\tTotal active buckets: {}",
+                            retryAfter,
+                            scope,
+                            baseRoute,
+                            route.getCompiledRoute(),
+                            route.getMajorParameters(),
+                            bucket.bucketId,
+                            hash,
+                            headers.get(LIMIT_HEADER),
+                            headers.get(REMAINING_HEADER),
+                            headers.get(RESET_AFTER_HEADER),
+                            bucket.getRequests().size(),
+                            getPendingCount(),
+                            getBuckets().size());
+                    logCreationStack(bucket);
+                }
+                // Handle cloudflare rate limits,
+                // this applies to all routes and uses seconds for retry-after
+                else if (cloudflare) {
+                    config.getGlobalRateLimit().setCloudflare(now + retryAfter);
+                    log.error(
+                            "Encountered cloudflare rate limit!"
+                                    + "\n\tRetry-After: {} s"
+                                    + "\n\tRoute: {}"
+                                    + "\n\tCompiled Route: {}"
+                                    + "\n\tMajor Parameters: {}"
+                                    + "\n\tBucket: {}"
+                                    + "\n\tPending in this bucket: {}"
+                                    + "\n\tTotal pending across all buckets: {}"
+                                    + "\n\tTotal active buckets: {}",
+                            retryAfter / 1000,
+                            baseRoute,
+                            route.getCompiledRoute(),
+                            route.getMajorParameters(),
+                            bucket.bucketId,
+                            bucket.getRequests().size(),
+                            getPendingCount(),
+                            getBuckets().size());
+                    logCreationStack(bucket);
+                }
+                // Handle hard rate limit, pretty much just log that it happened
+                else {
+                    boolean firstHit = hitRatelimit.add(baseRoute) && retryAfter < 60000;
+                    // Update the bucket to the new information
+                    bucket.setRateLimit(0, now + retryAfter);
+                    // don't log warning if we hit the rate limit for the first time,
+                    // likely due to initialization of the bucket
+                    // unless its a long retry-after delay (more than a minute)
+                    if (firstHit) {
+                        log.debug(
+                                "Encountered 429 on route {} with bucket {} Retry-After: {} ms Scope: {}",
+                                baseRoute,
+                                bucket.bucketId,
+                                retryAfter,
+                                scope);
+                    } else {
+                        log.warn(
+                                "Encountered 429 on route {} with bucket {} Retry-After: {} ms Scope: {}",
+                                baseRoute,
+                                bucket.bucketId,
+                                retryAfter,
+                                scope);
+                    }
+                }
+
+                log.trace("Updated bucket {} to retry after {}", bucket.bucketId, bucket.reset - now);
+                return;
+            }
+
+            // If hash is null this means we didn't get enough information to update a bucket
+            if (hash == null) {
+                return;
+            }
+
+            // Update the bucket parameters with new information
+            String limitHeader = headers.get(LIMIT_HEADER);
+            int remaining = (int) parseLong(headers.get(REMAINING_HEADER));
+            long reset = config.isRelative()
+                    ? now + parseDouble(headers.get(RESET_AFTER_HEADER))
+                    : parseDouble(headers.get(RESET_HEADER));
+
+            bucket.setRateLimit(remaining, reset);
+            log.trace("Updated bucket {} to ({}/{}, {})", bucket.bucketId, remaining, limitHeader, reset - now);
+        } catch (Exception e) {
+            log.error(
+                    "Encountered Exception while updating a bucket. Route: {} Bucket: {} Code: {} Headers:\n{}",
+                    route.getBaseRoute(),
+                    bucket,
+                    response.code(),
+                    response.headers(),
+                    e);
+        }
+    }
+
+    private void logCreationStack(Bucket bucket) {
+        // Log the stack trace of the first pending request to help identify the source
+        Work firstPending = bucket.getRequests().peek();
+        if (firstPending != null) {
+            log.error("Stack trace of a pending request in this bucket:", firstPending.getCreationStack());
+        }
+    }
+
+    protected abstract class Bucket implements Runnable {
+        protected final String bucketId;
+        protected final boolean interaction;
+        protected final Deque<Work> requests = new ConcurrentLinkedDeque<>();
+
+        protected volatile long reset = 0;
+        protected volatile int remaining = 1;
+
+        protected Bucket(@Nonnull String bucketId, boolean interaction) {
+            this.bucketId = bucketId;
+            this.interaction = interaction;
+        }
+
+        public boolean isUninit() {
+            return bucketId.startsWith(UNINIT_BUCKET);
+        }
+
+        public void enqueue(@Nonnull Work request) {
+            requests.addLast(request);
+        }
+
+        public void retry(@Nonnull Work request) {
+            if (!moveRequest(request)) {
+                requests.addFirst(request);
+            }
+        }
+
+        public long getReset() {
+            return reset;
+        }
+
+        public int getRemaining() {
+            return remaining;
+        }
+
+        public long getGlobalRateLimit(long now) {
+            GlobalRateLimit holder = config.getGlobalRateLimit();
+            if (interaction) {
+                // Only cloudflare bans apply to interactions
+                return holder.getCloudflare() - now;
+            }
+            long global = Math.max(holder.getClassic(), holder.getCloudflare());
+            return global - now;
+        }
+
+        public long getRateLimit() {
+            long now = getNow();
+
+            long global = getGlobalRateLimit(now);
+
+            // Check if the bucket reset time has expired
+            if (reset <= now) {
+                // Update the remaining uses to the limit (we don't know better)
+                remaining = 1;
+            }
+
+            // If there are remaining requests we don't need to do anything,
+            // otherwise return backoff in milliseconds
+            return Math.max(global, remaining < 1 ? reset - now : 0L);
+        }
+
+        protected void setRateLimit(int remaining, long reset) {
+            this.remaining = remaining;
+            this.reset = reset;
+        }
+
+        protected boolean isGlobalRateLimit() {
+            return getGlobalRateLimit(getNow()) > 0;
+        }
+
+        @Nonnull
+        public Queue<Work> getRequests() {
+            return requests;
+        }
+
+        // Moves the request to the bucket of its route, returns false if this is already the correct bucket
+        protected abstract boolean moveRequest(@Nonnull Work request);
+
+        // Called once the worker stops, either because the queue is empty or because of a rate limit
+        protected abstract void backoff();
+
+        protected boolean execute(@Nonnull Work request) {
+            try {
+                Response response = request.execute();
+                if (response != null) {
+                    updateBucket(request.getRoute(), response);
+                }
+                if (!request.isDone()) {
+                    retry(request);
+                }
+            } catch (Throwable ex) {
+                log.error("Encountered exception trying to execute request", ex);
+                if (ex instanceof Error) {
+                    throw (Error) ex;
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void run() {
+            log.trace("Bucket {} is running {} requests", bucketId, requests.size());
+            while (!requests.isEmpty()) {
+                long rateLimit = getRateLimit();
+                if (rateLimit > 0L) {
+                    // We need to backoff since we ran out of remaining uses
+                    // or hit the global rate limit
+                    Work request = requests.peekFirst(); // this *should* not be null
+                    String baseRoute =
+                            request != null ? request.getRoute().getBaseRoute().toString() : "N/A";
+                    if (!isGlobalRateLimit() && rateLimit >= 1000 * 60 * 30) { // 30 minutes
+                        log.warn(
+                                "Encountered long {} minutes Rate-Limit on route {}",
+                                TimeUnit.MILLISECONDS.toMinutes(rateLimit),
+                                baseRoute);
+                    }
+                    log.debug("Backing off {} ms for bucket {} on route {}", rateLimit, bucketId, baseRoute);
+                    break;
+                }
+
+                Work request = requests.pollFirst();
+                if (request == null) {
+                    break;
+                }
+                if (request.isSkipped()) {
+                    continue;
+                }
+
+                if (isUninit() && moveRequest(request)) {
+                    continue;
+                }
+
+                if (execute(request)) {
+                    break;
+                }
+            }
+
+            backoff();
+        }
+
+        @Override
+        public String toString() {
+            return bucketId;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.requests;
+
+import net.dv8tion.jda.api.utils.MiscUtil;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Alternative {@link RestRateLimiter} which tracks its buckets in concurrent maps and synchronizes on each bucket separately.
+ *
+ * <p>The buckets are determined in the same way as with the {@link SequentialRestRateLimiter},
+ * and requests of the same bucket are still executed in sequence.
+ * The difference is that enqueuing a request and updating a bucket with the response only locks the affected bucket,
+ * instead of a single lock shared by all buckets. This reduces contention with many active buckets,
+ * for instance when assigning roles to many members or executing many webhooks at once.
+ *
+ * <p>Global and cloudflare rate limits are handled the same way, through {@link RateLimitConfig#getGlobalRateLimit()}.
+ *
+ * <p>Use {@link RestConfig#setRateLimiterFactory(java.util.function.Function) RestConfig.setRateLimiterFactory(ConcurrentRestRateLimiter::new)} to enable this implementation.
+ *
+ * @see SequentialRestRateLimiter
+ */
+public final class ConcurrentRestRateLimiter extends AbstractRestRateLimiter {
+    // Only used for stop and shutdown, which are rare
+    private final ReentrantLock stateLock = new ReentrantLock();
+    // Hash + Major Parameter -> Bucket
+    private final ConcurrentMap<String, ConcurrentBucket> buckets = new ConcurrentHashMap<>();
+
+    public ConcurrentRestRateLimiter(@Nonnull RateLimitConfig config) {
+        super(config);
+    }
+
+    @Override
+    public void enqueue(@Nonnull RestRateLimiter.Work task) {
+        // Retry if the bucket was removed by the cleanup worker in the meantime
+        while (true) {
+            ConcurrentBucket bucket = getBucket(task.getRoute());
+            boolean enqueued = MiscUtil.locked(bucket.lock, () -> {
+                if (bucket.removed) {
+                    return false;
+                }
+                bucket.enqueue(task);
+                runBucket(bucket);
+                return true;
+            });
+            if (enqueued) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void stop(boolean shutdown, @Nonnull Runnable callback) {
+        MiscUtil.locked(stateLock, () -> {
+            boolean doShutdown = shutdown;
+            if (!isStopped) {
+                isStopped = true;
+                shutdownHandle.thenRun(callback);
+                if (!doShutdown) {
+                    int count = getPendingCount();
+                    if (count > 0) {
+                        log.info("Waiting for {} requests to finish.", count);
+                    }
+                    doShutdown = count == 0;
+                }
+            }
+            if (doShutdown && !isShutdown) {
+                shutdown();
+            }
+        });
+    }
+
+    private void shutdown() {
+        MiscUtil.locked(stateLock, () -> {
+            if (isShutdown) {
+                return;
+            }
+            isShutdown = true;
+            cleanupWorker.cancel(false);
+            cleanup();
+            shutdownHandle.complete(null);
+        });
+    }
+
+    @Override
+    protected void cleanup() {
+        // This will remove buckets that are no longer needed every 30 seconds
+        // to avoid memory leakage
+        // We will keep the hashes in memory since they are very limited
+        // (by the amount of possible routes)
+        int removed = 0;
+        for (ConcurrentBucket bucket : buckets.values()) {
+            if (MiscUtil.locked(bucket.lock, bucket::tryRemove)) {
+                removed++;
+            }
+        }
+
+        // Log how many buckets were removed
+        if (removed > 0) {
+            log.debug("Removed {} expired buckets", removed);
+        } else if (isStopped && !isShutdown) {
+            shutdown();
+        }
+    }
+
+    @Nonnull
+    @Override
+    protected ConcurrentBucket getBucket(@Nonnull Route.CompiledRoute route) {
+        // Get or create a bucket for the hash + major parameters
+        String bucketId = getBucketId(route);
+        ConcurrentBucket bucket = buckets.get(bucketId);
+        if (bucket != null) {
+            return bucket;
+        }
+        return buckets.computeIfAbsent(
+                bucketId, (id) -> new ConcurrentBucket(id, route.getBaseRoute().isInteractionBucket()));
+    }
+
+    @Nonnull
+    @Override
+    protected Collection<ConcurrentBucket> getBuckets() {
+        return buckets.values();
+    }
+
+    // Has to be called while holding the lock of the bucket
+    private void runBucket(ConcurrentBucket bucket) {
+        if (isShutdown) {
+            return;
+        }
+        // Schedule a new bucket worker if no worker is running
+        if (bucket.worker == null) {
+            bucket.worker = config.getScheduler()
+                    .schedule(() -> scheduleElastic(bucket), bucket.getRateLimit(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private class ConcurrentBucket extends Bucket {
+        // Guards the worker, the rate limit state, and the removal of this bucket
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Future<?> worker;
+        private boolean removed;
+
+        private ConcurrentBucket(@Nonnull String bucketId, boolean interaction) {
+            super(bucketId, interaction);
+        }
+
+        @Override
+        public long getRateLimit() {
+            return MiscUtil.locked(lock, super::getRateLimit);
+        }
+
+        @Override
+        protected void setRateLimit(int remaining, long reset) {
+            MiscUtil.locked(lock, () -> super.setRateLimit(remaining, reset));
+        }
+
+        // Has to be called while holding the lock
+        private boolean tryRemove() {
+            if (isShutdown) {
+                requests.forEach(Work::cancel); // Cancel all requests
+            }
+            requests.removeIf(Work::isSkipped); // Remove cancelled requests
+
+            // Check if the bucket is empty
+            if (!requests.isEmpty() || worker != null) {
+                return false;
+            }
+
+            // remove uninit if requests are empty
+            // If the requests of the bucket are drained and the reset is expired the bucket has no valuable information
+            // Remove empty buckets when the rate limiter is stopped
+            if (isUninit() || reset <= getNow() || isStopped) {
+                removed = true;
+                buckets.remove(bucketId, this);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected void backoff() {
+            // Schedule backoff if requests are not done
+            MiscUtil.locked(lock, () -> {
+                worker = null;
+                if (!requests.isEmpty()) {
+                    runBucket(this);
+                } else if (isStopped) {
+                    removed = true;
+                    buckets.remove(bucketId, this);
+                }
+            });
+            if (isStopped && buckets.isEmpty()) {
+                shutdown();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("ReferenceEquality")
+        protected boolean moveRequest(@Nonnull Work request) {
+            // Attempt moving request to correct bucket if it has been created
+            Bucket bucket = getBucket(request.getRoute());
+            if (bucket == this) {
+                return false;
+            }
+            ConcurrentRestRateLimiter.this.enqueue(request);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.requests;
+
+import net.dv8tion.jda.api.utils.MiscUtil;
+import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.EntityString;
+import okhttp3.ResponseBody;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Size-bounded {@link RestResponseCache} with a configurable time-to-live per {@link Route}.
+ *
+ * <p>Only routes with a {@link #setTimeToLive(Route, Duration) configured time-to-live} are cached.
+ * When the cache is full, the least recently used response is evicted.
+ *
+ * <p>Use {@link #createDefault()} to cache members, users, messages, application commands, and pinned messages
+ * for {@link #DEFAULT_TIME_TO_LIVE 5 seconds}.
+ *
+ * <p><b>Example</b>
+ * {@snippet lang="java":
+ * DefaultRestResponseCache cache = DefaultRestResponseCache.createDefault()
+ *     .setTimeToLive(Route.Guilds.GET_MEMBER, Duration.ofSeconds(30));
+ * JDABuilder.createDefault(token)
+ *     .setRestConfig(new RestConfig().setResponseCache(cache))
+ *     .build();
+ * // later
+ * System.out.printf("Served %.1f%% of requests from cache%n", cache.getHitRate() * 100);
+ * }
+ */
+public class DefaultRestResponseCache implements RestResponseCache {
+    /**
+     * The default maximum number of cached responses used by {@link #createDefault()}.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    /**
+     * The default time-to-live used by {@link #createDefault()}.
+     */
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofSeconds(5);
+
+    private final int maxSize;
+    private final ConcurrentMap<Route, Long> timeToLive = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock, maps the compiled route to the entry
+    private final LinkedHashMap<String, CachedResponse> entries;
+    // Guarded by lock, maps the path without query to the keys of all entries on that path
+    private final Map<String, Set<String>> keysByPath = new HashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates an empty cache without any cached routes.
+     *
+     * @param  maxSize
+     *         The maximum number of cached responses
+     *
+     * @throws IllegalArgumentException
+     *         If the size is not positive
+     */
+    public DefaultRestResponseCache(int maxSize) {
+        Checks.positive(maxSize, "Max size");
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                if (size() <= DefaultRestResponseCache.this.maxSize) {
+                    return false;
+                }
+                unindex(eldest.getKey(), eldest.getValue().path);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Creates a cache of {@value #DEFAULT_MAX_SIZE} responses,
+     * which caches the following routes for {@link #DEFAULT_TIME_TO_LIVE 5 seconds}:
+     * <ul>
+     *     <li>{@link Route.Guilds#GET_MEMBER}</li>
+     *     <li>{@link Route.Users#GET_USER}</li>
+     *     <li>{@link Route.Messages#GET_MESSAGE}</li>
+     *     <li>{@link Route.Messages#GET_MESSAGE_PINS}</li>
+     *     <li>{@link Route.Interactions#GET_COMMANDS} and {@link Route.Interactions#GET_COMMAND}</li>
+     *     <li>{@link Route.Interactions#GET_GUILD_COMMANDS} and {@link Route.Interactions#GET_GUILD_COMMAND}</li>
+     * </ul>
+     *
+     * @return The new cache
+     */
+    @Nonnull
+    public static DefaultRestResponseCache createDefault() {
+        return new DefaultRestResponseCache(DEFAULT_MAX_SIZE)
+                .setTimeToLive(Route.Guilds.GET_MEMBER, DEFAULT_TIME_TO_LIVE)
+                .setTimeToLive(Route.Users.GET_USER, DEFAULT_TIME_TO_LIVE)
+                .setTimeToLive(Route.Messages.GET_MESSAGE, DEFAULT_TIME_TO_LIVE)
+                .setTimeToLive(Route.Messages.GET_MESSAGE_PINS, DEFAULT_TIME_TO_LIVE)
+                .setTimeToLive(Route.Interactions.GET_COMMANDS, DEFAULT_TIME_TO_LIVE)
+                .setTimeToLive(Route.Interactions.GET_COMMAND, DEFAULT_TIME_TO_LIVE)
+                .setTimeToLive(Route.Interactions.GET_GUILD_COMMANDS, DEFAULT_TIME_TO_LIVE)
+                .setTimeToLive(Route.Interactions.GET_GUILD_COMMAND, DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * Configures how long responses for the provided route are cached.
+     *
+     * @param  route
+     *         The {@link Method#GET GET} route
+     * @param  timeToLive
+     *         The time-to-live, or {@link Duration#ZERO} to stop caching this route
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided, the route is not a GET route, or the duration is negative
+     *
+     * @return The current cache for chaining convenience
+     */
+    @Nonnull
+    public DefaultRestResponseCache setTimeToLive(@Nonnull Route route, @Nonnull Duration timeToLive) {
+        Checks.notNull(route, "Route");
+        Checks.notNull(timeToLive, "Time-to-live");
+        Checks.check(route.getMethod() == Method.GET, "Only GET routes can be cached");
+        Checks.check(!timeToLive.isNegative(), "Time-to-live must not be negative");
+        if (timeToLive.isZero()) {
+            this.timeToLive.remove(route);
+        } else {
+            this.timeToLive.put(route, timeToLive.toNanos());
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isCacheable(@Nonnull Route.CompiledRoute route) {
+        return timeToLive.containsKey(route.getBaseRoute());
+    }
+
+    @Nullable
+    @Override
+    public okhttp3.Response get(@Nonnull Route.CompiledRoute route) {
+        String key = route.getCompiledRoute();
+        long now = System.nanoTime();
+        CachedResponse entry = MiscUtil.locked(lock, () -> {
+            CachedResponse current = entries.get(key);
+            return current != null && current.isValid(now) ? current : null;
+        });
+
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return entry.response
+                .newBuilder()
+                .body(ResponseBody.create(entry.body, entry.response.body().contentType()))
+                .build();
+    }
+
+    @Nonnull
+    @Override
+    public Object reserve(@Nonnull Route.CompiledRoute route) {
+        String key = route.getCompiledRoute();
+        // Remember the pending request, so that invalidations while it is in flight can discard its response
+        CachedResponse pending = new CachedResponse(getPath(key));
+        MiscUtil.locked(lock, () -> {
+            CachedResponse current = entries.put(key, pending);
+            if (current != null) {
+                unindex(key, current.path);
+            }
+            keysByPath.computeIfAbsent(pending.path, k -> new HashSet<>()).add(key);
+        });
+        return pending;
+    }
+
+    @Override
+    public void put(
+            @Nonnull Route.CompiledRoute route,
+            @Nonnull Object token,
+            @Nonnull okhttp3.Response response,
+            @Nonnull byte[] body) {
+        Long ttl = timeToLive.get(route.getBaseRoute());
+        if (ttl == null) {
+            release(route, token);
+            return;
+        }
+
+        String key = route.getCompiledRoute();
+        // Keep the headers and content type, but not the consumed body
+        okhttp3.Response stored = response.newBuilder()
+                .body(ResponseBody.create(new byte[0], response.body().contentType()))
+                .build();
+        MiscUtil.locked(lock, () -> {
+            CachedResponse current = entries.get(key);
+            // The entry was evicted, invalidated, or reserved by a newer request in the meantime
+            if (current != token) {
+                return;
+            }
+            current.response = stored;
+            current.body = body;
+            current.expiresAt = System.nanoTime() + ttl;
+        });
+    }
+
+    @Override
+    public void release(@Nonnull Route.CompiledRoute route, @Nonnull Object token) {
+        String key = route.getCompiledRoute();
+        MiscUtil.locked(lock, () -> {
+            // Only remove the entry if it is still pending for this request
+            if (entries.get(key) == token) {
+                entries.remove(key);
+                unindex(key, ((CachedResponse) token).path);
+            }
+        });
+    }
+
+    @Override
+    public void invalidate(@Nonnull Route.CompiledRoute route) {
+        String path = getPath(route.getCompiledRoute());
+        MiscUtil.locked(lock, () -> {
+            // Invalidate the path itself and all parents, e.g. channels/1/messages/pins for channels/1/messages/pins/2
+            String current = path;
+            while (true) {
+                Set<String> keys = keysByPath.remove(current);
+                if (keys != null) {
+                    keys.forEach(entries::remove);
+                }
+
+                int end = current.lastIndexOf('/');
+                if (end < 0) {
+                    break;
+                }
+                current = current.substring(0, end);
+            }
+        });
+    }
+
+    @Override
+    public void clear() {
+        MiscUtil.locked(lock, () -> {
+            entries.clear();
+            keysByPath.clear();
+        });
+    }
+
+    /**
+     * The number of requests which were served from the cache.
+     *
+     * @return The number of cache hits
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * The number of requests for cacheable routes which had to be sent.
+     *
+     * @return The number of cache misses
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * The ratio of cache hits to all requests for cacheable routes.
+     *
+     * @return The hit rate between 0 and 1, or 0 if no cacheable requests were made yet
+     */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Resets the hit and miss counters.
+     */
+    public void resetMetrics() {
+        hits.set(0);
+        misses.set(0);
+    }
+
+    /**
+     * The number of currently cached responses, including requests which are still in flight.
+     *
+     * @return The cache size
+     */
+    public int size() {
+        return MiscUtil.locked(lock, entries::size);
+    }
+
+    @Override
+    public String toString() {
+        return new EntityString(this)
+                .addMetadata("size", size())
+                .addMetadata("hits", getHitCount())
+                .addMetadata("misses", getMissCount())
+                .toString();
+    }
+
+    private void unindex(String key, String path) {
+        Set<String> keys = keysByPath.get(path);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            keysByPath.remove(path);
+        }
+    }
+
+    private static String getPath(String compiledRoute) {
+        int query = compiledRoute.indexOf('?');
+        return query < 0 ? compiledRoute : compiledRoute.substring(0, query);
+    }
+
+    private static class CachedResponse {
+        private final String path;
+        private okhttp3.Response response;
+        private byte[] body;
+        private long expiresAt;
+
+        private CachedResponse(String path) {
+            this.path = path;
+        }
+
+        private boolean isValid(long now) {
+            return response != null && now - expiresAt < 0;
+        }
+    }
+}
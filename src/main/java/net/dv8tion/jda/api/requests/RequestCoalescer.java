@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.requests;
+
+import net.dv8tion.jda.internal.utils.EntityString;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Opt-in deduplication of identical in-flight {@link Method#GET GET} requests.
+ *
+ * <p>When enabled through {@link RestConfig#setRequestCoalescer(RequestCoalescer)}, a queued GET request
+ * is attached to an already pending request with the same {@link Route.CompiledRoute compiled route},
+ * including its query parameters, instead of being sent on its own.
+ * Once the pending request completes, its response is handed to every attached request.
+ * This saves rate-limit budget when many listeners retrieve the same entity at once,
+ * for instance with {@link net.dv8tion.jda.api.entities.Guild#retrieveMemberById(long) Guild.retrieveMemberById(long)}.
+ *
+ * <p>Requests with a body or custom headers, such as an audit-log reason,
+ * and requests executed with {@link RestAction#complete()} are never coalesced.
+ *
+ * <p>The same instance can be shared by multiple shards to aggregate the metrics,
+ * requests are only coalesced within the same shard.
+ *
+ * <p><b>Example</b>
+ * {@snippet lang="java":
+ * RequestCoalescer coalescer = new RequestCoalescer();
+ * JDABuilder.createDefault(token)
+ *     .setRestConfig(new RestConfig().setRequestCoalescer(coalescer))
+ *     .build();
+ * // later
+ * System.out.printf("Coalesced %.1f%% of GET requests%n", coalescer.getHitRate() * 100);
+ * }
+ */
+public class RequestCoalescer {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Whether the provided request is eligible for coalescing.
+     *
+     * @param  request
+     *         The request
+     *
+     * @return True, if the request can share the response of an identical request
+     */
+    public boolean isCoalescable(@Nonnull Request<?> request) {
+        return request.shouldQueue()
+                && request.getRoute().getMethod() == Method.GET
+                && request.getBody() == null
+                && (request.getHeaders() == null || request.getHeaders().isEmpty());
+    }
+
+    /**
+     * The key identifying identical requests, this combines the method with the compiled route and query.
+     *
+     * @param  route
+     *         The compiled route of the request
+     *
+     * @return The coalescing key
+     */
+    @Nonnull
+    public String getKey(@Nonnull Route.CompiledRoute route) {
+        return route.getMethod() + " " + route.getCompiledRoute();
+    }
+
+    /**
+     * Called by the requester when a request was attached to an identical in-flight request.
+     */
+    public void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    /**
+     * Called by the requester when an eligible request had to be sent on its own.
+     */
+    public void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    /**
+     * The number of requests which were attached to an identical in-flight request.
+     *
+     * @return The number of coalesced requests
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * The number of eligible requests which were sent on their own.
+     *
+     * @return The number of requests that could not be coalesced
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * The ratio of coalesced requests to all eligible requests.
+     *
+     * @return The hit rate between 0 and 1, or 0 if no eligible requests were made yet
+     */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Resets the hit and miss counters.
+     */
+    public void resetMetrics() {
+        hits.set(0);
+        misses.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return new EntityString(this)
+                .addMetadata("hits", getHitCount())
+                .addMetadata("misses", getMissCount())
+                .toString();
+    }
+}
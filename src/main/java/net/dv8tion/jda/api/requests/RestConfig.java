@@ -48,6 +48,8 @@ public class RestConfig {
     private String baseUrl = DEFAULT_BASE_URL;
     private boolean relativeRateLimit = true;
     private Consumer<? super Request.Builder> customBuilder;
+    private RequestCoalescer requestCoalescer;
+    private RestResponseCache responseCache;
     private Function<? super RestRateLimiter.RateLimitConfig, ? extends RestRateLimiter> rateLimiter =
             SequentialRestRateLimiter::new;
 
@@ -69,6 +71,7 @@ public class RestConfig {
     /**
      * Provide a custom implementation of {@link RestRateLimiter}.
      * <br>By default, this will use the {@link SequentialRestRateLimiter}.
+     * Bots with many concurrently active buckets can use the {@link ConcurrentRestRateLimiter} instead.
      *
      * @param  rateLimiter
      *         The new implementation
@@ -159,6 +162,41 @@ public class RestConfig {
         return this;
     }
 
+    /**
+     * Enables coalescing of identical in-flight GET requests.
+     * <br>Concurrent requests for the same route share a single response, see {@link RequestCoalescer} for details.
+     *
+     * <p>This is disabled by default.
+     *
+     * @param  requestCoalescer
+     *         The coalescer providing the hit-rate metrics, or null to disable
+     *
+     * @return The current RestConfig for chaining convenience
+     */
+    @Nonnull
+    public RestConfig setRequestCoalescer(@Nullable RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
+        return this;
+    }
+
+    /**
+     * Enables caching of responses for idempotent GET requests.
+     * <br>Requests for cached routes are answered from the cache without being sent,
+     * see {@link RestResponseCache} for details on invalidation.
+     *
+     * <p>This is disabled by default. Use {@link DefaultRestResponseCache#createDefault()} for a preconfigured cache.
+     *
+     * @param  responseCache
+     *         The response cache, or null to disable
+     *
+     * @return The current RestConfig for chaining convenience
+     */
+    @Nonnull
+    public RestConfig setResponseCache(@Nullable RestResponseCache responseCache) {
+        this.responseCache = responseCache;
+        return this;
+    }
+
     /**
      * The adapted user-agent with the custom {@link #setUserAgentSuffix(String) suffix}.
      *
@@ -199,6 +237,26 @@ public class RestConfig {
         return customBuilder;
     }
 
+    /**
+     * The configured request coalescer.
+     *
+     * @return The coalescer, or null if coalescing is disabled
+     */
+    @Nullable
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    /**
+     * The configured response cache.
+     *
+     * @return The response cache, or null if caching is disabled
+     */
+    @Nullable
+    public RestResponseCache getResponseCache() {
+        return responseCache;
+    }
+
     /**
      * Whether to use {@code X-RateLimit-Reset-After} to determine the rate-limit backoff.
      * <br>If this is disabled, the default {@link RestRateLimiter} will use the {@code X-RateLimit-Reset} header timestamp to compute the relative backoff.
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.requests;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Cache for responses of idempotent {@link Method#GET GET} requests, which is consulted before a request is sent.
+ *
+ * <p>Cached responses are invalidated by the requester in two cases:
+ * <ul>
+ *     <li>A successful request with another method modifies the same path or one of its children,
+ *         for instance {@link Route.Messages#EDIT_MESSAGE} invalidates {@link Route.Messages#GET_MESSAGE}</li>
+ *     <li>A gateway event reports a change to the cached entity,
+ *         for instance {@code MESSAGE_UPDATE} invalidates {@link Route.Messages#GET_MESSAGE}</li>
+ * </ul>
+ *
+ * <p>Requests with custom headers, such as an audit-log reason, are never served from the cache.
+ *
+ * <p>The default implementation is {@link DefaultRestResponseCache}.
+ * An implementation must be thread-safe and should not be shared between different bots.
+ *
+ * @see RestConfig#setResponseCache(RestResponseCache)
+ */
+public interface RestResponseCache {
+    /**
+     * Whether responses for this route should be cached.
+     *
+     * @param  route
+     *         The compiled {@link Method#GET GET} route
+     *
+     * @return True, if the response should be cached
+     */
+    boolean isCacheable(@Nonnull Route.CompiledRoute route);
+
+    /**
+     * Returns the cached response for the provided route.
+     * <br>Every call must return a new response with its own body, since the body is consumed by the caller.
+     *
+     * <p>If this returns null, the request is {@link #reserve(Route.CompiledRoute) reserved} and sent.
+     *
+     * @param  route
+     *         The compiled route
+     *
+     * @return The cached response, or null if no valid response is cached
+     */
+    @Nullable
+    okhttp3.Response get(@Nonnull Route.CompiledRoute route);
+
+    /**
+     * Called before a request for the provided route is sent.
+     * <br>Requests which are attached to an identical request in flight are not reserved.
+     *
+     * <p>The returned token identifies the request in
+     * {@link #put(Route.CompiledRoute, Object, okhttp3.Response, byte[]) put}
+     * and {@link #release(Route.CompiledRoute, Object) release}.
+     * Every request is either stored or released exactly once, possibly after the route was invalidated.
+     *
+     * @param  route
+     *         The compiled route
+     *
+     * @return The token of this request
+     */
+    @Nonnull
+    Object reserve(@Nonnull Route.CompiledRoute route);
+
+    /**
+     * Stores the successful response for the provided route.
+     * <br>Implementations should drop the response if the route was invalidated or reserved by another request
+     * while this request was in flight.
+     *
+     * @param route
+     *        The compiled route
+     * @param token
+     *        The token returned by {@link #reserve(Route.CompiledRoute)}
+     * @param response
+     *        The response, the body of this response has already been consumed
+     * @param body
+     *        The raw response body
+     */
+    void put(
+            @Nonnull Route.CompiledRoute route,
+            @Nonnull Object token,
+            @Nonnull okhttp3.Response response,
+            @Nonnull byte[] body);
+
+    /**
+     * Called instead of {@link #put(Route.CompiledRoute, Object, okhttp3.Response, byte[]) put}
+     * if the reserved request failed, was skipped, or was cancelled.
+     *
+     * @param route
+     *        The compiled route
+     * @param token
+     *        The token returned by {@link #reserve(Route.CompiledRoute)}
+     */
+    void release(@Nonnull Route.CompiledRoute route, @Nonnull Object token);
+
+    /**
+     * Invalidates all cached responses for the path of the provided route,
+     * including responses for other query parameters and for any parent path.
+     *
+     * @param route
+     *        The route of the changed entity
+     */
+    void invalidate(@Nonnull Route.CompiledRoute route);
+
+    /**
+     * Invalidates all cached responses.
+     * <br>This is called when the gateway starts a new session, because events might have been missed.
+     */
+    void clear();
+}
@@ -79,6 +79,13 @@ import javax.annotation.Nullable;
  */
 public interface PaginationAction<T, M extends PaginationAction<T, M>>
         extends RestAction<@Unmodifiable List<T>>, Iterable<T> {
+    /**
+     * The maximum number of pages that can be retrieved ahead of the consumer.
+     *
+     * @see #prefetch(int)
+     */
+    int MAX_PREFETCH = 10;
+
     /**
      * Skips past the specified ID for successive requests.
      * This will reset the {@link #getLast()} entity and cause a {@link NoSuchElementException} to be thrown
@@ -315,6 +322,44 @@ public interface PaginationAction<T, M extends PaginationAction<T, M>>
      */
     boolean isCacheEnabled();
 
+    /**
+     * The number of pages to retrieve ahead of the consumer while iterating.
+     * <b>Default: 0</b>
+     *
+     * <p>By default, the next page is only requested once all entities of the current page have been processed.
+     * With prefetching enabled, the next page is requested as soon as the current page has been received,
+     * so the round-trip of the next request overlaps with the processing of the current page.
+     * At most {@code pages} pages are retrieved ahead of the consumer.
+     *
+     * <p>This applies to {@link #iterator()}, {@link #stream()}, {@link #forEachAsync(Procedure, Consumer)},
+     * {@link #forEachRemainingAsync(Procedure, Consumer)}, and {@link #forEachRemaining(Procedure)}.
+     * Pages are still requested one after another, since every request depends on the last entity of the previous page.
+     *
+     * <p>When iteration stops early, the already retrieved pages are kept in the {@link #getCached() cache} if enabled.
+     * An {@link #iterator() iterator} that is not consumed until the end may have advanced {@link #getLastKey()} past
+     * the last entity it returned.
+     *
+     * @param  pages
+     *         The number of pages to prefetch, or 0 to disable prefetching
+     *
+     * @throws IllegalArgumentException
+     *         If the provided number is negative or greater than {@value #MAX_PREFETCH}
+     *
+     * @return The current PaginationAction implementation instance
+     */
+    @Nonnull
+    @CheckReturnValue
+    M prefetch(int pages);
+
+    /**
+     * The number of pages retrieved ahead of the consumer while iterating.
+     *
+     * @return The number of pages to prefetch, 0 if disabled
+     *
+     * @see    #prefetch(int)
+     */
+    int getPrefetch();
+
     /**
      * The maximum limit that can be used for this PaginationAction
      * <br>Limits provided to {@link #limit(int)} must not be greater
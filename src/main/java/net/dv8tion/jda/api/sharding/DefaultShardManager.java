@@ -43,6 +43,7 @@ import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
 import net.dv8tion.jda.internal.utils.config.MetaConfig;
 import net.dv8tion.jda.internal.utils.config.SessionConfig;
 import net.dv8tion.jda.internal.utils.config.ThreadingConfig;
+import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
 import net.dv8tion.jda.internal.utils.config.sharding.*;
 import okhttp3.Call;
 import okhttp3.HttpUrl;
@@ -53,6 +54,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -503,6 +505,10 @@ public class DefaultShardManager implements ShardManager {
 
         AuthorizationConfig authConfig = new AuthorizationConfig(token);
         SessionConfig sessionConfig = this.sessionConfig.toSessionConfig(httpClient);
+        IntFunction<? extends Path> cacheSnapshotProvider = this.sessionConfig.getCacheSnapshotProvider();
+        if (cacheSnapshotProvider != null) {
+            sessionConfig.setCacheSnapshotFile(cacheSnapshotProvider.apply(shardId));
+        }
         ThreadingConfig threadingConfig = new ThreadingConfig();
         threadingConfig.setRateLimitScheduler(rateLimitScheduler, shutdownRateLimitScheduler);
         threadingConfig.setRateLimitElastic(rateLimitElastic, shutdownRateLimitElastic);
@@ -510,6 +516,9 @@ public class DefaultShardManager implements ShardManager {
         threadingConfig.setCallbackPool(callbackPool, shutdownCallbackPool);
         threadingConfig.setEventPool(eventPool, shutdownEventPool);
         threadingConfig.setAudioPool(audioPool, shutdownAudioPool);
+        if (this.sessionConfig.getFlags().contains(ConfigFlag.VIRTUAL_THREADS)) {
+            threadingConfig.enableVirtualThreads();
+        }
         MetaConfig metaConfig = new MetaConfig(
                 this.metaConfig.getMaxBufferSize(),
                 this.metaConfig.getContextMap(shardId),
@@ -534,6 +543,8 @@ public class DefaultShardManager implements ShardManager {
         }
 
         jda.setShardManager(this);
+        jda.setDispatchFilter(eventConfig.getDispatchFilter());
+        jda.setGatewayMetrics(eventConfig.getGatewayMetrics());
 
         if (eventConfig.getEventManagerProvider() != null) {
             jda.setEventManager(this.eventConfig.getEventManagerProvider().apply(shardId));
@@ -28,7 +28,14 @@ public enum Compression {
     /** Don't use any compression */
     NONE(""),
     /** Use ZLIB transport compression */
-    ZLIB("zlib-stream");
+    ZLIB("zlib-stream"),
+    /**
+     * Use Zstandard transport compression.
+     *
+     * <p>This requires the optional <a href="https://github.com/luben/zstd-jni" target="_blank">zstd-jni</a> dependency.
+     * If the dependency or its native library is not available, JDA will fall back to {@link #ZLIB}.
+     */
+    ZSTD("zstd-stream");
 
     private final String key;
 
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.api.utils;
+
+import net.dv8tion.jda.internal.utils.Checks;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Filter function for gateway dispatches.
+ * <br>The filter decides based on the dispatch type, such as {@code "TYPING_START"}, whether the event should be handled.
+ * Dispatches which are rejected are discarded before their payload is decoded, and no events are fired for them.
+ *
+ * <p>Dispatches required to maintain the session are always handled,
+ * these are {@code READY}, {@code RESUMED}, {@code GUILD_CREATE}, {@code GUILD_DELETE}, {@code GUILD_MEMBERS_CHUNK},
+ * {@code VOICE_STATE_UPDATE}, and {@code VOICE_SERVER_UPDATE}.
+ *
+ * <p><b>Discarding dispatches which update cached entities, such as {@code GUILD_MEMBER_UPDATE},
+ * will cause the cache to become outdated!</b>
+ *
+ * @see   #ALL
+ * @see   net.dv8tion.jda.api.JDABuilder#setDispatchFilter(DispatchFilter) JDABuilder.setDispatchFilter(DispatchFilter)
+ * @see   net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder#setDispatchFilter(DispatchFilter) DefaultShardManagerBuilder.setDispatchFilter(DispatchFilter)
+ * @see   <a href="https://discord.com/developers/docs/events/gateway-events#receive-events" target="_blank">List of Dispatch Types</a>
+ */
+@FunctionalInterface
+public interface DispatchFilter {
+    /** Handle all dispatches */
+    DispatchFilter ALL = (x) -> true;
+
+    /**
+     * Decide whether dispatches of the specified type should be handled.
+     *
+     * @param  type
+     *         The dispatch type
+     *
+     * @return True, if dispatches of this type should be handled
+     */
+    boolean filter(@Nonnull String type);
+
+    /**
+     * Factory method to discard a blacklist of dispatch types.
+     * <br>All types that are not mentioned will be handled.
+     *
+     * <p>This is useful to discard high-volume dispatches you don't use, like {@code TYPING_START}.
+     *
+     * @param  types
+     *         The dispatch types that should be discarded
+     *
+     * @return The resulting filter
+     */
+    @Nonnull
+    static DispatchFilter exclude(@Nonnull String... types) {
+        Checks.noneNull(types, "Types");
+        if (types.length == 0) {
+            return ALL;
+        }
+        Set<String> excluded = new HashSet<>(Arrays.asList(types));
+        return (type) -> !excluded.contains(type);
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils;
+
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.exceptions.InsufficientPermissionException;
+import net.dv8tion.jda.api.requests.Route;
+import net.dv8tion.jda.api.requests.restaction.pagination.PaginationAction.PaginationOrder;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.internal.requests.RestActionImpl;
+import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.EntityString;
+import net.dv8tion.jda.internal.utils.IOUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Exports the message history of a {@link MessageChannel} as <a href="https://jsonlines.org/" target="_blank">JSON Lines</a>.
+ *
+ * <p>Unlike {@link net.dv8tion.jda.api.entities.MessageHistory MessageHistory} or
+ * {@link MessageChannel#getIterableHistory()}, this does not create or retain any {@link net.dv8tion.jda.api.entities.Message Message} instances.
+ * Each page is requested from Discord, written as one raw message object per line, and then discarded.
+ * Only a single page of at most {@value #PAGE_SIZE} messages is held in memory at a time, regardless of the size of the channel.
+ *
+ * <p>After every written page, the {@link #getCheckpoint() checkpoint} is updated to the id of the last exported message.
+ * This id can be persisted with {@link #onCheckpoint(LongConsumer)} and used to {@link #setCheckpoint(long) resume} an interrupted export later on.
+ *
+ * <p>The pages are written from the callback threads of JDA, as configured by {@link net.dv8tion.jda.api.JDABuilder#setCallbackPool(java.util.concurrent.ExecutorService)}.
+ *
+ * <p><b>Example</b>
+ * {@snippet lang="java":
+ * MessageHistoryExporter exporter = new MessageHistoryExporter(channel)
+ *     .setCheckpoint(loadCheckpoint())     // 0 if this is a new export
+ *     .onCheckpoint(id -> saveCheckpoint(id));
+ * exporter.exportTo(Paths.get("history.jsonl"))
+ *     .thenAccept(count -> System.out.printf("Exported %d messages%n", count));
+ * }
+ */
+public class MessageHistoryExporter {
+    /**
+     * The maximum number of messages requested per page.
+     */
+    public static final int PAGE_SIZE = 100;
+
+    private static final byte LINE_SEPARATOR = '\n';
+
+    private final MessageChannel channel;
+    private final AtomicLong exported = new AtomicLong();
+
+    private PaginationOrder order = PaginationOrder.BACKWARD;
+    private LongConsumer checkpointCallback;
+    private volatile long checkpoint;
+
+    /**
+     * Creates a new exporter for the provided channel.
+     *
+     * @param  channel
+     *         The channel to export
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     * @throws net.dv8tion.jda.api.exceptions.MissingAccessException
+     *         If the currently logged in account cannot access the channel
+     * @throws InsufficientPermissionException
+     *         If the currently logged in account does not have {@link Permission#MESSAGE_HISTORY Permission.MESSAGE_HISTORY}
+     */
+    public MessageHistoryExporter(@Nonnull MessageChannel channel) {
+        Checks.notNull(channel, "Channel");
+        if (channel instanceof GuildChannel) {
+            GuildChannel guildChannel = (GuildChannel) channel;
+            Member selfMember = guildChannel.getGuild().getSelfMember();
+            Checks.checkAccess(selfMember, guildChannel);
+            if (!selfMember.hasPermission(guildChannel, Permission.MESSAGE_HISTORY)) {
+                throw new InsufficientPermissionException(guildChannel, Permission.MESSAGE_HISTORY);
+            }
+        }
+        this.channel = channel;
+    }
+
+    /**
+     * The channel which is exported.
+     *
+     * @return The channel
+     */
+    @Nonnull
+    public MessageChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * The order in which messages are exported.
+     * <br>{@link PaginationOrder#BACKWARD BACKWARD} starts with the most recent message, {@link PaginationOrder#FORWARD FORWARD} starts with the oldest message.
+     * <b>Default: {@link PaginationOrder#BACKWARD BACKWARD}</b>
+     *
+     * @param  order
+     *         The order
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     *
+     * @return The current MessageHistoryExporter for chaining convenience
+     */
+    @Nonnull
+    public MessageHistoryExporter setOrder(@Nonnull PaginationOrder order) {
+        Checks.notNull(order, "Order");
+        this.order = order;
+        return this;
+    }
+
+    /**
+     * The order in which messages are exported.
+     *
+     * @return The order
+     */
+    @Nonnull
+    public PaginationOrder getOrder() {
+        return order;
+    }
+
+    /**
+     * Resumes the export after the provided message id.
+     * <br>In {@link PaginationOrder#BACKWARD BACKWARD} order, only messages older than this message are exported.
+     * In {@link PaginationOrder#FORWARD FORWARD} order, only messages newer than this message are exported.
+     *
+     * @param  messageId
+     *         The id of the last exported message, or 0 to start from the beginning
+     *
+     * @return The current MessageHistoryExporter for chaining convenience
+     */
+    @Nonnull
+    public MessageHistoryExporter setCheckpoint(long messageId) {
+        this.checkpoint = messageId;
+        return this;
+    }
+
+    /**
+     * Resumes the export after the provided message id.
+     *
+     * @param  messageId
+     *         The id of the last exported message
+     *
+     * @throws IllegalArgumentException
+     *         If the provided id is not a valid snowflake
+     *
+     * @return The current MessageHistoryExporter for chaining convenience
+     *
+     * @see    #setCheckpoint(long)
+     */
+    @Nonnull
+    public MessageHistoryExporter setCheckpoint(@Nonnull String messageId) {
+        return setCheckpoint(MiscUtil.parseSnowflake(messageId));
+    }
+
+    /**
+     * The id of the last exported message.
+     * <br>This is updated after each page has been written.
+     *
+     * @return The checkpoint, or 0 if nothing has been exported yet
+     */
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Callback which is invoked with the new {@link #getCheckpoint() checkpoint} after each page has been written.
+     * <br>Use this to persist the progress of the export.
+     *
+     * @param  callback
+     *         The callback, or null to remove the callback
+     *
+     * @return The current MessageHistoryExporter for chaining convenience
+     */
+    @Nonnull
+    public MessageHistoryExporter onCheckpoint(@Nullable LongConsumer callback) {
+        this.checkpointCallback = callback;
+        return this;
+    }
+
+    /**
+     * The number of messages written by the current, or most recent, export.
+     *
+     * @return The number of exported messages
+     */
+    public long getExportedCount() {
+        return exported.get();
+    }
+
+    /**
+     * Exports the remaining history to the provided channel.
+     * <br>The channel is not closed by this method.
+     *
+     * <p>The returned future can be cancelled to stop the export after the current page.
+     *
+     * @param  out
+     *         The channel to write to
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided or the channel is closed
+     *
+     * @return {@link CompletableFuture} which completes with the number of exported messages
+     */
+    @Nonnull
+    @CheckReturnValue
+    public CompletableFuture<Long> exportTo(@Nonnull WritableByteChannel out) {
+        Checks.notNull(out, "Channel");
+        Checks.check(out.isOpen(), "Channel must be open");
+
+        CompletableFuture<Long> task = new CompletableFuture<>();
+        exported.set(0);
+        requestPage(out, task);
+        return task;
+    }
+
+    /**
+     * Exports the remaining history to the provided file.
+     * <br>The file is created if it does not exist, otherwise the messages are appended to the end of the file.
+     * The file is closed once the export is done.
+     *
+     * @param  path
+     *         The path of the file
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     * @throws UncheckedIOException
+     *         If the file cannot be opened
+     *
+     * @return {@link CompletableFuture} which completes with the number of exported messages
+     *
+     * @see    #exportTo(WritableByteChannel)
+     */
+    @Nonnull
+    @CheckReturnValue
+    public CompletableFuture<Long> exportTo(@Nonnull Path path) {
+        Checks.notNull(path, "Path");
+        FileChannel file;
+        try {
+            file = FileChannel.open(
+                    path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        CompletableFuture<Long> task = exportTo(file);
+        task.whenComplete((count, error) -> IOUtil.silentClose(file));
+        return task;
+    }
+
+    @Override
+    public String toString() {
+        return new EntityString(this)
+                .setType(order)
+                .addMetadata("channel", channel.getId())
+                .addMetadata("checkpoint", Long.toUnsignedString(checkpoint))
+                .toString();
+    }
+
+    private void requestPage(WritableByteChannel out, CompletableFuture<Long> task) {
+        if (task.isDone()) {
+            return;
+        }
+
+        PaginationOrder order = this.order;
+        long anchor = checkpoint;
+        Route.CompiledRoute route = Route.Messages.GET_MESSAGE_HISTORY
+                .compile(channel.getId())
+                .withQueryParams("limit", Integer.toString(PAGE_SIZE));
+        if (anchor != 0 || order == PaginationOrder.FORWARD) {
+            route = route.withQueryParams(order.getKey(), Long.toUnsignedString(anchor));
+        }
+
+        new RestActionImpl<DataArray>(channel.getJDA(), route, (response, request) -> response.getArray())
+                .queue(
+                        page -> {
+                            try {
+                                if (page.isEmpty()) {
+                                    task.complete(exported.get());
+                                    return;
+                                }
+                                writePage(out, page, order);
+                                requestPage(out, task);
+                            } catch (Throwable error) {
+                                task.completeExceptionally(error);
+                            }
+                        },
+                        task::completeExceptionally);
+    }
+
+    private void writePage(WritableByteChannel out, DataArray page, PaginationOrder order) throws IOException {
+        int length = page.length();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        // Discord always returns the most recent message first
+        for (int i = 0; i < length; i++) {
+            int index = order == PaginationOrder.FORWARD ? length - 1 - i : i;
+            buffer.write(page.getObject(index).toJson());
+            buffer.write(LINE_SEPARATOR);
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+
+        int lastIndex = order == PaginationOrder.FORWARD ? 0 : length - 1;
+        checkpoint = page.getObject(lastIndex).getUnsignedLong("id");
+        exported.addAndGet(length);
+
+        LongConsumer callback = checkpointCallback;
+        if (callback != null) {
+            callback.accept(checkpoint);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils.concurrent;
+
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.UserSnowflake;
+import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.EntityString;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Job which applies a large number of role {@link Mutation mutations} to the members of a guild.
+ *
+ * <p>Instead of queueing a request for every mutation at once, the job only keeps up to
+ * {@link #setMaxPending(int) a bounded number} of requests pending at any time.
+ * Whenever a request completes, the next mutation is taken from the source.
+ * This keeps the rate-limit bucket of the guild busy, without holding all requests in memory.
+ *
+ * <p>A job has to be {@link #start() started} explicitly, and can be {@link #pause() paused},
+ * {@link #resume() resumed}, or {@link #cancel() cancelled} at any time.
+ * Failed mutations do not stop the job, they are reported to {@link #onFailure(BiConsumer)} instead.
+ *
+ * <p><b>Example</b>
+ * {@snippet lang="java":
+ * Stream<BulkRoleJob.Mutation> mutations = userIds.stream()
+ *     .map(id -> BulkRoleJob.Mutation.add(User.fromId(id), role));
+ * guild.modifyMemberRolesInBulk(mutations)
+ *     .setReason("Event participants")
+ *     .onFailure((mutation, error) -> System.err.println("Failed to update " + mutation.getUser() + ": " + error))
+ *     .start()
+ *     .getFuture()
+ *     .thenRun(() -> System.out.println("Done!"));
+ * }
+ *
+ * @see net.dv8tion.jda.api.entities.Guild#modifyMemberRolesInBulk(java.util.stream.Stream)
+ */
+public interface BulkRoleJob {
+    /**
+     * The default maximum number of pending requests.
+     */
+    int DEFAULT_MAX_PENDING = 10;
+
+    /**
+     * The maximum number of requests which are pending at the same time.
+     * <br>Higher values do not increase the rate of requests beyond the rate-limit of the guild.
+     *
+     * @param  maxPending
+     *         The maximum number of pending requests, defaults to {@value #DEFAULT_MAX_PENDING}
+     *
+     * @throws IllegalArgumentException
+     *         If the number is not positive
+     * @throws IllegalStateException
+     *         If the job has already been started
+     *
+     * @return The current BulkRoleJob for chaining convenience
+     */
+    @Nonnull
+    BulkRoleJob setMaxPending(int maxPending);
+
+    /**
+     * The audit-log reason used for all requests of this job.
+     *
+     * @param  reason
+     *         The reason, or null to use no reason
+     *
+     * @throws IllegalStateException
+     *         If the job has already been started
+     *
+     * @return The current BulkRoleJob for chaining convenience
+     */
+    @Nonnull
+    BulkRoleJob setReason(@Nullable String reason);
+
+    /**
+     * Callback which is invoked for every mutation that failed.
+     * <br>This can also be an exception thrown while validating the mutation, such as a {@link net.dv8tion.jda.api.exceptions.HierarchyException}.
+     *
+     * @param  callback
+     *         The failure callback
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     * @throws IllegalStateException
+     *         If the job has already been started
+     *
+     * @return The current BulkRoleJob for chaining convenience
+     */
+    @Nonnull
+    BulkRoleJob onFailure(@Nonnull BiConsumer<? super Mutation, ? super Throwable> callback);
+
+    /**
+     * Callback which is invoked after every completed mutation, regardless of whether it failed.
+     * <br>This can be used to report the progress with {@link #getSucceededCount()} and {@link #getFailedCount()}.
+     *
+     * @param  callback
+     *         The progress callback
+     *
+     * @throws IllegalArgumentException
+     *         If null is provided
+     * @throws IllegalStateException
+     *         If the job has already been started
+     *
+     * @return The current BulkRoleJob for chaining convenience
+     */
+    @Nonnull
+    BulkRoleJob onProgress(@Nonnull Consumer<? super BulkRoleJob> callback);
+
+    /**
+     * Starts this job.
+     *
+     * @throws IllegalStateException
+     *         If the job has already been started
+     *
+     * @return The current BulkRoleJob for chaining convenience
+     */
+    @Nonnull
+    BulkRoleJob start();
+
+    /**
+     * Pauses this job.
+     * <br>Requests which are already pending still complete, but no further mutations are sent until {@link #resume()} is called.
+     */
+    void pause();
+
+    /**
+     * Resumes this job after it was {@link #pause() paused}.
+     */
+    void resume();
+
+    /**
+     * Cancels this job.
+     * <br>Requests which are still pending are cancelled, and no further mutations are sent.
+     * The {@link #getFuture() future} is cancelled immediately, and the callbacks are no longer invoked.
+     */
+    void cancel();
+
+    /**
+     * Whether this job has been started.
+     *
+     * @return True, if this job was started
+     */
+    boolean isStarted();
+
+    /**
+     * Whether this job is currently paused.
+     *
+     * @return True, if this job is paused
+     */
+    boolean isPaused();
+
+    /**
+     * Whether this job has been cancelled.
+     *
+     * @return True, if this job was cancelled
+     */
+    boolean isCancelled();
+
+    /**
+     * Whether all mutations have been completed.
+     *
+     * @return True, if this job is done
+     */
+    boolean isDone();
+
+    /**
+     * The number of mutations which were applied successfully.
+     *
+     * @return The number of successful mutations
+     */
+    long getSucceededCount();
+
+    /**
+     * The number of mutations which failed.
+     *
+     * @return The number of failed mutations
+     */
+    long getFailedCount();
+
+    /**
+     * The number of requests which are currently pending.
+     *
+     * @return The number of pending requests
+     */
+    int getPendingCount();
+
+    /**
+     * Future which completes once all mutations have been completed, including failed mutations.
+     * <br>This future is cancelled when the job is {@link #cancel() cancelled}.
+     *
+     * @return The {@link CompletableFuture}
+     */
+    @Nonnull
+    CompletableFuture<Void> getFuture();
+
+    /**
+     * Single role change of a member.
+     */
+    final class Mutation {
+        private final UserSnowflake user;
+        private final Role role;
+        private final boolean add;
+
+        private Mutation(UserSnowflake user, Role role, boolean add) {
+            this.user = user;
+            this.role = role;
+            this.add = add;
+        }
+
+        /**
+         * Mutation which adds the role to the member.
+         *
+         * @param  user
+         *         The member, this can be a member or user instance or {@link net.dv8tion.jda.api.entities.User#fromId(long)}
+         * @param  role
+         *         The role to add
+         *
+         * @throws IllegalArgumentException
+         *         If null is provided
+         *
+         * @return The mutation
+         */
+        @Nonnull
+        @CheckReturnValue
+        public static Mutation add(@Nonnull UserSnowflake user, @Nonnull Role role) {
+            Checks.notNull(user, "User");
+            Checks.notNull(role, "Role");
+            return new Mutation(user, role, true);
+        }
+
+        /**
+         * Mutation which removes the role from the member.
+         *
+         * @param  user
+         *         The member, this can be a member or user instance or {@link net.dv8tion.jda.api.entities.User#fromId(long)}
+         * @param  role
+         *         The role to remove
+         *
+         * @throws IllegalArgumentException
+         *         If null is provided
+         *
+         * @return The mutation
+         */
+        @Nonnull
+        @CheckReturnValue
+        public static Mutation remove(@Nonnull UserSnowflake user, @Nonnull Role role) {
+            Checks.notNull(user, "User");
+            Checks.notNull(role, "Role");
+            return new Mutation(user, role, false);
+        }
+
+        /**
+         * The member to modify.
+         *
+         * @return The member
+         */
+        @Nonnull
+        public UserSnowflake getUser() {
+            return user;
+        }
+
+        /**
+         * The role to add or remove.
+         *
+         * @return The role
+         */
+        @Nonnull
+        public Role getRole() {
+            return role;
+        }
+
+        /**
+         * Whether the role is added to the member, or removed otherwise.
+         *
+         * @return True, if the role is added
+         */
+        public boolean isAdd() {
+            return add;
+        }
+
+        @Override
+        public String toString() {
+            return new EntityString(this)
+                    .setType(add ? "ADD" : "REMOVE")
+                    .addMetadata("user", user.getId())
+                    .addMetadata("role", role.getId())
+                    .toString();
+        }
+    }
+}
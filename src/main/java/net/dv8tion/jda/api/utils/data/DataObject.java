@@ -24,6 +24,7 @@ import net.dv8tion.jda.api.utils.data.etf.ExTermDecoder;
 import net.dv8tion.jda.api.utils.data.etf.ExTermEncoder;
 import net.dv8tion.jda.internal.utils.Checks;
 import net.dv8tion.jda.internal.utils.Helpers;
+import net.dv8tion.jda.internal.utils.LazyJsonMap;
 import net.dv8tion.jda.internal.utils.SerializationUtil;
 import org.jetbrains.annotations.Contract;
 import org.slf4j.Logger;
@@ -86,6 +87,54 @@ public class DataObject implements SerializableData {
         return new DataObject(map);
     }
 
+    /**
+     * Parses a JSON payload into a DataObject instance.
+     * <br>Only the bytes in the range {@code [offset, offset + length)} are parsed,
+     * which allows reading directly from a reused buffer without copying.
+     *
+     * @param  data
+     *         The array containing the correctly formatted JSON payload to parse
+     * @param  offset
+     *         The start index of the payload
+     * @param  length
+     *         The length of the payload
+     *
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided json is incorrectly formatted
+     *
+     * @return A DataObject instance for the provided payload
+     */
+    @Nonnull
+    public static DataObject fromJson(@Nonnull byte[] data, int offset, int length) {
+        Checks.notNull(data, "Data");
+        Checks.check(
+                offset >= 0 && length >= 0 && offset + length <= data.length,
+                "Offset and length must be within the bounds of the array");
+        Map<String, Object> map = SerializationUtil.fromJson(SerializationUtil.getMapType(), data, offset, length);
+        return new DataObject(map);
+    }
+
+    /**
+     * Parses a JSON payload into a DataObject instance, which decodes its values on first access.
+     * <br>This only indexes the offsets of the top-level fields, nested objects are indexed once they are accessed.
+     * Modifying or iterating the returned instance will decode all of its values.
+     *
+     * <p>The provided array must not be modified while the DataObject is in use.
+     *
+     * @param  data
+     *         The correctly formatted JSON payload to parse
+     *
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided json is incorrectly formatted
+     *
+     * @return A DataObject instance for the provided payload
+     */
+    @Nonnull
+    public static DataObject fromJsonLazy(@Nonnull byte[] data) {
+        Checks.notNull(data, "Data");
+        return new DataObject(LazyJsonMap.index(data, 0, data.length));
+    }
+
     /**
      * Parses a JSON payload into a DataObject instance.
      *
@@ -163,6 +212,37 @@ public class DataObject implements SerializableData {
         }
     }
 
+    /**
+     * Parses using {@link ExTermDecoder}.
+     * The remaining bytes of the buffer must start with the correct version header (131).
+     *
+     * @param  buffer
+     *         The buffer to decode, the position is advanced by the decoded bytes
+     *
+     * @throws IllegalArgumentException
+     *         If the provided buffer is null
+     * @throws net.dv8tion.jda.api.exceptions.ParsingException
+     *         If the provided ETF payload is incorrectly formatted or an I/O error occurred
+     *
+     * @return A DataObject instance for the provided payload
+     */
+    @Nonnull
+    public static DataObject fromETF(@Nonnull ByteBuffer buffer) {
+        Checks.notNull(buffer, "Buffer");
+        int start = buffer.position();
+        try {
+            Map<String, Object> map = ExTermDecoder.unpackMap(buffer);
+            return new DataObject(map);
+        } catch (Exception ex) {
+            ByteBuffer view = buffer.duplicate();
+            view.position(start);
+            byte[] data = new byte[view.remaining()];
+            view.get(data);
+            log.error("Failed to parse ETF data {}", Arrays.toString(data), ex);
+            throw new ParsingException(ex);
+        }
+    }
+
     /**
      * Whether the specified key is present.
      *
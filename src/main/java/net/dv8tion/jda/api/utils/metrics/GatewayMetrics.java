@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils.metrics;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Listener for performance measurements of the gateway connection.
+ * <br>This can be used to connect JDA to a metrics library of your choice,
+ * or you can use the {@link GatewayMetricsRecorder} to record the measurements into {@link Histogram Histograms}.
+ *
+ * <p>The methods are called on the thread reading the gateway connection, or the thread handling the event,
+ * so implementations should be thread-safe and return quickly.
+ * All durations are in nanoseconds.
+ *
+ * @see net.dv8tion.jda.api.JDABuilder#setGatewayMetrics(GatewayMetrics)
+ * @see net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder#setGatewayMetrics(GatewayMetrics)
+ */
+public interface GatewayMetrics {
+    /**
+     * Called after a compressed gateway message was decompressed.
+     * <br>With transport compression, a payload can be split across multiple messages,
+     * this is only called once the payload is complete.
+     *
+     * @param compressedBytes
+     *        The size of the compressed message
+     * @param decompressedBytes
+     *        The size of the decompressed payload
+     * @param nanos
+     *        The time spent decompressing
+     */
+    default void onPayloadDecompressed(int compressedBytes, int decompressedBytes, long nanos) {}
+
+    /**
+     * Called after a dispatch was handled, which includes updating the cache and firing the resulting events.
+     *
+     * @param type
+     *        The dispatch type, such as {@code MESSAGE_CREATE}
+     * @param payloadBytes
+     *        The size of the decompressed payload
+     * @param parseNanos
+     *        The time spent parsing the payload
+     * @param handleNanos
+     *        The time spent in the handler of this dispatch type
+     */
+    default void onDispatchHandled(@Nonnull String type, int payloadBytes, long parseNanos, long handleNanos) {}
+
+    /**
+     * Called when a dispatch was discarded before parsing.
+     * <br>This happens for dispatches which are rejected by the {@link net.dv8tion.jda.api.utils.DispatchFilter DispatchFilter}
+     * or which JDA has no use for.
+     *
+     * @param type
+     *        The dispatch type, such as {@code TYPING_START}
+     * @param payloadBytes
+     *        The size of the decompressed payload
+     */
+    default void onDispatchDiscarded(@Nonnull String type, int payloadBytes) {}
+
+    /**
+     * Called when an event starts running on the {@link net.dv8tion.jda.api.JDABuilder#setEventPool(java.util.concurrent.ExecutorService) event pool}.
+     * <br>This is not called for events handled on the gateway thread.
+     *
+     * @param event
+     *        The event
+     * @param delayNanos
+     *        The time the event spent waiting in the event pool
+     */
+    default void onEventPoolDelay(@Nonnull GenericEvent event, long delayNanos) {}
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils.metrics;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Implementation of {@link GatewayMetrics} which records all measurements in {@link Histogram Histograms}.
+ * <br>Dispatch measurements are recorded per dispatch type.
+ *
+ * <p>One recorder can be shared by multiple shards, to aggregate the measurements of all shards.
+ *
+ * <p><b>Example</b><br>
+ * {@snippet lang="java":
+ * GatewayMetricsRecorder metrics = new GatewayMetricsRecorder();
+ * JDA jda = JDABuilder.createDefault(token)
+ *     .setGatewayMetrics(metrics)
+ *     .build();
+ *
+ * // Later
+ * metrics.getDispatchStats().forEach((type, stats) ->
+ *     System.out.printf("%s: %d handled, p99 %d ns%n", type, stats.getHandleTime().getCount(), stats.getHandleTime().getPercentile(99))
+ * );
+ * }
+ */
+public class GatewayMetricsRecorder implements GatewayMetrics {
+    private final ConcurrentMap<String, DispatchStats> dispatchStats = new ConcurrentHashMap<>();
+    private final Histogram decompressionTime = new Histogram();
+    private final Histogram compressedBytes = new Histogram();
+    private final Histogram eventPoolDelay = new Histogram();
+
+    @Override
+    public void onPayloadDecompressed(int compressedBytes, int decompressedBytes, long nanos) {
+        this.compressedBytes.record(compressedBytes);
+        this.decompressionTime.record(nanos);
+    }
+
+    @Override
+    public void onDispatchHandled(@Nonnull String type, int payloadBytes, long parseNanos, long handleNanos) {
+        DispatchStats stats = getOrCreate(type);
+        stats.payloadBytes.record(payloadBytes);
+        stats.parseTime.record(parseNanos);
+        stats.handleTime.record(handleNanos);
+    }
+
+    @Override
+    public void onDispatchDiscarded(@Nonnull String type, int payloadBytes) {
+        DispatchStats stats = getOrCreate(type);
+        stats.discarded.incrementAndGet();
+        stats.discardedBytes.addAndGet(payloadBytes);
+    }
+
+    @Override
+    public void onEventPoolDelay(@Nonnull GenericEvent event, long delayNanos) {
+        eventPoolDelay.record(delayNanos);
+    }
+
+    /**
+     * The recorded measurements for each dispatch type.
+     *
+     * @return Unmodifiable view of the measurements by dispatch type
+     */
+    @Nonnull
+    public Map<String, DispatchStats> getDispatchStats() {
+        return Collections.unmodifiableMap(dispatchStats);
+    }
+
+    /**
+     * The recorded measurements for the provided dispatch type.
+     *
+     * @param  type
+     *         The dispatch type, such as {@code MESSAGE_CREATE}
+     *
+     * @return The measurements, or null if no dispatch of this type was received yet
+     */
+    @Nullable
+    public DispatchStats getDispatchStats(@Nonnull String type) {
+        return dispatchStats.get(type);
+    }
+
+    /**
+     * The time spent decompressing payloads, in nanoseconds.
+     *
+     * @return The decompression time histogram
+     */
+    @Nonnull
+    public Histogram getDecompressionTime() {
+        return decompressionTime;
+    }
+
+    /**
+     * The size of compressed payloads, in bytes.
+     *
+     * @return The compressed size histogram
+     */
+    @Nonnull
+    public Histogram getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * The time events spent waiting in the event pool, in nanoseconds.
+     *
+     * @return The event pool delay histogram
+     */
+    @Nonnull
+    public Histogram getEventPoolDelay() {
+        return eventPoolDelay;
+    }
+
+    /**
+     * Resets all recorded measurements.
+     */
+    public void reset() {
+        dispatchStats.clear();
+        decompressionTime.reset();
+        compressedBytes.reset();
+        eventPoolDelay.reset();
+    }
+
+    private DispatchStats getOrCreate(String type) {
+        DispatchStats stats = dispatchStats.get(type);
+        if (stats == null) {
+            stats = dispatchStats.computeIfAbsent(type, DispatchStats::new);
+        }
+        return stats;
+    }
+
+    /**
+     * Measurements for a single dispatch type.
+     */
+    public static class DispatchStats {
+        private final String type;
+        private final Histogram payloadBytes = new Histogram();
+        private final Histogram parseTime = new Histogram();
+        private final Histogram handleTime = new Histogram();
+        private final AtomicLong discarded = new AtomicLong();
+        private final AtomicLong discardedBytes = new AtomicLong();
+
+        private DispatchStats(String type) {
+            this.type = type;
+        }
+
+        /**
+         * The dispatch type, such as {@code MESSAGE_CREATE}.
+         *
+         * @return The dispatch type
+         */
+        @Nonnull
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * The number of handled dispatches of this type.
+         *
+         * @return The number of handled dispatches
+         */
+        public long getCount() {
+            return handleTime.getCount();
+        }
+
+        /**
+         * The size of the decompressed payloads, in bytes.
+         *
+         * @return The payload size histogram
+         */
+        @Nonnull
+        public Histogram getPayloadBytes() {
+            return payloadBytes;
+        }
+
+        /**
+         * The time spent parsing the payloads, in nanoseconds.
+         *
+         * @return The parse time histogram
+         */
+        @Nonnull
+        public Histogram getParseTime() {
+            return parseTime;
+        }
+
+        /**
+         * The time spent in the handler, in nanoseconds.
+         * <br>This includes updating the cache and firing events, unless an event pool is used.
+         *
+         * @return The handle time histogram
+         */
+        @Nonnull
+        public Histogram getHandleTime() {
+            return handleTime;
+        }
+
+        /**
+         * The number of discarded dispatches of this type.
+         *
+         * @return The number of discarded dispatches
+         */
+        public long getDiscardedCount() {
+            return discarded.get();
+        }
+
+        /**
+         * The total size of discarded dispatches of this type, in bytes.
+         *
+         * @return The discarded bytes
+         */
+        public long getDiscardedBytes() {
+            return discardedBytes.get();
+        }
+
+        @Override
+        public String toString() {
+            return "DispatchStats[" + type + "](handled=" + getCount() + ", discarded=" + getDiscardedCount()
+                    + ", handleTime=" + handleTime + ")";
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.api.utils.metrics;
+
+import net.dv8tion.jda.internal.utils.Checks;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values, such as durations in nanoseconds or payload sizes in bytes.
+ *
+ * <p>Values are counted in logarithmic buckets, each power of two is split into {@value #SUB_BUCKETS} linear buckets.
+ * This bounds the relative error of reported percentiles to {@code 1/}{@value #SUB_BUCKETS}
+ * while using a fixed amount of memory, regardless of how many values are recorded.
+ * Recording a value only updates a few atomic counters and never allocates,
+ * which makes this suitable to be enabled permanently.
+ *
+ * <p>Reads are not atomic with concurrent writes, so a snapshot taken while values are recorded may be slightly inconsistent.
+ */
+public class Histogram {
+    /**
+     * The number of linear buckets for each power of two.
+     */
+    public static final int SUB_BUCKETS = 8;
+
+    private static final int SUB_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+    private static final int BUCKET_COUNT = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records the provided value.
+     * <br>Negative values are recorded as {@code 0}.
+     *
+     * @param value
+     *        The value to record
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.incrementAndGet(getBucket(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * The number of recorded values.
+     *
+     * @return The number of values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * The sum of all recorded values.
+     *
+     * @return The sum
+     */
+    public long getSum() {
+        return sum.get();
+    }
+
+    /**
+     * The largest recorded value.
+     *
+     * @return The largest value, or {@code 0} if no values were recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * The average of all recorded values.
+     *
+     * @return The average, or {@code 0} if no values were recorded
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getSum() / count;
+    }
+
+    /**
+     * The approximate value at the provided percentile.
+     * <br>For example, {@code getPercentile(99)} returns a value that is larger than or equal to 99% of recorded values.
+     *
+     * @param  percentile
+     *         The percentile, between 0 and 100
+     *
+     * @throws IllegalArgumentException
+     *         If the percentile is not between 0 and 100
+     *
+     * @return The approximate value, or {@code 0} if no values were recorded
+     */
+    public long getPercentile(double percentile) {
+        Checks.check(
+                percentile >= 0 && percentile <= 100, "Percentile must be between 0 and 100. Provided: %s", percentile);
+
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                long upper = i + 1 < BUCKET_COUNT ? getLowerBound(i + 1) - 1 : Long.MAX_VALUE;
+                return Math.min(upper, getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Resets all recorded values.
+     * <br>This is not atomic with concurrent writes.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "Histogram[count=%d, mean=%.1f, p50=%d, p99=%d, max=%d]",
+                getCount(), getMean(), getPercentile(50), getPercentile(99), getMax());
+    }
+
+    private static int getBucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+
+    private static long getLowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int mantissa = bucket % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + mantissa) << (exponent - SUB_BITS);
+    }
+}
@@ -61,6 +61,7 @@ import net.dv8tion.jda.api.utils.cache.ChannelCacheView;
 import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
 import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.api.utils.metrics.GatewayMetrics;
 import net.dv8tion.jda.internal.entities.EntityBuilder;
 import net.dv8tion.jda.internal.entities.UserImpl;
 import net.dv8tion.jda.internal.handle.EventCache;
@@ -92,6 +93,7 @@ import okhttp3.RequestBody;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
 
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.*;
@@ -102,6 +104,7 @@ import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public class JDAImpl implements JDA {
     public static final Logger LOG = JDALogger.getLog(JDA.class);
@@ -141,6 +144,8 @@ public class JDAImpl implements JDA {
     protected long gatewayPing = -1;
     protected String gatewayUrl;
     protected ChunkingFilter chunkingFilter;
+    protected DispatchFilter dispatchFilter = DispatchFilter.ALL;
+    protected GatewayMetrics gatewayMetrics;
 
     protected String clientId = null, requiredScopes = "bot";
     protected ShardManager shardManager = null;
@@ -176,6 +181,10 @@ public class JDAImpl implements JDA {
         this.audioController = new DirectAudioControllerImpl(this);
         this.eventCache = new EventCache();
         this.eventManager = new EventManagerProxy(new InterfacedEventManager(), this.threadConfig.getEventPool());
+        if (this.sessionConfig.isReadOptimizedCache()) {
+            this.userCache.enableReadOptimization();
+            this.guildCache.enableReadOptimization();
+        }
     }
 
     public void handleEvent(@Nonnull GenericEvent event) {
@@ -186,6 +195,35 @@ public class JDAImpl implements JDA {
         return sessionConfig.isRawEvents();
     }
 
+    public boolean isLazyParsing() {
+        return sessionConfig.isLazyParsing();
+    }
+
+    public boolean isCompactMemberCache() {
+        return sessionConfig.isCompactMemberCache();
+    }
+
+    public boolean isMemberIndex() {
+        return sessionConfig.isMemberIndex();
+    }
+
+    public boolean isReadOptimizedCache() {
+        return sessionConfig.isReadOptimizedCache();
+    }
+
+    public boolean isPermissionCache() {
+        return sessionConfig.isPermissionCache();
+    }
+
+    public boolean isIncrementalGuildSetup() {
+        return sessionConfig.isIncrementalGuildSetup();
+    }
+
+    @Nullable
+    public Path getCacheSnapshotFile() {
+        return sessionConfig.getCacheSnapshotFile();
+    }
+
     public boolean isEventPassthrough() {
         return sessionConfig.isEventPassthrough();
     }
@@ -220,6 +258,32 @@ public class JDAImpl implements JDA {
         this.chunkingFilter = filter;
     }
 
+    public boolean isDispatchHandled(String type) {
+        try {
+            return dispatchFilter.filter(type);
+        } catch (Exception e) {
+            LOG.error("Uncaught exception from dispatch filter", e);
+            return true;
+        }
+    }
+
+    public boolean hasDispatchFilter() {
+        return dispatchFilter != DispatchFilter.ALL;
+    }
+
+    public void setDispatchFilter(DispatchFilter filter) {
+        this.dispatchFilter = filter == null ? DispatchFilter.ALL : filter;
+    }
+
+    public GatewayMetrics getGatewayMetrics() {
+        return gatewayMetrics;
+    }
+
+    public void setGatewayMetrics(GatewayMetrics metrics) {
+        this.gatewayMetrics = metrics;
+        this.eventManager.setMetrics(metrics);
+    }
+
     public boolean cacheMember(Member member) {
         try {
             return member.getUser().equals(getSelfUser()) // always cache self
@@ -16,7 +16,6 @@
 
 package net.dv8tion.jda.internal.audio;
 
-import com.google.crypto.tink.aead.internal.InsecureNonceAesGcmJce;
 import com.google.crypto.tink.aead.internal.InsecureNonceXChaCha20Poly1305;
 import net.dv8tion.jda.internal.utils.IOUtil;
 import net.dv8tion.jda.internal.utils.ResizingByteBuffer;
@@ -27,6 +26,10 @@ import java.security.SecureRandom;
 import java.security.Security;
 import java.util.EnumSet;
 
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
 public interface CryptoAdapter {
     String AES_GCM_NO_PADDING = "AES_256/GCM/NOPADDING";
 
@@ -74,6 +77,7 @@ public interface CryptoAdapter {
 
         protected final byte[] secretKey;
         protected final byte[] nonceBuffer;
+        protected final byte[] decryptNonceBuffer;
         protected final int tagBytes;
         protected final int paddedNonceBytes;
         protected int encryptCounter;
@@ -83,6 +87,7 @@ public interface CryptoAdapter {
             this.tagBytes = tagBytes;
             this.paddedNonceBytes = paddedNonceBytes;
             this.nonceBuffer = new byte[paddedNonceBytes];
+            this.decryptNonceBuffer = new byte[paddedNonceBytes];
             this.encryptCounter = Math.abs(random.nextInt()) % 513 + 1;
         }
 
@@ -91,11 +96,13 @@ public interface CryptoAdapter {
             int minimumOutputSize = audio.remaining() + this.tagBytes + nonceBytes;
 
             output.ensureRemaining(minimumOutputSize);
-            IOUtil.setIntBigEndian(nonceBuffer, 0, encryptCounter);
+            // Never reuse a nonce, even if encryption of the previous packet failed
+            int counter = encryptCounter++;
+            IOUtil.setIntBigEndian(nonceBuffer, 0, counter);
 
             try {
                 encryptInternally(output.buffer(), audio, nonceBuffer);
-                output.buffer().putInt(encryptCounter++);
+                output.buffer().putInt(counter);
                 output.buffer().flip();
             } catch (Exception e) {
                 throw new RuntimeException(e);
@@ -104,34 +111,56 @@ public interface CryptoAdapter {
 
         @Override
         public boolean decrypt(short extensionLength, long userId, ByteBuffer packet, ResizingByteBuffer decrypted) {
-            try {
-                int headerLength = packet.position();
-                packet.position(0);
-                byte[] associatedData = new byte[headerLength];
-                packet.get(associatedData);
-                byte[] cipherText = new byte[packet.remaining() - nonceBytes];
-                packet.get(cipherText);
-                byte[] nonce = new byte[paddedNonceBytes];
-                packet.get(nonce, 0, nonceBytes);
-                byte[] output = decryptInternally(cipherText, associatedData, nonce);
-
-                decrypted.replace(ByteBuffer.wrap(output));
+            int headerLength = packet.position();
+            int packetLength = packet.limit();
+            // The nonce is appended to the end of the packet, only the first bytes of the padded nonce are used
+            IOUtil.setIntBigEndian(decryptNonceBuffer, 0, packet.getInt(packetLength - nonceBytes));
 
+            try {
+                packet.limit(packetLength - nonceBytes).position(0);
+                decryptInternally(packet, headerLength, decryptNonceBuffer, decrypted);
                 return true;
             } catch (Exception e) {
                 throw new RuntimeException(e);
+            } finally {
+                packet.limit(packetLength).position(packetLength);
             }
         }
 
+        /**
+         * Encrypts the audio into the output buffer.
+         * The RTP header is already written to the output, and used as associated data.
+         *
+         * @param  output
+         *         The output buffer, positioned after the RTP header
+         * @param  audio
+         *         The audio to encrypt
+         * @param  nonce
+         *         The padded nonce
+         */
         protected abstract void encryptInternally(ByteBuffer output, ByteBuffer audio, byte[] nonce) throws Exception;
 
-        protected abstract byte[] decryptInternally(byte[] cipherText, byte[] associatedData, byte[] nonce)
-                throws Exception;
-
-        protected byte[] getAssociatedData(ByteBuffer output) {
-            byte[] ad = new byte[output.position()];
-            output.position(0);
-            output.get(ad);
+        /**
+         * Decrypts the cipher text of the packet into the decrypted buffer.
+         *
+         * @param  packet
+         *         The packet without the appended nonce, positioned at the start of the RTP header
+         * @param  headerLength
+         *         The length of the RTP header, used as associated data
+         * @param  nonce
+         *         The padded nonce
+         * @param  decrypted
+         *         The buffer to write the decrypted audio to, flipped for reading afterward
+         */
+        protected abstract void decryptInternally(
+                ByteBuffer packet, int headerLength, byte[] nonce, ResizingByteBuffer decrypted) throws Exception;
+
+        protected byte[] getAssociatedData(ByteBuffer buffer, int length, byte[] reusable) {
+            byte[] ad = reusable != null && reusable.length == length ? reusable : new byte[length];
+            int position = buffer.position();
+            buffer.position(0);
+            buffer.get(ad);
+            buffer.position(Math.max(position, length));
             return ad;
         }
 
@@ -143,8 +172,20 @@ public interface CryptoAdapter {
     }
 
     class AES_GCM_Adapter extends AbstractAaedAdapter implements CryptoAdapter {
+        // Sending and receiving happen on different threads, each of them needs their own cipher state
+        private final Cipher encryptCipher;
+        private final Cipher decryptCipher;
+        private final SecretKeySpec keySpec;
+
         public AES_GCM_Adapter(byte[] secretKey) {
             super(secretKey, 16, 12);
+            try {
+                this.encryptCipher = Cipher.getInstance(AES_GCM_NO_PADDING);
+                this.decryptCipher = Cipher.getInstance(AES_GCM_NO_PADDING);
+                this.keySpec = new SecretKeySpec(secretKey, "AES");
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Failed to initialize AES-GCM cipher", e);
+            }
         }
 
         @Override
@@ -154,26 +195,45 @@ public interface CryptoAdapter {
 
         @Override
         protected void encryptInternally(ByteBuffer output, ByteBuffer audio, byte[] nonce) throws Exception {
-            InsecureNonceAesGcmJce cipher = getCipher();
-            byte[] input = getPlaintextCopy(audio);
-            byte[] associatedData = getAssociatedData(output);
-            output.put(cipher.encrypt(nonce, input, associatedData));
-        }
+            encryptCipher.init(Cipher.ENCRYPT_MODE, keySpec, new GCMParameterSpec(tagBytes * 8, nonce));
 
-        @Override
-        public byte[] decryptInternally(byte[] cipherText, byte[] associatedData, byte[] nonce) throws Exception {
-            InsecureNonceAesGcmJce cipher = getCipher();
-            return cipher.decrypt(nonce, cipherText, associatedData);
+            int headerLength = output.position();
+            int limit = output.limit();
+            output.flip();
+            encryptCipher.updateAAD(output);
+            output.limit(limit).position(headerLength);
+
+            encryptCipher.doFinal(audio, output);
         }
 
-        private InsecureNonceAesGcmJce getCipher() throws GeneralSecurityException {
-            return new InsecureNonceAesGcmJce(secretKey);
+        @Override
+        protected void decryptInternally(
+                ByteBuffer packet, int headerLength, byte[] nonce, ResizingByteBuffer decrypted) throws Exception {
+            decryptCipher.init(Cipher.DECRYPT_MODE, keySpec, new GCMParameterSpec(tagBytes * 8, nonce));
+
+            int limit = packet.limit();
+            packet.limit(headerLength);
+            decryptCipher.updateAAD(packet);
+            packet.limit(limit);
+
+            decrypted.prepareWrite(packet.remaining());
+            decryptCipher.doFinal(packet, decrypted.buffer());
+            decrypted.buffer().flip();
         }
     }
 
     class XChaCha20Poly1305Adapter extends AbstractAaedAdapter implements CryptoAdapter {
+        private final InsecureNonceXChaCha20Poly1305 cipher;
+        private byte[] encryptAssociatedData;
+        private byte[] decryptAssociatedData;
+
         public XChaCha20Poly1305Adapter(byte[] secretKey) {
             super(secretKey, 16, 24);
+            try {
+                this.cipher = new InsecureNonceXChaCha20Poly1305(secretKey);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Failed to initialize XChaCha20-Poly1305 cipher", e);
+            }
         }
 
         @Override
@@ -183,20 +243,16 @@ public interface CryptoAdapter {
 
         @Override
         public void encryptInternally(ByteBuffer output, ByteBuffer audio, byte[] nonce) throws Exception {
-            InsecureNonceXChaCha20Poly1305 cipher = getCipher();
+            encryptAssociatedData = getAssociatedData(output, output.position(), encryptAssociatedData);
             byte[] input = getPlaintextCopy(audio);
-            byte[] associatedData = getAssociatedData(output);
-            output.put(cipher.encrypt(nonce, input, associatedData));
+            cipher.encrypt(output, nonce, input, encryptAssociatedData);
         }
 
         @Override
-        public byte[] decryptInternally(byte[] cipherText, byte[] associatedData, byte[] nonce) throws Exception {
-            InsecureNonceXChaCha20Poly1305 cipher = getCipher();
-            return cipher.decrypt(nonce, cipherText, associatedData);
-        }
-
-        private InsecureNonceXChaCha20Poly1305 getCipher() throws GeneralSecurityException {
-            return new InsecureNonceXChaCha20Poly1305(secretKey);
+        protected void decryptInternally(
+                ByteBuffer packet, int headerLength, byte[] nonce, ResizingByteBuffer decrypted) throws Exception {
+            decryptAssociatedData = getAssociatedData(packet, headerLength, decryptAssociatedData);
+            decrypted.replace(ByteBuffer.wrap(cipher.decrypt(packet, nonce, decryptAssociatedData)));
         }
     }
 }
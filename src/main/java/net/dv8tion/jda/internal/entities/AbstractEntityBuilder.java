@@ -178,6 +178,7 @@ public abstract class AbstractEntityBuilder {
                 .setModerated(json.getBoolean("moderated"))
                 .setEmoji(json)
                 .setPosition(index);
+        cache.clearCachedLists();
         return tag;
     }
 
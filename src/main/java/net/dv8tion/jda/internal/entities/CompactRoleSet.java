@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.entities;
+
+import net.dv8tion.jda.api.entities.Role;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.LongFunction;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Thread-safe set of roles, which only stores the sorted role ids.
+ * <br>The role instances are resolved from the guild cache on iteration, roles which are no longer cached are skipped.
+ * The size and {@link #contains(Object)} only check the ids,
+ * deleted roles are removed from every member right after they are removed from the guild cache.
+ *
+ * <p>This uses a fraction of the memory of a concurrent hash set,
+ * at the cost of copying the array on every modification.
+ * Member roles are rarely modified, which makes this a good trade-off for guilds with many members.
+ */
+public class CompactRoleSet extends AbstractSet<Role> {
+    private static final long[] EMPTY = new long[0];
+
+    private final LongFunction<Role> resolver;
+    private volatile long[] ids = EMPTY;
+
+    public CompactRoleSet(LongFunction<Role> resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Role && Arrays.binarySearch(ids, ((Role) o).getIdLong()) >= 0;
+    }
+
+    @Override
+    public boolean add(Role role) {
+        return add(role.getIdLong());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Role && remove(((Role) o).getIdLong());
+    }
+
+    @Override
+    public synchronized void clear() {
+        ids = EMPTY;
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<Role> iterator() {
+        return new RoleIterator(ids);
+    }
+
+    private synchronized boolean add(long id) {
+        long[] current = ids;
+        int index = Arrays.binarySearch(current, id);
+        if (index >= 0) {
+            return false;
+        }
+
+        index = -index - 1;
+        long[] updated = new long[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        updated[index] = id;
+        System.arraycopy(current, index, updated, index + 1, current.length - index);
+        ids = updated;
+        return true;
+    }
+
+    private synchronized boolean remove(long id) {
+        long[] current = ids;
+        int index = Arrays.binarySearch(current, id);
+        if (index < 0) {
+            return false;
+        }
+
+        if (current.length == 1) {
+            ids = EMPTY;
+            return true;
+        }
+
+        long[] updated = new long[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, updated.length - index);
+        ids = updated;
+        return true;
+    }
+
+    private class RoleIterator implements Iterator<Role> {
+        private final long[] snapshot;
+        private int index;
+        private Role next;
+        private Role last;
+
+        private RoleIterator(long[] snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && index < snapshot.length) {
+                next = resolver.apply(snapshot[index++]);
+            }
+            return next != null;
+        }
+
+        @Override
+        public Role next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = null;
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            CompactRoleSet.this.remove(last.getIdLong());
+            last = null;
+        }
+    }
+}
@@ -279,7 +279,45 @@ public class EntityBuilder extends AbstractEntityBuilder {
 
     public GuildImpl createGuild(
             long guildId, DataObject guildJson, TLongObjectMap<DataObject> members, int memberCount) {
+        return createGuild(new GuildImpl(getJDA(), guildId), guildJson, members, null, memberCount);
+    }
+
+    // Used with incremental guild setup, the members have already been created with createMember(pendingGuild, json)
+    public GuildImpl createGuild(
+            GuildImpl pendingGuild, DataObject guildJson, TLongObjectMap<MemberImpl> members, int memberCount) {
+        return createGuild(pendingGuild, guildJson, null, members, memberCount);
+    }
+
+    // Creates a guild which is not cached yet, with only the roles and owner required to create its members
+    public GuildImpl createPendingGuild(long guildId, DataObject guildJson) {
         GuildImpl guildObj = new GuildImpl(getJDA(), guildId);
+        guildObj.setOwnerId(guildJson.getUnsignedLong("owner_id", 0L));
+        DataArray roleArray = guildJson.getArray("roles");
+        SnowflakeCacheViewImpl<Role> roleView = guildObj.getRolesView();
+        try (UnlockHook hook = roleView.writeLock()) {
+            TLongObjectMap<Role> map = roleView.getMap();
+            for (int i = 0; i < roleArray.length(); i++) {
+                // Cached role events are only played back in createGuild, once the guild itself is cached
+                DataObject obj = roleArray.getObject(i);
+                long id = obj.getLong("id");
+                RoleImpl role = new RoleImpl(id, guildObj);
+                configureRole(obj, role, id);
+                map.put(id, role);
+                if (id == guildId) {
+                    guildObj.setPublicRole(role);
+                }
+            }
+        }
+        return guildObj;
+    }
+
+    private GuildImpl createGuild(
+            GuildImpl guildObj,
+            DataObject guildJson,
+            TLongObjectMap<DataObject> memberPayloads,
+            TLongObjectMap<MemberImpl> members,
+            int memberCount) {
+        long guildId = guildObj.getIdLong();
         String name = guildJson.getString("name", "");
         String iconId = guildJson.getString("icon", null);
         String splashId = guildJson.getString("splash", null);
@@ -369,6 +407,10 @@ public class EntityBuilder extends AbstractEntityBuilder {
                 if (role.getIdLong() == guildObj.getIdLong()) {
                     guildObj.setPublicRole(role);
                 }
+                if (members != null) {
+                    // The roles of a pending guild already existed, so createRole did not play back their events
+                    getJDA().getEventCache().playbackCache(EventCache.Type.ROLE, role.getIdLong());
+                }
             }
         }
 
@@ -386,11 +428,26 @@ public class EntityBuilder extends AbstractEntityBuilder {
                 UnlockHook h2 = getJDA().getUsersView().writeLock()) {
             // Add members to cache when subscriptions are disabled when they appear here
             // this is done because we can still keep track of members in voice channels
-            for (DataObject memberJson : members.valueCollection()) {
-                long userId = memberJson.getObject("user").getUnsignedLong("id");
-                DataObject voiceState = voiceStates.get(userId);
-                DataObject presence = presences.get(userId);
-                updateMemberCache(createMember(guildObj, memberJson, voiceState, presence));
+            if (memberPayloads != null) {
+                for (DataObject memberJson : memberPayloads.valueCollection()) {
+                    long userId = memberJson.getObject("user").getUnsignedLong("id");
+                    DataObject voiceState = voiceStates.get(userId);
+                    DataObject presence = presences.get(userId);
+                    updateMemberCache(createMember(guildObj, memberJson, voiceState, presence));
+                }
+            } else {
+                for (MemberImpl member : members.valueCollection()) {
+                    DataObject voiceState = voiceStates.get(member.getIdLong());
+                    DataObject presence = presences.get(member.getIdLong());
+                    if (voiceState != null) {
+                        createGuildVoiceState(member, voiceState);
+                    }
+                    if (presence != null) {
+                        createPresence(member, presence);
+                    }
+                    guildObj.updateCacheVoiceStateMember(member);
+                    updateMemberCache(member);
+                }
             }
         }
 
@@ -542,6 +599,11 @@ public class EntityBuilder extends AbstractEntityBuilder {
         long responseNumber = jda.getResponseTotal();
         if (!oldName.equals(newName)) {
             userObj.setName(newName);
+            if (jda.isMemberIndex()) {
+                for (Guild guild : userObj.getMutualGuilds()) {
+                    ((GuildImpl) guild).getMembersView().updateIndex(guild.getMember(userObj));
+                }
+            }
             jda.handleEvent(new UserUpdateNameEvent(
                     jda, responseNumber,
                     userObj, oldName));
@@ -616,6 +678,7 @@ public class EntityBuilder extends AbstractEntityBuilder {
 
         try (UnlockHook hook = membersView.writeLock()) {
             membersView.getMap().put(member.getIdLong(), member);
+            membersView.updateIndex(member);
             if (member.isOwner()) {
                 guild.setOwner(member);
             }
@@ -734,6 +797,7 @@ public class EntityBuilder extends AbstractEntityBuilder {
             String newNick = content.getString("nick", null);
             if (!Objects.equals(oldNick, newNick)) {
                 member.setNickname(newNick);
+                guild.getMembersView().updateIndex(member);
                 getJDA().handleEvent(new GuildMemberUpdateNicknameEvent(getJDA(), responseNumber, member, oldNick));
             }
         }
@@ -820,6 +884,11 @@ public class EntityBuilder extends AbstractEntityBuilder {
         if (newRoles.size() > 0) {
             currentRoles.addAll(newRoles);
         }
+        if (!removedRoles.isEmpty() || !newRoles.isEmpty()) {
+            member.invalidatePermissions();
+            // Listeners of the role events should already find the member by its new roles
+            member.getGuild().getMembersView().updateIndex(member);
+        }
 
         if (removedRoles.size() > 0) {
             getJDA().handleEvent(new GuildMemberRoleRemoveEvent(getJDA(), responseNumber, member, removedRoles));
@@ -64,6 +64,7 @@ import net.dv8tion.jda.api.requests.restaction.order.RoleOrderAction;
 import net.dv8tion.jda.api.requests.restaction.pagination.AuditLogPaginationAction;
 import net.dv8tion.jda.api.utils.FileUpload;
 import net.dv8tion.jda.api.utils.cache.*;
+import net.dv8tion.jda.api.utils.concurrent.BulkRoleJob;
 import net.dv8tion.jda.api.utils.concurrent.Task;
 import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
@@ -83,6 +84,7 @@ import net.dv8tion.jda.internal.requests.restaction.pagination.AuditLogPaginatio
 import net.dv8tion.jda.internal.requests.restaction.pagination.BanPaginationActionImpl;
 import net.dv8tion.jda.internal.utils.*;
 import net.dv8tion.jda.internal.utils.cache.*;
+import net.dv8tion.jda.internal.utils.concurrent.task.BulkRoleJobImpl;
 import net.dv8tion.jda.internal.utils.concurrent.task.GatewayTask;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
@@ -93,6 +95,7 @@ import java.time.temporal.TemporalAccessor;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -116,10 +119,12 @@ public class GuildImpl implements Guild {
             new SnowflakeCacheViewImpl<>(RichCustomEmoji.class, RichCustomEmoji::getName);
     private final SnowflakeCacheViewImpl<GuildSticker> stickerCache =
             new SnowflakeCacheViewImpl<>(GuildSticker.class, GuildSticker::getName);
-    private final MemberCacheViewImpl memberCache = new MemberCacheViewImpl();
+    private final MemberCacheViewImpl memberCache;
     private final CacheView.SimpleCacheView<MemberPresenceImpl> memberPresences;
     private final SnowflakeCacheViewImpl<GuildVoiceStateImpl> voiceStateCache = new SnowflakeCacheViewImpl<>(
             GuildVoiceStateImpl.class, state -> state.getMember().getEffectiveName());
+    // Incremented whenever cached member permissions become invalid, see PermissionCache
+    private final AtomicLong permissionVersion = new AtomicLong();
 
     private CompletableFuture<Void> pendingRequestToSpeak;
 
@@ -155,6 +160,10 @@ public class GuildImpl implements Guild {
     public GuildImpl(JDAImpl api, long id) {
         this.id = id;
         this.api = api;
+        this.memberCache = new MemberCacheViewImpl(api.isMemberIndex());
+        if (api.isReadOptimizedCache()) {
+            this.memberCache.enableReadOptimization();
+        }
         if (api.getCacheFlags().stream().anyMatch(CacheFlag::isPresence)) {
             memberPresences = new CacheView.SimpleCacheView<>(MemberPresenceImpl.class, null);
         } else {
@@ -1672,6 +1681,15 @@ public class GuildImpl implements Guild {
         return new AuditableRestActionImpl<>(getJDA(), route);
     }
 
+    @Nonnull
+    @Override
+    public BulkRoleJob modifyMemberRolesInBulk(@Nonnull Stream<? extends BulkRoleJob.Mutation> mutations) {
+        Checks.notNull(mutations, "Mutations");
+        checkPermission(Permission.MANAGE_ROLES);
+
+        return new BulkRoleJobImpl(this, mutations);
+    }
+
     @Nonnull
     @Override
     public AuditableRestAction<Void> modifyMemberRoles(
@@ -2192,6 +2210,7 @@ public class GuildImpl implements Guild {
 
     public GuildImpl setOwnerId(long ownerId) {
         this.ownerId = ownerId;
+        invalidatePermissions();
         return this;
     }
 
@@ -2215,6 +2234,20 @@ public class GuildImpl implements Guild {
         return this;
     }
 
+    // -- Permission cache --
+
+    public long getPermissionVersion() {
+        return permissionVersion.get();
+    }
+
+    /**
+     * Discards all cached member permissions of this guild.
+     * <br>This has to be called after updating roles, permission overrides, or the channel hierarchy.
+     */
+    public void invalidatePermissions() {
+        permissionVersion.incrementAndGet();
+    }
+
     // -- Map getters --
 
     public SortedSnowflakeCacheViewImpl<ScheduledEvent> getScheduledEventsView() {
@@ -33,6 +33,7 @@ import net.dv8tion.jda.internal.utils.Checks;
 import net.dv8tion.jda.internal.utils.EntityString;
 import net.dv8tion.jda.internal.utils.Helpers;
 import net.dv8tion.jda.internal.utils.PermissionUtil;
+import net.dv8tion.jda.internal.utils.cache.PermissionCache;
 
 import java.awt.*;
 import java.time.OffsetDateTime;
@@ -46,7 +47,7 @@ import javax.annotation.Nullable;
 
 public class MemberImpl implements Member, MemberMixin<MemberImpl> {
     private final JDAImpl api;
-    private final Set<Role> roles = ConcurrentHashMap.newKeySet();
+    private final Set<Role> roles;
 
     private GuildImpl guild;
     private User user;
@@ -55,12 +56,16 @@ public class MemberImpl implements Member, MemberMixin<MemberImpl> {
     private long joinDate, boostDate, timeOutEnd;
     private boolean pending = false;
     private int flags;
+    private volatile PermissionCache permissionCache;
 
     public MemberImpl(GuildImpl guild, User user) {
         this.api = (JDAImpl) user.getJDA();
         this.guild = guild;
         this.user = user;
         this.joinDate = 0;
+        this.roles = api.isCompactMemberCache()
+                ? new CompactRoleSet(id -> getGuild().getRoleById(id))
+                : ConcurrentHashMap.newKeySet();
     }
 
     @Override
@@ -381,6 +386,7 @@ public class MemberImpl implements Member, MemberMixin<MemberImpl> {
     @Override
     public MemberImpl setTimeOutEnd(long time) {
         this.timeOutEnd = time;
+        invalidatePermissions();
         return this;
     }
 
@@ -400,6 +406,38 @@ public class MemberImpl implements Member, MemberMixin<MemberImpl> {
         return roles;
     }
 
+    /**
+     * The cached permissions of this member, or {@code null} if the permission cache is disabled.
+     *
+     * @return The {@link PermissionCache}, or null
+     */
+    public PermissionCache getPermissionCache() {
+        if (!api.isPermissionCache()) {
+            return null;
+        }
+        PermissionCache cache = permissionCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = permissionCache;
+                if (cache == null) {
+                    permissionCache = cache = new PermissionCache();
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Discards the cached permissions of this member.
+     * <br>This has to be called after updating the roles or time out of this member.
+     */
+    public void invalidatePermissions() {
+        PermissionCache cache = permissionCache;
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
     public long getBoostDateRaw() {
         return boostDate;
     }
@@ -381,15 +381,17 @@ public class RoleImpl implements Role, RoleMixin<RoleImpl> {
     @Override
     public RoleImpl setRawPermissions(long rawPermissions) {
         this.rawPermissions = rawPermissions;
+        ((GuildImpl) getGuild()).invalidatePermissions();
         return this;
     }
 
     @Override
     public RoleImpl setRawPosition(int rawPosition) {
+        this.rawPosition = rawPosition;
+        // Clear after the update, otherwise a concurrent read could cache the outdated order
         SortedSnowflakeCacheViewImpl<Role> roleCache =
                 (SortedSnowflakeCacheViewImpl<Role>) getGuild().getRoleCache();
         roleCache.clearCachedLists();
-        this.rawPosition = rawPosition;
         return this;
     }
 
@@ -32,6 +32,7 @@ import net.dv8tion.jda.internal.requests.restaction.AuditableRestActionImpl;
 import net.dv8tion.jda.internal.requests.restaction.pagination.ScheduledEventMembersPaginationActionImpl;
 import net.dv8tion.jda.internal.utils.Checks;
 import net.dv8tion.jda.internal.utils.Helpers;
+import net.dv8tion.jda.internal.utils.cache.SortedSnowflakeCacheViewImpl;
 
 import java.time.OffsetDateTime;
 
@@ -221,6 +222,10 @@ public class ScheduledEventImpl implements ScheduledEvent {
 
     public ScheduledEventImpl setStartTime(OffsetDateTime startTime) {
         this.startTime = startTime;
+        // The events are sorted by start time
+        SortedSnowflakeCacheViewImpl<ScheduledEvent> cache =
+                (SortedSnowflakeCacheViewImpl<ScheduledEvent>) guild.getScheduledEventCache();
+        cache.clearCachedLists();
         return this;
     }
 
@@ -49,6 +49,7 @@ import net.dv8tion.jda.api.utils.FileUpload;
 import net.dv8tion.jda.api.utils.cache.MemberCacheView;
 import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
 import net.dv8tion.jda.api.utils.cache.SortedSnowflakeCacheView;
+import net.dv8tion.jda.api.utils.concurrent.BulkRoleJob;
 import net.dv8tion.jda.api.utils.concurrent.Task;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.entities.detached.mixin.IDetachableEntityMixin;
@@ -63,6 +64,7 @@ import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
@@ -810,6 +812,12 @@ public class DetachedGuildImpl implements Guild, IDetachableEntityMixin {
         throw detachedException();
     }
 
+    @Nonnull
+    @Override
+    public BulkRoleJob modifyMemberRolesInBulk(@Nonnull Stream<? extends BulkRoleJob.Mutation> mutations) {
+        throw detachedException();
+    }
+
     @Nonnull
     @Override
     public AuditableRestAction<Void> modifyMemberRoles(
@@ -219,6 +219,7 @@ public class ChannelUpdateHandler extends SocketHandler {
 
         guild.uncacheChannel(channel, true);
         Channel newChannel = builder.createGuildChannel(guild, content);
+        guild.invalidatePermissions();
 
         if (channel instanceof IThreadContainer) {
             if (newChannel instanceof IThreadContainer) {
@@ -258,6 +259,7 @@ public class ChannelUpdateHandler extends SocketHandler {
 
         currentOverrides.forEachValue(override -> {
             channel.getPermissionOverrideMap().remove(override.getIdLong());
+            invalidatePermissions(channel);
             addPermissionHolder(changed, guild, override.getIdLong());
             api.handleEvent(new PermissionOverrideDeleteEvent(
                     api, responseNumber,
@@ -310,6 +312,7 @@ public class ChannelUpdateHandler extends SocketHandler {
                 // We delete empty overrides for the @everyone role because that's what the client
                 // also does, otherwise our sync checks don't work!
                 channel.getPermissionOverrideMap().remove(overrideId);
+                invalidatePermissions(channel);
                 api.handleEvent(new PermissionOverrideDeleteEvent(
                         api, responseNumber,
                         channel, currentOverride));
@@ -318,6 +321,7 @@ public class ChannelUpdateHandler extends SocketHandler {
 
             impl.setAllow(allow);
             impl.setDeny(deny);
+            invalidatePermissions(channel);
             api.handleEvent(new PermissionOverrideUpdateEvent(
                     api, responseNumber, channel, currentOverride, oldAllow, oldDeny));
         } else // New override?
@@ -331,6 +335,7 @@ public class ChannelUpdateHandler extends SocketHandler {
             impl.setAllow(allow);
             impl.setDeny(deny);
             channel.getPermissionOverrideMap().put(overrideId, currentOverride);
+            invalidatePermissions(channel);
             api.handleEvent(new PermissionOverrideCreateEvent(
                     api, responseNumber,
                     channel, currentOverride));
@@ -451,6 +456,10 @@ public class ChannelUpdateHandler extends SocketHandler {
         api.handleEvent(new ChannelUpdateNSFWEvent(api, responseNumber, channel, oldNsfw, nsfw));
     }
 
+    private void invalidatePermissions(GuildChannel channel) {
+        ((GuildImpl) channel.getGuild()).invalidatePermissions();
+    }
+
     private void handleParentCategory(ICategorizableChannelMixin<?> channel, long parentId) {
         long oldParentId = channel.getParentCategoryIdLong();
         if (oldParentId == parentId) {
@@ -460,6 +469,8 @@ public class ChannelUpdateHandler extends SocketHandler {
         Category oldParent = channel.getParentCategory();
         channel.setParentCategory(parentId);
         Category newParent = channel.getParentCategory();
+        // MANAGE_CHANNEL in the parent category applies to this channel as well
+        invalidatePermissions(channel);
 
         api.handleEvent(new ChannelUpdateParentEvent(api, responseNumber, channel, oldParent, newParent));
     }
@@ -63,6 +63,8 @@ public class GuildRoleDeleteHandler extends SocketHandler {
             MemberImpl member = (MemberImpl) m;
             member.getRoleSet().remove(removedRole);
         });
+        guild.getMembersView().removeRoleFromIndex(roleId);
+        guild.invalidatePermissions();
 
         for (RichCustomEmoji emoji : guild.getEmojiCache()) {
             RichCustomEmojiImpl impl = (RichCustomEmojiImpl) emoji;
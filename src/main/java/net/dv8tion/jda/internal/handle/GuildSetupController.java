@@ -17,7 +17,9 @@
 package net.dv8tion.jda.internal.handle;
 
 import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.map.TLongIntMap;
 import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongIntHashMap;
 import gnu.trove.map.hash.TLongObjectHashMap;
 import gnu.trove.set.TLongSet;
 import gnu.trove.set.hash.TLongHashSet;
@@ -52,6 +54,8 @@ public class GuildSetupController {
     private final TLongObjectMap<GuildSetupNode> setupNodes = new TLongObjectHashMap<>();
     private final TLongSet chunkingGuilds = new TLongHashSet();
     private final TLongSet unavailableGuilds = new TLongHashSet();
+    // Number of setup nodes which currently hold a member for each user id
+    private final TLongIntMap memberReferences = new TLongIntHashMap();
 
     // TODO: Rewrite this incompleteCount system to just rely on the state of each node
     private int incompleteCount = 0;
@@ -85,7 +89,10 @@ public class GuildSetupController {
 
     void remove(long id) {
         unavailableGuilds.remove(id);
-        setupNodes.remove(id);
+        GuildSetupNode node = setupNodes.remove(id);
+        if (node != null) {
+            node.clearMembers();
+        }
         chunkingGuilds.remove(id);
         checkReady();
     }
@@ -121,7 +128,10 @@ public class GuildSetupController {
     public void onReady(long id, DataObject obj) {
         log.trace("Adding id to setup cache {}", id);
         GuildSetupNode node = new GuildSetupNode(id, this, GuildSetupNode.Type.INIT);
-        setupNodes.put(id, node);
+        GuildSetupNode previous = setupNodes.put(id, node);
+        if (previous != null) {
+            previous.clearMembers();
+        }
         node.handleReady(obj);
         if (node.markedUnavailable) {
             incompleteCount--;
@@ -255,6 +265,7 @@ public class GuildSetupController {
 
     public void clearCache() {
         setupNodes.clear();
+        memberReferences.clear();
         chunkingGuilds.clear();
         unavailableGuilds.clear();
         incompleteCount = 0;
@@ -268,16 +279,22 @@ public class GuildSetupController {
         timeoutHandle = null;
     }
 
-    @SuppressWarnings("ReferenceEquality")
     public boolean containsMember(long userId, @Nullable GuildSetupNode excludedNode) {
-        for (TLongObjectIterator<GuildSetupNode> it = setupNodes.iterator(); it.hasNext(); ) {
-            it.advance();
-            GuildSetupNode node = it.value();
-            if (node != excludedNode && node.containsMember(userId)) {
-                return true;
-            }
+        int references = memberReferences.get(userId);
+        if (excludedNode != null && excludedNode.containsMember(userId)) {
+            references--;
+        }
+        return references > 0;
+    }
+
+    void addMemberReference(long userId) {
+        memberReferences.adjustOrPutValue(userId, 1, 1);
+    }
+
+    void removeMemberReference(long userId) {
+        if (memberReferences.adjustOrPutValue(userId, -1, 0) <= 0) {
+            memberReferences.remove(userId);
         }
-        return false;
     }
 
     public TLongSet getUnavailableGuilds() {
@@ -354,6 +371,7 @@ public class GuildSetupController {
             iterator.advance();
             GuildSetupNode node = iterator.value();
             iterator.remove();
+            node.clearMembers();
             unavailableGuilds.add(node.getIdLong());
             // Inform users that the guild timed out
             getJDA().handleEvent(new GuildTimeoutEvent(getJDA(), node.getIdLong()));
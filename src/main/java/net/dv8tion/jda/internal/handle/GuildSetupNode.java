@@ -17,7 +17,6 @@
 package net.dv8tion.jda.internal.handle;
 
 import gnu.trove.iterator.TLongIterator;
-import gnu.trove.iterator.TLongObjectIterator;
 import gnu.trove.map.TLongObjectMap;
 import gnu.trove.map.hash.TLongObjectHashMap;
 import gnu.trove.set.TLongSet;
@@ -33,7 +32,9 @@ import net.dv8tion.jda.api.managers.AudioManager;
 import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.EntityBuilder;
 import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
 import net.dv8tion.jda.internal.managers.AudioManagerImpl;
 import net.dv8tion.jda.internal.utils.EntityString;
 import net.dv8tion.jda.internal.utils.UnlockHook;
@@ -53,6 +54,10 @@ public class GuildSetupNode {
     private final List<DataObject> cachedEvents = new LinkedList<>();
 
     private TLongObjectMap<DataObject> members;
+    // Used instead of members with incremental guild setup
+    private TLongObjectMap<MemberImpl> builtMembers;
+    private GuildImpl pendingGuild;
+    private boolean incremental;
     private TLongSet removedMembers;
     private DataObject partialGuild;
     private int expectedMemberCount = 1;
@@ -91,7 +96,7 @@ public class GuildSetupNode {
     }
 
     public int getCurrentMemberCount() {
-        TLongHashSet knownMembers = new TLongHashSet(members.keySet());
+        TLongHashSet knownMembers = new TLongHashSet(getMemberMap().keySet());
         knownMembers.removeAll(removedMembers);
         return knownMembers.size();
     }
@@ -113,6 +118,7 @@ public class GuildSetupNode {
     }
 
     public boolean containsMember(long userId) {
+        TLongObjectMap<?> members = getMemberMap();
         if (members == null || members.isEmpty()) {
             return false;
         }
@@ -149,6 +155,46 @@ public class GuildSetupNode {
         return controller;
     }
 
+    private TLongObjectMap<?> getMemberMap() {
+        return incremental ? builtMembers : members;
+    }
+
+    private void putMember(long userId, DataObject member) {
+        Object previous;
+        if (!incremental) {
+            previous = members.put(userId, member);
+        } else if (pendingGuild == null) {
+            // The guild was reset, the member will be included in the next guild payload
+            return;
+        } else {
+            // Build the member right away, so the payload does not have to be kept until the setup completes
+            EntityBuilder builder = getController().getJDA().getEntityBuilder();
+            previous = builtMembers.put(userId, builder.createMember(pendingGuild, member));
+        }
+
+        if (previous == null) {
+            getController().addMemberReference(userId);
+        }
+    }
+
+    private void removeMember(long userId) {
+        if (getMemberMap().remove(userId) != null) {
+            getController().removeMemberReference(userId);
+        }
+    }
+
+    // Keeps the member index of the controller in sync, must be used instead of clearing the member map directly
+    void clearMembers() {
+        TLongObjectMap<?> members = getMemberMap();
+        if (members == null) {
+            return;
+        }
+        for (TLongIterator it = members.keySet().iterator(); it.hasNext(); ) {
+            getController().removeMemberReference(it.next());
+        }
+        members.clear();
+    }
+
     void updateStatus(GuildSetupController.Status status) {
         if (status == this.status) {
             return;
@@ -166,9 +212,8 @@ public class GuildSetupNode {
         expectedMemberCount = 1;
         partialGuild = null;
         requestedChunk = false;
-        if (members != null) {
-            members.clear();
-        }
+        pendingGuild = null;
+        clearMembers();
         if (removedMembers != null) {
             removedMembers.clear();
         }
@@ -225,11 +270,11 @@ public class GuildSetupNode {
         for (int index = 0; index < arr.length(); index++) {
             DataObject obj = arr.getObject(index);
             long id = obj.getObject("user").getLong("id");
-            members.put(id, obj);
+            putMember(id, obj);
         }
 
         if (last
-                || members.size() >= expectedMemberCount
+                || getMemberMap().size() >= expectedMemberCount
                 || !getController().getJDA().chunkGuild(id)) {
             completeSetup();
             return false;
@@ -238,22 +283,22 @@ public class GuildSetupNode {
     }
 
     void handleAddMember(DataObject member) {
-        if (members == null || removedMembers == null) {
+        if (getMemberMap() == null || removedMembers == null) {
             return;
         }
         expectedMemberCount++;
         long userId = member.getObject("user").getLong("id");
-        members.put(userId, member);
+        putMember(userId, member);
         removedMembers.remove(userId);
     }
 
     void handleRemoveMember(DataObject member) {
-        if (members == null || removedMembers == null) {
+        if (getMemberMap() == null || removedMembers == null) {
             return;
         }
         expectedMemberCount--;
         long userId = member.getObject("user").getLong("id");
-        members.remove(userId);
+        removeMember(userId);
         removedMembers.add(userId);
         EventCache eventCache = getController().getJDA().getEventCache();
         if (!getController()
@@ -314,10 +359,10 @@ public class GuildSetupNode {
             }
         });
 
+        TLongObjectMap<?> members = getMemberMap();
         if (members != null) {
-            for (TLongObjectIterator<DataObject> it = members.iterator(); it.hasNext(); ) {
-                it.advance();
-                long userId = it.key();
+            for (TLongIterator it = members.keySet().iterator(); it.hasNext(); ) {
+                long userId = it.next();
                 if (!getController().containsMember(userId, this)) {
                     // if no other setup node contains this userId we clear it here
                     eventCache.clear(EventCache.Type.USER, userId);
@@ -330,10 +375,12 @@ public class GuildSetupNode {
         updateStatus(GuildSetupController.Status.BUILDING);
         JDAImpl api = getController().getJDA();
         for (TLongIterator it = removedMembers.iterator(); it.hasNext(); ) {
-            members.remove(it.next());
+            removeMember(it.next());
         }
         removedMembers.clear();
-        GuildImpl guild = api.getEntityBuilder().createGuild(id, partialGuild, members, expectedMemberCount);
+        GuildImpl guild = incremental
+                ? api.getEntityBuilder().createGuild(pendingGuild, partialGuild, builtMembers, expectedMemberCount)
+                : api.getEntityBuilder().createGuild(id, partialGuild, this.members, expectedMemberCount);
         updateAudioManagerReference(guild);
         switch (type) {
             case AVAILABLE:
@@ -360,8 +407,18 @@ public class GuildSetupNode {
     }
 
     private void ensureMembers() {
+        JDAImpl api = getController().getJDA();
         expectedMemberCount = partialGuild.getInt("member_count");
-        members = new TLongObjectHashMap<>(expectedMemberCount);
+        clearMembers();
+        incremental = api.isIncrementalGuildSetup();
+        if (incremental) {
+            // Members are added to the cache of this guild once the setup completes,
+            // until then they are only referenced by builtMembers
+            pendingGuild = api.getEntityBuilder().createPendingGuild(id, partialGuild);
+            builtMembers = new TLongObjectHashMap<>();
+        } else {
+            members = new TLongObjectHashMap<>(expectedMemberCount);
+        }
         removedMembers = new TLongHashSet();
         DataArray memberArray = partialGuild.getArray("members");
         if (!getController().getJDA().chunkGuild(id)) {
@@ -380,9 +437,9 @@ public class GuildSetupNode {
                             + "member_count: {} members: {} actual_members: {} guild_id: {}",
                     expectedMemberCount,
                     memberArray.length(),
-                    members.size(),
+                    getMemberMap().size(),
                     id);
-            members.clear();
+            clearMembers();
             updateStatus(GuildSetupController.Status.CHUNKING);
             getController().addGuildForChunking(id, isJoin());
             requestedChunk = true;
@@ -19,6 +19,8 @@ package net.dv8tion.jda.internal.hooks;
 import net.dv8tion.jda.api.events.GenericEvent;
 import net.dv8tion.jda.api.hooks.IEventManager;
 import net.dv8tion.jda.api.hooks.InterfacedEventManager;
+import net.dv8tion.jda.api.hooks.OrderedEventPool;
+import net.dv8tion.jda.api.utils.metrics.GatewayMetrics;
 import net.dv8tion.jda.internal.JDAImpl;
 
 import java.util.List;
@@ -30,6 +32,7 @@ import javax.annotation.Nonnull;
 public class EventManagerProxy implements IEventManager {
     private final ExecutorService executor;
     private IEventManager subject;
+    private GatewayMetrics metrics;
 
     public EventManagerProxy(IEventManager subject, ExecutorService executor) {
         this.subject = subject;
@@ -44,6 +47,10 @@ public class EventManagerProxy implements IEventManager {
         return subject;
     }
 
+    public void setMetrics(GatewayMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     @Override
     public void register(@Nonnull Object listener) {
         this.subject.register(listener);
@@ -58,7 +65,13 @@ public class EventManagerProxy implements IEventManager {
     public void handle(@Nonnull GenericEvent event) {
         try {
             if (executor != null && !executor.isShutdown()) {
-                executor.execute(() -> handleInternally(event));
+                Runnable task = createTask(event);
+                if (executor instanceof OrderedEventPool) {
+                    OrderedEventPool pool = (OrderedEventPool) executor;
+                    pool.execute(pool.getKey(event), task);
+                } else {
+                    executor.execute(task);
+                }
             } else {
                 handleInternally(event);
             }
@@ -70,6 +83,23 @@ public class EventManagerProxy implements IEventManager {
         }
     }
 
+    private Runnable createTask(@Nonnull GenericEvent event) {
+        GatewayMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return () -> handleInternally(event);
+        }
+
+        long queued = System.nanoTime();
+        return () -> {
+            try {
+                metrics.onEventPoolDelay(event, System.nanoTime() - queued);
+            } catch (RuntimeException e) {
+                JDAImpl.LOG.error("Uncaught exception from gateway metrics", e);
+            }
+            handleInternally(event);
+        };
+    }
+
     private void handleInternally(@Nonnull GenericEvent event) {
         // don't allow mere exceptions to obstruct the socket handler
         try {
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.internal.requests;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.dv8tion.jda.internal.utils.SerializationUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+
+import static net.dv8tion.jda.api.utils.data.etf.ExTermTag.*;
+
+/**
+ * Reads the {@code op}, {@code s}, and {@code t} fields of a gateway payload, without decoding the event data.
+ * <br>Used by {@link WebSocketClient} to discard dispatches before they are parsed.
+ *
+ * <p>This class is not Thread-Safe, the read fields are only valid until the next call.
+ */
+public class DispatchPeeker {
+    private String type;
+    private int sequence;
+    private int op;
+
+    public String getType() {
+        return type;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Checks whether the JSON payload is a dispatch which should be discarded.
+     * <br>This stops reading as soon as the type is known to be accepted.
+     *
+     * @param  data
+     *         The array containing the payload
+     * @param  offset
+     *         The start of the payload
+     * @param  length
+     *         The length of the payload
+     * @param  accept
+     *         The filter for dispatch types
+     *
+     * @return True, if the payload is a dispatch of a rejected type and its sequence is known
+     */
+    public boolean isDiscardedJson(byte[] data, int offset, int length, Predicate<String> accept) {
+        reset();
+        try (JsonParser parser = SerializationUtil.createParser(data, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (name) {
+                    case "t":
+                        if (token != JsonToken.VALUE_STRING) {
+                            return false;
+                        }
+                        type = parser.getText();
+                        if (accept.test(type)) {
+                            return false;
+                        }
+                        break;
+                    case "op":
+                        if (token != JsonToken.VALUE_NUMBER_INT) {
+                            return false;
+                        }
+                        op = parser.getIntValue();
+                        if (op != WebSocketCode.DISPATCH) {
+                            return false;
+                        }
+                        break;
+                    case "s":
+                        if (token == JsonToken.VALUE_NUMBER_INT) {
+                            sequence = parser.getIntValue();
+                        }
+                        break;
+                    default:
+                        // Skips over the event data, without decoding it
+                        parser.skipChildren();
+                }
+
+                if (isComplete()) {
+                    return true;
+                }
+            }
+        } catch (IOException | RuntimeException ignored) {
+            // Let the regular parsing report the error
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the ETF payload is a dispatch which should be discarded.
+     * <br>This stops reading as soon as the type is known to be accepted.
+     *
+     * @param  buffer
+     *         The buffer containing the payload, the position is not modified
+     * @param  accept
+     *         The filter for dispatch types
+     *
+     * @return True, if the payload is a dispatch of a rejected type and its sequence is known
+     */
+    public boolean isDiscardedETF(ByteBuffer buffer, Predicate<String> accept) {
+        reset();
+        try {
+            buffer = buffer.duplicate();
+            if (buffer.get() != -125 || buffer.get() != MAP) {
+                return false;
+            }
+
+            int arity = buffer.getInt();
+            while (arity-- > 0) {
+                String name = readString(buffer);
+                if (name == null) {
+                    return false;
+                }
+
+                switch (name) {
+                    case "t":
+                        type = readString(buffer);
+                        if (type == null || accept.test(type)) {
+                            return false;
+                        }
+                        break;
+                    case "op":
+                        op = readInt(buffer);
+                        if (op != WebSocketCode.DISPATCH) {
+                            return false;
+                        }
+                        break;
+                    case "s":
+                        sequence = readInt(buffer);
+                        break;
+                    default:
+                        // Skips over the event data, without decoding it
+                        if (!skip(buffer)) {
+                            return false;
+                        }
+                }
+
+                if (isComplete()) {
+                    return true;
+                }
+            }
+        } catch (RuntimeException ignored) {
+            // Let the regular parsing report the error
+        }
+        return false;
+    }
+
+    private void reset() {
+        type = null;
+        sequence = -1;
+        op = -1;
+    }
+
+    private boolean isComplete() {
+        return type != null && op == WebSocketCode.DISPATCH && sequence >= 0;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length;
+        switch (buffer.get()) {
+            case SMALL_ATOM_UTF8:
+            case SMALL_ATOM:
+                length = Byte.toUnsignedInt(buffer.get());
+                break;
+            case ATOM_UTF8:
+            case ATOM:
+                length = Short.toUnsignedInt(buffer.getShort());
+                break;
+            case BINARY:
+                length = buffer.getInt();
+                break;
+            default:
+                return null;
+        }
+
+        int offset = buffer.arrayOffset() + buffer.position();
+        String value = new String(buffer.array(), offset, length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value.equals("nil") ? null : value;
+    }
+
+    private static int readInt(ByteBuffer buffer) {
+        switch (buffer.get()) {
+            case SMALL_INT:
+                return Byte.toUnsignedInt(buffer.get());
+            case INT:
+                return buffer.getInt();
+            default:
+                return -1;
+        }
+    }
+
+    private static boolean skip(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        switch (tag) {
+            case SMALL_INT:
+                buffer.position(buffer.position() + 1);
+                return true;
+            case INT:
+                buffer.position(buffer.position() + 4);
+                return true;
+            case NEW_FLOAT:
+                buffer.position(buffer.position() + 8);
+                return true;
+            case FLOAT:
+                buffer.position(buffer.position() + 31);
+                return true;
+            case SMALL_BIGINT:
+                buffer.position(buffer.position() + 1 + Byte.toUnsignedInt(buffer.get()));
+                return true;
+            case SMALL_ATOM_UTF8:
+            case SMALL_ATOM:
+                buffer.position(buffer.position() + Byte.toUnsignedInt(buffer.get()));
+                return true;
+            case ATOM_UTF8:
+            case ATOM:
+            case STRING:
+                buffer.position(buffer.position() + Short.toUnsignedInt(buffer.getShort()));
+                return true;
+            case BINARY:
+                buffer.position(buffer.position() + buffer.getInt());
+                return true;
+            case NIL:
+                return true;
+            case LIST:
+                // N elements followed by the tail, which is usually NIL
+                for (int length = buffer.getInt(); length >= 0; length--) {
+                    if (!skip(buffer)) {
+                        return false;
+                    }
+                }
+                return true;
+            case MAP:
+                for (int arity = buffer.getInt(); arity > 0; arity--) {
+                    if (!skip(buffer) || !skip(buffer)) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                // Compressed terms or unsupported tags require full decoding
+                return false;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import net.dv8tion.jda.api.requests.*;
 import net.dv8tion.jda.api.requests.Request;
 import net.dv8tion.jda.api.requests.Response;
 import net.dv8tion.jda.api.requests.Route;
+import net.dv8tion.jda.api.utils.MiscUtil;
 import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.utils.IOUtil;
@@ -35,12 +36,12 @@ import java.io.InputStream;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
-import java.util.LinkedHashSet;
-import java.util.Locale;
+import java.util.*;
 import java.util.Map.Entry;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
@@ -76,6 +77,9 @@ public class Requester {
     private final HttpUrl baseUrl;
     private final String userAgent;
     private final Consumer<? super okhttp3.Request.Builder> customBuilder;
+    private final RequestCoalescer coalescer;
+    private final RestResponseCache responseCache;
+    private final ConcurrentMap<String, WorkTask> inFlight = new ConcurrentHashMap<>();
 
     private final OkHttpClient httpClient;
 
@@ -97,6 +101,8 @@ public class Requester {
         this.baseUrl = HttpUrl.get(config.getBaseUrl());
         this.userAgent = config.getUserAgent();
         this.customBuilder = config.getCustomBuilder();
+        this.coalescer = config.getRequestCoalescer();
+        this.responseCache = config.getResponseCache();
         this.httpClient = this.api.getHttpClient();
     }
 
@@ -123,10 +129,61 @@ public class Requester {
             throw new RejectedExecutionException("The Requester has been stopped! No new requests can be requested!");
         }
 
+        boolean cacheable = isCacheable(apiRequest);
+        if (cacheable) {
+            okhttp3.Response cached = responseCache.get(apiRequest.getRoute());
+            if (cached != null) {
+                LOG.trace("Using cached response for {}", apiRequest.getRoute());
+                if (!apiRequest.isSkipped()) {
+                    apiRequest.handleResponse(new Response(cached, -1, Collections.emptySet()));
+                }
+                return;
+            }
+        }
+
+        String coalesceKey = null;
+        if (coalescer != null && coalescer.isCoalescable(apiRequest)) {
+            coalesceKey = coalescer.getKey(apiRequest.getRoute());
+        }
+
+        WorkTask task = new WorkTask(apiRequest, coalesceKey, cacheable);
+        if (coalesceKey != null && !registerInFlight(task)) {
+            return;
+        }
+        if (cacheable) {
+            // Attached requests are not reserved, their response is stored by the task they are attached to
+            task.cacheToken = responseCache.reserve(apiRequest.getRoute());
+        }
+
         if (apiRequest.shouldQueue()) {
-            rateLimiter.enqueue(new WorkTask(apiRequest));
+            rateLimiter.enqueue(task);
         } else {
-            execute(new WorkTask(apiRequest), true);
+            execute(task, true);
+        }
+    }
+
+    private boolean isCacheable(Request<?> apiRequest) {
+        return responseCache != null
+                && apiRequest.getRoute().getMethod() == Method.GET
+                && apiRequest.getBody() == null
+                && (apiRequest.getHeaders() == null || apiRequest.getHeaders().isEmpty())
+                && responseCache.isCacheable(apiRequest.getRoute());
+    }
+
+    // Returns false if the request was attached to an identical in-flight request instead
+    private boolean registerInFlight(WorkTask task) {
+        while (true) {
+            WorkTask current = inFlight.putIfAbsent(task.coalesceKey, task);
+            if (current == null) {
+                coalescer.recordMiss();
+                return true;
+            }
+            if (current.attach(task.request)) {
+                coalescer.recordHit();
+                return false;
+            }
+            // The current task already completed, but has not been removed yet
+            inFlight.remove(task.coalesceKey, current);
         }
     }
 
@@ -187,7 +244,7 @@ public class Requester {
             LOG.trace("Executing request {} {}", task.getRoute().getMethod(), url);
             int code = 0;
             for (int attempt = 0; attempt < responses.length; attempt++) {
-                if (apiRequest.isSkipped()) {
+                if (task.isSkipped()) {
                     return null;
                 }
 
@@ -327,6 +384,11 @@ public class Requester {
         return rateLimiter;
     }
 
+    @Nullable
+    public RestResponseCache getResponseCache() {
+        return responseCache;
+    }
+
     public void setRetryOnTimeout(boolean retryOnTimeout) {
         this.retryOnTimeout = retryOnTimeout;
     }
@@ -359,10 +421,59 @@ public class Requester {
 
     private class WorkTask implements RestRateLimiter.Work {
         private final Request<?> request;
+        private final String coalesceKey;
+        private final boolean cacheable;
+        // Reservation of the response cache, released if the response is not stored
+        private Object cacheToken;
+        // Requests attached to this task through coalescing, guarded by lock
+        private final ReentrantLock lock;
+        private final List<Request<?>> attached;
+        private boolean closed;
         private boolean done;
 
-        private WorkTask(Request<?> request) {
+        private WorkTask(Request<?> request, String coalesceKey, boolean cacheable) {
             this.request = request;
+            this.coalesceKey = coalesceKey;
+            this.cacheable = cacheable;
+            this.lock = coalesceKey == null ? null : new ReentrantLock();
+            this.attached = coalesceKey == null ? null : new ArrayList<>();
+        }
+
+        private boolean attach(Request<?> other) {
+            return MiscUtil.locked(lock, () -> {
+                if (closed) {
+                    return false;
+                }
+                attached.add(other);
+                return true;
+            });
+        }
+
+        private Request<?>[] getAttached() {
+            return MiscUtil.locked(lock, () -> attached.toArray(new Request<?>[0]));
+        }
+
+        // Stops accepting new requests and returns all requests that are waiting for the response
+        private List<Request<?>> close() {
+            if (coalesceKey == null) {
+                return Collections.emptyList();
+            }
+            return MiscUtil.locked(lock, () -> {
+                closed = true;
+                inFlight.remove(coalesceKey, this);
+                return new ArrayList<>(attached);
+            });
+        }
+
+        private boolean closeIfUnchanged(int expectedSize) {
+            return MiscUtil.locked(lock, () -> {
+                if (attached.size() != expectedSize) {
+                    return false;
+                }
+                closed = true;
+                inFlight.remove(coalesceKey, this);
+                return true;
+            });
         }
 
         @Nonnull
@@ -385,7 +496,27 @@ public class Requester {
 
         @Override
         public boolean isSkipped() {
-            return request.isSkipped();
+            boolean skipped = request.isSkipped();
+            if (coalesceKey == null || !skipped) {
+                if (skipped) {
+                    releaseCache();
+                }
+                return skipped;
+            }
+
+            // The task can only be skipped if all attached requests are skipped as well
+            while (true) {
+                Request<?>[] waiting = getAttached();
+                for (Request<?> other : waiting) {
+                    if (!other.isSkipped()) {
+                        return false;
+                    }
+                }
+                if (closeIfUnchanged(waiting.length)) {
+                    releaseCache();
+                    return true;
+                }
+            }
         }
 
         @Override
@@ -400,12 +531,24 @@ public class Requester {
 
         @Override
         public boolean isCancelled() {
-            return request.isCancelled();
+            if (!request.isCancelled()) {
+                return false;
+            }
+            if (coalesceKey != null) {
+                for (Request<?> other : getAttached()) {
+                    if (!other.isCancelled()) {
+                        return false;
+                    }
+                }
+            }
+            return true;
         }
 
         @Override
         public void cancel() {
             request.cancel();
+            close().forEach(Request::cancel);
+            releaseCache();
         }
 
         @Nonnull
@@ -415,18 +558,85 @@ public class Requester {
         }
 
         private void handleResponse(okhttp3.Response response, Set<String> rays) {
-            done = true;
-            request.handleResponse(new Response(response, -1, rays));
+            handleResponse(response, -1, rays);
+        }
+
+        private void releaseCache() {
+            // Releasing is idempotent, the task might be skipped more than once
+            if (cacheToken != null) {
+                responseCache.release(getRoute(), cacheToken);
+            }
         }
 
         private void handleResponse(Exception error, Set<String> rays) {
             done = true;
-            request.handleResponse(new Response(error, rays));
+            releaseCache();
+            List<Request<?>> waiting = close();
+            if (waiting.isEmpty()) {
+                request.handleResponse(new Response(error, rays));
+                return;
+            }
+
+            deliver(request, new Response(error, rays));
+            for (Request<?> other : waiting) {
+                deliver(other, new Response(error, rays));
+            }
         }
 
         private void handleResponse(okhttp3.Response response, long retryAfter, Set<String> cfRays) {
             done = true;
-            request.handleResponse(new Response(response, retryAfter, cfRays));
+            List<Request<?>> waiting = close();
+            Route.CompiledRoute route = getRoute();
+            boolean store = cacheable && response.isSuccessful();
+            if (cacheable && !store) {
+                releaseCache();
+            }
+            if (responseCache != null && response.isSuccessful() && route.getMethod() != Method.GET) {
+                // The request might have modified entities with cached responses
+                responseCache.invalidate(route);
+            }
+
+            if (waiting.isEmpty() && !store) {
+                request.handleResponse(new Response(response, retryAfter, cfRays));
+                return;
+            }
+
+            // The body can only be consumed once, so every request gets its own copy
+            ResponseBody body = response.body();
+            byte[] content;
+            try {
+                content = body.bytes();
+            } catch (IOException e) {
+                LOG.error("Failed to read response body for {}: {}", route, e.getMessage());
+                releaseCache();
+                deliver(request, new Response(e, cfRays));
+                for (Request<?> other : waiting) {
+                    deliver(other, new Response(e, cfRays));
+                }
+                return;
+            }
+
+            if (store) {
+                responseCache.put(route, cacheToken, response, content);
+            }
+
+            MediaType contentType = body.contentType();
+            deliver(request, new Response(copyResponse(response, content, contentType), retryAfter, cfRays));
+            for (Request<?> other : waiting) {
+                deliver(other, new Response(copyResponse(response, content, contentType), retryAfter, cfRays));
+            }
+        }
+
+        private void deliver(Request<?> target, Response response) {
+            if (!target.isSkipped()) {
+                target.handleResponse(response);
+            }
+        }
+
+        private okhttp3.Response copyResponse(okhttp3.Response response, byte[] content, MediaType contentType) {
+            return response.newBuilder()
+                    .body(ResponseBody.create(content, contentType))
+                    .build();
         }
     }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.requests;
+
+import net.dv8tion.jda.api.requests.RestResponseCache;
+import net.dv8tion.jda.api.requests.Route;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Invalidates cached REST responses for entities changed by gateway events.
+ */
+final class ResponseCacheInvalidator {
+    static final Set<String> EVENTS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "MESSAGE_UPDATE",
+            "MESSAGE_DELETE",
+            "MESSAGE_DELETE_BULK",
+            "CHANNEL_PINS_UPDATE",
+            "GUILD_MEMBER_UPDATE",
+            "GUILD_MEMBER_REMOVE",
+            "USER_UPDATE")));
+
+    private ResponseCacheInvalidator() {}
+
+    static void onDispatch(RestResponseCache cache, String type, DataObject content) {
+        switch (type) {
+            case "MESSAGE_UPDATE":
+            case "MESSAGE_DELETE":
+                cache.invalidate(Route.Messages.GET_MESSAGE.compile(
+                        content.getString("channel_id"), content.getString("id")));
+                break;
+            case "MESSAGE_DELETE_BULK": {
+                String channelId = content.getString("channel_id");
+                DataArray ids = content.getArray("ids");
+                for (int i = 0; i < ids.length(); i++) {
+                    cache.invalidate(Route.Messages.GET_MESSAGE.compile(channelId, ids.getString(i)));
+                }
+                break;
+            }
+            case "CHANNEL_PINS_UPDATE":
+                cache.invalidate(Route.Messages.GET_MESSAGE_PINS.compile(content.getString("channel_id")));
+                break;
+            case "GUILD_MEMBER_UPDATE":
+            case "GUILD_MEMBER_REMOVE": {
+                String userId = content.getObject("user").getString("id");
+                cache.invalidate(Route.Guilds.GET_MEMBER.compile(content.getString("guild_id"), userId));
+                cache.invalidate(Route.Users.GET_USER.compile(userId));
+                break;
+            }
+            case "USER_UPDATE":
+                cache.invalidate(Route.Users.GET_USER.compile(content.getString("id")));
+                break;
+        }
+    }
+}
@@ -33,12 +33,15 @@ import net.dv8tion.jda.api.events.session.*;
 import net.dv8tion.jda.api.exceptions.ParsingException;
 import net.dv8tion.jda.api.managers.AudioManager;
 import net.dv8tion.jda.api.requests.CloseCode;
+import net.dv8tion.jda.api.requests.RestResponseCache;
 import net.dv8tion.jda.api.utils.Compression;
 import net.dv8tion.jda.api.utils.MiscUtil;
 import net.dv8tion.jda.api.utils.SessionController;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
 import net.dv8tion.jda.api.utils.data.DataType;
+import net.dv8tion.jda.api.utils.metrics.GatewayMetrics;
 import net.dv8tion.jda.internal.JDAImpl;
 import net.dv8tion.jda.internal.audio.ConnectionRequest;
 import net.dv8tion.jda.internal.audio.ConnectionStage;
@@ -51,8 +54,9 @@ import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.ShutdownReason;
 import net.dv8tion.jda.internal.utils.UnlockHook;
 import net.dv8tion.jda.internal.utils.cache.AbstractCacheView;
+import net.dv8tion.jda.internal.utils.cache.CacheSnapshot;
 import net.dv8tion.jda.internal.utils.compress.Decompressor;
-import net.dv8tion.jda.internal.utils.compress.ZlibDecompressor;
+import net.dv8tion.jda.internal.utils.compress.ZstdDecompressor;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
 
@@ -62,14 +66,19 @@ import java.lang.ref.SoftReference;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.zip.DataFormatException;
@@ -82,6 +91,15 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 
     protected static final String INVALIDATE_REASON = "INVALIDATE_SESSION";
     protected static final long IDENTIFY_BACKOFF = TimeUnit.SECONDS.toMillis(SessionController.IDENTIFY_DELAY);
+    // Dispatches which are required to maintain the session and can never be discarded
+    protected static final Set<String> REQUIRED_DISPATCHES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "READY",
+            "RESUMED",
+            "GUILD_CREATE",
+            "GUILD_DELETE",
+            "GUILD_MEMBERS_CHUNK",
+            "VOICE_STATE_UPDATE",
+            "VOICE_SERVER_UPDATE")));
 
     protected final JDAImpl api;
     protected final JDA.ShardInfo shardInfo;
@@ -96,6 +114,14 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     protected volatile String sessionId = null;
     protected final Object readLock = new Object();
     protected Decompressor decompressor;
+    protected final DispatchPeeker dispatchPeeker = new DispatchPeeker();
+    protected final Predicate<String> dispatchCheck = this::isDispatchNeeded;
+    protected final boolean presenceCache;
+    protected final AtomicLong discardedDispatches = new AtomicLong();
+    protected final AtomicLong discardedBytes = new AtomicLong();
+    // Measurements of the payload currently being handled, only used by the reading thread
+    protected int payloadBytes;
+    protected long parseNanos;
     protected String resumeUrl = null;
 
     protected final ReentrantLock queueLock = new ReentrantLock();
@@ -129,6 +155,8 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     protected volatile boolean sentAuthInfo = false;
     protected boolean firstInit = true;
     protected boolean processingReady = true;
+    // Set on shutdown, when the session should be kept alive and written to the cache snapshot
+    protected boolean writeCacheSnapshot = false;
 
     protected volatile ConnectNode connectNode;
 
@@ -140,9 +168,11 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         this.gatewayIntents = gatewayIntents;
         this.chunkManager = new MemberChunkManager(this);
         this.encoding = encoding;
+        this.presenceCache = api.getCacheFlags().stream().anyMatch(CacheFlag::isPresence);
         this.shouldReconnect = api.isAutoReconnect();
         this.connectNode = new StartingNode();
         setupHandlers();
+        restoreCacheSnapshot();
         try {
             api.getSessionController().appendSession(connectNode);
         } catch (RuntimeException | Error e) {
@@ -177,6 +207,14 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         return chunkManager;
     }
 
+    public long getDiscardedDispatches() {
+        return discardedDispatches.get();
+    }
+
+    public long getDiscardedBytes() {
+        return discardedBytes.get();
+    }
+
     public void ready() {
         if (initiating) {
             initiating = false;
@@ -202,6 +240,11 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                 JDAImpl.LOG.info("Finished (Re)Loading!");
                 api.handleEvent(new SessionRecreateEvent(api));
             }
+        } else if (firstInit) {
+            // Resumed the session of a cache snapshot, this is the first ready of this instance
+            firstInit = false;
+            JDAImpl.LOG.info("Finished Loading from cache snapshot!");
+            api.handleEvent(new ReadyEvent(api));
         } else {
             JDAImpl.LOG.debug("Successfully resumed Session!");
             api.handleEvent(new SessionResumeEvent(api));
@@ -325,7 +368,9 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                 api.getSessionController().removeSession(connectNode);
             }
             boolean wasConnected = connected;
-            close(1000, "Shutting down");
+            // Closing with 1000 drops the session, any other code keeps it alive so it can be resumed after a restart
+            writeCacheSnapshot = wasConnected && isReady() && sessionId != null && api.getCacheSnapshotFile() != null;
+            close(writeCacheSnapshot ? 4900 : 1000, "Shutting down");
             reconnectCondvar.signalAll(); // signal reconnect attempts to stop
             return !wasConnected;
         });
@@ -360,17 +405,10 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                     encoding.name().toLowerCase(Locale.ROOT),
                     "v",
                     JDAInfo.DISCORD_GATEWAY_VERSION);
-            if (compression != Compression.NONE) {
-                gatewayUrl = IOUtil.addQuery(gatewayUrl, "compress", compression.getKey());
-                switch (compression) {
-                    case ZLIB:
-                        if (decompressor == null || decompressor.getType() != Compression.ZLIB) {
-                            decompressor = new ZlibDecompressor(api.getMaxBufferSize());
-                        }
-                        break;
-                    default:
-                        throw new IllegalStateException("Unknown compression");
-                }
+            decompressor = Decompressor.forCompression(
+                    compression, decompressor, api.getMaxBufferSize(), ZstdDecompressor::isSupported);
+            if (decompressor != null) {
+                gatewayUrl = IOUtil.addQuery(gatewayUrl, "compress", decompressor.getType().getKey());
             }
 
             WebSocketFactory socketFactory = new WebSocketFactory(api.getWebSocketFactory());
@@ -519,6 +557,9 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                 decompressor.shutdown();
             }
 
+            if (writeCacheSnapshot && sessionId != null) {
+                writeCacheSnapshot();
+            }
             onShutdown(rawCloseCode);
         } else {
             // reset our decompression tools
@@ -758,6 +799,52 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         api.handleEvent(new SessionInvalidateEvent(api));
     }
 
+    protected void restoreCacheSnapshot() {
+        Path file = api.getCacheSnapshotFile();
+        if (file == null) {
+            return;
+        }
+
+        try {
+            CacheSnapshot snapshot = CacheSnapshot.read(file);
+            if (snapshot == null) {
+                return;
+            }
+            // A session can only be resumed once, the next startup has to identify unless a new snapshot is written
+            Files.delete(file);
+            if (!snapshot.isCompatible(api, gatewayIntents)) {
+                LOG.info("Ignoring cache snapshot of a different bot, shard, or configuration");
+                return;
+            }
+
+            snapshot.restore(api);
+            sessionId = snapshot.getSessionId();
+            resumeUrl = snapshot.getResumeUrl();
+            api.setResponseTotal(snapshot.getSequence());
+            // Handle RESUMED like a reconnect, the cache is already complete
+            processingReady = false;
+            LOG.info("Restored {} guilds from cache snapshot, attempting to resume session", snapshot.getGuildCount());
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Failed to restore cache snapshot, starting a new session", e);
+            sessionId = null;
+            resumeUrl = null;
+            api.getChannelsView().clear();
+            api.getGuildsView().clear();
+            api.getUsersView().clear();
+            api.getGuildSetupController().getUnavailableGuilds().clear();
+        }
+    }
+
+    protected void writeCacheSnapshot() {
+        Path file = api.getCacheSnapshotFile();
+        try {
+            CacheSnapshot.write(api, sessionId, resumeUrl, gatewayIntents, file);
+            LOG.info("Wrote cache snapshot of {} guilds to {}", api.getGuildCache().size(), file);
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Failed to write cache snapshot to {}", file, e);
+        }
+    }
+
     protected void updateAudioManagerReferences() {
         AbstractCacheView<AudioManager> managerView = api.getAudioManagersView();
         try (UnlockHook hook = managerView.writeLock()) {
@@ -867,6 +954,8 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     }
 
     protected void onDispatch(DataObject raw) {
+        GatewayMetrics metrics = api.getGatewayMetrics();
+        long start = metrics == null ? 0 : System.nanoTime();
         String type = raw.getString("t");
         long responseTotal = api.getResponseTotal();
 
@@ -887,6 +976,9 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             } else {
                 LOG.debug("Received event with unhandled body type JSON: {}", raw);
             }
+            if (metrics != null) {
+                recordDispatch(metrics, type, start);
+            }
             return;
         }
 
@@ -908,6 +1000,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                     // otherwise the audio connection requests that are currently pending might be
                     // removed in the process
                     handlers.get("READY").handle(responseTotal, raw);
+                    clearResponseCache();
                     sessionId = content.getString("session_id");
                     resumeUrl = content.getString("resume_gateway_url", null);
                     traceMetadata = content.opt("_trace").map(String::valueOf).orElse(null);
@@ -931,6 +1024,10 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                         LOG.debug("Ignoring {} for unavailable guild with id {}. JSON: {}", type, guildId, content);
                         break;
                     }
+                    RestResponseCache responseCache = api.getRequester().getResponseCache();
+                    if (responseCache != null) {
+                        ResponseCacheInvalidator.onDispatch(responseCache, type, content);
+                    }
                     SocketHandler handler = handlers.get(type);
                     if (handler != null) {
                         handler.handle(responseTotal, raw);
@@ -959,14 +1056,46 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                     ex);
         }
 
+        if (metrics != null) {
+            recordDispatch(metrics, type, start);
+        }
+
         if (responseTotal % EventCache.TIMEOUT_AMOUNT == 0) {
             jda.getEventCache().timeout(responseTotal);
         }
     }
 
+    protected void clearResponseCache() {
+        // Events of the previous session might have been missed
+        RestResponseCache responseCache = api.getRequester().getResponseCache();
+        if (responseCache != null) {
+            responseCache.clear();
+        }
+    }
+
+    protected void recordDispatch(GatewayMetrics metrics, String type, long start) {
+        try {
+            metrics.onDispatchHandled(type, payloadBytes, parseNanos, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            LOG.error("Uncaught exception from gateway metrics", e);
+        }
+        // Cached dispatches which are handled later have no payload of their own
+        payloadBytes = 0;
+        parseNanos = 0;
+    }
+
     @Override
     public void onTextMessage(WebSocket websocket, byte[] data) {
-        handleEvent(DataObject.fromJson(data));
+        synchronized (readLock) {
+            if (canDiscardDispatches() && dispatchPeeker.isDiscardedJson(data, 0, data.length, dispatchCheck)) {
+                discardDispatch(data.length);
+                return;
+            }
+        }
+        long start = System.nanoTime();
+        DataObject message = api.isLazyParsing() ? DataObject.fromJsonLazy(data) : DataObject.fromJson(data);
+        recordParse(data.length, start);
+        handleEvent(message);
     }
 
     @Override
@@ -984,33 +1113,60 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     protected DataObject handleBinary(byte[] binary) throws DataFormatException {
         if (decompressor == null) {
             if (encoding == GatewayEncoding.ETF) {
-                return DataObject.fromETF(binary);
+                if (canDiscardDispatches()
+                        && dispatchPeeker.isDiscardedETF(ByteBuffer.wrap(binary), dispatchCheck)) {
+                    discardDispatch(binary.length);
+                    return null;
+                }
+                long start = System.nanoTime();
+                DataObject message = DataObject.fromETF(binary);
+                recordParse(binary.length, start);
+                return message;
             }
             throw new IllegalStateException(
                     "Cannot decompress binary message due to unknown compression algorithm: " + compression);
         }
         // Scoping allows us to print the json that possibly failed parsing
-        byte[] data;
+        // The buffer is a view into the decompressor and is only valid until the next decompress call,
+        // which is fine since we are holding the readLock
+        ByteBuffer data;
         try {
-            data = decompressor.decompress(binary);
+            long start = System.nanoTime();
+            data = decompressor.decompressToBuffer(binary);
             if (data == null) {
                 return null;
             }
+            recordDecompression(binary.length, data.remaining(), start);
         } catch (DataFormatException e) {
             close(4900, "MALFORMED_PACKAGE");
             throw e;
         }
 
+        if (canDiscardDispatches() && isDiscarded(data)) {
+            discardDispatch(data.remaining());
+            return null;
+        }
+
         try {
+            long start = System.nanoTime();
+            DataObject message;
             if (encoding == GatewayEncoding.ETF) {
-                return DataObject.fromETF(data);
+                message = DataObject.fromETF(data.duplicate());
+            } else if (api.isLazyParsing()) {
+                // The lazy payload outlives the decompression buffer, so it needs its own copy
+                byte[] copy = Arrays.copyOfRange(
+                        data.array(), data.arrayOffset() + data.position(), data.arrayOffset() + data.limit());
+                message = DataObject.fromJsonLazy(copy);
             } else {
-                return DataObject.fromJson(data);
+                message = DataObject.fromJson(data.array(), data.arrayOffset() + data.position(), data.remaining());
             }
+            recordParse(data.remaining(), start);
+            return message;
         } catch (ParsingException e) {
             String jsonString = "malformed";
             try {
-                jsonString = new String(data, StandardCharsets.UTF_8);
+                jsonString = new String(
+                        data.array(), data.arrayOffset() + data.position(), data.remaining(), StandardCharsets.UTF_8);
             } catch (Exception ignored) {
             }
             // Print the string that could not be parsed and re-throw the exception
@@ -1019,6 +1175,79 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         }
     }
 
+    protected boolean canDiscardDispatches() {
+        // Discarding is opt-in, once enabled we also discard dispatches which JDA itself doesn't need
+        return api.hasDispatchFilter();
+    }
+
+    protected boolean isDiscarded(ByteBuffer data) {
+        if (encoding == GatewayEncoding.ETF) {
+            return dispatchPeeker.isDiscardedETF(data, dispatchCheck);
+        }
+        return dispatchPeeker.isDiscardedJson(
+                data.array(), data.arrayOffset() + data.position(), data.remaining(), dispatchCheck);
+    }
+
+    protected boolean isDispatchNeeded(String type) {
+        if (REQUIRED_DISPATCHES.contains(type)) {
+            return true;
+        }
+        if (ResponseCacheInvalidator.EVENTS.contains(type) && api.getRequester().getResponseCache() != null) {
+            return true;
+        }
+        if (!api.isDispatchHandled(type)) {
+            return false;
+        }
+        if (api.isRawEvents()) {
+            return true;
+        }
+
+        switch (type) {
+            case "PRESENCE_UPDATE":
+            case "PRESENCES_REPLACE":
+                // Presences are only used to update the presence cache
+                return presenceCache;
+            default:
+                SocketHandler handler = handlers.get(type);
+                return handler != null && !(handler instanceof SocketHandler.NOPHandler);
+        }
+    }
+
+    protected void discardDispatch(int length) {
+        // The sequence still has to be tracked for heartbeats and resuming
+        api.setResponseTotal(dispatchPeeker.getSequence());
+        discardedDispatches.incrementAndGet();
+        discardedBytes.addAndGet(length);
+        LOG.trace("Discarded {} dispatch with {} bytes", dispatchPeeker.getType(), length);
+
+        GatewayMetrics metrics = api.getGatewayMetrics();
+        if (metrics != null) {
+            try {
+                metrics.onDispatchDiscarded(dispatchPeeker.getType(), length);
+            } catch (RuntimeException e) {
+                LOG.error("Uncaught exception from gateway metrics", e);
+            }
+        }
+    }
+
+    protected void recordDecompression(int compressedBytes, int decompressedBytes, long start) {
+        GatewayMetrics metrics = api.getGatewayMetrics();
+        if (metrics != null) {
+            try {
+                metrics.onPayloadDecompressed(compressedBytes, decompressedBytes, System.nanoTime() - start);
+            } catch (RuntimeException e) {
+                LOG.error("Uncaught exception from gateway metrics", e);
+            }
+        }
+    }
+
+    protected void recordParse(int length, long start) {
+        if (api.getGatewayMetrics() != null) {
+            payloadBytes = length;
+            parseNanos = System.nanoTime() - start;
+        }
+    }
+
     @Override
     public void handleCallbackError(WebSocket websocket, Throwable cause) throws Exception {
         handleError(cause);
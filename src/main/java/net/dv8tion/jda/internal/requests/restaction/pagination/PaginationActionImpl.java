@@ -17,17 +17,22 @@
 package net.dv8tion.jda.internal.requests.restaction.pagination;
 
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
 import net.dv8tion.jda.api.requests.Route;
 import net.dv8tion.jda.api.requests.restaction.pagination.PaginationAction;
+import net.dv8tion.jda.api.utils.MiscUtil;
 import net.dv8tion.jda.api.utils.Procedure;
+import net.dv8tion.jda.internal.requests.CallbackContext;
 import net.dv8tion.jda.internal.requests.RestActionImpl;
 import net.dv8tion.jda.internal.utils.Checks;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiFunction;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
@@ -47,6 +52,7 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
     protected volatile long lastKey = 0;
     protected volatile T last = null;
     protected volatile boolean useCache = true;
+    protected volatile int prefetch = 0;
 
     /**
      * Creates a new PaginationAction instance
@@ -211,6 +217,21 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
         return useCache;
     }
 
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public M prefetch(int pages) {
+        Checks.notNegative(pages, "Prefetch");
+        Checks.check(pages <= MAX_PREFETCH, "Prefetch must not exceed %d!", MAX_PREFETCH);
+        this.prefetch = pages;
+        return (M) this;
+    }
+
+    @Override
+    public int getPrefetch() {
+        return prefetch;
+    }
+
     @Override
     public final int getMaxLimit() {
         return maxLimit;
@@ -264,6 +285,10 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
     @Nonnull
     @Override
     public PaginationIterator<T> iterator() {
+        if (prefetch > 0) {
+            PagePrefetcher prefetcher = new PagePrefetcher();
+            return new PaginationIterator<>(cached, () -> join(prefetcher.next()));
+        }
         return new PaginationIterator<>(cached, this::getNextChunk);
     }
 
@@ -275,7 +300,7 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
         Checks.notNull(failure, "Failure Consumer");
 
         CompletableFuture<?> task = new CompletableFuture<>();
-        Consumer<List<T>> acceptor = new ChainedConsumer(task, action, (throwable) -> {
+        Consumer<List<T>> acceptor = createConsumer(task, action, (throwable) -> {
             task.completeExceptionally(throwable);
             failure.accept(throwable);
         });
@@ -296,7 +321,7 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
         Checks.notNull(failure, "Failure Consumer");
 
         CompletableFuture<?> task = new CompletableFuture<>();
-        Consumer<List<T>> acceptor = new ChainedConsumer(task, action, (throwable) -> {
+        Consumer<List<T>> acceptor = createConsumer(task, action, (throwable) -> {
             task.completeExceptionally(throwable);
             failure.accept(throwable);
         });
@@ -312,6 +337,11 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
     @Override
     public void forEachRemaining(@Nonnull Procedure<? super T> action) {
         Checks.notNull(action, "Procedure");
+        if (prefetch > 0) {
+            forEachRemainingPrefetched(action);
+            return;
+        }
+
         Queue<T> queue = new ArrayDeque<>();
         while (queue.addAll(getNextChunk())) {
             while (!queue.isEmpty()) {
@@ -325,6 +355,23 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
         }
     }
 
+    private void forEachRemainingPrefetched(Procedure<? super T> action) {
+        PagePrefetcher prefetcher = new PagePrefetcher();
+        Queue<T> queue = new ArrayDeque<>(getRemainingCache());
+        prefetcher.fill();
+        do {
+            while (!queue.isEmpty()) {
+                T it = queue.poll();
+                if (!action.execute(it)) {
+                    // wait for the pending page, otherwise it would overwrite the index again
+                    join(prefetcher.stop());
+                    updateIndex(it);
+                    return;
+                }
+            }
+        } while (queue.addAll(join(prefetcher.next())));
+    }
+
     // Introduced for paginating archived threads, because two endpoints require a different request
     // parameter value format.
     // May become more useful if discord introduces more pagination endpoints not using ids.
@@ -397,6 +444,23 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
         return -1;
     }
 
+    protected void queueNextPage(Consumer<? super List<T>> success, Consumer<? super Throwable> failure) {
+        int currentLimit = limit.getAndSet(maxLimit);
+        try {
+            queue(success, failure);
+        } finally {
+            limit.set(currentLimit);
+        }
+    }
+
+    protected Consumer<List<T>> createConsumer(
+            CompletableFuture<?> task, Procedure<? super T> action, Consumer<Throwable> throwableConsumer) {
+        if (prefetch > 0) {
+            return new PrefetchingConsumer(task, action, throwableConsumer);
+        }
+        return new ChainedConsumer(task, action, throwableConsumer);
+    }
+
     protected void updateIndex(T it) {
         long key = getKey(it);
         iteratorIndex = key;
@@ -430,9 +494,7 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
             T previous = null;
             for (T it : list) {
                 if (task.isCancelled()) {
-                    if (previous != null) {
-                        updateIndex(previous);
-                    }
+                    stop(previous);
                     return;
                 }
                 if (action.execute(it)) {
@@ -440,14 +502,155 @@ public abstract class PaginationActionImpl<T, M extends PaginationAction<T, M>>
                     continue;
                 }
                 // set the iterator index for next call of remaining
-                updateIndex(it);
-                task.complete(null);
+                stop(it);
                 return;
             }
 
-            int currentLimit = limit.getAndSet(maxLimit);
-            queue(this, throwableConsumer);
-            limit.set(currentLimit);
+            requestNext();
+        }
+
+        protected void requestNext() {
+            queueNextPage(this, throwableConsumer);
+        }
+
+        protected void stop(T last) {
+            if (last != null) {
+                updateIndex(last);
+            }
+            task.complete(null);
+        }
+    }
+
+    protected class PrefetchingConsumer extends ChainedConsumer {
+        protected final PagePrefetcher prefetcher = new PagePrefetcher();
+
+        protected PrefetchingConsumer(
+                CompletableFuture<?> task, Procedure<? super T> action, Consumer<Throwable> throwableConsumer) {
+            super(task, action, throwableConsumer);
+            task.whenComplete((v, error) -> prefetcher.stop());
+        }
+
+        @Override
+        public void accept(List<T> list) {
+            if (initial) {
+                // request the first page while the cached entities are processed
+                prefetcher.fill();
+            }
+            super.accept(list);
+        }
+
+        @Override
+        protected void requestNext() {
+            prefetcher.next().whenComplete((list, error) -> {
+                if (error != null) {
+                    throwableConsumer.accept(error);
+                    return;
+                }
+                try {
+                    accept(list);
+                } catch (Throwable ex) {
+                    throwableConsumer.accept(ex);
+                }
+            });
+        }
+
+        @Override
+        protected void stop(T last) {
+            // wait for the pending page, otherwise it would overwrite the index again
+            prefetcher.stop().whenComplete((v, error) -> super.stop(last));
+        }
+    }
+
+    /**
+     * Retrieves up to {@link #prefetch} pages ahead of the consumer.
+     * <br>Pages are still requested in sequence, since each request uses the last entity of the previous page as anchor.
+     */
+    protected class PagePrefetcher {
+        protected final ReentrantLock lock = new ReentrantLock();
+        protected final Deque<CompletableFuture<List<T>>> pages = new ArrayDeque<>();
+        protected final int capacity = Math.max(1, prefetch);
+
+        protected CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+        protected boolean fetching, exhausted, stopped;
+
+        protected void fill() {
+            CompletableFuture<List<T>> page = MiscUtil.locked(lock, () -> {
+                if (fetching || exhausted || stopped || pages.size() >= capacity) {
+                    return null;
+                }
+                fetching = true;
+                pending = new CompletableFuture<>();
+                CompletableFuture<List<T>> future = new CompletableFuture<>();
+                pages.add(future);
+                return future;
+            });
+
+            if (page == null) {
+                return;
+            }
+
+            try {
+                queueNextPage(
+                        list -> {
+                            settle(list.isEmpty());
+                            // request the following page before the consumer starts processing this one
+                            fill();
+                            page.complete(list);
+                        },
+                        error -> {
+                            settle(true);
+                            page.completeExceptionally(error);
+                        });
+            } catch (Throwable error) {
+                settle(true);
+                page.completeExceptionally(error);
+            }
+        }
+
+        protected CompletableFuture<List<T>> next() {
+            fill();
+            CompletableFuture<List<T>> page = MiscUtil.locked(lock, pages::poll);
+            fill();
+            return page != null ? page : CompletableFuture.completedFuture(Collections.emptyList());
+        }
+
+        protected CompletableFuture<Void> stop() {
+            return MiscUtil.locked(lock, () -> {
+                stopped = true;
+                pages.clear();
+                return pending;
+            });
+        }
+
+        private void settle(boolean end) {
+            CompletableFuture<Void> settled = MiscUtil.locked(lock, () -> {
+                fetching = false;
+                exhausted |= end;
+                return pending;
+            });
+            settled.complete(null);
+        }
+    }
+
+    private static <E> E join(CompletableFuture<E> future) {
+        if (CallbackContext.isCallbackContext()) {
+            throw new IllegalStateException(
+                    "Preventing use of complete() in callback threads! This operation can be a deadlock cause");
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ErrorResponseException) {
+                throw (ErrorResponseException) cause.fillInStackTrace();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
         }
     }
 }
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.internal.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.dv8tion.jda.api.exceptions.ParsingException;
+
+import java.io.IOException;
+import java.util.*;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Map view of a JSON object, which only indexes the offsets of its top-level fields
+ * and decodes the values on first access.
+ *
+ * <p>Nested objects are decoded lazily as well, everything else is decoded with the usual jackson mapping.
+ * Once the map is modified or iterated, it is materialized into a {@link HashMap} and behaves like one.
+ *
+ * <p>This class is not Thread-Safe.
+ */
+public class LazyJsonMap extends AbstractMap<String, Object> {
+    private static final Object UNDECODED = new Object();
+
+    private final byte[] data;
+
+    private String[] keys;
+    // start and end offsets of each value, interleaved
+    private int[] offsets;
+    private Object[] values;
+    private int size;
+
+    private Map<String, Object> materialized;
+
+    private LazyJsonMap(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Indexes the JSON object in the provided range of the array.
+     * <br>The array must not be modified while this map is in use.
+     *
+     * @param  data
+     *         The array containing the JSON object
+     * @param  offset
+     *         The start index of the object
+     * @param  length
+     *         The length of the object
+     *
+     * @throws ParsingException
+     *         If the provided data is not a valid JSON object
+     *
+     * @return The lazily decoded map
+     */
+    @Nonnull
+    public static LazyJsonMap index(@Nonnull byte[] data, int offset, int length) {
+        LazyJsonMap map = new LazyJsonMap(data);
+        try (JsonParser parser = SerializationUtil.createParser(data, offset, length)) {
+            map.index(parser, offset);
+        } catch (IOException ex) {
+            throw new ParsingException(ex);
+        }
+        return map;
+    }
+
+    private void index(JsonParser parser, int base) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new ParsingException("Expected JSON object");
+        }
+
+        keys = new String[8];
+        offsets = new int[16];
+
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String key = parser.currentName();
+            parser.nextToken();
+            int start = base + (int) parser.currentTokenLocation().getByteOffset();
+            // Skips nested objects and arrays without decoding them
+            parser.skipChildren();
+            // Strings are only read up to the opening quote until they are accessed
+            parser.finishToken();
+            int end = base + (int) parser.currentLocation().getByteOffset();
+
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 4);
+            }
+            keys[size] = key;
+            offsets[2 * size] = start;
+            offsets[2 * size + 1] = end;
+            size++;
+        }
+
+        if (token != JsonToken.END_OBJECT) {
+            throw new ParsingException("Unexpected end of JSON object");
+        }
+
+        values = new Object[size];
+        Arrays.fill(values, UNDECODED);
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Object decode(int index) {
+        Object value = values[index];
+        if (value != UNDECODED) {
+            return value;
+        }
+
+        int start = offsets[2 * index];
+        int length = offsets[2 * index + 1] - start;
+        if (data[start] == '{') {
+            value = index(data, start, length);
+        } else {
+            value = SerializationUtil.fromJson(Object.class, data, start, length);
+        }
+
+        return values[index] = value;
+    }
+
+    private Map<String, Object> materialize() {
+        if (materialized == null) {
+            Map<String, Object> map = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                map.put(keys[i], decode(i));
+            }
+            materialized = map;
+            keys = null;
+            offsets = null;
+            values = null;
+        }
+        return materialized;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (materialized != null) {
+            return materialized.get(key);
+        }
+        int index = indexOf(key);
+        return index < 0 ? null : decode(index);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (materialized != null) {
+            return materialized.containsKey(key);
+        }
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return materialized != null ? materialized.size() : size;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return materialize().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return materialize().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        materialize().clear();
+    }
+
+    @Nonnull
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return materialize().entrySet();
+    }
+}
@@ -25,6 +25,9 @@ import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.entities.emoji.RichCustomEmoji;
 import net.dv8tion.jda.api.exceptions.DetachedEntityException;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.utils.cache.PermissionCache;
 import org.apache.commons.collections4.CollectionUtils;
 
 import java.util.Arrays;
@@ -377,6 +380,35 @@ public class PermissionUtil {
             return ALL_PERMISSIONS;
         }
 
+        if (member instanceof MemberImpl) {
+            PermissionCache cache = ((MemberImpl) member).getPermissionCache();
+            if (cache != null) {
+                return getCachedPermission(cache, channel, (MemberImpl) member);
+            }
+        }
+
+        return computeEffectivePermission(channel, member);
+    }
+
+    private static long getCachedPermission(PermissionCache cache, GuildChannel channel, MemberImpl member) {
+        // The versions have to be read before computing, so a concurrent update can't leave an outdated entry behind
+        GuildImpl guild = member.getGuild();
+        long version = guild.getPermissionVersion();
+        long stamp = cache.getStamp();
+        long permission = cache.get(guild, version, channel.getIdLong());
+        if (permission != PermissionCache.MISSING) {
+            return permission;
+        }
+
+        permission = computeEffectivePermission(channel, member);
+        // Time outs expire without an update, so the permissions during a time out can't be cached
+        if (!member.isTimedOut()) {
+            cache.put(guild, version, stamp, channel.getIdLong(), permission);
+        }
+        return permission;
+    }
+
+    private static long computeEffectivePermission(GuildChannel channel, Member member) {
         long permission = getEffectivePermission(member);
         long admin = Permission.ADMINISTRATOR.getRawValue();
         if (isApplied(permission, admin)) {
@@ -16,6 +16,7 @@
 
 package net.dv8tion.jda.internal.utils;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.module.SimpleModule;
@@ -102,6 +103,18 @@ public class SerializationUtil {
         return fromJson(mapper.constructType(clazz), data);
     }
 
+    @Nonnull
+    public static <T> T fromJson(@Nonnull Class<T> clazz, @Nonnull byte[] data, int offset, int length) {
+        Checks.notNull(clazz, "Class");
+        return fromJson(mapper.constructType(clazz), data, offset, length);
+    }
+
+    @Nonnull
+    public static JsonParser createParser(@Nonnull byte[] data, int offset, int length) throws IOException {
+        Checks.notNull(data, "Data");
+        return mapper.getFactory().createParser(data, offset, length);
+    }
+
     @Nonnull
     public static <T> T fromJson(@Nonnull JavaType type, @Nonnull byte[] data) {
         Checks.notNull(type, "Type");
@@ -114,6 +127,18 @@ public class SerializationUtil {
         }
     }
 
+    @Nonnull
+    public static <T> T fromJson(@Nonnull JavaType type, @Nonnull byte[] data, int offset, int length) {
+        Checks.notNull(type, "Type");
+        Checks.notNull(data, "Data");
+
+        try {
+            return mapper.readValue(data, offset, length, type);
+        } catch (IOException ex) {
+            throw new ParsingException(ex);
+        }
+    }
+
     @Nonnull
     public static <T> T fromJson(@Nonnull JavaType type, @Nonnull InputStream data) {
         Checks.notNull(type, "Type");
@@ -42,6 +42,8 @@ public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> impleme
     protected final T[] emptyArray;
     protected final Function<T, String> nameMapper;
     protected final Class<T> type;
+    // Only set for caches with read optimization enabled, before the cache is used
+    protected ReadOptimizedCache<T> readCache;
 
     @SuppressWarnings("unchecked")
     protected AbstractCacheView(Class<T> type, Function<T, String> nameMapper) {
@@ -50,6 +52,22 @@ public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> impleme
         this.emptyArray = (T[]) Array.newInstance(type, 0);
     }
 
+    /**
+     * Enables the {@link ReadOptimizedCache read-optimized} path for lookups by id, iteration, and {@link #asList()}.
+     * <br>This has to be called before the cache is used by other threads.
+     */
+    public void enableReadOptimization() {
+        this.readCache = new ReadOptimizedCache<>();
+    }
+
+    @Override
+    public void clearCachedLists() {
+        super.clearCachedLists();
+        if (readCache != null) {
+            readCache.invalidate();
+        }
+    }
+
     public void clear() {
         try (UnlockHook hook = writeLock()) {
             elements.clear();
@@ -64,7 +82,15 @@ public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> impleme
     }
 
     public T get(long id) {
+        if (readCache != null) {
+            ReadOptimizedCache.Snapshot<T> snapshot = readCache.getSnapshot();
+            if (snapshot != null) {
+                return snapshot.get(id);
+            }
+        }
+
         try (UnlockHook hook = readLock()) {
+            onReadMiss();
             return elements.get(id);
         }
     }
@@ -111,7 +137,14 @@ public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> impleme
         if (isEmpty()) {
             return Collections.emptyList();
         }
+        if (readCache != null) {
+            ReadOptimizedCache.Snapshot<T> snapshot = readCache.getSnapshot();
+            if (snapshot != null) {
+                return snapshot.getList();
+            }
+        }
         try (UnlockHook hook = readLock()) {
+            onReadMiss();
             List<T> list = getCachedList();
             if (list != null) {
                 return list;
@@ -194,11 +227,27 @@ public abstract class AbstractCacheView<T> extends ReadWriteLockCache<T> impleme
     @Nonnull
     @Override
     public Iterator<T> iterator() {
+        if (readCache != null) {
+            ReadOptimizedCache.Snapshot<T> snapshot = readCache.getSnapshot();
+            if (snapshot != null) {
+                return new ObjectArrayIterator<>(snapshot.getValues());
+            }
+        }
+
         try (UnlockHook hook = readLock()) {
+            onReadMiss();
             return new ObjectArrayIterator<>(elements.values(emptyArray));
         }
     }
 
+    // Has to be called while holding the read-lock
+    protected void onReadMiss() {
+        // A writer might read its own changes before it is done, the snapshot must only be created after that
+        if (readCache != null && !lock.isWriteLockedByCurrentThread()) {
+            readCache.onMiss(elements, emptyArray);
+        }
+    }
+
     @Override
     public String toString() {
         return asList().toString();
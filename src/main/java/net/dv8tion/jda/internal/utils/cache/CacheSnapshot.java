@@ -0,0 +1,487 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.cache;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.set.TLongSet;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.*;
+import net.dv8tion.jda.api.entities.channel.attribute.*;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.entities.channel.forums.ForumTag;
+import net.dv8tion.jda.api.entities.channel.middleman.AudioChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildMessageChannel;
+import net.dv8tion.jda.api.entities.emoji.Emoji;
+import net.dv8tion.jda.api.entities.emoji.EmojiUnion;
+import net.dv8tion.jda.api.entities.emoji.RichCustomEmoji;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.entities.EntityBuilder;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.GuildVoiceStateImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.entities.channel.concrete.ForumChannelImpl;
+import net.dv8tion.jda.internal.entities.channel.concrete.ThreadChannelImpl;
+import net.dv8tion.jda.internal.entities.channel.mixin.attribute.IPostContainerMixin;
+import net.dv8tion.jda.internal.utils.Helpers;
+import net.dv8tion.jda.internal.utils.IOUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.OffsetDateTime;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Snapshot of the entity cache and gateway session of one shard, used to resume the session after a restart.
+ *
+ * <p>Guilds are stored in the shape of their {@code GUILD_CREATE} payload,
+ * so they can be restored by the {@link EntityBuilder}.
+ * The file is a gzip compressed ETF term.
+ */
+public class CacheSnapshot {
+    public static final int VERSION = 1;
+
+    private final DataObject data;
+
+    private CacheSnapshot(DataObject data) {
+        this.data = data;
+    }
+
+    @Nullable
+    public static CacheSnapshot read(@Nonnull Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        byte[] bytes;
+        try (InputStream stream = new GZIPInputStream(Files.newInputStream(file))) {
+            bytes = IOUtil.readFully(stream);
+        }
+        return new CacheSnapshot(DataObject.fromETF(bytes));
+    }
+
+    public static void write(
+            @Nonnull JDAImpl api,
+            @Nonnull String sessionId,
+            @Nullable String resumeUrl,
+            int intents,
+            @Nonnull Path file)
+            throws IOException {
+        DataArray guilds = DataArray.empty();
+        for (Guild guild : api.getGuildCache()) {
+            guilds.add(guildToData((GuildImpl) guild));
+        }
+
+        DataArray unavailableGuilds = DataArray.empty();
+        api.getGuildSetupController().getUnavailableGuilds().forEach(id -> {
+            unavailableGuilds.add(id);
+            return true;
+        });
+
+        DataObject snapshot = DataObject.empty()
+                .put("version", VERSION)
+                .put("session_id", sessionId)
+                .put("resume_gateway_url", resumeUrl)
+                .put("seq", api.getResponseTotal())
+                .put("shard", shardToData(api.getShardInfo()))
+                .put("intents", intents)
+                .put("user", selfUserToData(api.getSelfUser()))
+                .put("guilds", guilds)
+                .put("unavailable_guilds", unavailableGuilds);
+
+        // Write to a temporary file first, to never leave a partially written snapshot behind
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream stream = new GZIPOutputStream(Files.newOutputStream(temp))) {
+            stream.write(snapshot.toETF());
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int getVersion() {
+        return data.getInt("version", 0);
+    }
+
+    @Nonnull
+    public String getSessionId() {
+        return data.getString("session_id");
+    }
+
+    @Nullable
+    public String getResumeUrl() {
+        return data.getString("resume_gateway_url", null);
+    }
+
+    public int getSequence() {
+        return data.getInt("seq");
+    }
+
+    public int getGuildCount() {
+        return data.getArray("guilds").length();
+    }
+
+    public boolean isCompatible(@Nonnull JDAImpl api, int intents) {
+        JDA.ShardInfo shardInfo = api.getShardInfo() == null ? JDA.ShardInfo.SINGLE : api.getShardInfo();
+        return getVersion() == VERSION
+                && data.getInt("intents") == intents
+                && (!api.hasSelfUser() || data.getObject("user").getUnsignedLong("id") == api.getSelfUser().getIdLong())
+                && data.getObject("shard").getInt("id") == shardInfo.getShardId()
+                && data.getObject("shard").getInt("total") == shardInfo.getShardTotal();
+    }
+
+    public void restore(@Nonnull JDAImpl api) {
+        EntityBuilder builder = api.getEntityBuilder();
+        builder.createSelfUser(data.getObject("user"));
+
+        DataArray guilds = data.getArray("guilds");
+        for (int i = 0; i < guilds.length(); i++) {
+            DataObject guild = guilds.getObject(i);
+            TLongObjectMap<DataObject> members = Helpers.convertToMap(
+                    member -> member.getObject("user").getUnsignedLong("id"), guild.getArray("members"));
+            builder.createGuild(guild.getUnsignedLong("id"), guild, members, guild.getInt("member_count"));
+        }
+
+        DataArray unavailableGuilds = data.getArray("unavailable_guilds");
+        TLongSet unavailable = api.getGuildSetupController().getUnavailableGuilds();
+        for (int i = 0; i < unavailableGuilds.length(); i++) {
+            unavailable.add(unavailableGuilds.getUnsignedLong(i));
+        }
+    }
+
+    private static DataObject shardToData(@Nullable JDA.ShardInfo shardInfo) {
+        if (shardInfo == null) {
+            shardInfo = JDA.ShardInfo.SINGLE;
+        }
+        return DataObject.empty().put("id", shardInfo.getShardId()).put("total", shardInfo.getShardTotal());
+    }
+
+    private static DataObject selfUserToData(SelfUser selfUser) {
+        return userToData(selfUser)
+                .put("verified", selfUser.isVerified())
+                .put("mfa_enabled", selfUser.isMfaEnabled())
+                .put("application_id", selfUser.getApplicationIdLong());
+    }
+
+    private static DataObject userToData(User user) {
+        return DataObject.empty()
+                .put("id", user.getIdLong())
+                .put("username", user.getName())
+                .put("global_name", user.getGlobalName())
+                .put("discriminator", user.getDiscriminator())
+                .put("avatar", user.getAvatarId())
+                .put("bot", user.isBot())
+                .put("system", user.isSystem())
+                .put("public_flags", user.getFlagsRaw());
+    }
+
+    private static DataObject guildToData(GuildImpl guild) {
+        DataArray roles = DataArray.empty();
+        for (Role role : guild.getRoleCache()) {
+            roles.add(roleToData(role));
+        }
+
+        DataArray channels = DataArray.empty();
+        for (GuildChannel channel : guild.getChannelCache()) {
+            if (!channel.getType().isThread()) {
+                channels.add(channelToData(channel));
+            }
+        }
+
+        DataArray threads = DataArray.empty();
+        for (ThreadChannel thread : guild.getThreadChannelCache()) {
+            threads.add(threadToData((ThreadChannelImpl) thread));
+        }
+
+        DataArray members = DataArray.empty();
+        DataArray voiceStates = DataArray.empty();
+        for (Member member : guild.getMemberCache()) {
+            members.add(memberToData((MemberImpl) member));
+            GuildVoiceStateImpl voiceState = ((MemberImpl) member).getVoiceState();
+            if (voiceState != null && voiceState.getChannel() != null) {
+                voiceStates.add(voiceStateToData(voiceState));
+            }
+        }
+
+        DataArray emojis = DataArray.empty();
+        for (RichCustomEmoji emoji : guild.getEmojiCache()) {
+            emojis.add(emojiToData(emoji));
+        }
+
+        return DataObject.empty()
+                .put("id", guild.getIdLong())
+                .put("name", guild.getName())
+                .put("icon", guild.getIconId())
+                .put("splash", guild.getSplashId())
+                .put("description", guild.getDescription())
+                .put("vanity_url_code", guild.getVanityCode())
+                .put("banner", guild.getBannerId())
+                .put("preferred_locale", guild.getLocale().getLocale())
+                .put("owner_id", guild.getOwnerIdLong())
+                .put("afk_channel_id", idOf(guild.getAfkChannel()))
+                .put("system_channel_id", idOf(guild.getSystemChannel()))
+                .put("rules_channel_id", idOf(guild.getRulesChannel()))
+                .put("public_updates_channel_id", idOf(guild.getCommunityUpdatesChannel()))
+                .put("safety_alerts_channel_id", idOf(guild.getSafetyAlertsChannel()))
+                .put("premium_subscription_count", guild.getBoostCount())
+                .put("premium_tier", guild.getBoostTier().getKey())
+                .put("max_members", guild.getMaxMembers())
+                .put("max_presences", guild.getMaxPresences())
+                .put("mfa_level", guild.getRequiredMFALevel().getKey())
+                .put("afk_timeout", guild.getAfkTimeout().getSeconds())
+                .put("verification_level", guild.getVerificationLevel().getKey())
+                .put("default_message_notifications", guild.getDefaultNotificationLevel().getKey())
+                .put("explicit_content_filter", guild.getExplicitContentLevel().getKey())
+                .put("nsfw_level", guild.getNSFWLevel().getKey())
+                .put("premium_progress_bar_enabled", guild.isBoostProgressBarEnabled())
+                .put("system_channel_flags", guild.getSystemChannelFlagsRaw())
+                .put("features", DataArray.fromCollection(guild.getFeatures()))
+                .put("member_count", guild.getMemberCount())
+                .put("roles", roles)
+                .put("channels", channels)
+                .put("threads", threads)
+                .put("members", members)
+                .put("voice_states", voiceStates)
+                .put("emojis", emojis)
+                .put("guild_scheduled_events", DataArray.empty());
+    }
+
+    private static DataObject roleToData(Role role) {
+        RoleColors colors = role.getColors();
+        DataObject json = DataObject.empty()
+                .put("id", role.getIdLong())
+                .put("name", role.getName())
+                .put("position", role.getPositionRaw())
+                .put("permissions", role.getPermissionsRaw())
+                .put("managed", role.isManaged())
+                .put("hoist", role.isHoisted())
+                .put("mentionable", role.isMentionable())
+                .put(
+                        "colors",
+                        DataObject.empty()
+                                .put("primary_color", colors.getPrimaryRaw())
+                                .put("secondary_color", colors.getSecondaryRaw())
+                                .put("tertiary_color", colors.getTertiaryRaw()));
+
+        RoleIcon icon = role.getIcon();
+        if (icon != null) {
+            json.put("icon", icon.getIconId()).put("unicode_emoji", icon.getEmoji());
+        }
+
+        // The presence of a key is relevant for the boolean tags, the value is always null
+        Role.RoleTags tags = role.getTags();
+        DataObject tagsJson = DataObject.empty();
+        if (tags.isBot()) {
+            tagsJson.put("bot_id", tags.getBotIdLong());
+        }
+        if (tags.isIntegration()) {
+            tagsJson.put("integration_id", tags.getIntegrationIdLong());
+        }
+        if (tags.getSubscriptionIdLong() != 0) {
+            tagsJson.put("subscription_listing_id", tags.getSubscriptionIdLong());
+        }
+        if (tags.isBoost()) {
+            tagsJson.put("premium_subscriber", null);
+        }
+        if (tags.isAvailableForPurchase()) {
+            tagsJson.put("available_for_purchase", null);
+        }
+        if (tags.isLinkedRole()) {
+            tagsJson.put("guild_connections", null);
+        }
+        return json.put("tags", tagsJson);
+    }
+
+    private static DataObject channelToData(GuildChannel channel) {
+        DataObject json = DataObject.empty()
+                .put("id", channel.getIdLong())
+                .put("type", channel.getType().getId())
+                .put("name", channel.getName());
+
+        if (channel instanceof IPositionableChannel) {
+            json.put("position", ((IPositionableChannel) channel).getPositionRaw());
+        }
+        if (channel instanceof ICategorizableChannel) {
+            long parentId = ((ICategorizableChannel) channel).getParentCategoryIdLong();
+            json.put("parent_id", parentId == 0 ? null : parentId);
+        }
+        if (channel instanceof MessageChannel) {
+            long latestMessageId = ((MessageChannel) channel).getLatestMessageIdLong();
+            json.put("last_message_id", latestMessageId == 0 ? null : latestMessageId);
+        }
+        if (channel instanceof StandardGuildMessageChannel) {
+            json.put("topic", ((StandardGuildMessageChannel) channel).getTopic());
+        }
+        if (channel instanceof IAgeRestrictedChannel) {
+            json.put("nsfw", ((IAgeRestrictedChannel) channel).isNSFW());
+        }
+        if (channel instanceof ISlowmodeChannel) {
+            json.put("rate_limit_per_user", ((ISlowmodeChannel) channel).getSlowmode());
+        }
+        if (channel instanceof IThreadContainer) {
+            json.put("default_thread_rate_limit_per_user", ((IThreadContainer) channel).getDefaultThreadSlowmode());
+        }
+        if (channel instanceof AudioChannel) {
+            AudioChannel audioChannel = (AudioChannel) channel;
+            json.put("bitrate", audioChannel.getBitrate())
+                    .put("user_limit", audioChannel.getUserLimit())
+                    .put("rtc_region", audioChannel.getRegionRaw());
+        }
+        if (channel instanceof IVoiceStatusChannel) {
+            json.put("status", ((IVoiceStatusChannel) channel).getStatus());
+        }
+        if (channel instanceof IPostContainerMixin) {
+            IPostContainerMixin<?> postContainer = (IPostContainerMixin<?>) channel;
+            DataArray tags = DataArray.empty();
+            for (ForumTag tag : postContainer.getAvailableTags()) {
+                tags.add(forumEmojiToData(tag.getEmoji())
+                        .put("id", tag.getIdLong())
+                        .put("name", tag.getName())
+                        .put("moderated", tag.isModerated()));
+            }
+            EmojiUnion defaultReaction = postContainer.getDefaultReaction();
+            json.put("topic", postContainer.getTopic())
+                    .put("flags", postContainer.getRawFlags())
+                    .put("default_sort_order", postContainer.getRawSortOrder())
+                    .put("default_reaction_emoji", defaultReaction == null ? null : forumEmojiToData(defaultReaction))
+                    .put("available_tags", tags);
+        }
+        if (channel instanceof ForumChannelImpl) {
+            json.put("default_forum_layout", ((ForumChannelImpl) channel).getRawLayout());
+        }
+        if (channel instanceof IPermissionContainer) {
+            DataArray overrides = DataArray.empty();
+            for (PermissionOverride override : ((IPermissionContainer) channel).getPermissionOverrides()) {
+                overrides.add(DataObject.empty()
+                        .put("id", override.getIdLong())
+                        .put("type", override.isRoleOverride() ? 0 : 1)
+                        .put("allow", override.getAllowedRaw())
+                        .put("deny", override.getDeniedRaw()));
+            }
+            json.put("permission_overwrites", overrides);
+        }
+        return json;
+    }
+
+    private static DataObject threadToData(ThreadChannelImpl thread) {
+        DataArray appliedTags = DataArray.empty();
+        thread.getAppliedTagsSet().forEach(id -> {
+            appliedTags.add(id);
+            return true;
+        });
+
+        long latestMessageId = thread.getLatestMessageIdLong();
+        return DataObject.empty()
+                .put("id", thread.getIdLong())
+                .put("type", thread.getType().getId())
+                .put("parent_id", thread.getParentChannel().getIdLong())
+                .put("name", thread.getName())
+                .put("flags", thread.getRawFlags())
+                .put("owner_id", thread.getOwnerIdLong())
+                .put("member_count", thread.getMemberCount())
+                .put("message_count", thread.getMessageCount())
+                .put("total_message_count", thread.getTotalMessageCount())
+                .put("last_message_id", latestMessageId == 0 ? null : latestMessageId)
+                .put("rate_limit_per_user", thread.getSlowmode())
+                .put("applied_tags", appliedTags)
+                .put(
+                        "thread_metadata",
+                        DataObject.empty()
+                                .put("locked", thread.isLocked())
+                                .put("archived", thread.isArchived())
+                                .put("invitable", thread.isInvitable())
+                                .put("archive_timestamp", timestamp(thread.getTimeArchiveInfoLastModified()))
+                                .put("create_timestamp", timestamp(thread.getTimeCreated()))
+                                .put("auto_archive_duration", thread.getAutoArchiveDuration().getMinutes()));
+    }
+
+    private static DataObject memberToData(MemberImpl member) {
+        DataArray roles = DataArray.empty();
+        for (Role role : member.getRoleSet()) {
+            roles.add(role.getIdLong());
+        }
+
+        return DataObject.empty()
+                .put("user", userToData(member.getUser()))
+                .put("nick", member.getNickname())
+                .put("avatar", member.getAvatarId())
+                .put("flags", member.getFlagsRaw())
+                .put("premium_since", timestamp(member.getTimeBoosted()))
+                .put("communication_disabled_until", timestamp(member.getTimeOutEnd()))
+                .put("pending", member.isPending())
+                .put("joined_at", member.hasTimeJoined() ? timestamp(member.getTimeJoined()) : null)
+                .put("roles", roles);
+    }
+
+    private static DataObject voiceStateToData(GuildVoiceStateImpl voiceState) {
+        return DataObject.empty()
+                .put("user_id", voiceState.getMember().getIdLong())
+                .put("channel_id", voiceState.getChannel().getIdLong())
+                .put("session_id", voiceState.getSessionId())
+                .put("self_mute", voiceState.isSelfMuted())
+                .put("self_deaf", voiceState.isSelfDeafened())
+                .put("mute", voiceState.isGuildMuted())
+                .put("deaf", voiceState.isGuildDeafened())
+                .put("suppress", voiceState.isSuppressed())
+                .put("self_stream", voiceState.isStream())
+                .put("request_to_speak_timestamp", timestamp(voiceState.getRequestToSpeakTimestamp()));
+    }
+
+    private static DataObject emojiToData(RichCustomEmoji emoji) {
+        DataArray roles = DataArray.empty();
+        for (Role role : emoji.getRoles()) {
+            roles.add(role.getIdLong());
+        }
+
+        return DataObject.empty()
+                .put("id", emoji.getIdLong())
+                .put("name", emoji.getName())
+                .put("animated", emoji.isAnimated())
+                .put("managed", emoji.isManaged())
+                .put("available", emoji.isAvailable())
+                .put("roles", roles);
+    }
+
+    // Forum tags and default reactions use the emoji_id and emoji_name keys
+    private static DataObject forumEmojiToData(@Nullable EmojiUnion emoji) {
+        DataObject json = DataObject.empty();
+        if (emoji == null) {
+            return json.put("emoji_id", null).put("emoji_name", null);
+        }
+        if (emoji.getType() == Emoji.Type.CUSTOM) {
+            return json.put("emoji_id", emoji.asCustom().getIdLong()).put("emoji_name", emoji.getName());
+        }
+        return json.put("emoji_id", null).put("emoji_name", emoji.getName());
+    }
+
+    private static Long idOf(@Nullable ISnowflake entity) {
+        return entity == null ? null : entity.getIdLong();
+    }
+
+    private static String timestamp(@Nullable OffsetDateTime time) {
+        return time == null ? null : time.toString();
+    }
+}
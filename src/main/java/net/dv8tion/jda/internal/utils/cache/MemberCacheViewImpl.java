@@ -22,14 +22,62 @@ import net.dv8tion.jda.api.utils.cache.MemberCacheView;
 import net.dv8tion.jda.internal.utils.Checks;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implements MemberCacheView {
+    private final MemberIndex index;
+
     public MemberCacheViewImpl() {
+        this(false);
+    }
+
+    public MemberCacheViewImpl(boolean indexed) {
         super(Member.class, Member::getEffectiveName);
+        this.index = indexed ? new MemberIndex() : null;
+    }
+
+    public boolean isIndexed() {
+        return index != null;
+    }
+
+    /**
+     * Updates the secondary indexes for the provided member.
+     * <br>This has to be called whenever the name, nickname, or roles of a cached member change.
+     *
+     * @param member
+     *        The updated member
+     */
+    public void updateIndex(Member member) {
+        if (index != null && member != null && get(member.getIdLong()) == member) {
+            index.update(member);
+        }
+    }
+
+    public void removeRoleFromIndex(long roleId) {
+        if (index != null) {
+            index.removeRole(roleId);
+        }
+    }
+
+    @Override
+    public Member remove(long id) {
+        Member removed = super.remove(id);
+        if (index != null && removed != null) {
+            index.remove(id);
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        if (index != null) {
+            index.clear();
+        }
     }
 
     @Override
@@ -44,6 +92,10 @@ public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implemen
         if (isEmpty()) {
             return Collections.emptyList();
         }
+        if (index != null) {
+            return resolve(
+                    index.getByUsername(name), member -> equals(ignoreCase, member.getUser().getName(), name));
+        }
         List<Member> members = new ArrayList<>();
         forEach(member -> {
             String nick = member.getUser().getName();
@@ -60,6 +112,12 @@ public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implemen
         if (isEmpty()) {
             return Collections.emptyList();
         }
+        if (index != null && name != null) {
+            return resolve(index.getByNickname(name), member -> {
+                String nick = member.getNickname();
+                return nick != null && equals(ignoreCase, nick, name);
+            });
+        }
         List<Member> members = new ArrayList<>();
         forEach(member -> {
             String nick = member.getNickname();
@@ -98,6 +156,12 @@ public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implemen
             return asList();
         }
 
+        if (index != null) {
+            return resolve(
+                    index.getWithRoles(rolesWithoutPublicRole),
+                    member -> member.getUnsortedRoles().containsAll(rolesWithoutPublicRole));
+        }
+
         List<Member> members = new ArrayList<>();
         forEach(member -> {
             if (member.getUnsortedRoles().containsAll(rolesWithoutPublicRole)) {
@@ -106,4 +170,20 @@ public class MemberCacheViewImpl extends SnowflakeCacheViewImpl<Member> implemen
         });
         return Collections.unmodifiableList(members);
     }
+
+    private List<Member> resolve(long[] candidates, Predicate<Member> filter) {
+        if (candidates.length == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Member> members = new ArrayList<>(candidates.length);
+        for (long id : candidates) {
+            Member member = get(id);
+            // The index might be slightly behind, so we still have to check the current state
+            if (member != null && filter.test(member)) {
+                members.add(member);
+            }
+        }
+        return Collections.unmodifiableList(members);
+    }
 }
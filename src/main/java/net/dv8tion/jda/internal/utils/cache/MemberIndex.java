@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.cache;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Secondary indexes of a {@link MemberCacheViewImpl} by username, nickname, and role.
+ *
+ * <p>Names are indexed by a case-folded key, which is the same for all names that are equal ignoring case.
+ * The index only provides candidates, which still have to be checked against the current state of the member.
+ * Every member keeps track of the keys it was indexed with, so it can be removed even if its state changed since.
+ */
+public class MemberIndex {
+    private static final long[] EMPTY = new long[0];
+
+    private final TLongObjectMap<Entry> entries = new TLongObjectHashMap<>();
+    private final Map<String, TLongSet> usernames = new HashMap<>();
+    private final Map<String, TLongSet> nicknames = new HashMap<>();
+    private final TLongObjectMap<TLongSet> roles = new TLongObjectHashMap<>();
+
+    public static String fold(String name) {
+        StringBuilder builder = new StringBuilder(name.length());
+        name.codePoints().map(c -> Character.toLowerCase(Character.toUpperCase(c))).forEach(builder::appendCodePoint);
+        return builder.toString();
+    }
+
+    public synchronized void update(Member member) {
+        remove(member.getIdLong());
+
+        long id = member.getIdLong();
+        String username = fold(member.getUser().getName());
+        String nickname = member.getNickname() == null ? null : fold(member.getNickname());
+        Set<Role> memberRoles = member.getUnsortedRoles();
+        long[] roleIds = new long[memberRoles.size()];
+        int count = 0;
+        for (Role role : memberRoles) {
+            if (count == roleIds.length) {
+                break; // modified concurrently, the next update will catch up
+            }
+            roleIds[count++] = role.getIdLong();
+        }
+
+        add(usernames, username, id);
+        if (nickname != null) {
+            add(nicknames, nickname, id);
+        }
+        for (int i = 0; i < count; i++) {
+            TLongSet set = roles.get(roleIds[i]);
+            if (set == null) {
+                roles.put(roleIds[i], set = new TLongHashSet());
+            }
+            set.add(id);
+        }
+        entries.put(id, new Entry(username, nickname, count == roleIds.length ? roleIds : copy(roleIds, count)));
+    }
+
+    public synchronized void remove(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+
+        remove(usernames, entry.username, id);
+        if (entry.nickname != null) {
+            remove(nicknames, entry.nickname, id);
+        }
+        for (long roleId : entry.roleIds) {
+            TLongSet set = roles.get(roleId);
+            if (set != null && set.remove(id) && set.isEmpty()) {
+                roles.remove(roleId);
+            }
+        }
+    }
+
+    public synchronized void removeRole(long roleId) {
+        roles.remove(roleId);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usernames.clear();
+        nicknames.clear();
+        roles.clear();
+    }
+
+    public synchronized long[] getByUsername(String name) {
+        return toArray(usernames.get(fold(name)));
+    }
+
+    public synchronized long[] getByNickname(String name) {
+        return toArray(nicknames.get(fold(name)));
+    }
+
+    public synchronized long[] getWithRoles(Collection<Role> roles) {
+        TLongSet smallest = null;
+        for (Role role : roles) {
+            TLongSet set = this.roles.get(role.getIdLong());
+            if (set == null) {
+                return EMPTY;
+            }
+            if (smallest == null || set.size() < smallest.size()) {
+                smallest = set;
+            }
+        }
+        return toArray(smallest);
+    }
+
+    private static void add(Map<String, TLongSet> index, String key, long id) {
+        index.computeIfAbsent(key, k -> new TLongHashSet()).add(id);
+    }
+
+    private static void remove(Map<String, TLongSet> index, String key, long id) {
+        TLongSet set = index.get(key);
+        if (set != null && set.remove(id) && set.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static long[] toArray(TLongSet set) {
+        return set == null ? EMPTY : set.toArray();
+    }
+
+    private static long[] copy(long[] array, int length) {
+        long[] copy = new long[length];
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static class Entry {
+        private final String username;
+        private final String nickname;
+        private final long[] roleIds;
+
+        private Entry(String username, String nickname, long[] roleIds) {
+            this.username = username;
+            this.nickname = nickname;
+            this.roleIds = roleIds;
+        }
+    }
+}
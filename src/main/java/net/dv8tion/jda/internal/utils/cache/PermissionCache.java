@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.cache;
+
+import gnu.trove.map.TLongLongMap;
+import gnu.trove.map.hash.TLongLongHashMap;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+
+/**
+ * Caches the effective permissions of a single member, keyed by channel id.
+ *
+ * <p>Entries are only valid for the {@link GuildImpl#getPermissionVersion() permission version} of the guild
+ * they were computed for, and until the member itself is {@link #invalidate() invalidated}.
+ * Readers have to acquire a {@link #getStamp() stamp} before computing a value,
+ * so that a value computed from outdated state is never stored.
+ */
+public class PermissionCache {
+    /** Returned for missing entries, no valid permission value has every bit set */
+    public static final long MISSING = -1L;
+
+    private final TLongLongMap permissions = new TLongLongHashMap(8, 0.5f, 0L, MISSING);
+    private GuildImpl guild;
+    private long guildVersion;
+    private long stamp;
+
+    public synchronized long get(GuildImpl guild, long guildVersion, long channelId) {
+        if (this.guild != guild || this.guildVersion != guildVersion) {
+            return MISSING;
+        }
+        return permissions.get(channelId);
+    }
+
+    public synchronized long getStamp() {
+        return stamp;
+    }
+
+    public synchronized void put(GuildImpl guild, long guildVersion, long stamp, long channelId, long permission) {
+        if (this.stamp != stamp) {
+            return; // The member was updated while computing
+        }
+        if (this.guild != guild || this.guildVersion != guildVersion) {
+            permissions.clear();
+            this.guild = guild;
+            this.guildVersion = guildVersion;
+        }
+        permissions.put(channelId, permission);
+    }
+
+    public synchronized void invalidate() {
+        stamp++;
+        permissions.clear();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.cache;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * Optional read path of an {@link AbstractCacheView}, for caches which are read far more often than they are modified.
+ *
+ * <p>Readers share an immutable copy of the elements, which is only used while its stamp is still the current one.
+ * Every write acquires the write-lock of the view, which invalidates the stamp,
+ * and readers fall back to the read-lock until the copy has been rebuilt.
+ * The copy is only rebuilt once enough reads missed it to pay for copying all elements,
+ * so caches with frequent writes behave like the default implementation.
+ */
+public class ReadOptimizedCache<T> {
+    private static final int MIN_MISSES = 16;
+
+    private final AtomicLong stamp = new AtomicLong();
+    private final AtomicInteger misses = new AtomicInteger();
+    private volatile Snapshot<T> snapshot;
+
+    public void invalidate() {
+        stamp.incrementAndGet();
+        misses.set(0);
+    }
+
+    /**
+     * The copy of the elements, if no write happened since it was created.
+     *
+     * @return The current snapshot, or null if the read has to use the read-lock
+     */
+    @Nullable
+    public Snapshot<T> getSnapshot() {
+        Snapshot<T> current = snapshot;
+        return current != null && current.stamp == stamp.get() ? current : null;
+    }
+
+    /**
+     * Counts a read which had to use the read-lock, and rebuilds the snapshot once enough reads missed it.
+     * <br>This has to be called while holding the read-lock of the view, so the elements cannot change while copying.
+     *
+     * @param  elements
+     *         The elements of the view
+     * @param  emptyArray
+     *         The empty array of the element type
+     *
+     * @return The new snapshot, or null if it was not rebuilt
+     */
+    @Nullable
+    public Snapshot<T> onMiss(TLongObjectMap<T> elements, T[] emptyArray) {
+        if (misses.incrementAndGet() < Math.max(MIN_MISSES, elements.size())) {
+            return null;
+        }
+
+        // Writes hold the write-lock, so the stamp can only change once we release the read-lock
+        Snapshot<T> current =
+                new Snapshot<>(stamp.get(), new TLongObjectHashMap<>(elements), elements.values(emptyArray));
+        snapshot = current;
+        return current;
+    }
+
+    public static class Snapshot<T> {
+        protected final long stamp;
+        protected final TLongObjectMap<T> elements;
+        protected final T[] values;
+        protected final List<T> list;
+
+        protected Snapshot(long stamp, TLongObjectMap<T> elements, T[] values) {
+            this.stamp = stamp;
+            this.elements = elements;
+            this.values = values;
+            this.list = Collections.unmodifiableList(Arrays.asList(values));
+        }
+
+        public T get(long id) {
+            return elements.get(id);
+        }
+
+        public T[] getValues() {
+            return values;
+        }
+
+        public List<T> getList() {
+            return list;
+        }
+    }
+}
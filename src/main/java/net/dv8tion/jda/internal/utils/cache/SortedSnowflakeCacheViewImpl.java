@@ -16,15 +16,22 @@
 
 package net.dv8tion.jda.internal.utils.cache;
 
+import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
 import net.dv8tion.jda.api.entities.ISnowflake;
 import net.dv8tion.jda.api.utils.cache.SortedSnowflakeCacheView;
+import net.dv8tion.jda.internal.utils.Checks;
 import net.dv8tion.jda.internal.utils.UnlockHook;
 import org.apache.commons.collections4.iterators.ObjectArrayIterator;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.Nonnull;
 
@@ -35,6 +42,12 @@ public class SortedSnowflakeCacheViewImpl<T extends ISnowflake & Comparable<? su
 
     protected final Comparator<T> comparator;
 
+    // The sorted elements, shared by all readers until the next write or order change.
+    // Once outdated, the last snapshot is still used as a presorted base when it has to be rebuilt.
+    protected final AtomicReference<Snapshot<T>> snapshot = new AtomicReference<>();
+    // Incremented whenever the order might have changed, a snapshot is only valid for the count it was built at
+    protected final AtomicInteger modifications = new AtomicInteger();
+
     public SortedSnowflakeCacheViewImpl(Class<T> type, Comparator<T> comparator) {
         this(type, null, comparator);
     }
@@ -44,10 +57,21 @@ public class SortedSnowflakeCacheViewImpl<T extends ISnowflake & Comparable<? su
         this.comparator = comparator;
     }
 
+    /**
+     * Discards the cached order. This has to be called after changing a property used by the comparator,
+     * such as the position of a role.
+     */
+    @Override
+    public void clearCachedLists() {
+        super.clearCachedLists();
+        modifications.incrementAndGet();
+    }
+
     @Override
     public void forEach(@Nonnull Consumer<? super T> action) {
-        try (UnlockHook hook = readLock()) {
-            iterator().forEachRemaining(action);
+        Objects.requireNonNull(action);
+        for (T element : getSnapshot().array) {
+            action.accept(element);
         }
     }
 
@@ -62,16 +86,7 @@ public class SortedSnowflakeCacheViewImpl<T extends ISnowflake & Comparable<? su
         if (isEmpty()) {
             return Collections.emptyList();
         }
-        try (UnlockHook hook = readLock()) {
-            List<T> list = getCachedList();
-            if (list != null) {
-                return list;
-            }
-            list = new ArrayList<>(elements.size());
-            elements.forEachValue(list::add);
-            list.sort(comparator);
-            return cache(list);
-        }
+        return getSnapshot().list;
     }
 
     @Nonnull
@@ -80,30 +95,35 @@ public class SortedSnowflakeCacheViewImpl<T extends ISnowflake & Comparable<? su
         if (isEmpty()) {
             return Collections.emptyNavigableSet();
         }
-        try (UnlockHook hook = readLock()) {
-            NavigableSet<T> set = (NavigableSet<T>) getCachedSet();
-            if (set != null) {
-                return set;
-            }
-            set = new TreeSet<>(comparator);
-            elements.forEachValue(set::add);
-            return cache(set);
+        NavigableSet<T> set = (NavigableSet<T>) getCachedSet();
+        if (set != null) {
+            return set;
         }
+        set = new TreeSet<>(comparator);
+        Collections.addAll(set, getSnapshot().array);
+        return cache(set);
     }
 
     @Nonnull
     @Override
     public List<T> getElementsByName(@Nonnull String name, boolean ignoreCase) {
-        List<T> filtered = super.getElementsByName(name, ignoreCase);
-        filtered.sort(comparator);
-        return filtered;
+        Checks.notEmpty(name, "Name");
+        if (nameMapper == null) { // no getName method available
+            throw new UnsupportedOperationException("The contained elements are not assigned with names.");
+        }
+        List<T> list = new ArrayList<>();
+        for (T element : getSnapshot().array) {
+            String elementName = nameMapper.apply(element);
+            if (elementName != null && equals(ignoreCase, elementName, name)) {
+                list.add(element);
+            }
+        }
+        return list;
     }
 
     @Override
     public Spliterator<T> spliterator() {
-        try (UnlockHook hook = readLock()) {
-            return Spliterators.spliterator(iterator(), elements.size(), SPLIT_CHARACTERISTICS);
-        }
+        return Spliterators.spliterator(getSnapshot().array, SPLIT_CHARACTERISTICS);
     }
 
     @Nonnull
@@ -121,22 +141,87 @@ public class SortedSnowflakeCacheViewImpl<T extends ISnowflake & Comparable<? su
     @Nonnull
     @Override
     public Stream<T> stream() {
-        return super.stream().sorted(comparator);
+        return StreamSupport.stream(spliterator(), false);
     }
 
     @Nonnull
     @Override
     public Stream<T> parallelStream() {
-        return super.parallelStream().sorted(comparator);
+        return StreamSupport.stream(spliterator(), true);
     }
 
     @Nonnull
     @Override
     public Iterator<T> iterator() {
+        return new ObjectArrayIterator<>(getSnapshot().array);
+    }
+
+    protected Snapshot<T> getSnapshot() {
+        Snapshot<T> current = snapshot.get();
+        if (current != null && current.modCount == modifications.get()) {
+            return current;
+        }
+
         try (UnlockHook hook = readLock()) {
-            T[] arr = elements.values(emptyArray);
-            Arrays.sort(arr, comparator);
-            return new ObjectArrayIterator<>(arr);
+            current = snapshot.get();
+            // Read before sorting, if the order changes while sorting the result is already outdated
+            int modCount = modifications.get();
+            if (current != null && current.modCount == modCount) {
+                return current;
+            }
+
+            Snapshot<T> sorted = new Snapshot<>(sort(current == null ? null : current.array), modCount);
+            // Another reader might have published a newer snapshot in the meantime, which must not be replaced
+            snapshot.compareAndSet(current, sorted);
+            return sorted;
+        }
+    }
+
+    private T[] sort(T[] base) {
+        int size = elements.size();
+        T[] sorted = Arrays.copyOf(emptyArray, size);
+        int index = 0;
+
+        // Start with the elements of the previous order, which are most likely still sorted
+        if (base != null) {
+            for (T element : base) {
+                if (index < size && elements.get(element.getIdLong()) == element) {
+                    sorted[index++] = element;
+                }
+            }
+        }
+
+        // Append everything that was added since, these are merged into the presorted run below
+        if (index == 0) {
+            elements.values(sorted);
+        } else if (index < size) {
+            TLongSet known = new TLongHashSet(index);
+            for (int i = 0; i < index; i++) {
+                known.add(sorted[i].getIdLong());
+            }
+
+            for (TLongObjectIterator<T> it = elements.iterator(); it.hasNext(); ) {
+                it.advance();
+                if (!known.contains(it.key())) {
+                    sorted[index++] = it.value();
+                }
+            }
+        }
+
+        // TimSort only needs a single pass if the order is unchanged, and merges small changes in linear time
+        Arrays.sort(sorted, comparator);
+        return sorted;
+    }
+
+    protected static class Snapshot<T> {
+        protected final T[] array;
+        protected final List<T> list;
+        protected final int modCount;
+
+        protected Snapshot(T[] array, int modCount) {
+            this.array = array;
+            this.modCount = modCount;
+            this.list = Collections.unmodifiableList(Arrays.asList(array));
         }
     }
 }
@@ -20,6 +20,8 @@ import net.dv8tion.jda.api.utils.Compression;
 import net.dv8tion.jda.internal.utils.JDALogger;
 import org.slf4j.Logger;
 
+import java.nio.ByteBuffer;
+import java.util.function.BooleanSupplier;
 import java.util.zip.DataFormatException;
 
 import javax.annotation.Nullable;
@@ -27,6 +29,30 @@ import javax.annotation.Nullable;
 public interface Decompressor {
     Logger LOG = JDALogger.getLog(Decompressor.class);
 
+    // Returns the current decompressor if it already uses the compression, or null for no compression
+    // zstd falls back to zlib if zstd-jni or its natives are not available at runtime
+    @Nullable
+    static Decompressor forCompression(
+            Compression compression, @Nullable Decompressor current, int maxBufferSize, BooleanSupplier zstdSupported) {
+        if (compression == Compression.ZSTD && !zstdSupported.getAsBoolean()) {
+            LOG.debug("Zstd compression is not supported, falling back to zlib compression");
+            compression = Compression.ZLIB;
+        }
+        if (current != null && current.getType() == compression) {
+            return current;
+        }
+        switch (compression) {
+            case NONE:
+                return null;
+            case ZLIB:
+                return new ZlibDecompressor(maxBufferSize);
+            case ZSTD:
+                return new ZstdDecompressor(maxBufferSize);
+            default:
+                throw new IllegalStateException("Unknown compression");
+        }
+    }
+
     Compression getType();
 
     void reset();
@@ -37,4 +63,10 @@ public interface Decompressor {
     // for example when no Z_SYNC_FLUSH was present
     @Nullable
     byte[] decompress(byte[] data) throws DataFormatException;
+
+    // returns a view of the internal decompression buffer, without copying the data,
+    // the view is only valid until the next call to this decompressor
+    // returns null when the decompression isn't done
+    @Nullable
+    ByteBuffer decompressToBuffer(byte[] data) throws DataFormatException;
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.compress;
+
+import static net.dv8tion.jda.api.utils.data.etf.ExTermTag.*;
+
+/**
+ * Finds the end of a gateway message in a decompressed stream.
+ *
+ * <p>Unlike the {@code Z_SYNC_FLUSH} suffix of zlib, zstd has no marker for the end of a flush.
+ * A message split across websocket messages can end on any block boundary,
+ * so the decompressed payload itself has to tell whether it is complete.
+ */
+class MessageBoundary {
+    private static final byte ETF_VERSION = -125;
+
+    // Scanner state of the current JSON message, kept between calls
+    private int scanned;
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+
+    void reset() {
+        scanned = 0;
+        depth = 0;
+        inString = false;
+        escaped = false;
+    }
+
+    /**
+     * Checks whether the first {@code length} bytes contain the entire message.
+     * <br>The bytes must be the same as in the previous call, with only new bytes appended.
+     *
+     * @param  data
+     *         The decompressed bytes of the current message
+     * @param  length
+     *         The number of decompressed bytes
+     *
+     * @return True, if the message is complete
+     */
+    boolean isComplete(byte[] data, int length) {
+        if (length == 0) {
+            return false;
+        }
+        if (data[0] == ETF_VERSION) {
+            return skipTerm(data, 1, length) >= 0;
+        }
+        return scanJson(data, length);
+    }
+
+    private boolean scanJson(byte[] data, int length) {
+        for (; scanned < length; scanned++) {
+            byte b = data[scanned];
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+
+            switch (b) {
+                case '"':
+                    inString = true;
+                    break;
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    if (--depth == 0) {
+                        scanned++;
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
+
+    // Returns the offset after the term, or -1 if the term continues after the length
+    private static int skipTerm(byte[] data, int offset, int length) {
+        if (offset >= length) {
+            return -1;
+        }
+
+        byte tag = data[offset++];
+        switch (tag) {
+            case NIL:
+                return offset;
+            case SMALL_INT:
+                return end(offset + 1L, length);
+            case INT:
+                return end(offset + 4L, length);
+            case NEW_FLOAT:
+                return end(offset + 8L, length);
+            case FLOAT:
+                return end(offset + 31L, length);
+            case SMALL_BIGINT:
+                // Length and sign, followed by the digits
+                return offset >= length ? -1 : end(offset + 2L + Byte.toUnsignedInt(data[offset]), length);
+            case SMALL_ATOM:
+            case SMALL_ATOM_UTF8:
+                return offset >= length ? -1 : end(offset + 1L + Byte.toUnsignedInt(data[offset]), length);
+            case ATOM:
+            case ATOM_UTF8:
+            case STRING:
+                return offset + 2 > length ? -1 : end(offset + 2L + readShort(data, offset), length);
+            case BINARY:
+                return offset + 4 > length ? -1 : end(offset + 4L + readUnsignedInt(data, offset), length);
+            case LIST:
+                // N elements followed by the tail, which is usually NIL
+                return skipTerms(data, offset, length, 1);
+            case MAP:
+                return skipTerms(data, offset, length, 2);
+            default:
+                // Unknown tags cannot be skipped, the parser will report them once the data is passed on
+                return length;
+        }
+    }
+
+    private static int skipTerms(byte[] data, int offset, int length, int termsPerElement) {
+        if (offset + 4 > length) {
+            return -1;
+        }
+
+        long terms = readUnsignedInt(data, offset) * termsPerElement;
+        if (termsPerElement == 1) {
+            terms++;
+        }
+        offset += 4;
+        for (long i = 0; i < terms; i++) {
+            offset = skipTerm(data, offset, length);
+            if (offset < 0) {
+                return -1;
+            }
+        }
+        return offset;
+    }
+
+    private static int end(long offset, int length) {
+        return offset > length ? -1 : (int) offset;
+    }
+
+    private static int readShort(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 8 | (data[offset + 1] & 0xFF);
+    }
+
+    private static long readUnsignedInt(byte[] data, int offset) {
+        return ((data[offset] & 0xFFL) << 24)
+                | ((data[offset + 1] & 0xFF) << 16)
+                | ((data[offset + 2] & 0xFF) << 8)
+                | (data[offset + 3] & 0xFF);
+    }
+}
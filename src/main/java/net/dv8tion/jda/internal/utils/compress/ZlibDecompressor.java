@@ -20,42 +20,38 @@ import net.dv8tion.jda.api.utils.Compression;
 import net.dv8tion.jda.internal.utils.IOUtil;
 import net.dv8tion.jda.internal.utils.JDALogger;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.lang.ref.SoftReference;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
-import java.util.zip.InflaterOutputStream;
 
 public class ZlibDecompressor implements Decompressor {
     private static final int Z_SYNC_FLUSH = 0x0000FFFF;
 
     private final int maxBufferSize;
     private final Inflater inflater = new Inflater();
-    private ByteBuffer flushBuffer = null;
-    private SoftReference<ByteArrayOutputStream> decompressBuffer = null;
+    // Inflated bytes of the current message, reused for subsequent messages
+    private byte[] decompressBuffer = null;
+    private int decompressedLength = 0;
 
     public ZlibDecompressor(int maxBufferSize) {
         this.maxBufferSize = maxBufferSize;
     }
 
-    private SoftReference<ByteArrayOutputStream> newDecompressBuffer() {
-        return new SoftReference<>(new ByteArrayOutputStream(Math.min(1024, maxBufferSize)));
-    }
-
-    private ByteArrayOutputStream getDecompressBuffer() {
+    private byte[] getDecompressBuffer() {
         // If no buffer has been allocated yet we do that here (lazy init)
         if (decompressBuffer == null) {
-            decompressBuffer = newDecompressBuffer();
+            decompressBuffer = new byte[Math.min(1024, maxBufferSize)];
         }
-        // Check if the buffer has been collected by the GC or not
-        ByteArrayOutputStream buffer = decompressBuffer.get();
-        if (buffer == null) { // create a ne buffer because the GC got it
-            decompressBuffer = new SoftReference<>(buffer = new ByteArrayOutputStream(Math.min(1024, maxBufferSize)));
+        return decompressBuffer;
+    }
+
+    private void releaseBuffer() {
+        // Drop buffers which had to grow beyond the limit, so we don't keep them alive forever
+        if (decompressBuffer != null && decompressBuffer.length > maxBufferSize) {
+            decompressBuffer = null;
         }
-        return buffer;
+        decompressedLength = 0;
     }
 
     private boolean isFlush(byte[] data) {
@@ -66,22 +62,6 @@ public class ZlibDecompressor implements Decompressor {
         return suffix == Z_SYNC_FLUSH;
     }
 
-    private void buffer(byte[] data) {
-        if (flushBuffer == null) {
-            flushBuffer = ByteBuffer.allocate(data.length * 2);
-        }
-
-        // Ensure the capacity can hold the new data, ByteBuffer doesn't grow automatically
-        if (flushBuffer.capacity() < data.length + flushBuffer.position()) {
-            // Flip to make it a read buffer
-            flushBuffer.flip();
-            // Reallocate for the new capacity
-            flushBuffer = IOUtil.reallocate(flushBuffer, (flushBuffer.capacity() + data.length) * 2);
-        }
-
-        flushBuffer.put(data);
-    }
-
     private Object lazy(byte[] data) {
         return JDALogger.getLazyString(() -> Arrays.toString(data));
     }
@@ -94,6 +74,7 @@ public class ZlibDecompressor implements Decompressor {
     @Override
     public void reset() {
         inflater.reset();
+        releaseBuffer();
     }
 
     @Override
@@ -103,43 +84,62 @@ public class ZlibDecompressor implements Decompressor {
 
     @Override
     public byte[] decompress(byte[] data) throws DataFormatException {
+        ByteBuffer buffer = decompressToBuffer(data);
+        if (buffer == null) {
+            return null;
+        }
+        return Arrays.copyOfRange(buffer.array(), buffer.position(), buffer.limit());
+    }
+
+    @Override
+    public ByteBuffer decompressToBuffer(byte[] data) throws DataFormatException {
+        if (decompressedLength == 0) {
+            // Start of a new message, previous buffer can be reclaimed if it grew too large
+            releaseBuffer();
+        }
+
+        LOG.trace("Decompressing data {}", lazy(data));
+        // Split messages don't need to be buffered in compressed form,
+        // the inflater keeps its state between frames and we append to the same output buffer
+        byte[] buffer = getDecompressBuffer();
+        int length = decompressedLength;
+        inflater.setInput(data);
+        try {
+            while (true) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+
+                int inflated = inflater.inflate(buffer, length, buffer.length - length);
+                length += inflated;
+
+                if (inflated == 0) {
+                    if (inflater.needsInput() || inflater.finished()) {
+                        break;
+                    }
+                    if (inflater.needsDictionary()) {
+                        throw new DataFormatException("Malformed, missing dictionary");
+                    }
+                }
+            }
+        } catch (DataFormatException e) {
+            decompressBuffer = buffer;
+            decompressedLength = 0;
+            throw e;
+        }
+
+        decompressBuffer = buffer;
+
         // Handle split messages
         if (!isFlush(data)) {
             // There is no flush suffix so this is not the end of the message
-            LOG.debug("Received incomplete data, writing to buffer. Length: {}", data.length);
-            buffer(data);
+            LOG.debug("Received incomplete data, inflated to buffer. Length: {}", data.length);
+            decompressedLength = length;
             return null; // signal failure to decompress
-        } else if (flushBuffer != null) {
-            // This has a flush suffix and we have an incomplete package buffered
-            // concatenate the package with the new data and decompress it below
-            LOG.debug("Received final part of incomplete data");
-            buffer(data);
-            byte[] arr = flushBuffer.array();
-            data = new byte[flushBuffer.position()];
-            System.arraycopy(arr, 0, data, 0, data.length);
-            flushBuffer = null;
-        }
-        LOG.trace("Decompressing data {}", lazy(data));
-        // Get the compressed message and inflate it
-        // We use the same buffer here to optimize gc use
-        ByteArrayOutputStream buffer = getDecompressBuffer();
-        try (InflaterOutputStream decompressor = new InflaterOutputStream(buffer, inflater)) {
-            // This decompressor writes the received data and inflates it
-            decompressor.write(data);
-            // Once decompressed we re-interpret the data as a String which can be used for JSON
-            // parsing
-            return buffer.toByteArray();
-        } catch (IOException e) {
-            // Some issue appeared during decompression that caused a failure
-            throw (DataFormatException) new DataFormatException("Malformed").initCause(e);
-        } finally {
-            // When done with decompression we want to reset the buffer so it can be used again
-            // later
-            if (buffer.size() > maxBufferSize) {
-                decompressBuffer = newDecompressBuffer();
-            } else {
-                buffer.reset();
-            }
         }
+
+        // The buffer is only valid until the next call, the caller has to parse it before then
+        decompressedLength = 0;
+        return ByteBuffer.wrap(buffer, 0, length);
     }
 }
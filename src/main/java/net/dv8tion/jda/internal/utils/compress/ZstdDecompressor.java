@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.internal.utils.compress;
+
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.util.Native;
+import net.dv8tion.jda.api.utils.Compression;
+import net.dv8tion.jda.internal.utils.JDALogger;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+/**
+ * Decompressor for {@code zstd-stream} transport compression.
+ *
+ * <p>This requires the optional <a href="https://github.com/luben/zstd-jni" target="_blank">zstd-jni</a> dependency,
+ * use {@link #isSupported()} to check whether the native library is available.
+ */
+public class ZstdDecompressor implements Decompressor {
+    private static boolean initialized;
+    private static boolean supported;
+
+    private final int maxBufferSize;
+    private ZstdDecompressCtx context;
+    // zstd-jni only supports streaming with direct buffers
+    private ByteBuffer inputBuffer;
+    private ByteBuffer outputBuffer;
+    // Decompressed bytes of the current message, reused for subsequent messages
+    private byte[] decompressBuffer;
+    private int decompressedLength;
+    private final MessageBoundary boundary = new MessageBoundary();
+
+    public ZstdDecompressor(int maxBufferSize) {
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    public static synchronized boolean isSupported() {
+        if (initialized) {
+            return supported;
+        }
+        initialized = true;
+        try {
+            Native.load();
+            supported = Native.isLoaded();
+        } catch (NoClassDefFoundError e) {
+            LOG.warn("Missing zstd-jni dependency, unable to use zstd-stream compression!");
+        } catch (UnsatisfiedLinkError | UnsupportedOperationException e) {
+            LOG.warn("Failed to load zstd natives, unable to use zstd-stream compression!", e);
+        }
+        return supported;
+    }
+
+    private ZstdDecompressCtx getContext() {
+        if (context == null) {
+            context = new ZstdDecompressCtx();
+        }
+        return context;
+    }
+
+    private ByteBuffer getInputBuffer(int length) {
+        if (inputBuffer == null || inputBuffer.capacity() < length) {
+            inputBuffer = ByteBuffer.allocateDirect(Math.max(length, Math.min(1024, maxBufferSize)));
+        }
+        inputBuffer.clear();
+        return inputBuffer;
+    }
+
+    private ByteBuffer getOutputBuffer() {
+        if (outputBuffer == null) {
+            outputBuffer = ByteBuffer.allocateDirect(Math.max(1024, Math.min(8192, maxBufferSize)));
+        }
+        outputBuffer.clear();
+        return outputBuffer;
+    }
+
+    private byte[] getDecompressBuffer() {
+        if (decompressBuffer == null) {
+            decompressBuffer = new byte[Math.min(1024, maxBufferSize)];
+        }
+        return decompressBuffer;
+    }
+
+    private void releaseBuffer() {
+        // Drop buffers which had to grow beyond the limit, so we don't keep them alive forever
+        if (decompressBuffer != null && decompressBuffer.length > maxBufferSize) {
+            decompressBuffer = null;
+        }
+        decompressedLength = 0;
+        boundary.reset();
+    }
+
+    private Object lazy(byte[] data) {
+        return JDALogger.getLazyString(() -> Arrays.toString(data));
+    }
+
+    @Override
+    public Compression getType() {
+        return Compression.ZSTD;
+    }
+
+    @Override
+    public void reset() {
+        // A new connection starts a new stream, the context cannot be reused
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+        releaseBuffer();
+    }
+
+    @Override
+    public void shutdown() {
+        reset();
+        inputBuffer = null;
+        outputBuffer = null;
+        decompressBuffer = null;
+    }
+
+    @Override
+    public byte[] decompress(byte[] data) throws DataFormatException {
+        ByteBuffer buffer = decompressToBuffer(data);
+        if (buffer == null) {
+            return null;
+        }
+        return Arrays.copyOfRange(buffer.array(), buffer.position(), buffer.limit());
+    }
+
+    @Override
+    public ByteBuffer decompressToBuffer(byte[] data) throws DataFormatException {
+        if (decompressedLength == 0) {
+            // Start of a new message, previous buffer can be reclaimed if it grew too large
+            releaseBuffer();
+        }
+
+        LOG.trace("Decompressing data {}", lazy(data));
+        ZstdDecompressCtx context = getContext();
+        ByteBuffer input = getInputBuffer(data.length);
+        input.put(data).flip();
+        ByteBuffer output = getOutputBuffer();
+
+        // Split messages don't need to be buffered in compressed form,
+        // the context keeps its state between frames and we append to the same output buffer
+        byte[] buffer = getDecompressBuffer();
+        int length = decompressedLength;
+        try {
+            while (true) {
+                context.decompressDirectByteBufferStream(output, input);
+                output.flip();
+                int produced = output.remaining();
+                if (length + produced > buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + produced));
+                }
+                output.get(buffer, length, produced);
+                length += produced;
+
+                // If the output was not filled up, zstd has flushed everything it could and consumed all input
+                boolean flushed = produced < output.capacity();
+                output.clear();
+                if (flushed && !input.hasRemaining()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            decompressBuffer = buffer;
+            releaseBuffer();
+            // zstd-jni reports malformed input with unchecked exceptions
+            throw (DataFormatException) new DataFormatException("Malformed").initCause(e);
+        }
+
+        decompressBuffer = buffer;
+
+        // Handle split messages
+        if (!boundary.isComplete(buffer, length)) {
+            LOG.debug("Received incomplete data, decompressed to buffer. Length: {}", data.length);
+            decompressedLength = length;
+            return null; // signal failure to decompress
+        }
+
+        // The buffer is only valid until the next call, the caller has to parse it before then
+        decompressedLength = 0;
+        return ByteBuffer.wrap(buffer, 0, length);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Access to virtual threads, which are only available on Java 21 and newer.
+ * <br>Since JDA targets Java 8, this has to be done through reflection.
+ */
+public class VirtualThreads {
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null, name = null, factory = null, threadPerTaskExecutor = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            threadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+
+            // Java 19 and 20 have these methods, but they throw unless preview features are enabled
+            factory.invoke(name.invoke(ofVirtual.invoke(null), "probe", 0L));
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError ignored) {
+            // Virtual threads are not supported by this runtime
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        THREAD_PER_TASK_EXECUTOR = threadPerTaskExecutor;
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    @Nonnull
+    public static ThreadFactory newThreadFactory(@Nonnull String prefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer");
+        }
+
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = NAME.invoke(builder, prefix, 1L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread factory", e);
+        }
+    }
+
+    @Nonnull
+    public static ThreadFactory newThreadFactory(@Nonnull Supplier<String> identifier, @Nonnull String specifier) {
+        ThreadFactory factory = newThreadFactory(specifier);
+        AtomicLong count = new AtomicLong(1);
+        // Same naming scheme as CountingThreadFactory, the identifier might change after the pool is created
+        return r -> {
+            Thread thread = factory.newThread(r);
+            thread.setName(identifier.get() + " " + specifier + "-Worker " + count.getAndIncrement());
+            return thread;
+        };
+    }
+
+    @Nonnull
+    public static ExecutorService newThreadPerTaskExecutor(@Nonnull ThreadFactory threadFactory) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer");
+        }
+
+        try {
+            return (ExecutorService) THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.internal.utils.concurrent.task;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.requests.restaction.AuditableRestAction;
+import net.dv8tion.jda.api.utils.MiscUtil;
+import net.dv8tion.jda.api.utils.concurrent.BulkRoleJob;
+import net.dv8tion.jda.internal.utils.Checks;
+import net.dv8tion.jda.internal.utils.EntityString;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import org.slf4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+public class BulkRoleJobImpl implements BulkRoleJob {
+    private static final Logger log = JDALogger.getLog(BulkRoleJob.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Guild guild;
+    private final Stream<? extends Mutation> stream;
+    private final Iterator<? extends Mutation> iterator;
+
+    private BiConsumer<? super Mutation, ? super Throwable> failureCallback;
+    private Consumer<? super BulkRoleJob> progressCallback;
+    private String reason;
+    private int maxPending = DEFAULT_MAX_PENDING;
+
+    // Guarded by lock
+    private final Set<CompletableFuture<Void>> requests = new HashSet<>();
+    private int pending;
+    private boolean exhausted, closed;
+    private volatile boolean started, paused, cancelled;
+
+    public BulkRoleJobImpl(Guild guild, Stream<? extends Mutation> stream) {
+        this.guild = guild;
+        this.stream = stream;
+        this.iterator = stream.iterator();
+    }
+
+    @Nonnull
+    @Override
+    public BulkRoleJob setMaxPending(int maxPending) {
+        Checks.positive(maxPending, "Max pending");
+        checkNotStarted();
+        this.maxPending = maxPending;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public BulkRoleJob setReason(@Nullable String reason) {
+        checkNotStarted();
+        this.reason = reason;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public BulkRoleJob onFailure(@Nonnull BiConsumer<? super Mutation, ? super Throwable> callback) {
+        Checks.notNull(callback, "Callback");
+        checkNotStarted();
+        this.failureCallback = callback;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public BulkRoleJob onProgress(@Nonnull Consumer<? super BulkRoleJob> callback) {
+        Checks.notNull(callback, "Callback");
+        checkNotStarted();
+        this.progressCallback = callback;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public BulkRoleJob start() {
+        MiscUtil.locked(lock, () -> {
+            checkNotStarted();
+            started = true;
+        });
+        fill();
+        return this;
+    }
+
+    @Override
+    public void pause() {
+        paused = true;
+    }
+
+    @Override
+    public void resume() {
+        if (!paused) {
+            return;
+        }
+        paused = false;
+        fill();
+    }
+
+    @Override
+    public void cancel() {
+        List<CompletableFuture<Void>> inFlight = MiscUtil.locked(lock, () -> {
+            if (cancelled || future.isDone()) {
+                return null;
+            }
+            cancelled = true;
+            // Closing under the lock, so the stream is never closed while fill() iterates it
+            closeStream();
+            List<CompletableFuture<Void>> copy = new ArrayList<>(requests);
+            requests.clear();
+            return copy;
+        });
+
+        if (inFlight != null) {
+            inFlight.forEach(request -> request.cancel(false));
+            future.cancel(false);
+        }
+    }
+
+    @Override
+    public boolean isStarted() {
+        return started;
+    }
+
+    @Override
+    public boolean isPaused() {
+        return paused;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    @Override
+    public long getSucceededCount() {
+        return succeeded.get();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    @Override
+    public int getPendingCount() {
+        return MiscUtil.locked(lock, () -> pending);
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Void> getFuture() {
+        return future;
+    }
+
+    @Override
+    public String toString() {
+        return new EntityString(this)
+                .addMetadata("succeeded", succeeded.get())
+                .addMetadata("failed", failed.get())
+                .addMetadata("pending", getPendingCount())
+                .toString();
+    }
+
+    private void checkNotStarted() {
+        if (started) {
+            throw new IllegalStateException("Cannot modify a job that has already been started");
+        }
+    }
+
+    // Sends mutations until the window of pending requests is full.
+    // Responses call back into this method, which keeps the rate-limit bucket saturated without buffering the stream.
+    private void fill() {
+        while (true) {
+            Mutation next;
+            lock.lock();
+            try {
+                if (cancelled || paused || exhausted || pending >= maxPending) {
+                    return;
+                }
+
+                try {
+                    if (!iterator.hasNext()) {
+                        exhausted = true;
+                        closeStream();
+                        next = null;
+                    } else {
+                        next = iterator.next();
+                        pending++;
+                    }
+                } catch (Throwable error) {
+                    exhausted = true;
+                    closeStream();
+                    future.completeExceptionally(error);
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (next == null) {
+                checkDone();
+                return;
+            }
+
+            AuditableRestAction<Void> action;
+            try {
+                action = next.isAdd()
+                        ? guild.addRoleToMember(next.getUser(), next.getRole())
+                        : guild.removeRoleFromMember(next.getUser(), next.getRole());
+            } catch (RuntimeException error) {
+                // Validation failures do not send a request, continue with the next mutation instead of recursing
+                handleCompletion(next, error);
+                continue;
+            }
+
+            Mutation mutation = next;
+            CompletableFuture<Void> request = action.reason(reason).submit();
+            boolean tracked = MiscUtil.locked(lock, () -> !cancelled && requests.add(request));
+            if (!tracked) {
+                // The job was cancelled while this request was submitted
+                request.cancel(false);
+            }
+            request.whenComplete((v, error) -> onComplete(mutation, request, error));
+        }
+    }
+
+    // Guarded by lock
+    private void closeStream() {
+        if (!closed) {
+            closed = true;
+            stream.close();
+        }
+    }
+
+    private void onComplete(Mutation mutation, CompletableFuture<Void> request, Throwable error) {
+        MiscUtil.locked(lock, () -> {
+            requests.remove(request);
+        });
+        handleCompletion(mutation, error);
+        fill();
+        checkDone();
+    }
+
+    private void handleCompletion(Mutation mutation, Throwable error) {
+        MiscUtil.locked(lock, () -> {
+            pending--;
+        });
+
+        // Requests cancelled by cancel() are neither counted nor reported, and no callbacks run after cancelling
+        if (cancelled && error instanceof CancellationException) {
+            return;
+        }
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+
+        if (error == null) {
+            succeeded.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+            if (failureCallback != null && !cancelled) {
+                try {
+                    failureCallback.accept(mutation, error);
+                } catch (Throwable ex) {
+                    log.error("BulkRoleJob failure callback threw error", ex);
+                }
+            }
+        }
+
+        if (progressCallback != null && !cancelled) {
+            try {
+                progressCallback.accept(this);
+            } catch (Throwable ex) {
+                log.error("BulkRoleJob progress callback threw error", ex);
+            }
+        }
+    }
+
+    private void checkDone() {
+        boolean done = MiscUtil.locked(lock, () -> exhausted && pending == 0);
+        if (done) {
+            future.complete(null);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import net.dv8tion.jda.api.utils.SessionController;
 import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
 import okhttp3.OkHttpClient;
 
+import java.nio.file.Path;
 import java.util.EnumSet;
 
 import javax.annotation.Nonnull;
@@ -36,6 +37,7 @@ public class SessionConfig {
     private final int largeThreshold;
     private EnumSet<ConfigFlag> flags;
     private int maxReconnectDelay;
+    private Path cacheSnapshotFile;
 
     public SessionConfig(
             @Nullable SessionController sessionController,
@@ -66,6 +68,10 @@ public class SessionConfig {
         }
     }
 
+    public void setCacheSnapshotFile(@Nullable Path cacheSnapshotFile) {
+        this.cacheSnapshotFile = cacheSnapshotFile;
+    }
+
     @Nonnull
     public SessionController getSessionController() {
         return sessionController;
@@ -106,10 +112,39 @@ public class SessionConfig {
         return flags.contains(ConfigFlag.EVENT_PASSTHROUGH);
     }
 
+    public boolean isLazyParsing() {
+        return flags.contains(ConfigFlag.LAZY_PARSING);
+    }
+
+    public boolean isCompactMemberCache() {
+        return flags.contains(ConfigFlag.COMPACT_MEMBER_CACHE);
+    }
+
+    public boolean isMemberIndex() {
+        return flags.contains(ConfigFlag.MEMBER_INDEX);
+    }
+
+    public boolean isReadOptimizedCache() {
+        return flags.contains(ConfigFlag.READ_OPTIMIZED_CACHE);
+    }
+
+    public boolean isPermissionCache() {
+        return flags.contains(ConfigFlag.PERMISSION_CACHE);
+    }
+
+    public boolean isIncrementalGuildSetup() {
+        return flags.contains(ConfigFlag.INCREMENTAL_GUILD_SETUP);
+    }
+
     public boolean isRelativeRateLimit() {
         return flags.contains(ConfigFlag.USE_RELATIVE_RATELIMIT);
     }
 
+    @Nullable
+    public Path getCacheSnapshotFile() {
+        return cacheSnapshotFile;
+    }
+
     public int getMaxReconnectDelay() {
         return maxReconnectDelay;
     }
@@ -16,7 +16,11 @@
 
 package net.dv8tion.jda.internal.utils.config;
 
+import net.dv8tion.jda.api.hooks.OrderedEventPool;
+import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.concurrent.CountingThreadFactory;
+import net.dv8tion.jda.internal.utils.concurrent.VirtualThreads;
+import org.slf4j.Logger;
 
 import java.util.concurrent.*;
 import java.util.function.Supplier;
@@ -25,6 +29,13 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public class ThreadingConfig {
+    /**
+     * The number of lanes of the event pool used with virtual threads.
+     */
+    public static final int VIRTUAL_EVENT_LANES = 256;
+
+    private static final Logger LOG = JDALogger.getLog(ThreadingConfig.class);
+
     private final Object audioLock = new Object();
 
     private ScheduledExecutorService rateLimitScheduler;
@@ -41,6 +52,12 @@ public class ThreadingConfig {
     private boolean shutdownEventPool;
     private boolean shutdownAudioPool;
 
+    // Whether the callback pool was configured by the user, even if it is the common pool
+    private boolean customCallbackPool;
+    private boolean virtualThreads;
+    // Used to name virtual threads, which might be created before init
+    private volatile Supplier<String> identifier = () -> "JDA";
+
     public ThreadingConfig() {
         this.callbackPool = ForkJoinPool.commonPool();
 
@@ -69,6 +86,7 @@ public class ThreadingConfig {
     public void setCallbackPool(@Nullable ExecutorService executor, boolean shutdown) {
         this.callbackPool = executor == null ? ForkJoinPool.commonPool() : executor;
         this.shutdownCallbackPool = shutdown;
+        this.customCallbackPool = executor != null;
     }
 
     public void setEventPool(@Nullable ExecutorService executor, boolean shutdown) {
@@ -81,14 +99,52 @@ public class ThreadingConfig {
         this.shutdownAudioPool = shutdown;
     }
 
+    /**
+     * Replaces all default pools, except the schedulers, with virtual threads.
+     * <br>This has to be called after all custom pools are configured.
+     *
+     * <p>Events are handled by an {@link OrderedEventPool} instead of the gateway thread,
+     * which keeps the order of events within each guild.
+     * If virtual threads are not supported by the runtime, the platform thread pools are used instead.
+     */
+    public void enableVirtualThreads() {
+        if (!isVirtualThreadsSupported()) {
+            LOG.warn("Virtual threads require Java 21 or newer, falling back to platform threads");
+            return;
+        }
+
+        this.virtualThreads = true;
+        if (!customCallbackPool) {
+            ThreadFactory factory = VirtualThreads.newThreadFactory(this::getIdentifier, "Callback");
+            this.callbackPool = VirtualThreads.newThreadPerTaskExecutor(factory);
+            this.shutdownCallbackPool = true;
+        }
+        if (this.eventPool == null) {
+            this.eventPool = new OrderedEventPool(
+                    VIRTUAL_EVENT_LANES,
+                    OrderedEventPool.DEFAULT_QUEUE_CAPACITY,
+                    VirtualThreads.newThreadFactory(this::getIdentifier, "Event"));
+            this.shutdownEventPool = true;
+        }
+    }
+
+    // Allows tests to simulate a runtime without virtual threads
+    protected boolean isVirtualThreadsSupported() {
+        return VirtualThreads.isSupported();
+    }
+
     public void init(@Nonnull Supplier<String> identifier) {
+        this.identifier = identifier;
         if (this.rateLimitScheduler == null) {
             this.rateLimitScheduler = newScheduler(2, identifier, "RateLimit-Scheduler", false);
         }
         if (this.gatewayPool == null) {
             this.gatewayPool = newScheduler(1, identifier, "Gateway");
         }
-        if (this.rateLimitElastic == null) {
+        if (this.rateLimitElastic == null && virtualThreads) {
+            this.rateLimitElastic = VirtualThreads.newThreadPerTaskExecutor(
+                    VirtualThreads.newThreadFactory(identifier, "RateLimit-Elastic"));
+        } else if (this.rateLimitElastic == null) {
             this.rateLimitElastic =
                     Executors.newCachedThreadPool(new CountingThreadFactory(identifier, "RateLimit-Elastic", false));
             if (this.rateLimitElastic instanceof ThreadPoolExecutor) {
@@ -182,6 +238,14 @@ public class ThreadingConfig {
         return pool;
     }
 
+    private String getIdentifier() {
+        return identifier.get();
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
     public boolean isShutdownRateLimitScheduler() {
         return shutdownRateLimitScheduler;
     }
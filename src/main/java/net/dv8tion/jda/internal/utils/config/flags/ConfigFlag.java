@@ -26,7 +26,14 @@ public enum ConfigFlag {
     BULK_DELETE_SPLIT(true),
     SHUTDOWN_HOOK(true),
     MDC_CONTEXT(true),
-    AUTO_RECONNECT(true);
+    AUTO_RECONNECT(true),
+    LAZY_PARSING,
+    COMPACT_MEMBER_CACHE,
+    MEMBER_INDEX,
+    READ_OPTIMIZED_CACHE,
+    PERMISSION_CACHE,
+    VIRTUAL_THREADS,
+    INCREMENTAL_GUILD_SETUP;
 
     private final boolean isDefault;
 
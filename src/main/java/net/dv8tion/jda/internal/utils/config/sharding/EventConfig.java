@@ -17,6 +17,8 @@
 package net.dv8tion.jda.internal.utils.config.sharding;
 
 import net.dv8tion.jda.api.hooks.IEventManager;
+import net.dv8tion.jda.api.utils.DispatchFilter;
+import net.dv8tion.jda.api.utils.metrics.GatewayMetrics;
 import net.dv8tion.jda.internal.utils.Checks;
 
 import java.util.ArrayList;
@@ -30,6 +32,8 @@ public class EventConfig {
     private final List<Object> listeners = new ArrayList<>();
     private final List<IntFunction<Object>> listenerProviders = new ArrayList<>();
     private final IntFunction<? extends IEventManager> eventManagerProvider;
+    private DispatchFilter dispatchFilter;
+    private GatewayMetrics gatewayMetrics;
 
     public EventConfig(@Nullable IntFunction<? extends IEventManager> eventManagerProvider) {
         this.eventManagerProvider = eventManagerProvider;
@@ -70,6 +74,24 @@ public class EventConfig {
         return eventManagerProvider;
     }
 
+    public void setDispatchFilter(@Nullable DispatchFilter dispatchFilter) {
+        this.dispatchFilter = dispatchFilter;
+    }
+
+    @Nullable
+    public DispatchFilter getDispatchFilter() {
+        return dispatchFilter;
+    }
+
+    public void setGatewayMetrics(@Nullable GatewayMetrics gatewayMetrics) {
+        this.gatewayMetrics = gatewayMetrics;
+    }
+
+    @Nullable
+    public GatewayMetrics getGatewayMetrics() {
+        return gatewayMetrics;
+    }
+
     @Nonnull
     public static EventConfig getDefault() {
         return new EventConfig(null);
@@ -25,7 +25,9 @@ import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
 import net.dv8tion.jda.internal.utils.config.flags.ShardingConfigFlag;
 import okhttp3.OkHttpClient;
 
+import java.nio.file.Path;
 import java.util.EnumSet;
+import java.util.function.IntFunction;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -33,6 +35,7 @@ import javax.annotation.Nullable;
 public class ShardingSessionConfig extends SessionConfig {
     private final OkHttpClient.Builder builder;
     private final EnumSet<ShardingConfigFlag> shardingFlags;
+    private IntFunction<? extends Path> cacheSnapshotProvider;
 
     public ShardingSessionConfig(
             @Nullable SessionController sessionController,
@@ -64,6 +67,15 @@ public class ShardingSessionConfig extends SessionConfig {
                 getLargeThreshold());
     }
 
+    public void setCacheSnapshotProvider(@Nullable IntFunction<? extends Path> cacheSnapshotProvider) {
+        this.cacheSnapshotProvider = cacheSnapshotProvider;
+    }
+
+    @Nullable
+    public IntFunction<? extends Path> getCacheSnapshotProvider() {
+        return cacheSnapshotProvider;
+    }
+
     public EnumSet<ShardingConfigFlag> getShardingFlags() {
         return this.shardingFlags;
     }
@@ -21,18 +21,25 @@ import net.dv8tion.jda.internal.audio.AudioEncryption;
 import net.dv8tion.jda.internal.audio.AudioPacket;
 import net.dv8tion.jda.internal.audio.CryptoAdapter;
 import net.dv8tion.jda.internal.audio.DaveCryptoAdapter;
+import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.internal.utils.ResizingByteBuffer;
 import net.dv8tion.jda.test.Constants;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class CryptoAdapterTest {
+    private static final Logger LOG = JDALogger.getLog(CryptoAdapterTest.class);
     private static final String TEST_PAYLOAD = "text";
     private static final char TEST_SEQ = 'a';
     private static final int TEST_TIMESTAMP = 1234;
@@ -59,6 +66,89 @@ public class CryptoAdapterTest {
         doRoundTripAndAssertPayload(adapter, original);
     }
 
+    @EnumSource
+    @ParameterizedTest
+    void testRepeatedRoundtripWithReusedBuffers(AudioEncryption encryption) {
+        byte[] opus = new byte[160];
+        ByteBuffer received = ByteBuffer.allocate(512);
+        ResizingByteBuffer buffer = new ResizingByteBuffer(ByteBuffer.allocateDirect(512));
+        ResizingByteBuffer decryptBuffer = new ResizingByteBuffer(ByteBuffer.allocateDirect(512));
+        CryptoAdapter adapter = CryptoAdapter.getAdapter(encryption, getKey());
+        SecureRandom random = new SecureRandom();
+
+        // The cipher and buffers are reused, which must not leak state from one packet into the next
+        for (int i = 0; i < 10; i++) {
+            random.nextBytes(opus);
+            AudioPacket original = new AudioPacket(TEST_SEQ, TEST_TIMESTAMP, TEST_SSRC, ByteBuffer.wrap(opus));
+            doRoundTrip(adapter, original, buffer, received, decryptBuffer);
+
+            assertThat(decryptBuffer.buffer()).isEqualTo(ByteBuffer.wrap(opus));
+        }
+    }
+
+    @EnumSource
+    @ParameterizedTest
+    @Tag("benchmark")
+    void testPacketThroughput(AudioEncryption encryption) {
+        int warmupPackets = 10_000;
+        int packets = 50_000;
+        // Typical size of a 20ms opus frame
+        byte[] opus = new byte[160];
+        new SecureRandom().nextBytes(opus);
+        AudioPacket original = new AudioPacket(TEST_SEQ, TEST_TIMESTAMP, TEST_SSRC, ByteBuffer.wrap(opus));
+
+        CryptoAdapter adapter = CryptoAdapter.getAdapter(encryption, getKey());
+        ResizingByteBuffer buffer = new ResizingByteBuffer(ByteBuffer.allocateDirect(512));
+        ResizingByteBuffer decryptBuffer = new ResizingByteBuffer(ByteBuffer.allocateDirect(512));
+        ByteBuffer received = ByteBuffer.allocate(512);
+
+        for (int i = 0; i < warmupPackets; i++) {
+            doRoundTrip(adapter, original, buffer, received, decryptBuffer);
+        }
+
+        long allocatedBefore = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < packets; i++) {
+            doRoundTrip(adapter, original, buffer, received, decryptBuffer);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = getAllocatedBytes();
+
+        assertThat(decryptBuffer.buffer().remaining()).isEqualTo(opus.length);
+        assertThat(decryptBuffer.buffer()).isEqualTo(ByteBuffer.wrap(opus));
+
+        LOG.info(
+                "{}: {} packets/s, {} bytes allocated per packet",
+                encryption,
+                packets * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                allocatedBefore < 0 ? "unknown" : (allocatedAfter - allocatedBefore) / packets);
+    }
+
+    private static void doRoundTrip(
+            CryptoAdapter adapter,
+            AudioPacket original,
+            ResizingByteBuffer buffer,
+            ByteBuffer received,
+            ResizingByteBuffer decryptBuffer) {
+        original.getEncodedAudio().rewind();
+        original.asEncryptedPacket(adapter, buffer);
+
+        received.clear();
+        received.put(buffer.buffer());
+        received.flip();
+
+        AudioPacket packet = new AudioPacket(received);
+        adapter.decrypt((short) 0, Constants.MINN_USER_ID, packet.getEncodedAudio(), decryptBuffer);
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
     private CryptoAdapter getAdapter(AudioEncryption encryption, byte[] key) {
         return new DaveCryptoAdapter(
                 CryptoAdapter.getAdapter(encryption, key),
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.audio;
+
+import net.dv8tion.jda.api.audio.factory.IAudioSendSystem;
+import net.dv8tion.jda.api.audio.factory.IPacketProvider;
+import net.dv8tion.jda.api.audio.factory.ScheduledSendFactory;
+import net.dv8tion.jda.api.audio.hooks.ConnectionStatus;
+import net.dv8tion.jda.api.entities.channel.middleman.AudioChannel;
+import net.dv8tion.jda.api.utils.metrics.Histogram;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ScheduledSendFactoryTest {
+    private static final Logger LOG = JDALogger.getLog(ScheduledSendFactoryTest.class);
+    private static final int POOL_SIZE = 2;
+
+    private DatagramSocket sender;
+    private DatagramSocket receiver;
+    private ScheduledSendFactory factory;
+
+    @BeforeEach
+    void setupSockets() throws IOException {
+        sender = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        receiver = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        receiver.setReceiveBufferSize(1 << 20);
+        receiver.setSoTimeout(100);
+        factory = new ScheduledSendFactory(POOL_SIZE);
+    }
+
+    @AfterEach
+    void closeSockets() {
+        factory.shutdown();
+        sender.close();
+        receiver.close();
+    }
+
+    @Test
+    void sendsFramesForAllConnections() throws Exception {
+        sendFrames(10, 300);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void sendsFramesForManyConnections() throws Exception {
+        sendFrames(500, 2000);
+    }
+
+    @Test
+    void restartDoesNotDuplicateFrames() {
+        List<Runnable> tasks = new ArrayList<>();
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        when(scheduler.schedule(any(Runnable.class), anyLong(), any())).thenAnswer(invocation -> {
+            tasks.add(invocation.getArgument(0));
+            return mock(ScheduledFuture.class);
+        });
+
+        TestPacketProvider provider = new TestPacketProvider(0);
+        IAudioSendSystem system = new ScheduledSendFactory(scheduler).createSendSystem(provider);
+        system.start();
+        system.shutdown();
+        system.start();
+        assertThat(tasks).hasSize(2);
+
+        // The frame of the first start is already running, it must neither send nor schedule another frame
+        tasks.get(0).run();
+        assertThat(provider.requestedPackets).hasValue(0);
+        assertThat(tasks).hasSize(2);
+
+        tasks.get(1).run();
+        assertThat(provider.requestedPackets).hasValue(1);
+        assertThat(tasks).hasSize(3);
+
+        system.shutdown();
+        tasks.get(2).run();
+        assertThat(provider.requestedPackets).hasValue(1);
+        assertThat(tasks).hasSize(3);
+    }
+
+    private void sendFrames(int connections, long durationMillis) throws Exception {
+        AtomicIntegerArray received = new AtomicIntegerArray(connections);
+        Thread receiveThread = new Thread(() -> receive(received));
+        receiveThread.start();
+
+        List<IAudioSendSystem> systems = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            IAudioSendSystem system = factory.createSendSystem(new TestPacketProvider(i));
+            system.setContextMap(null);
+            system.start();
+            systems.add(system);
+        }
+        assertThat(factory.getConnectionCount()).isEqualTo(connections);
+
+        TimeUnit.MILLISECONDS.sleep(durationMillis);
+
+        systems.forEach(IAudioSendSystem::shutdown);
+        // Shutdown is idempotent
+        systems.forEach(IAudioSendSystem::shutdown);
+        assertThat(factory.getConnectionCount()).isZero();
+
+        receiveThread.interrupt();
+        receiveThread.join();
+
+        long expectedFrames = durationMillis / 20;
+        long total = 0;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < connections; i++) {
+            min = Math.min(min, received.get(i));
+            total += received.get(i);
+        }
+
+        Histogram jitter = factory.getJitter();
+        LOG.info(
+                "Sent {} packets for {} connections with {} threads (min {} each), jitter p50={}us p99={}us max={}us",
+                total,
+                connections,
+                POOL_SIZE,
+                min,
+                TimeUnit.NANOSECONDS.toMicros(jitter.getPercentile(50)),
+                TimeUnit.NANOSECONDS.toMicros(jitter.getPercentile(99)),
+                TimeUnit.NANOSECONDS.toMicros(jitter.getMax()));
+
+        assertThat(jitter.getCount()).isGreaterThanOrEqualTo(total);
+        // Allow for slow machines and dropped datagrams, but every connection has to keep sending
+        assertThat(total).isGreaterThan(expectedFrames * connections / 2);
+        assertThat(min).isGreaterThan(0);
+    }
+
+    @Test
+    void stopsWhenSocketIsClosed() throws Exception {
+        IAudioSendSystem system = factory.createSendSystem(new TestPacketProvider(0));
+        system.start();
+        assertThat(factory.getConnectionCount()).isEqualTo(1);
+
+        sender.close();
+        TimeUnit.MILLISECONDS.sleep(100);
+
+        assertThat(factory.getConnectionCount()).isZero();
+        system.shutdown();
+        assertThat(factory.getConnectionCount()).isZero();
+    }
+
+    private void receive(AtomicIntegerArray received) {
+        DatagramPacket packet = new DatagramPacket(new byte[64], 64);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                receiver.receive(packet);
+                received.incrementAndGet(ByteBuffer.wrap(packet.getData(), 0, 4).getInt());
+            } catch (SocketTimeoutException ignored) {
+                // Check for interrupt
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private class TestPacketProvider implements IPacketProvider {
+        private final int index;
+        private final DatagramPacket packet;
+        private final AtomicInteger requestedPackets = new AtomicInteger();
+
+        private TestPacketProvider(int index) {
+            this.index = index;
+            byte[] data = ByteBuffer.allocate(32).putInt(index).array();
+            this.packet = new DatagramPacket(data, data.length, receiver.getLocalAddress(), receiver.getLocalPort());
+        }
+
+        @Nonnull
+        @Override
+        public String getIdentifier() {
+            return "Test Connection " + index;
+        }
+
+        @Nonnull
+        @Override
+        public AudioChannel getConnectedChannel() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Nonnull
+        @Override
+        public DatagramSocket getUdpSocket() {
+            return sender;
+        }
+
+        @Nonnull
+        @Override
+        public InetSocketAddress getSocketAddress() {
+            return (InetSocketAddress) receiver.getLocalSocketAddress();
+        }
+
+        @Override
+        public ByteBuffer getNextPacketRaw(boolean unused) {
+            return ByteBuffer.wrap(packet.getData());
+        }
+
+        @Override
+        public DatagramPacket getNextPacket(boolean unused) {
+            requestedPackets.incrementAndGet();
+            return packet;
+        }
+
+        @Override
+        public void onConnectionError(@Nonnull ConnectionStatus status) {}
+
+        @Override
+        public void onConnectionLost() {}
+    }
+}
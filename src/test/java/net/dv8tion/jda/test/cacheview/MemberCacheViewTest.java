@@ -0,0 +1,162 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.cacheview;
+
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+import net.dv8tion.jda.internal.utils.cache.MemberCacheViewImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class MemberCacheViewTest {
+    private static final Logger LOG = JDALogger.getLog(MemberCacheViewTest.class);
+
+    private final Role moderator = role(100);
+    private final Role admin = role(101);
+
+    private static Role role(long id) {
+        Role role = mock(Role.class);
+        when(role.getIdLong()).thenReturn(id);
+        return role;
+    }
+
+    private static Member member(long id, String name, String nickname, Role... roles) {
+        // Stub only mocks don't record invocations, which keeps them usable for the benchmark
+        User user = mock(User.class, withSettings().stubOnly());
+        when(user.getName()).thenReturn(name);
+        Member member = mock(Member.class, withSettings().stubOnly());
+        when(member.getIdLong()).thenReturn(id);
+        when(member.getUser()).thenReturn(user);
+        when(member.getNickname()).thenReturn(nickname);
+        when(member.getUnsortedRoles()).thenReturn(new HashSet<>(Arrays.asList(roles)));
+        return member;
+    }
+
+    private static void add(MemberCacheViewImpl view, Member member) {
+        try (UnlockHook hook = view.writeLock()) {
+            view.getMap().put(member.getIdLong(), member);
+            view.updateIndex(member);
+        }
+    }
+
+    @ValueSource(booleans = {true, false})
+    @ParameterizedTest
+    void testLookups(boolean indexed) {
+        MemberCacheViewImpl view = new MemberCacheViewImpl(indexed);
+        Member alice = member(1, "Alice", "Ally", moderator);
+        Member bob = member(2, "bob", null, moderator, admin);
+        Member otherAlice = member(3, "ALICE", "ally");
+        add(view, alice);
+        add(view, bob);
+        add(view, otherAlice);
+
+        assertThat(view.isIndexed()).isEqualTo(indexed);
+        assertThat(view.getElementsByUsername("alice", true)).containsExactlyInAnyOrder(alice, otherAlice);
+        assertThat(view.getElementsByUsername("Alice", false)).containsExactly(alice);
+        assertThat(view.getElementsByUsername("carol", true)).isEmpty();
+        assertThat(view.getElementsByNickname("ALLY", true)).containsExactlyInAnyOrder(alice, otherAlice);
+        assertThat(view.getElementsByNickname("ally", false)).containsExactly(otherAlice);
+        assertThat(view.getElementsByNickname(null, false)).containsExactly(bob);
+        assertThat(view.getElementsWithRoles(moderator)).containsExactlyInAnyOrder(alice, bob);
+        assertThat(view.getElementsWithRoles(moderator, admin)).containsExactly(bob);
+        assertThat(view.getElementsWithRoles(role(102))).isEmpty();
+    }
+
+    @ValueSource(booleans = {true, false})
+    @ParameterizedTest
+    void testUpdates(boolean indexed) {
+        MemberCacheViewImpl view = new MemberCacheViewImpl(indexed);
+        Member alice = member(1, "Alice", "Ally", moderator);
+        Member bob = member(2, "bob", null);
+        add(view, alice);
+        add(view, bob);
+
+        when(alice.getNickname()).thenReturn("Queen");
+        when(alice.getUnsortedRoles()).thenReturn(new HashSet<>(Arrays.asList(admin)));
+        view.updateIndex(alice);
+
+        assertThat(view.getElementsByNickname("Ally", true)).isEmpty();
+        assertThat(view.getElementsByNickname("queen", true)).containsExactly(alice);
+        assertThat(view.getElementsWithRoles(moderator)).isEmpty();
+        assertThat(view.getElementsWithRoles(admin)).containsExactly(alice);
+
+        view.remove(alice.getIdLong());
+
+        assertThat(view.getElementsByUsername("alice", true)).isEmpty();
+        assertThat(view.getElementsWithRoles(admin)).isEmpty();
+        assertThat(view.getElementsByUsername("bob", false)).containsExactly(bob);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testLookupThroughput() {
+        int memberCount = 10_000;
+        Role[] roles = new Role[10];
+        for (int i = 0; i < roles.length; i++) {
+            roles[i] = role(200 + i);
+        }
+        Member[] members = new Member[memberCount];
+        for (int i = 0; i < memberCount; i++) {
+            String nickname = i % 10 == 0 ? "nick-" + i : null;
+            // Moderators are rare, every member has one of the common roles
+            members[i] = i % 100 == 0
+                    ? member(i, "user-" + i, nickname, roles[i % roles.length], moderator)
+                    : member(i, "user-" + i, nickname, roles[i % roles.length]);
+        }
+
+        int iterations = 1000;
+        for (boolean indexed : new boolean[] {false, true, false, true}) {
+            MemberCacheViewImpl view = new MemberCacheViewImpl(indexed);
+            for (Member member : members) {
+                add(view, member);
+            }
+
+            long start = System.nanoTime();
+            int found = 0;
+            for (int i = 0; i < iterations; i++) {
+                int target = (i * 7919) % memberCount;
+                found += view.getElementsByUsername("USER-" + target, true).size();
+                found += view.getElementsByNickname("nick-" + (target - target % 10), false).size();
+                found += view.getElementsWithRoles(moderator, roles[0]).size();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            assertThat(found).isEqualTo(iterations * (2 + memberCount / 100));
+            // Calls to mocks are slower than to real members, so this overstates the cost of a scan
+            LOG.info(
+                    "{} with {} members: {} lookups/s",
+                    indexed ? "Indexed" : "Scan",
+                    memberCount,
+                    3L * iterations * TimeUnit.SECONDS.toNanos(1) / elapsed);
+        }
+    }
+}
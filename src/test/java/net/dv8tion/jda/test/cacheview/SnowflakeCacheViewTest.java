@@ -0,0 +1,233 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.cacheview;
+
+import net.dv8tion.jda.api.entities.ISnowflake;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnowflakeCacheViewTest {
+    private static final Logger LOG = JDALogger.getLog(SnowflakeCacheViewTest.class);
+
+    private static SnowflakeCacheViewImpl<ISnowflake> createCache(boolean readOptimized) {
+        SnowflakeCacheViewImpl<ISnowflake> cache = new SnowflakeCacheViewImpl<>(ISnowflake.class, null);
+        if (readOptimized) {
+            cache.enableReadOptimization();
+        }
+        return cache;
+    }
+
+    @ValueSource(booleans = {true, false})
+    @ParameterizedTest
+    void testReadsWhileWriting(boolean readOptimized) throws InterruptedException {
+        SnowflakeCacheViewImpl<ISnowflake> cache = createCache(readOptimized);
+        ISnowflake stable = () -> 1L;
+        try (UnlockHook hook = cache.writeLock()) {
+            cache.getMap().put(stable.getIdLong(), stable);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        Thread writer = new Thread(() -> {
+            long id = 2;
+            while (running.get()) {
+                ISnowflake entity = new Entity(id++);
+                try (UnlockHook hook = cache.writeLock()) {
+                    // Force rehashing by adding and removing many elements
+                    cache.getMap().put(entity.getIdLong(), entity);
+                    if (cache.getMap().size() > 1000) {
+                        cache.getMap().retainEntries((key, value) -> key == 1L);
+                    }
+                }
+            }
+        });
+
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            readers.add(new Thread(() -> {
+                for (int j = 0; j < 100_000; j++) {
+                    if (cache.getElementById(1L) != stable || !iterates(cache, stable)) {
+                        failed.set(true);
+                    }
+                }
+            }));
+        }
+
+        writer.start();
+        readers.forEach(Thread::start);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        running.set(false);
+        writer.join();
+
+        assertThat(failed).isFalse();
+        assertThat(cache.getElementById(1L)).isSameAs(stable);
+    }
+
+    @ValueSource(booleans = {true, false})
+    @ParameterizedTest
+    void testNestedWriteLock(boolean readOptimized) {
+        SnowflakeCacheViewImpl<ISnowflake> cache = createCache(readOptimized);
+        ISnowflake entity = new Entity(1L);
+        try (UnlockHook outer = cache.writeLock()) {
+            try (UnlockHook inner = cache.writeLock()) {
+                cache.getMap().put(entity.getIdLong(), entity);
+            }
+            cache.getMap().put(2L, new Entity(2L));
+        }
+
+        assertThat(cache.getElementById(1L)).isSameAs(entity);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testReadOptimizedSnapshot() {
+        SnowflakeCacheViewImpl<ISnowflake> cache = createCache(true);
+        try (UnlockHook hook = cache.writeLock()) {
+            for (long id = 1; id <= 10; id++) {
+                cache.getMap().put(id, new Entity(id));
+            }
+        }
+
+        // The copy is only created after enough reads missed it
+        List<ISnowflake> first = cache.asList();
+        for (int i = 0; i < 100; i++) {
+            cache.getElementById(1L);
+        }
+        List<ISnowflake> shared = cache.asList();
+        assertThat(shared).isNotSameAs(first).hasSize(10);
+        assertThat(cache.asList()).isSameAs(shared);
+
+        // Writes are visible right away, while the copy is created again
+        ISnowflake added = new Entity(11L);
+        try (UnlockHook hook = cache.writeLock()) {
+            cache.getMap().put(added.getIdLong(), added);
+            // Reads of the writer itself must not create a copy of an incomplete modification
+            for (int i = 0; i < 100; i++) {
+                cache.getElementById(1L);
+            }
+            cache.getMap().remove(1L);
+        }
+
+        assertThat(cache.getElementById(11L)).isSameAs(added);
+        assertThat(cache.getElementById(1L)).isNull();
+        assertThat(iterates(cache, added)).isTrue();
+        for (int i = 0; i < 100; i++) {
+            assertThat(cache.getElementById(1L)).isNull();
+        }
+        assertThat(cache.asList()).hasSize(10).contains(added);
+        assertThat(cache.asList()).isSameAs(cache.asList());
+    }
+
+    @ValueSource(booleans = {true, false})
+    @ParameterizedTest
+    @Tag("benchmark")
+    void testContendedLookups(boolean readOptimized) throws InterruptedException {
+        SnowflakeCacheViewImpl<ISnowflake> cache = createCache(readOptimized);
+        try (UnlockHook hook = cache.writeLock()) {
+            for (long id = 0; id < 10_000; id++) {
+                cache.getMap().put(id, new Entity(id));
+            }
+        }
+
+        // Occasional writes, like presence or member updates on the gateway thread
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            long id = 10_000;
+            while (running.get()) {
+                try (UnlockHook hook = cache.writeLock()) {
+                    cache.getMap().put(id, new Entity(id));
+                    cache.getMap().remove(id - 1_000);
+                }
+                id++;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        });
+
+        int readers = Runtime.getRuntime().availableProcessors();
+        int lookups = 2_000_000;
+        AtomicLong found = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < readers; i++) {
+            threads.add(new Thread(() -> {
+                long count = 0;
+                for (int j = 0; j < lookups; j++) {
+                    if (cache.getElementById(j % 9_000) != null) {
+                        count++;
+                    }
+                }
+                found.addAndGet(count);
+            }));
+        }
+
+        writer.start();
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        running.set(false);
+        writer.join();
+
+        LOG.info(
+                "{} lookups on {} threads with read optimization {} took {} ms",
+                (long) readers * lookups,
+                readers,
+                readOptimized ? "enabled" : "disabled",
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+        assertThat(found.get()).isPositive();
+    }
+
+    private static boolean iterates(Iterable<ISnowflake> cache, ISnowflake element) {
+        for (ISnowflake current : cache) {
+            if (current == element) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Entity implements ISnowflake {
+        private final long id;
+
+        private Entity(long id) {
+            this.id = id;
+        }
+
+        @Override
+        public long getIdLong() {
+            return id;
+        }
+    }
+}
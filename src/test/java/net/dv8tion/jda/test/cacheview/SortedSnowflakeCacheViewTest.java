@@ -0,0 +1,249 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.cacheview;
+
+import net.dv8tion.jda.api.entities.ISnowflake;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+import net.dv8tion.jda.internal.utils.cache.SortedSnowflakeCacheViewImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SortedSnowflakeCacheViewTest {
+    private static final Logger LOG = JDALogger.getLog(SortedSnowflakeCacheViewTest.class);
+
+    private final SortedSnowflakeCacheViewImpl<Entity> cache =
+            new SortedSnowflakeCacheViewImpl<>(Entity.class, Entity::getName, Comparator.naturalOrder());
+
+    private Entity add(long id, int position) {
+        Entity entity = new Entity(id, position);
+        try (UnlockHook hook = cache.writeLock()) {
+            cache.getMap().put(id, entity);
+        }
+        return entity;
+    }
+
+    private static List<Long> ids(Iterable<Entity> entities) {
+        List<Long> ids = new ArrayList<>();
+        entities.forEach(entity -> ids.add(entity.getIdLong()));
+        return ids;
+    }
+
+    @Test
+    void testSortedIteration() {
+        add(1, 3);
+        add(2, 1);
+        add(3, 2);
+
+        assertThat(ids(cache)).containsExactly(2L, 3L, 1L);
+        assertThat(ids(cache.asList())).containsExactly(2L, 3L, 1L);
+        assertThat(ids(cache.asSet())).containsExactly(2L, 3L, 1L);
+        assertThat(cache.stream().map(Entity::getIdLong).collect(Collectors.toList()))
+                .containsExactly(2L, 3L, 1L);
+
+        List<Long> forEach = new ArrayList<>();
+        cache.forEach(entity -> forEach.add(entity.getIdLong()));
+        assertThat(forEach).containsExactly(2L, 3L, 1L);
+    }
+
+    @Test
+    void testReusesOrder() {
+        add(1, 1);
+        add(2, 2);
+
+        assertThat(cache.asList()).isSameAs(cache.asList());
+    }
+
+    @Test
+    void testOrderChanges() {
+        Entity first = add(1, 1);
+        add(2, 2);
+        add(3, 3);
+        List<Entity> before = cache.asList();
+
+        first.position = 4;
+        cache.clearCachedLists();
+
+        assertThat(ids(cache)).containsExactly(2L, 3L, 1L);
+        assertThat(ids(before)).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void testMembershipChanges() {
+        add(1, 1);
+        add(2, 3);
+        assertThat(ids(cache)).containsExactly(1L, 2L);
+
+        add(3, 2);
+        add(4, 0);
+        assertThat(ids(cache)).containsExactly(4L, 1L, 3L, 2L);
+
+        cache.remove(1);
+        add(5, 5);
+        assertThat(ids(cache)).containsExactly(4L, 3L, 2L, 5L);
+
+        cache.clear();
+        assertThat(cache.asList()).isEmpty();
+        assertThat(cache.iterator()).isExhausted();
+    }
+
+    @Test
+    void testElementsByName() {
+        add(1, 2);
+        add(2, 1);
+        add(3, 0).name = "other";
+
+        assertThat(ids(cache.getElementsByName("ENTITY", true))).containsExactly(2L, 1L);
+        assertThat(cache.getElementsByName("ENTITY", false)).isEmpty();
+    }
+
+    @Test
+    void testConcurrentReorders() throws Exception {
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            entities.add(add(i, i));
+        }
+
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(readers.submit(() -> {
+                    while (running.get()) {
+                        cache.asList();
+                    }
+                }));
+            }
+
+            for (int round = 1; round <= 500; round++) {
+                // Like RoleImpl#setRawPosition, the order changes without holding the write lock
+                for (Entity entity : entities) {
+                    entity.position = round % 2 == 0 ? (int) entity.id : -(int) entity.id;
+                }
+                cache.clearCachedLists();
+
+                List<Entity> expected = new ArrayList<>(entities);
+                expected.sort(Comparator.naturalOrder());
+                assertThat(cache.asList()).containsExactlyElementsOf(expected);
+            }
+
+            running.set(false);
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            running.set(false);
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testIterationThroughput() {
+        // The role limit of a guild
+        for (int i = 0; i < 250; i++) {
+            add(i, (i * 7919) % 250);
+        }
+
+        int iterations = 100_000;
+        String[] modes = {"Sort on every read", "Cached order", "Rebuild after invalidation"};
+        for (int run = 0; run < 2 * modes.length; run++) {
+            int mode = run % modes.length;
+            long allocatedBefore = getAllocatedBytes();
+            long start = System.nanoTime();
+            long sum = 0;
+            for (int i = 0; i < iterations; i++) {
+                Iterable<Entity> sorted;
+                if (mode == 0) {
+                    // What every read did before the order was cached
+                    List<Entity> copy = new ArrayList<>(cache.getMap().valueCollection());
+                    copy.sort(Comparator.naturalOrder());
+                    sorted = copy;
+                } else {
+                    if (mode == 2) {
+                        cache.clearCachedLists();
+                    }
+                    sorted = cache;
+                }
+                for (Entity entity : sorted) {
+                    sum += entity.position;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocatedAfter = getAllocatedBytes();
+
+            assertThat(sum).isEqualTo((long) iterations * 249 * 250 / 2);
+            LOG.info(
+                    "{}: {} iterations/s, {} bytes allocated per iteration",
+                    modes[mode],
+                    iterations * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                    allocatedBefore < 0 ? "unknown" : (allocatedAfter - allocatedBefore) / iterations);
+        }
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    static class Entity implements ISnowflake, Comparable<Entity> {
+        private final long id;
+        private volatile int position;
+        private String name = "entity";
+
+        Entity(long id, int position) {
+            this.id = id;
+            this.position = position;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        @Override
+        public long getIdLong() {
+            return id;
+        }
+
+        @Override
+        public int compareTo(@Nonnull Entity o) {
+            int comparison = Integer.compare(position, o.position);
+            return comparison != 0 ? comparison : Long.compare(id, o.id);
+        }
+    }
+}
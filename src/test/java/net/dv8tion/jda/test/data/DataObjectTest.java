@@ -19,12 +19,22 @@ package net.dv8tion.jda.test.data;
 import net.dv8tion.jda.api.exceptions.DataObjectParsingException;
 import net.dv8tion.jda.api.utils.data.DataArray;
 import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.utils.JDALogger;
 import net.dv8tion.jda.test.AbstractSnapshotTest;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 public class DataObjectTest extends AbstractSnapshotTest {
+    private static final Logger LOG = JDALogger.getLog(DataObjectTest.class);
+
     @Test
     void testMissingKeyException() {
         DataObject data = DataObject.empty()
@@ -48,4 +58,124 @@ public class DataObjectTest extends AbstractSnapshotTest {
                 .isThrownBy(() -> data.getInt("foo"))
                 .satisfies(exception -> snapshotHandler.compareWithSnapshot(exception.toString(), null));
     }
+
+    @Test
+    void testLazyParsingMatchesEagerParsing() {
+        DataObject data = DataObject.empty()
+                .put("id", "1234")
+                .put("count", 42)
+                .put("big", Long.MAX_VALUE)
+                .put("ratio", 0.5)
+                .put("flag", true)
+                .put("missing", null)
+                .put("nested_object", DataObject.empty().put("test", "test value"))
+                .put("nested_array", DataArray.empty().add("test value").add(DataObject.empty()));
+
+        byte[] json = data.toJson();
+        DataObject lazy = DataObject.fromJsonLazy(json);
+        DataObject eager = DataObject.fromJson(json);
+
+        assertThat(lazy.getString("id")).isEqualTo("1234");
+        assertThat(lazy.getInt("count")).isEqualTo(42);
+        assertThat(lazy.getLong("big")).isEqualTo(Long.MAX_VALUE);
+        assertThat(lazy.getDouble("ratio")).isEqualTo(0.5);
+        assertThat(lazy.getBoolean("flag")).isTrue();
+        assertThat(lazy.hasKey("missing")).isTrue();
+        assertThat(lazy.isNull("missing")).isTrue();
+        assertThat(lazy.hasKey("unknown")).isFalse();
+        assertThat(lazy.getObject("nested_object").getString("test")).isEqualTo("test value");
+        assertThat(lazy.getArray("nested_array").getString(0)).isEqualTo("test value");
+
+        assertThat(lazy.toMap()).isEqualTo(eager.toMap());
+
+        lazy.put("id", "5678");
+        assertThat(lazy.getString("id")).isEqualTo("5678");
+        assertThat(lazy.keys()).isEqualTo(eager.keys());
+    }
+
+    @Test
+    void testLazyParsingOfStrings() {
+        DataObject data = DataObject.empty()
+                .put("id", "125227483518861312")
+                .put("t", "MESSAGE_CREATE")
+                .put("empty", "")
+                .put("escaped", "quote \" backslash \\ newline \n tab \t")
+                .put("unicode", "gr\u00fc\u00dfe \u2603 \ud83d\ude00")
+                .put("nested_object", DataObject.empty().put("content", "nested \"value\""))
+                .put("last", "end");
+
+        byte[] json = data.toJson();
+        DataObject lazy = DataObject.fromJsonLazy(json);
+
+        assertThat(lazy.getString("id")).isEqualTo("125227483518861312");
+        assertThat(lazy.getUnsignedLong("id")).isEqualTo(125227483518861312L);
+        assertThat(lazy.getString("t")).isEqualTo("MESSAGE_CREATE");
+        assertThat(lazy.getString("empty")).isEmpty();
+        assertThat(lazy.getString("escaped")).isEqualTo("quote \" backslash \\ newline \n tab \t");
+        assertThat(lazy.getString("unicode")).isEqualTo("gr\u00fc\u00dfe \u2603 \ud83d\ude00");
+        assertThat(lazy.getObject("nested_object").getString("content")).isEqualTo("nested \"value\"");
+        assertThat(lazy.getString("last")).isEqualTo("end");
+
+        assertThat(lazy.toMap()).isEqualTo(DataObject.fromJson(json).toMap());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testLazyParsingThroughput() {
+        // A message dispatch, where the handler only reads a few fields of the event data
+        DataArray embeds = DataArray.empty();
+        for (int i = 0; i < 5; i++) {
+            embeds.add(DataObject.empty()
+                    .put("title", "Embed " + i)
+                    .put("description", "Some longer description of the embed with index " + i)
+                    .put("fields", DataArray.empty().add(DataObject.empty().put("name", "field").put("value", i))));
+        }
+        byte[] json = DataObject.empty()
+                .put("op", 0)
+                .put("s", 42)
+                .put("t", "MESSAGE_CREATE")
+                .put(
+                        "d",
+                        DataObject.empty()
+                                .put("id", "125227483518861312")
+                                .put("channel_id", "125227483518861313")
+                                .put("guild_id", "125227483518861314")
+                                .put("content", "Hello World")
+                                .put("embeds", embeds)
+                                .put(
+                                        "author",
+                                        DataObject.empty()
+                                                .put("id", "125227483518861315")
+                                                .put("username", "Minn")))
+                .toJson();
+
+        int iterations = 100_000;
+        for (boolean lazy : new boolean[] {false, true, false, true}) {
+            long allocatedBefore = getAllocatedBytes();
+            long start = System.nanoTime();
+            long sum = 0;
+            for (int i = 0; i < iterations; i++) {
+                DataObject payload = lazy ? DataObject.fromJsonLazy(json) : DataObject.fromJson(json);
+                DataObject data = payload.getObject("d");
+                sum += payload.getInt("s") + data.getUnsignedLong("channel_id") + data.getString("content").length();
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocatedAfter = getAllocatedBytes();
+
+            assertThat(sum).isNotZero();
+            LOG.info(
+                    "{} parsing: {} payloads/s, {} bytes allocated per payload",
+                    lazy ? "Lazy" : "Eager",
+                    iterations * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                    allocatedBefore < 0 ? "unknown" : (allocatedAfter - allocatedBefore) / iterations);
+        }
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
 }
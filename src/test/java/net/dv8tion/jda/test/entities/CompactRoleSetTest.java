@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.entities;
+
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.internal.entities.CompactRoleSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CompactRoleSetTest {
+    private final Map<Long, Role> guildRoles = new HashMap<>();
+
+    private Role role(long id) {
+        Role role = mock(Role.class);
+        when(role.getIdLong()).thenReturn(id);
+        guildRoles.put(id, role);
+        return role;
+    }
+
+    @Test
+    void testAddAndRemove() {
+        CompactRoleSet set = new CompactRoleSet(guildRoles::get);
+        Role first = role(3), second = role(1), third = role(2);
+
+        assertThat(set.add(first)).isTrue();
+        assertThat(set.add(second)).isTrue();
+        assertThat(set.add(third)).isTrue();
+        assertThat(set.add(first)).isFalse();
+
+        assertThat(set).hasSize(3).containsExactly(second, third, first);
+        assertThat(set.contains(third)).isTrue();
+
+        assertThat(set.remove(third)).isTrue();
+        assertThat(set.remove(third)).isFalse();
+        assertThat(set).containsExactly(second, first);
+
+        set.removeAll(Arrays.asList(first, second));
+        assertThat(set).isEmpty();
+    }
+
+    @Test
+    void testUncachedRolesAreSkipped() {
+        CompactRoleSet set = new CompactRoleSet(guildRoles::get);
+        Role cached = role(1), deleted = role(2);
+        set.addAll(Arrays.asList(cached, deleted));
+
+        // Until the role delete handler removes the role from the member, it is only skipped by iteration
+        guildRoles.remove(2L);
+
+        assertThat(new ArrayList<>(set)).containsExactly(cached);
+        assertThat(set.stream().count()).isEqualTo(1);
+        assertThat(set.contains(deleted)).isTrue();
+
+        set.remove(deleted);
+
+        assertThat(set.size()).isEqualTo(1);
+        assertThat(set.contains(deleted)).isFalse();
+        assertThat(set.toArray()).containsExactly(cached);
+        assertThat(set).isEqualTo(Collections.singleton(cached));
+    }
+
+    @Test
+    void testSizeDoesNotResolveRoles() {
+        LongFunction<Role> resolver = mock(LongFunction.class);
+        CompactRoleSet set = new CompactRoleSet(resolver);
+        Role first = role(1), second = role(2);
+        set.addAll(Arrays.asList(first, second));
+
+        assertThat(set.size()).isEqualTo(2);
+        assertThat(set.isEmpty()).isFalse();
+        assertThat(set.contains(first)).isTrue();
+        assertThat(set.contains(role(3))).isFalse();
+        verifyNoInteractions(resolver);
+    }
+
+    @Test
+    void testIteratorRemove() {
+        CompactRoleSet set = new CompactRoleSet(guildRoles::get);
+        set.addAll(Arrays.asList(role(1), role(2), role(3)));
+
+        for (Iterator<Role> it = set.iterator(); it.hasNext(); ) {
+            if (it.next().getIdLong() != 2) {
+                it.remove();
+            }
+        }
+
+        assertThat(set).hasSize(1);
+        assertThat(set.iterator().next().getIdLong()).isEqualTo(2);
+    }
+}
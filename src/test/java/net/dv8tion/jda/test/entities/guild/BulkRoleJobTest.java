@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.entities.guild;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.exceptions.HierarchyException;
+import net.dv8tion.jda.api.requests.restaction.AuditableRestAction;
+import net.dv8tion.jda.api.utils.concurrent.BulkRoleJob;
+import net.dv8tion.jda.internal.utils.concurrent.task.BulkRoleJobImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class BulkRoleJobTest {
+    private final Deque<PendingRequest> requests = new ArrayDeque<>();
+    private Guild guild;
+    private Role role;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        guild = mock(Guild.class);
+        role = mock(Role.class);
+        when(role.getId()).thenReturn("1");
+
+        AuditableRestAction<Void> action = mock(AuditableRestAction.class);
+        when(action.reason(any())).thenReturn(action);
+        when(action.submit()).thenAnswer(invocation -> {
+            PendingRequest request = new PendingRequest();
+            requests.add(request);
+            return request.future;
+        });
+        when(guild.addRoleToMember(any(), eq(role))).thenReturn(action);
+        when(guild.removeRoleFromMember(any(), eq(role))).thenReturn(action);
+    }
+
+    @Test
+    void testPendingRequestsAreBounded() {
+        AtomicInteger pulled = new AtomicInteger();
+        Stream<BulkRoleJob.Mutation> mutations = IntStream.range(0, 100)
+                .peek(i -> pulled.incrementAndGet())
+                .mapToObj(i -> BulkRoleJob.Mutation.add(User.fromId(i + 1), role));
+
+        BulkRoleJob job = new BulkRoleJobImpl(guild, mutations).setMaxPending(5).start();
+
+        assertThat(job.getPendingCount()).isEqualTo(5);
+        assertThat(requests).hasSize(5);
+        assertThat(pulled).hasValue(5);
+
+        requests.poll().succeed();
+
+        assertThat(job.getPendingCount()).isEqualTo(5);
+        assertThat(job.getSucceededCount()).isEqualTo(1);
+        assertThat(pulled).hasValue(6);
+
+        while (!requests.isEmpty()) {
+            requests.poll().succeed();
+        }
+
+        assertThat(job.getSucceededCount()).isEqualTo(100);
+        assertThat(job.getPendingCount()).isZero();
+        assertThat(job.isDone()).isTrue();
+        assertThat(job.getFuture()).isCompleted();
+    }
+
+    @Test
+    void testFailuresAreReported() {
+        when(guild.removeRoleFromMember(eq(User.fromId(2)), eq(role)))
+                .thenThrow(new HierarchyException("Can't modify a role with higher or equal highest role than yourself!"));
+
+        List<BulkRoleJob.Mutation> failures = new ArrayList<>();
+        AtomicInteger progress = new AtomicInteger();
+        BulkRoleJob job = new BulkRoleJobImpl(
+                        guild,
+                        Stream.of(
+                                BulkRoleJob.Mutation.remove(User.fromId(1), role),
+                                BulkRoleJob.Mutation.remove(User.fromId(2), role),
+                                BulkRoleJob.Mutation.remove(User.fromId(3), role)))
+                .onFailure((mutation, error) -> failures.add(mutation))
+                .onProgress(j -> progress.incrementAndGet())
+                .start();
+
+        assertThat(requests).hasSize(2);
+        assertThat(job.getFailedCount()).isEqualTo(1);
+
+        requests.poll().fail(new IllegalStateException("Test"));
+        requests.poll().succeed();
+
+        assertThat(failures)
+                .extracting(BulkRoleJob.Mutation::getUser)
+                .containsExactly(User.fromId(2), User.fromId(1));
+        assertThat(progress).hasValue(3);
+        assertThat(job.getSucceededCount()).isEqualTo(1);
+        assertThat(job.getFailedCount()).isEqualTo(2);
+        assertThat(job.getFuture()).isCompleted();
+    }
+
+    @Test
+    void testCancelStopsPendingRequests() {
+        AtomicInteger closed = new AtomicInteger();
+        AtomicInteger progress = new AtomicInteger();
+        List<BulkRoleJob.Mutation> failures = new ArrayList<>();
+        Stream<BulkRoleJob.Mutation> mutations = IntStream.range(0, 10)
+                .mapToObj(i -> BulkRoleJob.Mutation.add(User.fromId(i + 1), role))
+                .onClose(closed::incrementAndGet);
+        BulkRoleJob job = new BulkRoleJobImpl(guild, mutations)
+                .setMaxPending(3)
+                .onFailure((mutation, error) -> failures.add(mutation))
+                .onProgress(j -> progress.incrementAndGet())
+                .start();
+
+        requests.poll().succeed();
+        assertThat(progress).hasValue(1);
+        List<PendingRequest> inFlight = new ArrayList<>(requests);
+        assertThat(inFlight).hasSize(3);
+
+        job.cancel();
+
+        assertThat(closed).hasValue(1);
+        assertThat(inFlight).allSatisfy(request -> assertThat(request.future).isCancelled());
+        assertThat(job.getPendingCount()).isZero();
+        assertThat(job.getSucceededCount()).isEqualTo(1);
+        assertThat(job.getFailedCount()).isZero();
+        assertThat(failures).isEmpty();
+        assertThat(progress).hasValue(1);
+        assertThat(job.getFuture()).isCancelled();
+
+        job.cancel();
+        assertThat(closed).hasValue(1);
+    }
+
+    @Test
+    void testPauseResumeAndCancel() {
+        Stream<BulkRoleJob.Mutation> mutations =
+                IntStream.range(0, 10).mapToObj(i -> BulkRoleJob.Mutation.add(User.fromId(i + 1), role));
+        BulkRoleJob job = new BulkRoleJobImpl(guild, mutations).setMaxPending(2).start();
+
+        assertThatIllegalStateException().isThrownBy(() -> job.setMaxPending(5));
+
+        job.pause();
+        requests.poll().succeed();
+        requests.poll().succeed();
+
+        assertThat(requests).isEmpty();
+        assertThat(job.getPendingCount()).isZero();
+
+        job.resume();
+        assertThat(requests).hasSize(2);
+
+        job.cancel();
+        assertThat(requests.poll().future).isCancelled();
+        assertThat(requests.poll().future).isCancelled();
+
+        assertThat(requests).isEmpty();
+        assertThat(job.getSucceededCount()).isEqualTo(2);
+        assertThat(job.isCancelled()).isTrue();
+        assertThat(job.getFuture()).isCancelled();
+    }
+
+    private static class PendingRequest {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        void succeed() {
+            future.complete(null);
+        }
+
+        void fail(Throwable error) {
+            future.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.entities.guild;
+
+import net.dv8tion.jda.api.entities.SelfUser;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.entities.EntityBuilder;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.handle.EventCache;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
+import net.dv8tion.jda.test.Constants;
+import net.dv8tion.jda.test.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CompactMemberCacheTest extends IntegrationTest {
+    private static final Logger LOG = JDALogger.getLog(CompactMemberCacheTest.class);
+    private static final int ROLE_COUNT = 10;
+    private static final int ROLES_PER_MEMBER = 3;
+    private static final int MEMBER_COUNT = 50_000;
+
+    @BeforeEach
+    void setupCache() {
+        SelfUser selfUser = mock(SelfUser.class);
+        when(selfUser.getIdLong()).thenReturn(Constants.MINN_USER_ID);
+
+        withCacheFlags(EnumSet.noneOf(CacheFlag.class));
+        when(jda.getUsersView()).thenReturn(new SnowflakeCacheViewImpl<>(User.class, User::getName));
+        when(jda.getEventCache()).thenReturn(mock(EventCache.class));
+        when(jda.getSelfUser()).thenReturn(selfUser);
+    }
+
+    @Test
+    void testCompactRolesOfMember() {
+        when(jda.isCompactMemberCache()).thenReturn(true);
+        EntityBuilder builder = new EntityBuilder(jda);
+        GuildImpl guild = builder.createPendingGuild(Constants.GUILD_ID, createGuildPayload());
+
+        MemberImpl member = builder.createMember(guild, createMemberPayload(Constants.BUTLER_USER_ID));
+
+        assertThat(member.getRoles()).containsExactly(guild.getRoleById(3), guild.getRoleById(2), guild.getRoleById(1));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void retainedHeapPerMember() {
+        long defaultBytes = measureRetainedHeap(false);
+        long compactBytes = measureRetainedHeap(true);
+
+        LOG.info(
+                "Retained heap per member with {} roles: default {} bytes, compact {} bytes",
+                ROLES_PER_MEMBER,
+                defaultBytes / MEMBER_COUNT,
+                compactBytes / MEMBER_COUNT);
+    }
+
+    private long measureRetainedHeap(boolean compact) {
+        when(jda.isCompactMemberCache()).thenReturn(compact);
+        EntityBuilder builder = new EntityBuilder(jda);
+        GuildImpl guild = builder.createPendingGuild(Constants.GUILD_ID, createGuildPayload());
+
+        long before = usedHeap();
+        MemberImpl[] members = new MemberImpl[MEMBER_COUNT];
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            members[i] = builder.createMember(guild, createMemberPayload(1L + ROLE_COUNT + i));
+        }
+        // The mock records every invocation, which would otherwise be counted as well
+        clearInvocations(jda);
+        long retained = usedHeap() - before;
+
+        assertThat(members[MEMBER_COUNT - 1].getRoles()).hasSize(ROLES_PER_MEMBER);
+        return retained;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static DataObject createGuildPayload() {
+        DataArray roles = DataArray.empty().add(createRolePayload(Constants.GUILD_ID, 0));
+        for (int i = 1; i <= ROLE_COUNT; i++) {
+            roles.add(createRolePayload(i, i));
+        }
+        return DataObject.empty()
+                .put("id", Constants.GUILD_ID)
+                .put("owner_id", Constants.MINN_USER_ID)
+                .put("roles", roles);
+    }
+
+    private static DataObject createRolePayload(long id, int position) {
+        return DataObject.empty()
+                .put("id", id)
+                .put("name", "role-" + position)
+                .put("position", position)
+                .put("permissions", 0L)
+                .put("managed", false)
+                .put("hoist", false)
+                .put("mentionable", false)
+                .put("colors", DataObject.empty().put("primary_color", 0));
+    }
+
+    private static DataObject createMemberPayload(long userId) {
+        DataArray roles = DataArray.empty();
+        for (int i = 1; i <= ROLES_PER_MEMBER; i++) {
+            roles.add(i);
+        }
+        return DataObject.empty()
+                .put("user", DataObject.empty().put("id", userId).put("username", "user-" + userId))
+                .put("roles", roles);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.entities.guild;
+
+import net.dv8tion.jda.api.hooks.IEventManager;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.handle.EventCache;
+import net.dv8tion.jda.internal.handle.GuildSetupController;
+import net.dv8tion.jda.internal.requests.WebSocketClient;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.test.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class GuildSetupControllerTest extends IntegrationTest {
+    private static final Logger LOG = JDALogger.getLog(GuildSetupControllerTest.class);
+    private static final int GUILD_COUNT = 2500;
+    // Consecutive guilds share half of their members
+    private static final int MEMBERS_PER_GUILD = 200;
+    private static final int MEMBER_OFFSET = 100;
+
+    @Mock
+    private WebSocketClient client;
+
+    @Mock
+    private EventCache eventCache;
+
+    @Mock
+    private IEventManager eventManager;
+
+    private GuildSetupController controller;
+
+    @BeforeEach
+    void setupController() {
+        when(jda.getClient()).thenReturn(client);
+        when(jda.getEventCache()).thenReturn(eventCache);
+        when(jda.getEventManager()).thenReturn(eventManager);
+        when(jda.getGatewayPool()).thenReturn(scheduledExecutorService);
+        when(jda.chunkGuild(anyLong())).thenReturn(true);
+        controller = new GuildSetupController(jda);
+    }
+
+    @Test
+    void containsMemberOfOtherNodes() {
+        startSetup(2);
+        chunkMembers(2);
+
+        long sharedUser = MEMBER_OFFSET + 1;
+        long exclusiveUser = 1;
+
+        assertThat(controller.containsMember(sharedUser, null)).isTrue();
+        assertThat(controller.containsMember(sharedUser, controller.getSetupNodeById(guildId(0)))).isTrue();
+        assertThat(controller.containsMember(exclusiveUser, null)).isTrue();
+        assertThat(controller.containsMember(exclusiveUser, controller.getSetupNodeById(guildId(0)))).isFalse();
+
+        controller.onRemoveMember(guildId(0), createMember(sharedUser));
+        verify(eventCache, never()).clear(EventCache.Type.USER, sharedUser);
+        assertThat(controller.containsMember(sharedUser, null)).isTrue();
+
+        controller.onRemoveMember(guildId(1), createMember(sharedUser));
+        verify(eventCache, times(1)).clear(EventCache.Type.USER, sharedUser);
+        assertThat(controller.containsMember(sharedUser, null)).isFalse();
+
+        controller.onDelete(guildId(0), DataObject.empty().put("id", guildId(0)));
+        verify(eventCache, times(1)).clear(EventCache.Type.USER, exclusiveUser);
+        assertThat(controller.containsMember(exclusiveUser, null)).isFalse();
+        assertThat(controller.containsMember(MEMBER_OFFSET + 2, null)).isTrue();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void startupWithConcurrentlyChunkingGuilds() {
+        long start = System.nanoTime();
+        startSetup(GUILD_COUNT);
+        chunkMembers(GUILD_COUNT);
+
+        // Every removal checks whether another guild still holds the member
+        for (int guild = 0; guild < GUILD_COUNT; guild++) {
+            for (int i = 0; i < MEMBERS_PER_GUILD; i += 2) {
+                controller.onRemoveMember(guildId(guild), createMember(firstUser(guild) + i));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        LOG.info(
+                "Setup of {} chunking guilds with {} members each took {} ms",
+                GUILD_COUNT,
+                MEMBERS_PER_GUILD,
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+        assertThat(controller.getSetupNodes()).hasSize(GUILD_COUNT);
+        assertThat(controller.containsMember(firstUser(GUILD_COUNT - 1) + 1, null)).isTrue();
+        assertThat(controller.containsMember(firstUser(GUILD_COUNT - 1), null)).isFalse();
+    }
+
+    private void startSetup(int guildCount) {
+        controller.setIncompleteCount(guildCount);
+        for (int guild = 0; guild < guildCount; guild++) {
+            controller.onReady(guildId(guild), DataObject.empty().put("id", guildId(guild)));
+            controller.onCreate(
+                    guildId(guild),
+                    DataObject.empty()
+                            .put("id", guildId(guild))
+                            .put("member_count", MEMBERS_PER_GUILD + 1)
+                            .put("members", DataArray.empty()));
+        }
+    }
+
+    private void chunkMembers(int guildCount) {
+        for (int guild = 0; guild < guildCount; guild++) {
+            DataArray members = DataArray.empty();
+            for (int i = 0; i < MEMBERS_PER_GUILD; i++) {
+                members.add(createMember(firstUser(guild) + i));
+            }
+            controller.onMemberChunk(
+                    guildId(guild),
+                    DataObject.empty().put("members", members).put("chunk_index", 0).put("chunk_count", 2));
+        }
+    }
+
+    private static long guildId(int guild) {
+        return 1_000_000L + guild;
+    }
+
+    private static long firstUser(int guild) {
+        return 1L + (long) guild * MEMBER_OFFSET;
+    }
+
+    private static DataObject createMember(long userId) {
+        return DataObject.empty().put("user", DataObject.empty().put("id", userId));
+    }
+}
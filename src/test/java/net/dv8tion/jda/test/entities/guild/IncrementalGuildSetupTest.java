@@ -0,0 +1,347 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.entities.guild;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.dv8tion.jda.api.OnlineStatus;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.SelfUser;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.managers.AudioManager;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.cache.CacheView;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.entities.EntityBuilder;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.entities.SelfUserImpl;
+import net.dv8tion.jda.internal.handle.EventCache;
+import net.dv8tion.jda.internal.handle.GuildSetupController;
+import net.dv8tion.jda.internal.requests.WebSocketClient;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+import net.dv8tion.jda.internal.utils.cache.ChannelCacheViewImpl;
+import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
+import net.dv8tion.jda.test.Constants;
+import net.dv8tion.jda.test.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IncrementalGuildSetupTest extends IntegrationTest {
+    private static final Logger LOG = JDALogger.getLog(IncrementalGuildSetupTest.class);
+    private static final long ROLE_ID = 1234L;
+    private static final long VOICE_CHANNEL_ID = 5678L;
+    private static final int CHUNK_SIZE = 1000;
+    private static final int CHUNK_COUNT = 50;
+
+    private SnowflakeCacheViewImpl<User> usersView;
+
+    @BeforeEach
+    void setupCache() {
+        usersView = new SnowflakeCacheViewImpl<>(User.class, User::getName);
+        SelfUser selfUser = mock(SelfUser.class);
+        when(selfUser.getIdLong()).thenReturn(Constants.MINN_USER_ID);
+
+        withCacheFlags(EnumSet.noneOf(CacheFlag.class));
+        when(jda.getUsersView()).thenReturn(usersView);
+        when(jda.getEventCache()).thenReturn(mock(EventCache.class));
+        when(jda.getSelfUser()).thenReturn(selfUser);
+    }
+
+    @Test
+    void membersOfPendingGuildAreNotCached() {
+        EntityBuilder builder = new EntityBuilder(jda);
+        GuildImpl guild = builder.createPendingGuild(Constants.GUILD_ID, createGuildPayload());
+
+        assertThat(guild.getPublicRole()).isNotNull();
+        assertThat(guild.getPublicRole().getIdLong()).isEqualTo(Constants.GUILD_ID);
+
+        MemberImpl member = builder.createMember(guild, createMemberPayload(Constants.BUTLER_USER_ID));
+
+        assertThat(member.getIdLong()).isEqualTo(Constants.BUTLER_USER_ID);
+        assertThat(member.getRoleSet()).extracting(Role::getIdLong).containsExactly(ROLE_ID);
+        assertThat(guild.getMembersView().isEmpty()).isTrue();
+        assertThat(usersView.isEmpty()).isTrue();
+        // The guild is not cached yet, so events of its roles cannot be handled
+        verify(jda.getEventCache(), never()).playbackCache(EventCache.Type.ROLE, ROLE_ID);
+    }
+
+    @Test
+    void setupNodeBuildsMembersWhileChunking() {
+        long voiceUser = Constants.BUTLER_USER_ID;
+        long removedUser = 1L;
+        long uncachedUser = 2L;
+        long joinedUser = 3L;
+
+        SnowflakeCacheViewImpl<Guild> guildsView = new SnowflakeCacheViewImpl<>(Guild.class, Guild::getName);
+        EventCache eventCache = mock(EventCache.class);
+        SelfUserImpl selfUser = new SelfUserImpl(Constants.MINN_USER_ID, jda);
+        selfUser.setName("user-" + Constants.MINN_USER_ID);
+        try (UnlockHook hook = usersView.writeLock()) {
+            usersView.getMap().put(selfUser.getIdLong(), selfUser);
+        }
+
+        withCacheFlags(EnumSet.of(CacheFlag.VOICE_STATE, CacheFlag.ONLINE_STATUS));
+        when(jda.isIncrementalGuildSetup()).thenReturn(true);
+        when(jda.chunkGuild(anyLong())).thenReturn(true);
+        when(jda.getSelfUser()).thenReturn(selfUser);
+        when(jda.getEventCache()).thenReturn(eventCache);
+        when(jda.getClient()).thenReturn(mock(WebSocketClient.class));
+        when(jda.getGatewayPool()).thenReturn(scheduledExecutorService);
+        when(jda.getGuildsView()).thenReturn(guildsView);
+        when(jda.getChannelsView()).thenReturn(new ChannelCacheViewImpl<>(Channel.class));
+        when(jda.getAudioManagersView())
+                .thenReturn(new CacheView.SimpleCacheView<>(AudioManager.class, m -> m.getGuild().getName()));
+        when(jda.cacheMember(any())).thenAnswer(invocation -> {
+            Member member = invocation.getArgument(0);
+            return member.getIdLong() == selfUser.getIdLong() || MemberCachePolicy.VOICE.cacheMember(member);
+        });
+
+        GuildSetupController controller = new GuildSetupController(jda);
+        controller.setIncompleteCount(1);
+        controller.onReady(Constants.GUILD_ID, DataObject.empty().put("id", Constants.GUILD_ID));
+
+        // The guild becomes unavailable while chunking, which drops the members built so far
+        controller.onCreate(Constants.GUILD_ID, createFullGuildPayload(voiceUser));
+        assertThat(controller.getSetupNodeById(Constants.GUILD_ID).getStatus())
+                .isEqualTo(GuildSetupController.Status.CHUNKING);
+        controller.onMemberChunk(Constants.GUILD_ID, createChunk(0, 2, selfUser.getIdLong(), voiceUser));
+        assertThat(controller.containsMember(voiceUser, null)).isTrue();
+
+        controller.onDelete(
+                Constants.GUILD_ID, DataObject.empty().put("id", Constants.GUILD_ID).put("unavailable", true));
+        assertThat(controller.getSetupNodeById(Constants.GUILD_ID).getStatus())
+                .isEqualTo(GuildSetupController.Status.UNAVAILABLE);
+        assertThat(controller.containsMember(voiceUser, null)).isFalse();
+
+        // Without a pending guild, neither added members nor chunks are kept
+        controller.onAddMember(Constants.GUILD_ID, createMemberPayload(joinedUser));
+        controller.onMemberChunk(Constants.GUILD_ID, createChunk(1, 2, uncachedUser));
+        assertThat(controller.containsMember(joinedUser, null)).isFalse();
+        assertThat(controller.containsMember(uncachedUser, null)).isFalse();
+
+        // The guild is available again and chunking restarts from the beginning
+        controller.onCreate(Constants.GUILD_ID, createFullGuildPayload(voiceUser));
+        controller.onMemberChunk(
+                Constants.GUILD_ID, createChunk(0, 2, selfUser.getIdLong(), voiceUser, removedUser));
+        assertThat(controller.containsMember(removedUser, null)).isTrue();
+
+        controller.onRemoveMember(Constants.GUILD_ID, createMemberPayload(removedUser));
+        assertThat(controller.containsMember(removedUser, null)).isFalse();
+        verify(eventCache).clear(EventCache.Type.USER, removedUser);
+        verify(eventCache, never()).clear(EventCache.Type.USER, voiceUser);
+
+        // The removed member shows up again in a later chunk, but must not be part of the guild
+        controller.onMemberChunk(Constants.GUILD_ID, createChunk(1, 2, uncachedUser, removedUser));
+
+        assertThat(controller.getSetupNodes()).isEmpty();
+        assertThat(controller.containsMember(voiceUser, null)).isFalse();
+
+        GuildImpl guild = (GuildImpl) guildsView.getElementById(Constants.GUILD_ID);
+        assertThat(guild).isNotNull();
+        assertThat(guild.getMemberCount()).isEqualTo(3);
+        assertThat(guild.getSelfMember().getUser()).isSameAs(selfUser);
+        assertThat(guild.getOwnerIdLong()).isEqualTo(selfUser.getIdLong());
+
+        Role role = guild.getRoleById(ROLE_ID);
+        verify(eventCache).playbackCache(EventCache.Type.ROLE, ROLE_ID);
+        Member member = guild.getMemberById(voiceUser);
+        assertThat(member).isNotNull();
+        assertThat(member.getRoles()).containsExactly(role);
+        assertThat(member.getOnlineStatus()).isEqualTo(OnlineStatus.ONLINE);
+        assertThat(member.getVoiceState()).isNotNull();
+        assertThat(member.getVoiceState().getChannel()).isSameAs(guild.getVoiceChannelById(VOICE_CHANNEL_ID));
+
+        // Only the self member and members in voice are cached by the member cache policy
+        assertThat(guild.getMemberById(removedUser)).isNull();
+        assertThat(guild.getMemberById(uncachedUser)).isNull();
+        assertThat(guild.getMemberById(joinedUser)).isNull();
+        assertThat(guild.getMembersView().size()).isEqualTo(2);
+        assertThat(usersView.getElementById(uncachedUser)).isNull();
+        assertThat(usersView.getElementById(removedUser)).isNull();
+        assertThat(usersView.size()).isEqualTo(2);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void peakHeapOfChunkStream() {
+        EntityBuilder builder = new EntityBuilder(jda);
+
+        // Without incremental setup, the payloads are kept until the last chunk and then turned into members
+        TLongObjectMap<DataObject> payloads = new TLongObjectHashMap<>();
+        GuildImpl bufferedGuild = builder.createPendingGuild(Constants.GUILD_ID, createGuildPayload());
+        TLongObjectMap<MemberImpl> bufferedMembers = new TLongObjectHashMap<>();
+        long buffered = measurePeakHeap(
+                chunk -> {
+                    for (int i = 0; i < chunk.length(); i++) {
+                        DataObject json = chunk.getObject(i);
+                        payloads.put(json.getObject("user").getLong("id"), json);
+                    }
+                },
+                () -> payloads.forEachEntry((id, json) -> {
+                    bufferedMembers.put(id, builder.createMember(bufferedGuild, json));
+                    return true;
+                }));
+        payloads.clear();
+        bufferedMembers.clear();
+
+        GuildImpl guild = builder.createPendingGuild(Constants.GUILD_ID, createGuildPayload());
+        TLongObjectMap<MemberImpl> members = new TLongObjectHashMap<>();
+        long incremental = measurePeakHeap(
+                chunk -> {
+                    for (int i = 0; i < chunk.length(); i++) {
+                        DataObject json = chunk.getObject(i);
+                        members.put(json.getObject("user").getLong("id"), builder.createMember(guild, json));
+                    }
+                },
+                () -> {});
+
+        LOG.info(
+                "Peak heap while handling {} chunks of {} members: buffered payloads {} KiB, incremental {} KiB",
+                CHUNK_COUNT,
+                CHUNK_SIZE,
+                buffered / 1024,
+                incremental / 1024);
+
+        assertThat(members.size()).isEqualTo(CHUNK_SIZE * CHUNK_COUNT);
+    }
+
+    private long measurePeakHeap(Consumer<DataArray> chunkHandler, Runnable completion) {
+        List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans();
+        long before = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            if (pool.getType() == MemoryType.HEAP) {
+                before += pool.getUsage().getUsed();
+                pool.resetPeakUsage();
+            }
+        }
+
+        for (int chunk = 0; chunk < CHUNK_COUNT; chunk++) {
+            DataArray members = DataArray.empty();
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                members.add(createMemberPayload(1L + (long) chunk * CHUNK_SIZE + i));
+            }
+            chunkHandler.accept(members);
+        }
+        completion.run();
+
+        // The pools can peak at different times, so this is an upper bound of the peak heap usage
+        long peak = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak - before;
+    }
+
+    private static DataObject createChunk(int index, int count, long... userIds) {
+        DataArray members = DataArray.empty();
+        for (long userId : userIds) {
+            members.add(createMemberPayload(userId));
+        }
+        return DataObject.empty()
+                .put("members", members)
+                .put("chunk_index", index)
+                .put("chunk_count", count);
+    }
+
+    private static DataObject createGuildPayload() {
+        return DataObject.empty()
+                .put("id", Constants.GUILD_ID)
+                .put("owner_id", Constants.MINN_USER_ID)
+                .put(
+                        "roles",
+                        DataArray.empty()
+                                .add(createRolePayload(Constants.GUILD_ID, 0))
+                                .add(createRolePayload(ROLE_ID, 1)));
+    }
+
+    private static DataObject createFullGuildPayload(long voiceUser) {
+        return createGuildPayload()
+                .put("name", "guild")
+                .put("member_count", 4)
+                .put("members", DataArray.empty())
+                .put(
+                        "channels",
+                        DataArray.empty()
+                                .add(DataObject.empty()
+                                        .put("id", VOICE_CHANNEL_ID)
+                                        .put("type", ChannelType.VOICE.getId())
+                                        .put("name", "voice")
+                                        .put("position", 0)
+                                        .put("bitrate", 64000)))
+                .put("threads", DataArray.empty())
+                .put("guild_scheduled_events", DataArray.empty())
+                .put("emojis", DataArray.empty())
+                .put(
+                        "voice_states",
+                        DataArray.empty()
+                                .add(DataObject.empty()
+                                        .put("user_id", voiceUser)
+                                        .put("channel_id", VOICE_CHANNEL_ID)
+                                        .put("session_id", "session")))
+                .put(
+                        "presences",
+                        DataArray.empty()
+                                .add(DataObject.empty()
+                                        .put("user", DataObject.empty().put("id", voiceUser))
+                                        .put("status", "online")));
+    }
+
+    private static DataObject createRolePayload(long id, int position) {
+        return DataObject.empty()
+                .put("id", id)
+                .put("name", "role-" + position)
+                .put("position", position)
+                .put("permissions", 0L)
+                .put("managed", false)
+                .put("hoist", false)
+                .put("mentionable", false)
+                .put("colors", DataObject.empty().put("primary_color", 0));
+    }
+
+    private static DataObject createMemberPayload(long userId) {
+        return DataObject.empty()
+                .put("user", DataObject.empty().put("id", userId).put("username", "user-" + userId))
+                .put("roles", DataArray.empty().add(ROLE_ID));
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.events;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.session.GenericSessionEvent;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.hooks.AnnotatedEventManager;
+import net.dv8tion.jda.api.hooks.IEventManager;
+import net.dv8tion.jda.api.hooks.InterfacedEventManager;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.hooks.SubscribeEvent;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class AnnotatedEventManagerTest {
+    private static final Logger LOG = JDALogger.getLog(AnnotatedEventManagerTest.class);
+    private static final List<String> calls = new ArrayList<>();
+
+    private final JDA jda = mock(JDA.class);
+
+    @BeforeEach
+    void setup() {
+        calls.clear();
+    }
+
+    @Test
+    void testHandleSubscribers() {
+        AnnotatedEventManager manager = new AnnotatedEventManager();
+        manager.register(new Listener());
+
+        manager.handle(new ReadyEvent(jda));
+
+        assertThat(calls).containsExactlyInAnyOrder("ready", "session", "generic");
+    }
+
+    @Test
+    void testStaticSubscribers() {
+        AnnotatedEventManager manager = new AnnotatedEventManager();
+        manager.register(StaticListener.class);
+
+        manager.handle(new ReadyEvent(jda));
+
+        assertThat(calls).containsExactly("static");
+    }
+
+    @Test
+    void testRegisterAfterHandle() {
+        AnnotatedEventManager manager = new AnnotatedEventManager();
+        Listener listener = new Listener();
+        manager.register(StaticListener.class);
+        manager.handle(new ReadyEvent(jda));
+
+        manager.register(listener);
+        manager.handle(new ReadyEvent(jda));
+
+        manager.unregister(listener);
+        manager.unregister(StaticListener.class);
+        manager.handle(new ReadyEvent(jda));
+
+        assertThat(calls).containsExactlyInAnyOrder("static", "static", "ready", "session", "generic");
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testHandleThroughput() {
+        AtomicInteger handled = new AtomicInteger();
+        AnnotatedEventManager annotated = new AnnotatedEventManager();
+        annotated.register(new CountingListener(handled));
+        // The same handlers as a ListenerAdapter, as a baseline
+        InterfacedEventManager interfaced = new InterfacedEventManager();
+        interfaced.register(new ListenerAdapter() {
+            @Override
+            public void onReady(@Nonnull ReadyEvent event) {
+                handled.incrementAndGet();
+            }
+
+            @Override
+            public void onGenericSession(@Nonnull GenericSessionEvent event) {
+                handled.incrementAndGet();
+            }
+        });
+
+        ReadyEvent event = new ReadyEvent(jda);
+        int iterations = 1_000_000;
+        for (boolean useAnnotated : new boolean[] {false, true, false, true}) {
+            IEventManager manager = useAnnotated ? annotated : interfaced;
+            handled.set(0);
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                manager.handle(event);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            assertThat(handled.get()).isEqualTo(2 * iterations);
+            LOG.info(
+                    "{}: {} events/s",
+                    useAnnotated ? "AnnotatedEventManager" : "InterfacedEventManager",
+                    iterations * TimeUnit.SECONDS.toNanos(1) / elapsed);
+        }
+    }
+
+    public static class Listener {
+        @SubscribeEvent
+        private void onReady(ReadyEvent event) {
+            calls.add("ready");
+        }
+
+        @SubscribeEvent
+        public void onSession(GenericSessionEvent event) {
+            calls.add("session");
+        }
+
+        @SubscribeEvent
+        public String onEvent(GenericEvent event) {
+            calls.add("generic");
+            return "ignored";
+        }
+
+        @SubscribeEvent
+        public void onInvalid(ReadyEvent event, String other) {
+            calls.add("invalid");
+        }
+    }
+
+    public static class CountingListener {
+        private final AtomicInteger handled;
+
+        public CountingListener(AtomicInteger handled) {
+            this.handled = handled;
+        }
+
+        @SubscribeEvent
+        public void onReady(ReadyEvent event) {
+            handled.incrementAndGet();
+        }
+
+        @SubscribeEvent
+        public void onSession(GenericSessionEvent event) {
+            handled.incrementAndGet();
+        }
+    }
+
+    public static class StaticListener {
+        @SubscribeEvent
+        static void onReady(ReadyEvent event) {
+            calls.add("static");
+        }
+
+        @SubscribeEvent
+        public void onMember(ReadyEvent event) {
+            calls.add("member");
+        }
+    }
+}
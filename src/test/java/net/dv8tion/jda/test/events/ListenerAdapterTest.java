@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.events;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.Event;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.session.GenericSessionEvent;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.events.session.SessionDisconnectEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ListenerAdapterTest {
+    private static final Logger LOG = JDALogger.getLog(ListenerAdapterTest.class);
+
+    private final JDA jda = mock(JDA.class);
+
+    @Test
+    void testDispatchOrder() {
+        List<String> calls = new ArrayList<>();
+        ListenerAdapter listener = new ListenerAdapter() {
+            @Override
+            public void onGenericEvent(@Nonnull GenericEvent event) {
+                calls.add("generic");
+            }
+
+            @Override
+            public void onGenericSession(@Nonnull GenericSessionEvent event) {
+                calls.add("session");
+            }
+
+            @Override
+            public void onReady(@Nonnull ReadyEvent event) {
+                calls.add("ready");
+            }
+        };
+
+        listener.onEvent(new ReadyEvent(jda));
+        listener.onEvent(new ReadyEvent(jda));
+
+        assertThat(calls).containsExactly("generic", "ready", "session", "generic", "ready", "session");
+    }
+
+    @Test
+    void testInheritedOverrides() {
+        List<String> calls = new ArrayList<>();
+        class BaseListener extends ListenerAdapter {
+            @Override
+            public void onReady(@Nonnull ReadyEvent event) {
+                calls.add("base");
+            }
+        }
+        ListenerAdapter listener = new BaseListener() {
+            @Override
+            public void onGenericSession(@Nonnull GenericSessionEvent event) {
+                calls.add("session");
+            }
+        };
+
+        listener.onEvent(new ReadyEvent(jda));
+        listener.onEvent(new SessionDisconnectEvent(jda, null, null, false, OffsetDateTime.now()));
+
+        assertThat(calls).containsExactly("base", "session", "session");
+    }
+
+    @Test
+    void testCustomEvent() {
+        List<GenericEvent> events = new ArrayList<>();
+        ListenerAdapter listener = new ListenerAdapter() {
+            @Override
+            public void onGenericEvent(@Nonnull GenericEvent event) {
+                events.add(event);
+            }
+        };
+
+        GenericEvent event = new CustomEvent(jda);
+        listener.onEvent(event);
+
+        assertThat(events).containsExactly(event);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testDispatchThroughput() {
+        AtomicInteger handled = new AtomicInteger();
+        ListenerAdapter adapter = new ListenerAdapter() {
+            @Override
+            public void onReady(@Nonnull ReadyEvent event) {
+                handled.incrementAndGet();
+            }
+
+            @Override
+            public void onGenericSession(@Nonnull GenericSessionEvent event) {
+                handled.incrementAndGet();
+            }
+        };
+        // The same handlers without any dispatch table, as a baseline
+        EventListener direct = event -> {
+            if (event instanceof ReadyEvent) {
+                handled.incrementAndGet();
+            }
+            if (event instanceof GenericSessionEvent) {
+                handled.incrementAndGet();
+            }
+        };
+
+        GenericEvent[] events = {
+            new ReadyEvent(jda),
+            new SessionDisconnectEvent(jda, null, null, false, OffsetDateTime.now()),
+            new CustomEvent(jda)
+        };
+        int iterations = 1_000_000;
+        for (boolean useAdapter : new boolean[] {false, true, false, true}) {
+            EventListener listener = useAdapter ? adapter : direct;
+            handled.set(0);
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                listener.onEvent(events[i % events.length]);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            assertThat(handled.get()).isPositive();
+            LOG.info(
+                    "{}: {} events/s",
+                    useAdapter ? "ListenerAdapter" : "Direct instanceof checks",
+                    iterations * TimeUnit.SECONDS.toNanos(1) / elapsed);
+        }
+    }
+
+    private static class CustomEvent extends Event {
+        private CustomEvent(JDA api) {
+            super(api);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.events;
+
+import net.dv8tion.jda.api.hooks.OrderedEventPool;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderedEventPoolTest {
+    private static final Logger LOG = JDALogger.getLog(OrderedEventPoolTest.class);
+
+    @Test
+    void testOrderPerKey() throws InterruptedException {
+        OrderedEventPool pool = new OrderedEventPool(4, 16);
+        List<List<Integer>> results = new ArrayList<>();
+        for (int key = 0; key < 8; key++) {
+            results.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            for (int key = 0; key < 8; key++) {
+                List<Integer> result = results.get(key);
+                int value = i;
+                pool.execute(key, () -> result.add(value));
+            }
+        }
+
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(pool.isTerminated()).isTrue();
+        for (List<Integer> result : results) {
+            assertThat(result).hasSize(1000).isSorted();
+        }
+    }
+
+    @Test
+    void testBackpressure() throws InterruptedException {
+        OrderedEventPool pool = new OrderedEventPool(1, 1);
+        CountDownLatch blocker = new CountDownLatch(1);
+        pool.execute(1L, () -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+
+        Thread submitter = new Thread(() -> {
+            pool.execute(1L, () -> {});
+            pool.execute(1L, () -> {});
+        });
+        submitter.start();
+
+        while (pool.getBlockedSubmissions() == 0) {
+            Thread.sleep(1);
+        }
+
+        blocker.countDown();
+        submitter.join(10000);
+        pool.shutdown();
+
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(pool.getBlockedSubmissions()).isPositive();
+        assertThat(pool.getQueuedTasks()).isZero();
+    }
+
+    @Test
+    void testNestedSubmitDoesNotBlock() throws InterruptedException {
+        OrderedEventPool pool = new OrderedEventPool(1, 1);
+        CountDownLatch done = new CountDownLatch(1);
+        pool.execute(() -> {
+            for (int i = 0; i < 10; i++) {
+                pool.execute(() -> {});
+            }
+            pool.execute(done::countDown);
+        });
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(pool.getBlockedSubmissions()).isZero();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testThroughputAcrossGuilds() throws InterruptedException {
+        int guilds = 100;
+        int events = 200_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int lanes : new int[] {1, cores, 1, cores}) {
+            OrderedEventPool pool = new OrderedEventPool(lanes);
+            LongAdder sum = new LongAdder();
+            long start = System.nanoTime();
+            for (int i = 0; i < events; i++) {
+                long key = i % guilds;
+                pool.execute(key, () -> sum.add(simulateHandler(key)));
+            }
+            pool.shutdown();
+            assertThat(pool.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+            long elapsed = System.nanoTime() - start;
+
+            assertThat(sum.sum()).isNotZero();
+            LOG.info(
+                    "{} lanes: {} events/s, {} blocked submissions, {} ms blocked",
+                    lanes,
+                    events * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                    pool.getBlockedSubmissions(),
+                    pool.getBlockedTime(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    void testRejectAfterShutdown() {
+        OrderedEventPool pool = new OrderedEventPool(2);
+        pool.shutdown();
+
+        assertThat(pool.isShutdown()).isTrue();
+        assertThatThrownBy(() -> pool.execute(() -> {})).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    private static long simulateHandler(long seed) {
+        // Some CPU work, like a listener that builds a reply
+        long value = seed;
+        for (int i = 0; i < 1000; i++) {
+            value = value * 6364136223846793005L + 1442695040888963407L;
+        }
+        return value | 1;
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.requests;
+
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.requests.DispatchPeeker;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static net.dv8tion.jda.api.utils.data.etf.ExTermTag.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DispatchPeekerTest {
+    private static final Logger LOG = JDALogger.getLog(DispatchPeekerTest.class);
+    private static final Predicate<String> REJECT_TYPING = type -> !type.equals("TYPING_START");
+
+    private final DispatchPeeker peeker = new DispatchPeeker();
+
+    @Test
+    void testJsonTypeBeforeSequence() {
+        assertThat(isDiscardedJson("{\"t\":\"TYPING_START\",\"s\":5,\"op\":0,\"d\":{\"channel_id\":\"1\"}}"))
+                .isTrue();
+        assertThat(peeker.getType()).isEqualTo("TYPING_START");
+        assertThat(peeker.getSequence()).isEqualTo(5);
+    }
+
+    @Test
+    void testJsonTypeAfterData() {
+        String json = "{\"op\":0,\"d\":{\"t\":\"MESSAGE_CREATE\",\"nested\":{\"t\":\"GUILD_CREATE\",\"s\":1},"
+                + "\"list\":[{\"t\":\"READY\"},\"t\"]},\"s\":7,\"t\":\"TYPING_START\"}";
+        assertThat(isDiscardedJson(json)).isTrue();
+        assertThat(peeker.getType()).isEqualTo("TYPING_START");
+        assertThat(peeker.getSequence()).isEqualTo(7);
+    }
+
+    @Test
+    void testJsonNestedTypeIsIgnored() {
+        String json = "{\"op\":0,\"s\":3,\"d\":{\"t\":\"TYPING_START\"},\"t\":\"MESSAGE_CREATE\"}";
+        assertThat(isDiscardedJson(json)).isFalse();
+        assertThat(peeker.getType()).isEqualTo("MESSAGE_CREATE");
+    }
+
+    @Test
+    void testJsonEscapes() {
+        String json = "{\"d\":{\"content\":\"\\\"t\\\":\\\"MESSAGE_CREATE\\\"}\"},"
+                + "\"\\u0074\":\"TYPING_\\u0053TART\",\"o\\u0070\":0,\"s\":9}";
+        assertThat(isDiscardedJson(json)).isTrue();
+        assertThat(peeker.getType()).isEqualTo("TYPING_START");
+        assertThat(peeker.getSequence()).isEqualTo(9);
+    }
+
+    @Test
+    void testJsonIsKeptWhenUncertain() {
+        // Accepted type
+        assertThat(isDiscardedJson("{\"t\":\"MESSAGE_CREATE\",\"s\":1,\"op\":0,\"d\":{}}"))
+                .isFalse();
+        // Not a dispatch
+        assertThat(isDiscardedJson("{\"t\":null,\"s\":null,\"op\":11,\"d\":null}"))
+                .isFalse();
+        // Unknown sequence
+        assertThat(isDiscardedJson("{\"t\":\"TYPING_START\",\"op\":0,\"d\":{}}"))
+                .isFalse();
+        // Malformed
+        assertThat(isDiscardedJson("{\"t\":\"TYPING_START\",\"op\":0,\"d\":{")).isFalse();
+        assertThat(isDiscardedJson("[]")).isFalse();
+    }
+
+    @Test
+    void testJsonWithOffset() {
+        byte[] json = "xx{\"t\":\"TYPING_START\",\"s\":5,\"op\":0}yy".getBytes(StandardCharsets.UTF_8);
+        assertThat(peeker.isDiscardedJson(json, 2, json.length - 4, REJECT_TYPING))
+                .isTrue();
+    }
+
+    @Test
+    void testEtfSmallAtomsAndSmallInt() throws IOException {
+        byte[] etf = new EtfWriter()
+                .map(4)
+                .smallAtom(SMALL_ATOM_UTF8, "t")
+                .binary("TYPING_START")
+                .smallAtom(SMALL_ATOM_UTF8, "s")
+                .smallInt(42)
+                .smallAtom(SMALL_ATOM_UTF8, "op")
+                .smallInt(0)
+                .smallAtom(SMALL_ATOM_UTF8, "d")
+                .nil()
+                .toByteArray();
+
+        assertThat(peeker.isDiscardedETF(ByteBuffer.wrap(etf), REJECT_TYPING)).isTrue();
+        assertThat(peeker.getType()).isEqualTo("TYPING_START");
+        assertThat(peeker.getSequence()).isEqualTo(42);
+    }
+
+    @Test
+    void testEtfLargeAtomsAndInt() throws IOException {
+        byte[] etf = new EtfWriter()
+                .map(4)
+                .atom(ATOM_UTF8, "op")
+                .smallInt(0)
+                .atom(ATOM, "d")
+                .map(5)
+                .binary("t")
+                .binary("MESSAGE_CREATE")
+                .smallAtom(SMALL_ATOM, "list")
+                .list(2)
+                .smallInt(1)
+                .binary("t")
+                .nil()
+                .binary("float")
+                .newFloat(0.5)
+                .binary("big")
+                .smallBigInt(1234567890123L)
+                .binary("nested")
+                .map(1)
+                .binary("s")
+                .integer(1)
+                .atom(ATOM_UTF8, "s")
+                .integer(100000)
+                .binary("t")
+                .binary("TYPING_START")
+                .toByteArray();
+
+        ByteBuffer buffer = ByteBuffer.wrap(etf);
+        assertThat(peeker.isDiscardedETF(buffer, REJECT_TYPING)).isTrue();
+        assertThat(peeker.getType()).isEqualTo("TYPING_START");
+        assertThat(peeker.getSequence()).isEqualTo(100000);
+        assertThat(buffer.position()).isZero();
+    }
+
+    @Test
+    void testEtfIsKeptWhenUncertain() throws IOException {
+        byte[] notDispatch = new EtfWriter()
+                .map(3)
+                .smallAtom(SMALL_ATOM_UTF8, "t")
+                .smallAtom(SMALL_ATOM_UTF8, "nil")
+                .smallAtom(SMALL_ATOM_UTF8, "op")
+                .smallInt(11)
+                .smallAtom(SMALL_ATOM_UTF8, "s")
+                .smallAtom(SMALL_ATOM_UTF8, "nil")
+                .toByteArray();
+        assertThat(peeker.isDiscardedETF(ByteBuffer.wrap(notDispatch), REJECT_TYPING))
+                .isFalse();
+
+        byte[] accepted = new EtfWriter()
+                .map(3)
+                .smallAtom(SMALL_ATOM_UTF8, "op")
+                .smallInt(0)
+                .smallAtom(SMALL_ATOM_UTF8, "s")
+                .smallInt(1)
+                .smallAtom(SMALL_ATOM_UTF8, "t")
+                .binary("MESSAGE_CREATE")
+                .toByteArray();
+        assertThat(peeker.isDiscardedETF(ByteBuffer.wrap(accepted), REJECT_TYPING))
+                .isFalse();
+
+        // Compressed terms cannot be skipped without decoding them
+        byte[] compressed = new EtfWriter()
+                .map(4)
+                .smallAtom(SMALL_ATOM_UTF8, "d")
+                .tag(COMPRESSED)
+                .smallAtom(SMALL_ATOM_UTF8, "op")
+                .smallInt(0)
+                .toByteArray();
+        assertThat(peeker.isDiscardedETF(ByteBuffer.wrap(compressed), REJECT_TYPING))
+                .isFalse();
+
+        // Truncated
+        byte[] truncated = new EtfWriter()
+                .map(3)
+                .smallAtom(SMALL_ATOM_UTF8, "t")
+                .binary("TYPING_START")
+                .toByteArray();
+        assertThat(peeker.isDiscardedETF(ByteBuffer.wrap(truncated), REJECT_TYPING))
+                .isFalse();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testDiscardThroughput() {
+        // Presence updates are the most common dispatch that is discarded,
+        // the type is placed after the data so the peeker has to skip all of it
+        DataArray activities = DataArray.empty();
+        for (int i = 0; i < 3; i++) {
+            activities.add(DataObject.empty()
+                    .put("name", "Activity " + i)
+                    .put("type", i)
+                    .put("state", "In a match")
+                    .put("timestamps", DataObject.empty().put("start", 1700000000000L + i)));
+        }
+        DataObject data = DataObject.empty()
+                .put("user", DataObject.empty().put("id", "125227483518861312"))
+                .put("guild_id", "125227483518861313")
+                .put("status", "online")
+                .put("activities", activities)
+                .put("client_status", DataObject.empty().put("desktop", "online"));
+        byte[] json = ("{\"op\":0,\"s\":42,\"d\":" + data + ",\"t\":\"PRESENCE_UPDATE\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        Predicate<String> rejectPresence = type -> !type.equals("PRESENCE_UPDATE");
+
+        int iterations = 100_000;
+        for (boolean peek : new boolean[] {false, true, false, true}) {
+            long allocatedBefore = getAllocatedBytes();
+            long start = System.nanoTime();
+            int discarded = 0;
+            for (int i = 0; i < iterations; i++) {
+                boolean isDiscarded = peek
+                        ? peeker.isDiscardedJson(json, 0, json.length, rejectPresence)
+                        : !rejectPresence.test(DataObject.fromJson(json).getString("t"));
+                if (isDiscarded) {
+                    discarded++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocatedAfter = getAllocatedBytes();
+
+            assertThat(discarded).isEqualTo(iterations);
+            LOG.info(
+                    "{}: {} dispatches/s, {} bytes allocated per dispatch",
+                    peek ? "Peek" : "Parse",
+                    iterations * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                    allocatedBefore < 0 ? "unknown" : (allocatedAfter - allocatedBefore) / iterations);
+        }
+    }
+
+    private boolean isDiscardedJson(String json) {
+        byte[] data = json.getBytes(StandardCharsets.UTF_8);
+        return peeker.isDiscardedJson(data, 0, data.length, REJECT_TYPING);
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static class EtfWriter {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        private EtfWriter() throws IOException {
+            out.writeByte(131);
+        }
+
+        EtfWriter tag(byte tag) throws IOException {
+            out.writeByte(tag);
+            return this;
+        }
+
+        EtfWriter map(int arity) throws IOException {
+            out.writeByte(MAP);
+            out.writeInt(arity);
+            return this;
+        }
+
+        EtfWriter list(int length) throws IOException {
+            out.writeByte(LIST);
+            out.writeInt(length);
+            return this;
+        }
+
+        EtfWriter nil() throws IOException {
+            out.writeByte(NIL);
+            return this;
+        }
+
+        EtfWriter smallAtom(byte tag, String value) throws IOException {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            out.writeByte(tag);
+            out.writeByte(encoded.length);
+            out.write(encoded);
+            return this;
+        }
+
+        EtfWriter atom(byte tag, String value) throws IOException {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            out.writeByte(tag);
+            out.writeShort(encoded.length);
+            out.write(encoded);
+            return this;
+        }
+
+        EtfWriter binary(String value) throws IOException {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            out.writeByte(BINARY);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+            return this;
+        }
+
+        EtfWriter smallInt(int value) throws IOException {
+            out.writeByte(SMALL_INT);
+            out.writeByte(value);
+            return this;
+        }
+
+        EtfWriter integer(int value) throws IOException {
+            out.writeByte(INT);
+            out.writeInt(value);
+            return this;
+        }
+
+        EtfWriter newFloat(double value) throws IOException {
+            out.writeByte(NEW_FLOAT);
+            out.writeDouble(value);
+            return this;
+        }
+
+        EtfWriter smallBigInt(long value) throws IOException {
+            out.writeByte(SMALL_BIGINT);
+            out.writeByte(8);
+            out.writeByte(0);
+            out.writeLong(Long.reverseBytes(value));
+            return this;
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.requests;
+
+import com.sun.net.httpserver.HttpServer;
+import net.dv8tion.jda.api.requests.*;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.requests.Requester;
+import net.dv8tion.jda.internal.requests.RestActionImpl;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RequestCoalescerTest {
+    private static final int REQUESTS = 10;
+
+    private final Map<String, AtomicInteger> hitsByPath = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    private HttpServer server;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService elastic;
+    private ExecutorService callbackPool;
+    private RequestCoalescer coalescer;
+    private RestRateLimiter rateLimiter;
+    private JDAImpl jda;
+    private RestConfig config;
+    private Requester requester;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().toString();
+            hitsByPath.computeIfAbsent(path, k -> new AtomicInteger()).incrementAndGet();
+            received.add(path);
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+                // respond anyway
+            }
+
+            byte[] body = DataObject.empty().put("path", path).toJson();
+            exchange.getResponseHeaders().add("content-type", "application/json");
+            exchange.sendResponseHeaders(path.endsWith("/404") ? 404 : 200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        scheduler = Executors.newScheduledThreadPool(1);
+        elastic = Executors.newCachedThreadPool();
+        callbackPool = Executors.newCachedThreadPool();
+        coalescer = new RequestCoalescer();
+        rateLimiter = new SequentialRestRateLimiter(new RestRateLimiter.RateLimitConfig(
+                scheduler, elastic, RestRateLimiter.GlobalRateLimit.create(), true));
+
+        jda = mock(JDAImpl.class);
+        when(jda.getHttpClient()).thenReturn(new OkHttpClient());
+        when(jda.getCallbackPool()).thenReturn(callbackPool);
+
+        config = new RestConfig()
+                .setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/")
+                .setRequestCoalescer(coalescer);
+        requester = new Requester(jda, new AuthorizationConfig("token"), config, rateLimiter);
+    }
+
+    @AfterEach
+    void teardown() {
+        release.countDown();
+        rateLimiter.stop(true, () -> {});
+        server.stop(0);
+        scheduler.shutdownNow();
+        elastic.shutdownNow();
+        callbackPool.shutdownNow();
+    }
+
+    @Test
+    void testIdenticalRequestsShareResponse() throws Exception {
+        release = new CountDownLatch(1);
+        Route.CompiledRoute route = Route.Guilds.GET_MEMBER.compile("1", "2");
+        CompletableFuture<DataObject> leader = request(route);
+        awaitReceived();
+
+        List<CompletableFuture<DataObject>> followers = new CopyOnWriteArrayList<>();
+        for (int i = 1; i < REQUESTS; i++) {
+            followers.add(request(route));
+        }
+        release.countDown();
+
+        String expectedPath = "/" + route.getCompiledRoute();
+        assertThat(leader.get(10, TimeUnit.SECONDS).getString("path")).isEqualTo(expectedPath);
+        for (CompletableFuture<DataObject> follower : followers) {
+            assertThat(follower.get(10, TimeUnit.SECONDS).getString("path")).isEqualTo(expectedPath);
+        }
+
+        assertThat(hitsByPath.get(expectedPath)).hasValue(1);
+        assertThat(coalescer.getHitCount()).isEqualTo(REQUESTS - 1);
+        assertThat(coalescer.getMissCount()).isEqualTo(1);
+        assertThat(coalescer.getHitRate()).isEqualTo((double) (REQUESTS - 1) / REQUESTS);
+
+        // Once the response arrived, the next request is sent again
+        assertThat(request(route).get(10, TimeUnit.SECONDS).getString("path")).isEqualTo(expectedPath);
+        assertThat(hitsByPath.get(expectedPath)).hasValue(2);
+        assertThat(coalescer.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testDifferentQueryIsNotCoalesced() throws Exception {
+        release = new CountDownLatch(1);
+        Route.CompiledRoute route = Route.Messages.GET_MESSAGE_HISTORY.compile("1");
+        CompletableFuture<DataObject> first = request(route.withQueryParams("limit", "10"));
+        awaitReceived();
+        // Both routes share a bucket, so the second request is only sent after the first one completed
+        CompletableFuture<DataObject> second = request(route.withQueryParams("limit", "20"));
+        release.countDown();
+
+        assertThat(first.get(10, TimeUnit.SECONDS).getString("path")).endsWith("limit=10");
+        assertThat(second.get(10, TimeUnit.SECONDS).getString("path")).endsWith("limit=20");
+        assertThat(coalescer.getHitCount()).isZero();
+        assertThat(coalescer.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testCancelledLeaderStillServesFollowers() throws Exception {
+        release = new CountDownLatch(1);
+        Route.CompiledRoute route = Route.Users.GET_USER.compile("1");
+        CompletableFuture<DataObject> leader = new CompletableFuture<>();
+        Request<DataObject> leaderRequest = createRequest(route, leader);
+        requester.request(leaderRequest);
+        awaitReceived();
+
+        CompletableFuture<DataObject> follower = request(route);
+        leaderRequest.cancel();
+        release.countDown();
+
+        assertThat(follower.get(10, TimeUnit.SECONDS).getString("path")).isEqualTo("/" + route.getCompiledRoute());
+        assertThat(leader).failsWithin(10, TimeUnit.SECONDS).withThrowableOfType(ExecutionException.class);
+        assertThat(coalescer.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testCoalescedRequestsReserveResponseCacheOnce() throws Exception {
+        DefaultRestResponseCache cache = enableResponseCache();
+        release = new CountDownLatch(1);
+        Route.CompiledRoute route = Route.Guilds.GET_MEMBER.compile("1", "2");
+        CompletableFuture<DataObject> leader = request(route);
+        awaitReceived();
+
+        CompletableFuture<DataObject> follower = request(route);
+        assertThat(cache.size()).isEqualTo(1);
+        release.countDown();
+
+        String expectedPath = "/" + route.getCompiledRoute();
+        assertThat(leader.get(10, TimeUnit.SECONDS).getString("path")).isEqualTo(expectedPath);
+        assertThat(follower.get(10, TimeUnit.SECONDS).getString("path")).isEqualTo(expectedPath);
+
+        // The response of the leader is served from the cache afterwards
+        assertThat(request(route).get(10, TimeUnit.SECONDS).getString("path")).isEqualTo(expectedPath);
+        assertThat(hitsByPath.get(expectedPath)).hasValue(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testFailedRequestReleasesResponseCache() {
+        DefaultRestResponseCache cache = enableResponseCache();
+        Route.CompiledRoute route = Route.Users.GET_USER.compile("404");
+
+        assertThat(request(route)).failsWithin(10, TimeUnit.SECONDS).withThrowableOfType(ExecutionException.class);
+        assertThat(cache.size()).isZero();
+    }
+
+    private DefaultRestResponseCache enableResponseCache() {
+        DefaultRestResponseCache cache = DefaultRestResponseCache.createDefault();
+        requester = new Requester(jda, new AuthorizationConfig("token"), config.setResponseCache(cache), rateLimiter);
+        return cache;
+    }
+
+    private void awaitReceived() throws InterruptedException {
+        assertThat(received.poll(10, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    private CompletableFuture<DataObject> request(Route.CompiledRoute route) {
+        CompletableFuture<DataObject> future = new CompletableFuture<>();
+        requester.request(createRequest(route, future));
+        return future;
+    }
+
+    private Request<DataObject> createRequest(Route.CompiledRoute route, CompletableFuture<DataObject> future) {
+        RestActionImpl<DataObject> action =
+                new RestActionImpl<>(jda, route, (response, request) -> response.getObject());
+        return new Request<>(
+                action,
+                future::complete,
+                future::completeExceptionally,
+                null,
+                true,
+                null,
+                null,
+                0,
+                false,
+                route,
+                null);
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.requests;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.requests.*;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.slf4j.Logger;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnull;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RestRateLimiterTest {
+    private static final Logger LOG = JDALogger.getLog(RestRateLimiterTest.class);
+    private static final int BUCKETS = 200;
+    private static final int REQUESTS_PER_BUCKET = 50;
+    private static final int SMALL_BUCKETS = 5;
+    private static final int SMALL_REQUESTS_PER_BUCKET = 10;
+
+    private final ConcurrentMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean concurrentBucketAccess = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService elastic;
+
+    static Stream<Arguments> rateLimiters() {
+        return Stream.of(
+                Arguments.of(
+                        "sequential",
+                        (Function<RestRateLimiter.RateLimitConfig, RestRateLimiter>) SequentialRestRateLimiter::new),
+                Arguments.of(
+                        "concurrent",
+                        (Function<RestRateLimiter.RateLimitConfig, RestRateLimiter>) ConcurrentRestRateLimiter::new));
+    }
+
+    @BeforeEach
+    void setupExecutors() {
+        scheduler = Executors.newScheduledThreadPool(4);
+        elastic = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void shutdownExecutors() {
+        scheduler.shutdownNow();
+        elastic.shutdownNow();
+    }
+
+    @MethodSource("rateLimiters")
+    @ParameterizedTest(name = "{0}")
+    void testRequestsOfBucketRunInSequence(
+            String name, Function<RestRateLimiter.RateLimitConfig, RestRateLimiter> factory)
+            throws InterruptedException {
+        RestRateLimiter rateLimiter = createRateLimiter(factory);
+
+        runBurst(rateLimiter, SMALL_BUCKETS, SMALL_REQUESTS_PER_BUCKET);
+
+        assertThat(concurrentBucketAccess).isFalse();
+    }
+
+    @Tag("benchmark")
+    @MethodSource("rateLimiters")
+    @ParameterizedTest(name = "{0}")
+    void testBurstAcrossBuckets(String name, Function<RestRateLimiter.RateLimitConfig, RestRateLimiter> factory)
+            throws InterruptedException {
+        RestRateLimiter rateLimiter = createRateLimiter(factory);
+
+        int total = BUCKETS * REQUESTS_PER_BUCKET;
+        long elapsed = runBurst(rateLimiter, BUCKETS, REQUESTS_PER_BUCKET);
+
+        LOG.info(
+                "{} rate limiter: {} requests in {} ms ({} requests/second)",
+                name,
+                total,
+                TimeUnit.NANOSECONDS.toMillis(elapsed),
+                total * TimeUnit.SECONDS.toNanos(1) / elapsed);
+        assertThat(concurrentBucketAccess).isFalse();
+    }
+
+    private RestRateLimiter createRateLimiter(Function<RestRateLimiter.RateLimitConfig, RestRateLimiter> factory) {
+        return factory.apply(new RestRateLimiter.RateLimitConfig(
+                scheduler, elastic, RestRateLimiter.GlobalRateLimit.create(), true));
+    }
+
+    // Returns the time in nanoseconds until all requests were executed
+    private long runBurst(RestRateLimiter rateLimiter, int buckets, int requestsPerBucket)
+            throws InterruptedException {
+        // Learn the bucket hash first, so all requests of a channel go to the same bucket
+        CountDownLatch warmup = new CountDownLatch(1);
+        rateLimiter.enqueue(new FakeWork(Route.Messages.SEND_MESSAGE.compile("warmup"), warmup));
+        assertThat(warmup.await(10, TimeUnit.SECONDS)).isTrue();
+
+        int total = buckets * requestsPerBucket;
+        CountDownLatch done = new CountDownLatch(total);
+        ExecutorService submitters = Executors.newFixedThreadPool(8);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            String channelId = Integer.toString(i % buckets);
+            submitters.execute(() -> rateLimiter.enqueue(
+                    new FakeWork(Route.Messages.SEND_MESSAGE.compile(channelId), done)));
+        }
+
+        assertThat(done.await(1, TimeUnit.MINUTES)).isTrue();
+        long elapsed = System.nanoTime() - start;
+        submitters.shutdown();
+        rateLimiter.stop(true, () -> {});
+        return elapsed;
+    }
+
+    private Response execute(Route.CompiledRoute route) {
+        AtomicInteger counter = inFlight.computeIfAbsent(route.getMajorParameters(), k -> new AtomicInteger());
+        if (counter.incrementAndGet() > 1) {
+            // Requests of the same bucket have to be executed in sequence
+            concurrentBucketAccess.set(true);
+        }
+
+        // Simulate a fast HTTP round trip
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        counter.decrementAndGet();
+
+        return new Response.Builder()
+                .request(new Request.Builder()
+                        .url("http://localhost/" + route.getCompiledRoute())
+                        .build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .header(RestRateLimiter.HASH_HEADER, "messages")
+                .header(RestRateLimiter.LIMIT_HEADER, "5")
+                .header(RestRateLimiter.REMAINING_HEADER, "4")
+                .header(RestRateLimiter.RESET_AFTER_HEADER, "0")
+                .header("via", "1.1 google")
+                .build();
+    }
+
+    private class FakeWork implements RestRateLimiter.Work {
+        private final Route.CompiledRoute route;
+        private final CountDownLatch done;
+        private volatile boolean isDone;
+
+        FakeWork(Route.CompiledRoute route, CountDownLatch done) {
+            this.route = route;
+            this.done = done;
+        }
+
+        @Nonnull
+        @Override
+        public Route.CompiledRoute getRoute() {
+            return route;
+        }
+
+        @Nonnull
+        @Override
+        public JDA getJDA() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Response execute() {
+            Response response = RestRateLimiterTest.this.execute(route);
+            isDone = true;
+            done.countDown();
+            return response;
+        }
+
+        @Override
+        public boolean isSkipped() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return isDone;
+        }
+
+        @Override
+        public boolean isPriority() {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void cancel() {}
+
+        @Nonnull
+        @Override
+        public Exception getCreationStack() {
+            return new Exception();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.requests;
+
+import net.dv8tion.jda.api.requests.DefaultRestResponseCache;
+import net.dv8tion.jda.api.requests.Route;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class RestResponseCacheTest {
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    @Test
+    void testHitAfterPut() throws IOException {
+        DefaultRestResponseCache cache = DefaultRestResponseCache.createDefault();
+        Route.CompiledRoute route = Route.Users.GET_USER.compile("1");
+
+        assertThat(cache.isCacheable(route)).isTrue();
+        assertThat(cache.get(route)).isNull();
+        store(cache, route, "{\"id\":\"1\"}");
+
+        // Every hit has its own body
+        for (int i = 0; i < 2; i++) {
+            try (Response response = cache.get(route)) {
+                assertThat(response).isNotNull();
+                assertThat(response.code()).isEqualTo(200);
+                assertThat(response.body().string()).isEqualTo("{\"id\":\"1\"}");
+            }
+        }
+
+        assertThat(cache.getHitCount()).isEqualTo(2);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitRate()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    void testUnconfiguredRoute() {
+        DefaultRestResponseCache cache = DefaultRestResponseCache.createDefault();
+        assertThat(cache.isCacheable(Route.Messages.GET_MESSAGE_HISTORY.compile("1"))).isFalse();
+        assertThat(cache.isCacheable(Route.Messages.GET_MESSAGE.compile("1", "2"))).isTrue();
+
+        cache.setTimeToLive(Route.Messages.GET_MESSAGE, Duration.ZERO);
+        assertThat(cache.isCacheable(Route.Messages.GET_MESSAGE.compile("1", "2"))).isFalse();
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> cache.setTimeToLive(Route.Messages.EDIT_MESSAGE, Duration.ofSeconds(1)))
+                .withMessage("Only GET routes can be cached");
+    }
+
+    @Test
+    void testInvalidateParentPath() {
+        DefaultRestResponseCache cache = DefaultRestResponseCache.createDefault();
+        Route.CompiledRoute pins = Route.Messages.GET_MESSAGE_PINS.compile("1");
+        Route.CompiledRoute pinsWithQuery = pins.withQueryParams("limit", "10");
+        Route.CompiledRoute message = Route.Messages.GET_MESSAGE.compile("1", "2");
+
+        assertThat(cache.get(pins)).isNull();
+        store(cache, pins, "[]");
+        assertThat(cache.get(pinsWithQuery)).isNull();
+        store(cache, pinsWithQuery, "[]");
+        assertThat(cache.get(message)).isNull();
+        store(cache, message, "{}");
+
+        cache.invalidate(Route.Messages.PIN_MESSAGE.compile("1", "3"));
+
+        assertThat(cache.get(pins)).isNull();
+        assertThat(cache.get(pinsWithQuery)).isNull();
+        assertThat(cache.get(message)).isNotNull();
+    }
+
+    @Test
+    void testInvalidateWhileInFlight() {
+        DefaultRestResponseCache cache = DefaultRestResponseCache.createDefault();
+        Route.CompiledRoute route = Route.Messages.GET_MESSAGE.compile("1", "2");
+
+        assertThat(cache.get(route)).isNull();
+        Object token = cache.reserve(route);
+        cache.invalidate(route);
+        store(cache, route, token, "{}");
+
+        // The response might be outdated, since it was requested before the invalidation
+        assertThat(cache.get(route)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testLatePutAfterNewerReservation() throws IOException {
+        DefaultRestResponseCache cache = DefaultRestResponseCache.createDefault();
+        Route.CompiledRoute route = Route.Messages.GET_MESSAGE.compile("1", "2");
+
+        Object outdated = cache.reserve(route);
+        cache.invalidate(route);
+        Object current = cache.reserve(route);
+
+        // The invalidated request must not complete the pending entry of the newer request
+        store(cache, route, outdated, "{\"content\":\"old\"}");
+        assertThat(cache.get(route)).isNull();
+
+        store(cache, route, current, "{\"content\":\"new\"}");
+        try (Response response = cache.get(route)) {
+            assertThat(response).isNotNull();
+            assertThat(response.body().string()).isEqualTo("{\"content\":\"new\"}");
+        }
+    }
+
+    @Test
+    void testReleaseRemovesPendingEntry() {
+        DefaultRestResponseCache cache = DefaultRestResponseCache.createDefault();
+        Route.CompiledRoute route = Route.Users.GET_USER.compile("1");
+
+        Object failed = cache.reserve(route);
+        assertThat(cache.size()).isEqualTo(1);
+        cache.release(route, failed);
+        assertThat(cache.size()).isZero();
+
+        // Releasing an outdated reservation keeps the pending entry of the newer request
+        Object outdated = cache.reserve(route);
+        Object current = cache.reserve(route);
+        cache.release(route, outdated);
+        assertThat(cache.size()).isEqualTo(1);
+        store(cache, route, current, "{}");
+        assertThat(cache.get(route)).isNotNull();
+    }
+
+    @Test
+    void testEvictLeastRecentlyUsed() {
+        DefaultRestResponseCache cache =
+                new DefaultRestResponseCache(2).setTimeToLive(Route.Users.GET_USER, Duration.ofMinutes(1));
+        Route.CompiledRoute first = Route.Users.GET_USER.compile("1");
+        Route.CompiledRoute second = Route.Users.GET_USER.compile("2");
+        Route.CompiledRoute third = Route.Users.GET_USER.compile("3");
+
+        assertThat(cache.get(first)).isNull();
+        store(cache, first, "{}");
+        assertThat(cache.get(second)).isNull();
+        store(cache, second, "{}");
+        assertThat(cache.get(first)).isNotNull();
+        assertThat(cache.get(third)).isNull();
+        store(cache, third, "{}");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(first)).isNotNull();
+        assertThat(cache.get(second)).isNull();
+    }
+
+    @Test
+    void testExpiry() throws InterruptedException {
+        DefaultRestResponseCache cache =
+                new DefaultRestResponseCache(10).setTimeToLive(Route.Users.GET_USER, Duration.ofMillis(1));
+        Route.CompiledRoute route = Route.Users.GET_USER.compile("1");
+
+        assertThat(cache.get(route)).isNull();
+        store(cache, route, "{}");
+        TimeUnit.MILLISECONDS.sleep(10);
+
+        assertThat(cache.get(route)).isNull();
+    }
+
+    private void store(DefaultRestResponseCache cache, Route.CompiledRoute route, String body) {
+        store(cache, route, cache.reserve(route), body);
+    }
+
+    private void store(DefaultRestResponseCache cache, Route.CompiledRoute route, Object token, String body) {
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        Response response = new Response.Builder()
+                .request(new Request.Builder()
+                        .url("http://localhost/" + route.getCompiledRoute())
+                        .build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(content, JSON))
+                .build();
+        cache.put(route, token, response, content);
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.restaction.pagination;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.requests.Request;
+import net.dv8tion.jda.api.requests.RestConfig;
+import net.dv8tion.jda.api.requests.RestRateLimiter;
+import net.dv8tion.jda.api.requests.Route;
+import net.dv8tion.jda.api.requests.SequentialRestRateLimiter;
+import net.dv8tion.jda.api.requests.restaction.pagination.PaginationAction;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.requests.Requester;
+import net.dv8tion.jda.internal.requests.restaction.pagination.PaginationActionImpl;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import okhttp3.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PaginationPrefetchTest {
+    private static final Logger LOG = JDALogger.getLog(PaginationPrefetchTest.class);
+    private static final int ENTITIES = 2000;
+    private static final int PAGE_SIZE = 100;
+    private static final long LATENCY_MILLIS = 20;
+    private static final long PROCESSING_NANOS_PER_ENTITY = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService elastic;
+    private ExecutorService callbackPool;
+    private RestRateLimiter rateLimiter;
+    private JDAImpl jda;
+    private volatile long latencyMillis;
+
+    @BeforeEach
+    void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        elastic = Executors.newCachedThreadPool();
+        callbackPool = Executors.newFixedThreadPool(2);
+
+        // Fake API serving entities with ids ENTITIES..1, only the benchmark adds latency to every request
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    try {
+                        Thread.sleep(latencyMillis);
+                    } catch (InterruptedException e) {
+                        throw new InterruptedIOException();
+                    }
+                    HttpUrl url = chain.request().url();
+                    String before = url.queryParameter("before");
+                    int limit = Integer.parseInt(url.queryParameter("limit"));
+                    long start = before == null ? ENTITIES : Long.parseLong(before) - 1;
+
+                    DataArray page = DataArray.empty();
+                    for (long id = start; id > 0 && page.length() < limit; id--) {
+                        page.add(id);
+                    }
+
+                    return new Response.Builder()
+                            .request(chain.request())
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(200)
+                            .message("OK")
+                            .body(ResponseBody.create(
+                                    page.toString().getBytes(StandardCharsets.UTF_8),
+                                    MediaType.parse("application/json")))
+                            .build();
+                })
+                .build();
+
+        jda = mock(JDAImpl.class);
+        when(jda.getHttpClient()).thenReturn(httpClient);
+        when(jda.getCallbackPool()).thenReturn(callbackPool);
+        rateLimiter = new SequentialRestRateLimiter(new RestRateLimiter.RateLimitConfig(
+                scheduler, elastic, RestRateLimiter.GlobalRateLimit.create(), true));
+        Requester requester = new Requester(jda, new AuthorizationConfig("token"), new RestConfig(), rateLimiter);
+        when(jda.getRequester()).thenReturn(requester);
+    }
+
+    @AfterEach
+    void teardown() {
+        rateLimiter.stop(true, () -> {});
+        scheduler.shutdownNow();
+        elastic.shutdownNow();
+        callbackPool.shutdownNow();
+    }
+
+    @Test
+    void testPrefetchLimits() {
+        IdPaginationAction action = new IdPaginationActionImpl(jda);
+
+        assertThat(action.getPrefetch()).isZero();
+        assertThat(action.prefetch(2).getPrefetch()).isEqualTo(2);
+        assertThatIllegalArgumentException().isThrownBy(() -> action.prefetch(-1));
+        assertThatIllegalArgumentException().isThrownBy(() -> action.prefetch(PaginationAction.MAX_PREFETCH + 1));
+    }
+
+    @Test
+    void testPrefetchedIteration() throws Exception {
+        List<Long> expected = LongStream.rangeClosed(1, ENTITIES)
+                .map(i -> ENTITIES + 1 - i)
+                .boxed()
+                .collect(Collectors.toList());
+
+        List<Long> async = new ArrayList<>();
+        new IdPaginationActionImpl(jda)
+                .prefetch(2)
+                .forEachAsync(async::add)
+                .get(1, TimeUnit.MINUTES);
+        assertThat(async).isEqualTo(expected);
+
+        List<Long> streamed =
+                new IdPaginationActionImpl(jda).prefetch(2).stream().collect(Collectors.toList());
+        assertThat(streamed).isEqualTo(expected);
+
+        List<Long> remaining = new ArrayList<>();
+        new IdPaginationActionImpl(jda).prefetch(2).forEachRemaining(remaining::add);
+        assertThat(remaining).isEqualTo(expected);
+    }
+
+    @Test
+    void testPrefetchedStopRestoresAnchor() throws Exception {
+        long stopAt = ENTITIES - PAGE_SIZE / 2;
+        IdPaginationAction action = new IdPaginationActionImpl(jda).cache(false).prefetch(3);
+
+        action.forEachRemainingAsync(id -> id > stopAt).get(1, TimeUnit.MINUTES);
+
+        // The prefetched pages must not move the anchor past the entity the iteration stopped at
+        assertThat(action.getLastKey()).isEqualTo(stopAt);
+
+        List<Long> next = action.takeRemainingAsync(5).get(1, TimeUnit.MINUTES);
+        assertThat(next).containsExactly(stopAt - 1, stopAt - 2, stopAt - 3, stopAt - 4, stopAt - 5);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testPrefetchBenchmark() throws Exception {
+        latencyMillis = LATENCY_MILLIS;
+        long sequential = iterate(0);
+        long prefetched = iterate(2);
+
+        LOG.info(
+                "Iterated {} entities with {} ms latency, sequential: {} ms, prefetch: {} ms",
+                ENTITIES,
+                LATENCY_MILLIS,
+                TimeUnit.NANOSECONDS.toMillis(sequential),
+                TimeUnit.NANOSECONDS.toMillis(prefetched));
+    }
+
+    private long iterate(int prefetch) throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        long start = System.nanoTime();
+        new IdPaginationActionImpl(jda)
+                .prefetch(prefetch)
+                .forEachAsync(id -> {
+                    // Simulate some work for every entity
+                    LockSupport.parkNanos(PROCESSING_NANOS_PER_ENTITY);
+                    count.incrementAndGet();
+                    return true;
+                })
+                .get(1, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+        assertThat(count).hasValue(ENTITIES);
+        return elapsed;
+    }
+
+    interface IdPaginationAction extends PaginationAction<Long, IdPaginationAction> {}
+
+    static class IdPaginationActionImpl extends PaginationActionImpl<Long, IdPaginationAction>
+            implements IdPaginationAction {
+        IdPaginationActionImpl(JDA api) {
+            super(api, Route.Guilds.GET_BANS.compile("1"), 1, PAGE_SIZE, PAGE_SIZE);
+        }
+
+        @Override
+        protected void handleSuccess(net.dv8tion.jda.api.requests.Response response, Request<List<Long>> request) {
+            DataArray array = response.getArray();
+            List<Long> ids = new ArrayList<>(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                ids.add(array.getLong(i));
+            }
+
+            if (useCache) {
+                cached.addAll(ids);
+            }
+            if (!ids.isEmpty()) {
+                last = ids.get(ids.size() - 1);
+                lastKey = last;
+            }
+
+            request.onSuccess(ids);
+        }
+
+        @Override
+        protected long getKey(Long it) {
+            return it;
+        }
+    }
+}
@@ -0,0 +1,475 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.util;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.ISnowflake;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.PermissionOverride;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.RoleIcon;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
+import net.dv8tion.jda.api.entities.channel.forums.ForumTag;
+import net.dv8tion.jda.api.entities.emoji.RichCustomEmoji;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.SelfUserImpl;
+import net.dv8tion.jda.internal.handle.EventCache;
+import net.dv8tion.jda.internal.handle.GuildSetupController;
+import net.dv8tion.jda.internal.utils.Helpers;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+import net.dv8tion.jda.internal.utils.cache.CacheSnapshot;
+import net.dv8tion.jda.internal.utils.cache.ChannelCacheViewImpl;
+import net.dv8tion.jda.internal.utils.cache.SnowflakeCacheViewImpl;
+import net.dv8tion.jda.test.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static net.dv8tion.jda.test.Constants.BUTLER_USER_ID;
+import static net.dv8tion.jda.test.Constants.GUILD_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CacheSnapshotTest extends IntegrationTest {
+    private static final long SELF_USER_ID = 1234L;
+    private static final int INTENTS = 513;
+    private static final long BOT_ID = 42L;
+    private static final long BOT_ROLE_ID = 10L;
+    private static final long BOOSTER_ROLE_ID = 11L;
+    private static final long TEXT_CHANNEL_ID = 20L;
+    private static final long VOICE_CHANNEL_ID = 21L;
+    private static final long FORUM_CHANNEL_ID = 22L;
+    private static final long THREAD_ID = 23L;
+    private static final long TAG_ID = 24L;
+    private static final long EMOJI_ID = 30L;
+    private static final String TIMEOUT_END = "2100-01-01T00:00:00.000+00:00";
+
+    @TempDir
+    Path tempDir;
+
+    private GuildSetupController setupController;
+    private SelfUserImpl selfUser;
+    private SnowflakeCacheViewImpl<User> userView;
+    private SnowflakeCacheViewImpl<Guild> guildView;
+
+    @BeforeEach
+    void setupSnapshot() {
+        selfUser = new SelfUserImpl(SELF_USER_ID, jda);
+        selfUser.setName("self");
+        setupController = new GuildSetupController(jda);
+        userView = new SnowflakeCacheViewImpl<>(User.class, User::getName);
+        guildView = new SnowflakeCacheViewImpl<>(Guild.class, Guild::getName);
+
+        when(jda.hasSelfUser()).thenReturn(true);
+        when(jda.getSelfUser()).thenReturn(selfUser);
+        when(jda.getGuildSetupController()).thenReturn(setupController);
+        when(jda.getGuildCache()).thenReturn(guildView);
+        when(jda.getGuildsView()).thenReturn(guildView);
+        when(jda.getUsersView()).thenReturn(userView);
+        when(jda.getResponseTotal()).thenReturn(42);
+    }
+
+    @Test
+    void missingSnapshotIsIgnored() throws IOException {
+        assertThat(CacheSnapshot.read(tempDir.resolve("missing.snapshot"))).isNull();
+    }
+
+    @Test
+    void snapshotRoundTrip() throws IOException {
+        Path file = tempDir.resolve("session.snapshot");
+        setupController.getUnavailableGuilds().add(GUILD_ID);
+
+        CacheSnapshot.write(jda, "session", "wss://resume.discord.gg", INTENTS, file);
+        assertThat(file).exists();
+        assertThat(file.resolveSibling("session.snapshot.tmp")).doesNotExist();
+
+        setupController.getUnavailableGuilds().clear();
+
+        CacheSnapshot snapshot = CacheSnapshot.read(file);
+        assertThat(snapshot).isNotNull();
+        assertThat(snapshot.getVersion()).isEqualTo(CacheSnapshot.VERSION);
+        assertThat(snapshot.getSessionId()).isEqualTo("session");
+        assertThat(snapshot.getResumeUrl()).isEqualTo("wss://resume.discord.gg");
+        assertThat(snapshot.getSequence()).isEqualTo(42);
+        assertThat(snapshot.getGuildCount()).isZero();
+
+        assertThat(snapshot.isCompatible(jda, INTENTS)).isTrue();
+        assertThat(snapshot.isCompatible(jda, 0)).isFalse();
+
+        when(jda.getShardInfo()).thenReturn(new JDA.ShardInfo(1, 2));
+        assertThat(snapshot.isCompatible(jda, INTENTS)).isFalse();
+        when(jda.getShardInfo()).thenReturn(null);
+
+        snapshot.restore(jda);
+        assertThat(setupController.getUnavailableGuilds().contains(GUILD_ID)).isTrue();
+        assertThat(userView.getElementById(SELF_USER_ID)).isSameAs(jda.getSelfUser());
+    }
+
+    @Test
+    void guildRoundTrip() throws IOException {
+        EnumSet<CacheFlag> flags =
+                EnumSet.of(CacheFlag.VOICE_STATE, CacheFlag.EMOJI, CacheFlag.ROLE_TAGS, CacheFlag.FORUM_TAGS);
+        withCacheFlags(flags);
+        when(jda.isCacheFlagSet(any())).thenAnswer(invocation -> flags.contains(invocation.<CacheFlag>getArgument(0)));
+        when(jda.cacheMember(any())).thenReturn(true);
+        when(jda.getEventCache()).thenReturn(mock(EventCache.class));
+        when(jda.getChannelsView()).thenReturn(new ChannelCacheViewImpl<>(Channel.class));
+        try (UnlockHook hook = userView.writeLock()) {
+            userView.getMap().put(SELF_USER_ID, selfUser);
+        }
+
+        DataObject guildJson = createGuildPayload();
+        GuildImpl original = jda.getEntityBuilder()
+                .createGuild(
+                        GUILD_ID,
+                        guildJson,
+                        Helpers.convertToMap(
+                                member -> member.getObject("user").getUnsignedLong("id"),
+                                guildJson.getArray("members")),
+                        2);
+
+        Path file = tempDir.resolve("session.snapshot");
+        CacheSnapshot.write(jda, "session", null, INTENTS, file);
+
+        // Restore into empty caches, like a new JDA instance would
+        SnowflakeCacheViewImpl<Guild> restoredGuilds = new SnowflakeCacheViewImpl<>(Guild.class, Guild::getName);
+        SnowflakeCacheViewImpl<User> restoredUsers = new SnowflakeCacheViewImpl<>(User.class, User::getName);
+        when(jda.getGuildCache()).thenReturn(restoredGuilds);
+        when(jda.getGuildsView()).thenReturn(restoredGuilds);
+        when(jda.getUsersView()).thenReturn(restoredUsers);
+        when(jda.getChannelsView()).thenReturn(new ChannelCacheViewImpl<>(Channel.class));
+
+        CacheSnapshot snapshot = CacheSnapshot.read(file);
+        assertThat(snapshot).isNotNull();
+        assertThat(snapshot.getGuildCount()).isEqualTo(1);
+        snapshot.restore(jda);
+
+        GuildImpl restored = (GuildImpl) restoredGuilds.getElementById(GUILD_ID);
+        assertThat(restored).isNotNull().isNotSameAs(original);
+        assertThat(restored.getName()).isEqualTo(original.getName());
+        assertThat(restored.getOwnerIdLong()).isEqualTo(SELF_USER_ID);
+        assertThat(restored.getMemberCount()).isEqualTo(original.getMemberCount());
+        assertThat(restored.getFeatures()).isEqualTo(original.getFeatures());
+        assertThat(restored.getAfkChannel()).isSameAs(restored.getVoiceChannelById(VOICE_CHANNEL_ID));
+        assertThat(restored.getSystemChannel()).isSameAs(restored.getTextChannelById(TEXT_CHANNEL_ID));
+
+        assertRolesEqual(restored, original);
+        assertChannelsEqual(restored, original);
+        assertThreadsEqual(restored, original);
+        assertMembersEqual(restored, original);
+        assertEmojisEqual(restored, original);
+
+        assertThat(restoredUsers.getElementById(SELF_USER_ID)).isSameAs(selfUser);
+        assertThat(restoredUsers.getElementById(BUTLER_USER_ID)).isNotNull();
+        assertThat(restoredUsers.getElementById(BUTLER_USER_ID).getName()).isEqualTo("butler");
+    }
+
+    @Test
+    void snapshotOfOtherAccountIsIncompatible() throws IOException {
+        Path file = tempDir.resolve("session.snapshot");
+        CacheSnapshot.write(jda, "session", null, INTENTS, file);
+
+        when(jda.getSelfUser()).thenReturn(new SelfUserImpl(SELF_USER_ID + 1, jda));
+
+        CacheSnapshot snapshot = CacheSnapshot.read(file);
+        assertThat(snapshot).isNotNull();
+        assertThat(snapshot.getResumeUrl()).isNull();
+        assertThat(snapshot.isCompatible(jda, INTENTS)).isFalse();
+        assertThat(Files.exists(file)).isTrue();
+    }
+
+    private static void assertRolesEqual(GuildImpl restored, GuildImpl original) {
+        assertThat(ids(restored.getRoleCache().asList())).isEqualTo(ids(original.getRoleCache().asList()));
+        for (Role role : original.getRoleCache()) {
+            Role copy = restored.getRoleById(role.getIdLong());
+            assertThat(copy).isNotSameAs(role);
+            assertThat(copy.getName()).isEqualTo(role.getName());
+            assertThat(copy.getPositionRaw()).isEqualTo(role.getPositionRaw());
+            assertThat(copy.getPermissionsRaw()).isEqualTo(role.getPermissionsRaw());
+            assertThat(copy.getColors().getPrimaryRaw()).isEqualTo(role.getColors().getPrimaryRaw());
+            assertThat(copy.getColors().getSecondaryRaw()).isEqualTo(role.getColors().getSecondaryRaw());
+            assertThat(copy.isHoisted()).isEqualTo(role.isHoisted());
+            assertThat(copy.isMentionable()).isEqualTo(role.isMentionable());
+            assertThat(copy.isManaged()).isEqualTo(role.isManaged());
+            assertThat(iconOf(copy)).isEqualTo(iconOf(role));
+            assertThat(copy.getTags().getBotIdLong()).isEqualTo(role.getTags().getBotIdLong());
+            assertThat(copy.getTags().isBoost()).isEqualTo(role.getTags().isBoost());
+        }
+
+        Role botRole = restored.getRoleById(BOT_ROLE_ID);
+        assertThat(restored.getPublicRole().getIdLong()).isEqualTo(GUILD_ID);
+        assertThat(botRole.getTags().getBotIdLong()).isEqualTo(BOT_ID);
+        assertThat(iconOf(botRole)).isEqualTo("icon:\u2728");
+        assertThat(restored.getRoleById(BOOSTER_ROLE_ID).getTags().isBoost()).isTrue();
+    }
+
+    private static void assertChannelsEqual(GuildImpl restored, GuildImpl original) {
+        TextChannel text = original.getTextChannelById(TEXT_CHANNEL_ID);
+        TextChannel textCopy = restored.getTextChannelById(TEXT_CHANNEL_ID);
+        assertThat(textCopy).isNotNull().isNotSameAs(text);
+        assertThat(textCopy.getName()).isEqualTo(text.getName());
+        assertThat(textCopy.getTopic()).isEqualTo(text.getTopic());
+        assertThat(textCopy.getPositionRaw()).isEqualTo(text.getPositionRaw());
+        assertThat(textCopy.getSlowmode()).isEqualTo(text.getSlowmode());
+        assertThat(textCopy.isNSFW()).isEqualTo(text.isNSFW());
+        assertThat(textCopy.getLatestMessageIdLong()).isEqualTo(text.getLatestMessageIdLong());
+        PermissionOverride override = text.getPermissionOverride(original.getRoleById(BOT_ROLE_ID));
+        PermissionOverride overrideCopy = textCopy.getPermissionOverride(restored.getRoleById(BOT_ROLE_ID));
+        assertThat(overrideCopy).isNotNull();
+        assertThat(overrideCopy.getAllowedRaw()).isEqualTo(override.getAllowedRaw());
+        assertThat(overrideCopy.getDeniedRaw()).isEqualTo(override.getDeniedRaw());
+
+        VoiceChannel voice = original.getVoiceChannelById(VOICE_CHANNEL_ID);
+        VoiceChannel voiceCopy = restored.getVoiceChannelById(VOICE_CHANNEL_ID);
+        assertThat(voiceCopy).isNotNull().isNotSameAs(voice);
+        assertThat(voiceCopy.getName()).isEqualTo(voice.getName());
+        assertThat(voiceCopy.getBitrate()).isEqualTo(voice.getBitrate());
+        assertThat(voiceCopy.getUserLimit()).isEqualTo(voice.getUserLimit());
+        assertThat(voiceCopy.getRegionRaw()).isEqualTo(voice.getRegionRaw());
+
+        ForumChannel forum = original.getForumChannelById(FORUM_CHANNEL_ID);
+        ForumChannel forumCopy = restored.getForumChannelById(FORUM_CHANNEL_ID);
+        assertThat(forumCopy).isNotNull().isNotSameAs(forum);
+        assertThat(forumCopy.getName()).isEqualTo(forum.getName());
+        assertThat(forumCopy.getTopic()).isEqualTo(forum.getTopic());
+        assertThat(forumCopy.getDefaultLayout()).isEqualTo(forum.getDefaultLayout());
+        assertThat(forumCopy.getDefaultSortOrder()).isEqualTo(forum.getDefaultSortOrder());
+        assertThat(forumCopy.getDefaultReaction()).isNotNull().isEqualTo(forum.getDefaultReaction());
+        assertThat(forumCopy.getAvailableTags()).hasSize(1);
+        ForumTag tag = forum.getAvailableTags().get(0);
+        ForumTag tagCopy = forumCopy.getAvailableTags().get(0);
+        assertThat(tagCopy.getIdLong()).isEqualTo(TAG_ID);
+        assertThat(tagCopy.getName()).isEqualTo(tag.getName());
+        assertThat(tagCopy.isModerated()).isEqualTo(tag.isModerated());
+        assertThat(tagCopy.getEmoji()).isNotNull().isEqualTo(tag.getEmoji());
+    }
+
+    private static void assertThreadsEqual(GuildImpl restored, GuildImpl original) {
+        ThreadChannel thread = original.getThreadChannelById(THREAD_ID);
+        ThreadChannel threadCopy = restored.getThreadChannelById(THREAD_ID);
+        assertThat(threadCopy).isNotNull().isNotSameAs(thread);
+        assertThat(threadCopy.getParentChannel()).isSameAs(restored.getForumChannelById(FORUM_CHANNEL_ID));
+        assertThat(threadCopy.getName()).isEqualTo(thread.getName());
+        assertThat(threadCopy.getOwnerIdLong()).isEqualTo(thread.getOwnerIdLong());
+        assertThat(threadCopy.getMessageCount()).isEqualTo(thread.getMessageCount());
+        assertThat(threadCopy.isArchived()).isEqualTo(thread.isArchived());
+        assertThat(threadCopy.isLocked()).isEqualTo(thread.isLocked());
+        assertThat(threadCopy.getAutoArchiveDuration()).isEqualTo(thread.getAutoArchiveDuration());
+        assertThat(threadCopy.getTimeArchiveInfoLastModified()).isEqualTo(thread.getTimeArchiveInfoLastModified());
+        assertThat(threadCopy.getTimeCreated()).isEqualTo(thread.getTimeCreated());
+        assertThat(ids(threadCopy.getAppliedTags())).containsExactly(TAG_ID);
+    }
+
+    private static void assertMembersEqual(GuildImpl restored, GuildImpl original) {
+        assertThat(ids(restored.getMemberCache().asList())).isEqualTo(ids(original.getMemberCache().asList()));
+        assertThat(restored.getSelfMember().getUser()).isInstanceOf(SelfUserImpl.class);
+
+        Member member = original.getMemberById(BUTLER_USER_ID);
+        Member memberCopy = restored.getMemberById(BUTLER_USER_ID);
+        assertThat(memberCopy).isNotNull().isNotSameAs(member);
+        assertThat(memberCopy.getNickname()).isEqualTo(member.getNickname());
+        assertThat(memberCopy.getTimeJoined()).isEqualTo(member.getTimeJoined());
+        assertThat(memberCopy.getTimeOutEnd()).isNotNull().isEqualTo(member.getTimeOutEnd());
+        assertThat(memberCopy.isTimedOut()).isTrue();
+        assertThat(ids(memberCopy.getRoles())).containsExactlyInAnyOrder(BOT_ROLE_ID, BOOSTER_ROLE_ID);
+        assertThat(memberCopy.getRoles()).allMatch(role -> role == restored.getRoleById(role.getIdLong()));
+
+        assertThat(memberCopy.getVoiceState()).isNotNull();
+        assertThat(memberCopy.getVoiceState().getChannel()).isSameAs(restored.getVoiceChannelById(VOICE_CHANNEL_ID));
+        assertThat(memberCopy.getVoiceState().getSessionId()).isEqualTo(member.getVoiceState().getSessionId());
+        assertThat(memberCopy.getVoiceState().isSelfMuted()).isEqualTo(member.getVoiceState().isSelfMuted());
+    }
+
+    private static void assertEmojisEqual(GuildImpl restored, GuildImpl original) {
+        RichCustomEmoji emoji = original.getEmojiById(EMOJI_ID);
+        RichCustomEmoji emojiCopy = restored.getEmojiById(EMOJI_ID);
+        assertThat(emojiCopy).isNotNull().isNotSameAs(emoji);
+        assertThat(emojiCopy.getName()).isEqualTo(emoji.getName());
+        assertThat(emojiCopy.isAnimated()).isEqualTo(emoji.isAnimated());
+        assertThat(emojiCopy.isAvailable()).isEqualTo(emoji.isAvailable());
+        assertThat(ids(emojiCopy.getRoles())).containsExactly(BOOSTER_ROLE_ID);
+    }
+
+    private static List<Long> ids(Collection<? extends ISnowflake> entities) {
+        return entities.stream().map(ISnowflake::getIdLong).collect(Collectors.toList());
+    }
+
+    private static String iconOf(Role role) {
+        RoleIcon icon = role.getIcon();
+        return icon == null ? null : icon.getIconId() + ":" + icon.getEmoji();
+    }
+
+    private static DataObject createGuildPayload() {
+        return DataObject.empty()
+                .put("id", GUILD_ID)
+                .put("name", "Snapshot Guild")
+                .put("owner_id", SELF_USER_ID)
+                .put("afk_channel_id", VOICE_CHANNEL_ID)
+                .put("system_channel_id", TEXT_CHANNEL_ID)
+                .put("features", DataArray.empty().add("COMMUNITY"))
+                .put(
+                        "roles",
+                        DataArray.empty()
+                                .add(createRole(GUILD_ID, "@everyone", 0, DataObject.empty()))
+                                .add(createRole(BOT_ROLE_ID, "bot", 2, DataObject.empty().put("bot_id", BOT_ID))
+                                        .put("icon", "icon")
+                                        .put("unicode_emoji", "\u2728"))
+                                .add(createRole(
+                                        BOOSTER_ROLE_ID,
+                                        "booster",
+                                        1,
+                                        DataObject.empty().put("premium_subscriber", null))))
+                .put(
+                        "channels",
+                        DataArray.empty()
+                                .add(DataObject.empty()
+                                        .put("id", TEXT_CHANNEL_ID)
+                                        .put("type", ChannelType.TEXT.getId())
+                                        .put("name", "general")
+                                        .put("position", 0)
+                                        .put("topic", "Talk here")
+                                        .put("nsfw", true)
+                                        .put("rate_limit_per_user", 5)
+                                        .put("last_message_id", 1000L)
+                                        .put(
+                                                "permission_overwrites",
+                                                DataArray.empty()
+                                                        .add(DataObject.empty()
+                                                                .put("id", BOT_ROLE_ID)
+                                                                .put("type", 0)
+                                                                .put("allow", 1024L)
+                                                                .put("deny", 2048L))))
+                                .add(DataObject.empty()
+                                        .put("id", VOICE_CHANNEL_ID)
+                                        .put("type", ChannelType.VOICE.getId())
+                                        .put("name", "voice")
+                                        .put("position", 1)
+                                        .put("bitrate", 96000)
+                                        .put("user_limit", 10)
+                                        .put("rtc_region", "rotterdam"))
+                                .add(DataObject.empty()
+                                        .put("id", FORUM_CHANNEL_ID)
+                                        .put("type", ChannelType.FORUM.getId())
+                                        .put("name", "forum")
+                                        .put("position", 2)
+                                        .put("topic", "Guidelines")
+                                        .put("default_sort_order", 1)
+                                        .put("default_forum_layout", 2)
+                                        .put(
+                                                "default_reaction_emoji",
+                                                DataObject.empty()
+                                                        .put("emoji_id", null)
+                                                        .put("emoji_name", "\uD83D\uDC4D"))
+                                        .put(
+                                                "available_tags",
+                                                DataArray.empty()
+                                                        .add(DataObject.empty()
+                                                                .put("id", TAG_ID)
+                                                                .put("name", "bug")
+                                                                .put("moderated", true)
+                                                                .put("emoji_id", EMOJI_ID)
+                                                                .put("emoji_name", "bug")))))
+                .put(
+                        "threads",
+                        DataArray.empty()
+                                .add(DataObject.empty()
+                                        .put("id", THREAD_ID)
+                                        .put("type", ChannelType.GUILD_PUBLIC_THREAD.getId())
+                                        .put("parent_id", FORUM_CHANNEL_ID)
+                                        .put("name", "post")
+                                        .put("owner_id", BUTLER_USER_ID)
+                                        .put("member_count", 1)
+                                        .put("message_count", 3)
+                                        .put("applied_tags", DataArray.empty().add(TAG_ID))
+                                        .put(
+                                                "thread_metadata",
+                                                DataObject.empty()
+                                                        .put("locked", true)
+                                                        .put("archived", true)
+                                                        .put("invitable", false)
+                                                        .put("archive_timestamp", "2024-01-02T00:00:00.000+00:00")
+                                                        .put("create_timestamp", "2024-01-01T00:00:00.000+00:00")
+                                                        .put("auto_archive_duration", 1440))))
+                .put(
+                        "members",
+                        DataArray.empty()
+                                .add(createMember(SELF_USER_ID, "self", DataArray.empty()))
+                                .add(createMember(
+                                                BUTLER_USER_ID,
+                                                "butler",
+                                                DataArray.empty().add(BOT_ROLE_ID).add(BOOSTER_ROLE_ID))
+                                        .put("nick", "Butler")
+                                        .put("communication_disabled_until", TIMEOUT_END)))
+                .put(
+                        "voice_states",
+                        DataArray.empty()
+                                .add(DataObject.empty()
+                                        .put("user_id", BUTLER_USER_ID)
+                                        .put("channel_id", VOICE_CHANNEL_ID)
+                                        .put("session_id", "voice-session")
+                                        .put("self_mute", true)))
+                .put(
+                        "emojis",
+                        DataArray.empty()
+                                .add(DataObject.empty()
+                                        .put("id", EMOJI_ID)
+                                        .put("name", "bug")
+                                        .put("animated", true)
+                                        .put("roles", DataArray.empty().add(Long.toString(BOOSTER_ROLE_ID)))))
+                .put("guild_scheduled_events", DataArray.empty());
+    }
+
+    private static DataObject createRole(long id, String name, int position, DataObject tags) {
+        return DataObject.empty()
+                .put("id", id)
+                .put("name", name)
+                .put("position", position)
+                .put("permissions", 8L)
+                .put("managed", false)
+                .put("hoist", position > 0)
+                .put("mentionable", false)
+                .put("colors", DataObject.empty().put("primary_color", 0xFF0000 + position))
+                .put("tags", tags);
+    }
+
+    private static DataObject createMember(long userId, String name, DataArray roles) {
+        return DataObject.empty()
+                .put("user", DataObject.empty().put("id", userId).put("username", name))
+                .put("joined_at", "2020-01-01T00:00:00.000+00:00")
+                .put("roles", roles);
+    }
+}
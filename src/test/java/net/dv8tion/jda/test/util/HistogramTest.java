@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.util;
+
+import net.dv8tion.jda.api.utils.metrics.GatewayMetricsRecorder;
+import net.dv8tion.jda.api.utils.metrics.Histogram;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+class HistogramTest {
+    private static final Logger LOG = JDALogger.getLog(HistogramTest.class);
+
+    @Test
+    void testEmpty() {
+        Histogram histogram = new Histogram();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMean()).isZero();
+        assertThat(histogram.getPercentile(99)).isZero();
+    }
+
+    @Test
+    void testPercentiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 10000; i++) {
+            histogram.record(i);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(10000);
+        assertThat(histogram.getSum()).isEqualTo(10000L * 10001 / 2);
+        assertThat(histogram.getMax()).isEqualTo(10000);
+        assertThat(histogram.getMean()).isCloseTo(5000.5, within(0.01));
+        assertThat(histogram.getPercentile(50)).isCloseTo(5000L, within(5000L / Histogram.SUB_BUCKETS));
+        assertThat(histogram.getPercentile(99)).isCloseTo(9900L, within(9900L / Histogram.SUB_BUCKETS));
+        assertThat(histogram.getPercentile(100)).isEqualTo(10000);
+    }
+
+    @Test
+    void testSmallAndLargeValues() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        histogram.record(3);
+        histogram.record(Long.MAX_VALUE);
+
+        assertThat(histogram.getPercentile(0)).isZero();
+        assertThat(histogram.getPercentile(50)).isEqualTo(3);
+        assertThat(histogram.getPercentile(100)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void testReset() {
+        Histogram histogram = new Histogram();
+        histogram.record(42);
+        histogram.reset();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMax()).isZero();
+        assertThat(histogram.getPercentile(50)).isZero();
+    }
+
+    @Test
+    void testInvalidPercentile() {
+        Histogram histogram = new Histogram();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> histogram.getPercentile(101));
+        assertThatIllegalArgumentException().isThrownBy(() -> histogram.getPercentile(-1));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testRecordThroughput() {
+        Histogram histogram = new Histogram();
+        // The recorder path of every handled dispatch, which looks up the stats of the type
+        GatewayMetricsRecorder recorder = new GatewayMetricsRecorder();
+        String[] types = {"MESSAGE_CREATE", "TYPING_START", "GUILD_MEMBER_UPDATE", "MESSAGE_REACTION_ADD"};
+
+        int iterations = 1_000_000;
+        for (int run = 0; run < 4; run++) {
+            boolean useRecorder = run % 2 == 1;
+            long allocatedBefore = getAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                long value = (i * 7919L) & 0xFFFFF;
+                if (useRecorder) {
+                    recorder.onDispatchHandled(types[i & 3], (int) value, value, value);
+                } else {
+                    histogram.record(value);
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocatedAfter = getAllocatedBytes();
+
+            LOG.info(
+                    "{}: {} records/s, {} bytes allocated per record",
+                    useRecorder ? "GatewayMetricsRecorder" : "Histogram",
+                    iterations * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                    allocatedBefore < 0 ? "unknown" : (double) (allocatedAfter - allocatedBefore) / iterations);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(2L * iterations);
+        assertThat(recorder.getDispatchStats("MESSAGE_CREATE").getCount()).isEqualTo(iterations / 2);
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.util;
+
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.requests.RestConfig;
+import net.dv8tion.jda.api.requests.RestRateLimiter;
+import net.dv8tion.jda.api.requests.SequentialRestRateLimiter;
+import net.dv8tion.jda.api.requests.restaction.pagination.PaginationAction.PaginationOrder;
+import net.dv8tion.jda.api.utils.MessageHistoryExporter;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.requests.Requester;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import okhttp3.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MessageHistoryExporterTest {
+    private static final int MESSAGES = 250;
+
+    @TempDir
+    Path directory;
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService elastic;
+    private ExecutorService callbackPool;
+    private RestRateLimiter rateLimiter;
+    private MessageChannel channel;
+
+    @BeforeEach
+    void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        elastic = Executors.newCachedThreadPool();
+        callbackPool = Executors.newSingleThreadExecutor();
+
+        // Fake API serving messages with ids 1..MESSAGES, most recent first like the real endpoint
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    HttpUrl url = chain.request().url();
+                    int limit = Integer.parseInt(url.queryParameter("limit"));
+                    String before = url.queryParameter("before");
+                    String after = url.queryParameter("after");
+
+                    long upper = before == null ? MESSAGES : Long.parseLong(before) - 1;
+                    long lower = after == null ? 1 : Long.parseLong(after) + 1;
+                    if (after != null) {
+                        upper = Math.min(upper, lower + limit - 1);
+                    }
+
+                    DataArray page = DataArray.empty();
+                    for (long id = upper; id >= lower && page.length() < limit; id--) {
+                        page.add(DataObject.empty().put("id", Long.toString(id)).put("content", "Message " + id));
+                    }
+
+                    return new Response.Builder()
+                            .request(chain.request())
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(200)
+                            .message("OK")
+                            .body(ResponseBody.create(
+                                    page.toString().getBytes(StandardCharsets.UTF_8),
+                                    MediaType.parse("application/json")))
+                            .build();
+                })
+                .build();
+
+        JDAImpl jda = mock(JDAImpl.class);
+        when(jda.getHttpClient()).thenReturn(httpClient);
+        when(jda.getCallbackPool()).thenReturn(callbackPool);
+        rateLimiter = new SequentialRestRateLimiter(new RestRateLimiter.RateLimitConfig(
+                scheduler, elastic, RestRateLimiter.GlobalRateLimit.create(), true));
+        Requester requester = new Requester(jda, new AuthorizationConfig("token"), new RestConfig(), rateLimiter);
+        when(jda.getRequester()).thenReturn(requester);
+
+        channel = mock(MessageChannel.class);
+        when(channel.getJDA()).thenReturn(jda);
+        when(channel.getId()).thenReturn("1");
+    }
+
+    @AfterEach
+    void teardown() {
+        rateLimiter.stop(true, () -> {});
+        scheduler.shutdownNow();
+        elastic.shutdownNow();
+        callbackPool.shutdownNow();
+    }
+
+    @Test
+    void testExportBackward() throws Exception {
+        Path file = directory.resolve("history.jsonl");
+        List<Long> checkpoints = new ArrayList<>();
+        MessageHistoryExporter exporter = new MessageHistoryExporter(channel).onCheckpoint(checkpoints::add);
+
+        long count = exporter.exportTo(file).get(1, TimeUnit.MINUTES);
+
+        assertThat(count).isEqualTo(MESSAGES);
+        assertThat(readIds(file)).isEqualTo(range(MESSAGES, 1));
+        assertThat(checkpoints).containsExactly(151L, 51L, 1L);
+        assertThat(exporter.getCheckpoint()).isEqualTo(1);
+    }
+
+    @Test
+    void testExportForward() throws Exception {
+        Path file = directory.resolve("history.jsonl");
+        MessageHistoryExporter exporter = new MessageHistoryExporter(channel).setOrder(PaginationOrder.FORWARD);
+
+        long count = exporter.exportTo(file).get(1, TimeUnit.MINUTES);
+
+        assertThat(count).isEqualTo(MESSAGES);
+        assertThat(readIds(file)).isEqualTo(range(1, MESSAGES));
+        assertThat(exporter.getCheckpoint()).isEqualTo(MESSAGES);
+    }
+
+    @Test
+    void testResumeFromCheckpoint() throws Exception {
+        Path file = directory.resolve("history.jsonl");
+        Files.write(file, "{\"id\":\"250\"}\n".getBytes(StandardCharsets.UTF_8));
+
+        long count = new MessageHistoryExporter(channel)
+                .setCheckpoint("250")
+                .exportTo(file)
+                .get(1, TimeUnit.MINUTES);
+
+        assertThat(count).isEqualTo(MESSAGES - 1);
+        assertThat(readIds(file)).isEqualTo(range(MESSAGES, 1));
+    }
+
+    private static List<Long> readIds(Path file) throws Exception {
+        return Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                .map(line -> DataObject.fromJson(line).getUnsignedLong("id"))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> range(long from, long to) {
+        List<Long> ids = new ArrayList<>();
+        long step = from <= to ? 1 : -1;
+        for (long id = from; id != to + step; id += step) {
+            ids.add(id);
+        }
+        return ids;
+    }
+}
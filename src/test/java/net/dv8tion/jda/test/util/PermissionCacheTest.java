@@ -0,0 +1,235 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.util;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.IPermissionHolder;
+import net.dv8tion.jda.api.entities.PermissionOverride;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.internal.entities.GuildImpl;
+import net.dv8tion.jda.internal.entities.MemberImpl;
+import net.dv8tion.jda.internal.entities.PermissionOverrideImpl;
+import net.dv8tion.jda.internal.entities.RoleImpl;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.internal.utils.PermissionUtil;
+import net.dv8tion.jda.internal.utils.UnlockHook;
+import net.dv8tion.jda.test.Constants;
+import net.dv8tion.jda.test.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.when;
+
+public class PermissionCacheTest extends IntegrationTest {
+    private static final Logger LOG = JDALogger.getLog(PermissionCacheTest.class);
+    private static final long VIEW = Permission.VIEW_CHANNEL.getRawValue();
+    private static final long SEND = Permission.MESSAGE_SEND.getRawValue();
+    private static final long MANAGE = Permission.MESSAGE_MANAGE.getRawValue();
+
+    @Mock
+    private User user;
+
+    @Mock
+    private TextChannel channel;
+
+    private final TLongObjectMap<PermissionOverride> overrides = new TLongObjectHashMap<>();
+    private GuildImpl guild;
+    private RoleImpl publicRole;
+    private RoleImpl role;
+    private MemberImpl member;
+
+    @BeforeEach
+    void setupEntities() {
+        when(user.getJDA()).thenReturn(jda);
+        when(user.getIdLong()).thenReturn(Constants.MINN_USER_ID);
+
+        guild = new GuildImpl(jda, Constants.GUILD_ID);
+        publicRole = new RoleImpl(Constants.GUILD_ID, guild);
+        role = new RoleImpl(random.nextLong(), guild);
+        try (UnlockHook hook = guild.getRolesView().writeLock()) {
+            guild.getRolesView().getMap().put(publicRole.getIdLong(), publicRole);
+            guild.getRolesView().getMap().put(role.getIdLong(), role);
+        }
+        guild.setPublicRole(publicRole);
+        publicRole.setRawPermissions(VIEW | SEND);
+        role.setRawPermissions(MANAGE);
+
+        member = new MemberImpl(guild, user);
+        member.getRoleSet().add(role);
+
+        when(channel.getJDA()).thenReturn(jda);
+        when(channel.getIdLong()).thenReturn(random.nextLong());
+        when(channel.getGuild()).thenReturn(guild);
+        when(channel.getType()).thenReturn(ChannelType.TEXT);
+        when(channel.getPermissionContainer()).thenReturn(channel);
+        when(channel.getPermissionOverride(any()))
+                .thenAnswer(invocation -> overrides.get(invocation.<IPermissionHolder>getArgument(0).getIdLong()));
+    }
+
+    private PermissionOverrideImpl putOverride(IPermissionHolder holder, long allow, long deny) {
+        PermissionOverrideImpl override =
+                new PermissionOverrideImpl(channel, holder.getIdLong(), holder instanceof RoleImpl);
+        override.setAllow(allow).setDeny(deny);
+        overrides.put(holder.getIdLong(), override);
+        return override;
+    }
+
+    private long getPermissions(boolean cached) {
+        when(jda.isPermissionCache()).thenReturn(cached);
+        return PermissionUtil.getEffectivePermission(channel, member);
+    }
+
+    private void assertCachedMatchesUncached() {
+        long expected = getPermissions(false);
+        assertThat(getPermissions(true)).isEqualTo(expected);
+        assertThat(getPermissions(true)).isEqualTo(expected);
+    }
+
+    @Test
+    void testCachesPermissions() {
+        PermissionOverrideImpl override = putOverride(role, 0, SEND);
+        assertThat(getPermissions(true)).isEqualTo(VIEW | MANAGE);
+
+        // Changing the override without invalidating keeps the cached value
+        override.setDeny(0);
+        assertThat(getPermissions(true)).isEqualTo(VIEW | MANAGE);
+        assertThat(getPermissions(false)).isEqualTo(VIEW | SEND | MANAGE);
+
+        guild.invalidatePermissions();
+        assertThat(getPermissions(true)).isEqualTo(VIEW | SEND | MANAGE);
+    }
+
+    @Test
+    void testRolePermissionUpdate() {
+        assertCachedMatchesUncached();
+
+        role.setRawPermissions(Permission.ADMINISTRATOR.getRawValue());
+        assertCachedMatchesUncached();
+
+        publicRole.setRawPermissions(0);
+        role.setRawPermissions(0);
+        assertCachedMatchesUncached();
+        assertThat(getPermissions(true)).isEqualTo(0L);
+    }
+
+    @Test
+    void testOverrideUpdate() {
+        assertCachedMatchesUncached();
+
+        putOverride(publicRole, 0, SEND);
+        guild.invalidatePermissions();
+        assertCachedMatchesUncached();
+
+        putOverride(role, SEND, 0);
+        guild.invalidatePermissions();
+        assertCachedMatchesUncached();
+
+        putOverride(member, 0, VIEW);
+        guild.invalidatePermissions();
+        assertCachedMatchesUncached();
+        assertThat(getPermissions(true)).isEqualTo(0L);
+    }
+
+    @Test
+    void testMemberRolesUpdate() {
+        putOverride(role, 0, VIEW);
+        assertCachedMatchesUncached();
+        assertThat(getPermissions(true)).isEqualTo(0L);
+
+        member.getRoleSet().remove(role);
+        member.invalidatePermissions();
+        assertCachedMatchesUncached();
+        assertThat(getPermissions(true)).isEqualTo(VIEW | SEND);
+    }
+
+    @Test
+    void testTimeOut() {
+        assertCachedMatchesUncached();
+
+        member.setTimeOutEnd(System.currentTimeMillis() + Duration.ofHours(1).toMillis());
+        assertCachedMatchesUncached();
+        assertThat(getPermissions(true)).isEqualTo(VIEW);
+
+        // Permissions during a time out are not cached, since it ends without an update
+        member.setTimeOutEnd(System.currentTimeMillis() - 1);
+        assertThat(getPermissions(true)).isEqualTo(VIEW | SEND | MANAGE);
+    }
+
+    @Test
+    void testOwner() {
+        assertCachedMatchesUncached();
+
+        guild.setOwnerId(user.getIdLong());
+        assertCachedMatchesUncached();
+        assertThat(getPermissions(true)).isEqualTo(Permission.getRaw(Permission.values()));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testEffectivePermissionThroughput() {
+        // A member with several roles, each with an override in the channel
+        for (int i = 0; i < 10; i++) {
+            RoleImpl extra = new RoleImpl(random.nextLong(), guild);
+            try (UnlockHook hook = guild.getRolesView().writeLock()) {
+                guild.getRolesView().getMap().put(extra.getIdLong(), extra);
+            }
+            extra.setRawPermissions(SEND);
+            member.getRoleSet().add(extra);
+            putOverride(extra, i % 2 == 0 ? MANAGE : 0, 0);
+        }
+        putOverride(publicRole, 0, SEND);
+        putOverride(member, SEND, 0);
+        long expected = getPermissions(false);
+
+        int iterations = 100_000;
+        for (boolean cached : new boolean[] {false, true, false, true}) {
+            when(jda.isPermissionCache()).thenReturn(cached);
+            long start = System.nanoTime();
+            int mismatches = 0;
+            for (int i = 0; i < iterations; i++) {
+                if (PermissionUtil.getEffectivePermission(channel, member) != expected) {
+                    mismatches++;
+                }
+                if (i % 1000 == 0) {
+                    // The mocks record every invocation, which would otherwise fill up the heap
+                    clearInvocations(jda, channel, user);
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            assertThat(mismatches).isZero();
+            // Calls to mocks are slower than to real channels, so this overstates the cost without the cache
+            LOG.info(
+                    "{}: {} calls/s",
+                    cached ? "Cached" : "Uncached",
+                    iterations * TimeUnit.SECONDS.toNanos(1) / elapsed);
+        }
+    }
+}
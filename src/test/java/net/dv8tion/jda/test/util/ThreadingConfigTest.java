@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.util;
+
+import net.dv8tion.jda.api.hooks.OrderedEventPool;
+import net.dv8tion.jda.api.requests.RestConfig;
+import net.dv8tion.jda.api.requests.RestRateLimiter;
+import net.dv8tion.jda.api.requests.Route;
+import net.dv8tion.jda.api.requests.SequentialRestRateLimiter;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.requests.Requester;
+import net.dv8tion.jda.internal.requests.RestActionImpl;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.internal.utils.concurrent.VirtualThreads;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import net.dv8tion.jda.internal.utils.config.ThreadingConfig;
+import okhttp3.*;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ThreadingConfigTest {
+    private static final Logger LOG = JDALogger.getLog(ThreadingConfigTest.class);
+    private static final int CALLS = 10_000;
+    private static final long LATENCY_MILLIS = 20;
+
+    @Test
+    void testVirtualThreadPools() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+        ThreadingConfig config = new ThreadingConfig();
+        config.enableVirtualThreads();
+        config.init(() -> "JDA Test");
+
+        try {
+            assertThat(config.isVirtualThreads()).isTrue();
+            assertThat(config.getEventPool()).isInstanceOf(OrderedEventPool.class);
+            assertThat(config.isShutdownEventPool()).isTrue();
+            assertThat(config.isShutdownCallbackPool()).isTrue();
+            assertThat(runsOnVirtualThread(config.getCallbackPool())).isTrue();
+            assertThat(runsOnVirtualThread(config.getRateLimitElastic())).isTrue();
+            assertThat(runsOnVirtualThread(config.getRateLimitScheduler())).isFalse();
+        } finally {
+            config.shutdownNow();
+        }
+    }
+
+    @Test
+    void testUnsupportedRuntimeUsesPlatformThreads() throws Exception {
+        ThreadingConfig config = new ThreadingConfig() {
+            @Override
+            protected boolean isVirtualThreadsSupported() {
+                return false;
+            }
+        };
+        config.enableVirtualThreads();
+        config.init(() -> "JDA Test");
+
+        try {
+            assertThat(config.isVirtualThreads()).isFalse();
+            assertThat(config.getEventPool()).isNull();
+            assertThat(config.isShutdownEventPool()).isFalse();
+            assertThat(config.getCallbackPool()).isSameAs(ForkJoinPool.commonPool());
+            assertThat(config.isShutdownCallbackPool()).isFalse();
+            assertThat(runsOnVirtualThread(config.getRateLimitElastic())).isFalse();
+        } finally {
+            config.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCustomPoolsAreKept() {
+        ExecutorService callbackPool = Executors.newSingleThreadExecutor();
+        ThreadingConfig config = new ThreadingConfig();
+        config.setCallbackPool(callbackPool, false);
+        config.enableVirtualThreads();
+
+        assertThat(config.getCallbackPool()).isSameAs(callbackPool);
+        assertThat(config.isShutdownCallbackPool()).isFalse();
+        callbackPool.shutdownNow();
+        if (config.getEventPool() != null) {
+            config.getEventPool().shutdownNow();
+        }
+    }
+
+    @Test
+    void testExplicitCommonPoolIsKept() {
+        ThreadingConfig config = new ThreadingConfig();
+        config.setCallbackPool(ForkJoinPool.commonPool(), false);
+        config.enableVirtualThreads();
+
+        assertThat(config.getCallbackPool()).isSameAs(ForkJoinPool.commonPool());
+        assertThat(config.isShutdownCallbackPool()).isFalse();
+        if (config.getEventPool() != null) {
+            config.getEventPool().shutdownNow();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testBlockingCompleteCalls() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+        ThreadingConfig config = new ThreadingConfig();
+        config.enableVirtualThreads();
+        config.init(() -> "JDA Test");
+
+        // Fake API answering every request after a fixed latency, without opening any connections
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    try {
+                        Thread.sleep(LATENCY_MILLIS);
+                    } catch (InterruptedException e) {
+                        throw new InterruptedIOException();
+                    }
+                    return new Response.Builder()
+                            .request(chain.request())
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(200)
+                            .message("OK")
+                            .body(ResponseBody.create(
+                                    "{}".getBytes(StandardCharsets.UTF_8), MediaType.parse("application/json")))
+                            .build();
+                })
+                .build();
+
+        JDAImpl jda = mock(JDAImpl.class);
+        when(jda.getHttpClient()).thenReturn(httpClient);
+        when(jda.getCallbackPool()).thenReturn(config.getCallbackPool());
+        RestRateLimiter rateLimiter = new SequentialRestRateLimiter(new RestRateLimiter.RateLimitConfig(
+                config.getRateLimitScheduler(),
+                config.getRateLimitElastic(),
+                RestRateLimiter.GlobalRateLimit.create(),
+                true));
+        Requester requester = new Requester(jda, new AuthorizationConfig("token"), new RestConfig(), rateLimiter);
+        when(jda.getRequester()).thenReturn(requester);
+
+        CountDownLatch done = new CountDownLatch(CALLS);
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < CALLS; i++) {
+                // Every guild has its own bucket, so all requests can be in flight at once
+                Route.CompiledRoute route = Route.Guilds.GET_MEMBER.compile(Integer.toString(i), "1");
+                config.getCallbackPool().execute(() -> {
+                    try {
+                        new RestActionImpl<DataObject>(jda, route, (response, request) -> response.getObject())
+                                .complete();
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            assertThat(done.await(1, TimeUnit.MINUTES)).isTrue();
+        } finally {
+            rateLimiter.stop(true, () -> {});
+            config.shutdownNow();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        LOG.info(
+                "Completed {} blocking calls with {} ms latency in {} ms",
+                CALLS,
+                LATENCY_MILLIS,
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+        assertThat(failures).hasValue(0);
+    }
+
+    private static boolean runsOnVirtualThread(ExecutorService executor) throws Exception {
+        return executor.submit(() -> Thread.currentThread().isVirtual()).get(10, TimeUnit.SECONDS);
+    }
+}
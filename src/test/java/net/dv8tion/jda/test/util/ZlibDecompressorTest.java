@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.dv8tion.jda.test.util;
+
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.utils.JDALogger;
+import net.dv8tion.jda.internal.utils.compress.ZlibDecompressor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ZlibDecompressorTest {
+    private static final Logger LOG = JDALogger.getLog(ZlibDecompressorTest.class);
+
+    private final Deflater deflater = new Deflater();
+
+    @Test
+    void testSingleFrame() throws DataFormatException {
+        ZlibDecompressor decompressor = new ZlibDecompressor(1024);
+        DataObject payload = getPayload(10);
+
+        ByteBuffer buffer = decompressor.decompressToBuffer(compress(payload));
+
+        assertThat(buffer).isNotNull();
+        assertThat(parse(buffer).toMap()).isEqualTo(payload.toMap());
+    }
+
+    @Test
+    void testSplitFrames() throws DataFormatException {
+        ZlibDecompressor decompressor = new ZlibDecompressor(1024);
+        DataObject payload = getPayload(1000);
+        byte[] compressed = compress(payload);
+
+        int split = compressed.length / 3;
+        byte[] first = Arrays.copyOfRange(compressed, 0, split);
+        byte[] second = Arrays.copyOfRange(compressed, split, 2 * split);
+        byte[] last = Arrays.copyOfRange(compressed, 2 * split, compressed.length);
+
+        assertThat(decompressor.decompressToBuffer(first)).isNull();
+        assertThat(decompressor.decompressToBuffer(second)).isNull();
+        ByteBuffer buffer = decompressor.decompressToBuffer(last);
+
+        assertThat(buffer).isNotNull();
+        assertThat(parse(buffer).toMap()).isEqualTo(payload.toMap());
+    }
+
+    @Test
+    void testSharedContextAcrossMessages() throws DataFormatException {
+        ZlibDecompressor decompressor = new ZlibDecompressor(64);
+
+        for (int i = 1; i <= 100; i += 33) {
+            DataObject payload = getPayload(i);
+            byte[] copy = decompressor.decompress(compress(payload));
+
+            assertThat(copy).isNotNull();
+            assertThat(DataObject.fromJson(copy).toMap()).isEqualTo(payload.toMap());
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testSplitFrameThroughput() throws DataFormatException {
+        int messages = 200;
+        int rounds = 100;
+        // Every round uses a new stream, so the frames have to be decompressed in the same order
+        List<byte[][]> stream = new ArrayList<>(messages);
+        for (int i = 0; i < messages; i++) {
+            // Small dispatches, which fit into the default buffer size
+            byte[] compressed = compress(getPayload(10 + i % 40));
+            int split = compressed.length / 3;
+            stream.add(new byte[][] {
+                Arrays.copyOfRange(compressed, 0, split),
+                Arrays.copyOfRange(compressed, split, 2 * split),
+                Arrays.copyOfRange(compressed, 2 * split, compressed.length)
+            });
+        }
+
+        for (boolean view : new boolean[] {false, true, false, true}) {
+            long allocatedBefore = getAllocatedBytes();
+            long start = System.nanoTime();
+            int parsed = 0;
+            for (int round = 0; round < rounds; round++) {
+                ZlibDecompressor decompressor = new ZlibDecompressor(2048);
+                for (byte[][] frames : stream) {
+                    decompressor.decompressToBuffer(frames[0]);
+                    decompressor.decompressToBuffer(frames[1]);
+                    DataObject payload = view
+                            ? parse(decompressor.decompressToBuffer(frames[2]))
+                            : DataObject.fromJson(decompressor.decompress(frames[2]));
+                    parsed += payload.getArray("d").length();
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocatedAfter = getAllocatedBytes();
+
+            assertThat(parsed).isPositive();
+            LOG.info(
+                    "{}: {} messages/s, {} bytes allocated per message",
+                    view ? "Parse from buffer" : "Parse from copy",
+                    messages * rounds * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                    allocatedBefore < 0 ? "unknown" : (allocatedAfter - allocatedBefore) / (messages * rounds));
+        }
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private DataObject getPayload(int size) {
+        DataArray array = DataArray.empty();
+        for (int i = 0; i < size; i++) {
+            array.add(DataObject.empty().put("id", Integer.toString(i)).put("name", "user" + i));
+        }
+        return DataObject.empty().put("op", 0).put("t", "GUILD_CREATE").put("d", array);
+    }
+
+    private byte[] compress(DataObject payload) {
+        byte[] input = payload.toJson();
+        deflater.setInput(input);
+        byte[] output = new byte[input.length + 1024];
+        int length = deflater.deflate(output, 0, output.length, Deflater.SYNC_FLUSH);
+        return Arrays.copyOf(output, length);
+    }
+
+    private DataObject parse(ByteBuffer buffer) {
+        return DataObject.fromJson(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2015 Austin Keener, Michael Ritter, Florian Spieß, and the JDA contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.test.util;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdOutputStream;
+import net.dv8tion.jda.api.utils.Compression;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.utils.compress.Decompressor;
+import net.dv8tion.jda.internal.utils.compress.ZlibDecompressor;
+import net.dv8tion.jda.internal.utils.compress.ZstdDecompressor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ZstdDecompressorTest {
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    private final Random random = new Random(42);
+    private ZstdOutputStream stream;
+
+    @Test
+    void testSingleFrame() throws DataFormatException {
+        assumeNativesLoaded();
+        ZstdDecompressor decompressor = new ZstdDecompressor(1024);
+        DataObject payload = getPayload(10);
+
+        ByteBuffer buffer = decompressor.decompressToBuffer(Zstd.compress(payload.toJson()));
+
+        assertThat(buffer).isNotNull();
+        assertThat(parse(buffer).toMap()).isEqualTo(payload.toMap());
+    }
+
+    @Test
+    void testSharedContextAcrossMessages() throws DataFormatException, IOException {
+        assumeNativesLoaded();
+        ZstdDecompressor decompressor = new ZstdDecompressor(64);
+
+        for (int i = 1; i <= 100; i += 33) {
+            DataObject payload = getPayload(i);
+            byte[] copy = decompressor.decompress(compress(payload));
+
+            assertThat(copy).isNotNull();
+            assertThat(DataObject.fromJson(copy).toMap()).isEqualTo(payload.toMap());
+        }
+    }
+
+    @Test
+    void testSplitFrame() throws DataFormatException, IOException {
+        assumeNativesLoaded();
+        ZstdDecompressor decompressor = new ZstdDecompressor(1024);
+        DataObject first = getPayload(10);
+        DataObject second = getPayload(1000);
+
+        ByteBuffer buffer = decompressor.decompressToBuffer(compress(first));
+        assertThat(buffer).isNotNull();
+        assertThat(parse(buffer).toMap()).isEqualTo(first.toMap());
+
+        byte[] message = compress(second);
+        int split = message.length / 2;
+        assertThat(decompressor.decompressToBuffer(Arrays.copyOfRange(message, 0, split))).isNull();
+        buffer = decompressor.decompressToBuffer(Arrays.copyOfRange(message, split, message.length));
+
+        assertThat(buffer).isNotNull();
+        assertThat(parse(buffer).toMap()).isEqualTo(second.toMap());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 7, 50})
+    void testArbitrarySlices(int slices) throws DataFormatException, IOException {
+        assumeNativesLoaded();
+        ZstdDecompressor decompressor = new ZstdDecompressor(1024);
+        // Large enough to span several zstd blocks, so slices can also end on a block boundary
+        DataObject payload = getPayload(10_000);
+        DataObject next = getPayload(10);
+
+        assertThat(decompressSlices(decompressor, compress(payload.toJson()), slices)).isEqualTo(payload.toJson());
+        assertThat(decompressSlices(decompressor, compress(next.toJson()), slices)).isEqualTo(next.toJson());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 7, 50})
+    void testArbitrarySlicesETF(int slices) throws DataFormatException, IOException {
+        assumeNativesLoaded();
+        ZstdDecompressor decompressor = new ZstdDecompressor(1024);
+        DataObject payload = getPayload(10_000);
+        DataObject next = getPayload(10);
+
+        assertThat(decompressSlices(decompressor, compress(payload.toETF()), slices)).isEqualTo(payload.toETF());
+        assertThat(decompressSlices(decompressor, compress(next.toETF()), slices)).isEqualTo(next.toETF());
+    }
+
+    @Test
+    void testResetStartsNewStream() throws DataFormatException, IOException {
+        assumeNativesLoaded();
+        ZstdDecompressor decompressor = new ZstdDecompressor(1024);
+        DataObject payload = getPayload(10);
+
+        assertThat(decompressor.decompressToBuffer(compress(payload))).isNotNull();
+
+        decompressor.reset();
+        stream = null;
+        ByteBuffer buffer = decompressor.decompressToBuffer(compress(payload));
+
+        assertThat(buffer).isNotNull();
+        assertThat(parse(buffer).toMap()).isEqualTo(payload.toMap());
+    }
+
+    @Test
+    void testFallbackWithoutNatives() {
+        Decompressor decompressor = Decompressor.forCompression(Compression.ZSTD, null, 1024, () -> false);
+
+        assertThat(decompressor).isInstanceOf(ZlibDecompressor.class);
+        assertThat(decompressor.getType()).isEqualTo(Compression.ZLIB);
+        assertThat(Decompressor.forCompression(Compression.ZSTD, decompressor, 1024, () -> false))
+                .isSameAs(decompressor);
+    }
+
+    @Test
+    void testForCompression() {
+        Decompressor decompressor = Decompressor.forCompression(Compression.ZSTD, null, 1024, () -> true);
+
+        assertThat(decompressor).isInstanceOf(ZstdDecompressor.class);
+        assertThat(Decompressor.forCompression(Compression.ZSTD, decompressor, 1024, () -> true))
+                .isSameAs(decompressor);
+        assertThat(Decompressor.forCompression(Compression.ZLIB, decompressor, 1024, () -> true))
+                .isInstanceOf(ZlibDecompressor.class);
+        assertThat(Decompressor.forCompression(Compression.NONE, decompressor, 1024, () -> true)).isNull();
+    }
+
+    private void assumeNativesLoaded() {
+        assumeTrue(ZstdDecompressor.isSupported(), "zstd natives are not available on this platform");
+    }
+
+    private DataObject getPayload(int size) {
+        DataArray array = DataArray.empty();
+        for (int i = 0; i < size; i++) {
+            array.add(DataObject.empty().put("id", Integer.toString(i)).put("name", "user" + i));
+        }
+        // Braces in strings must not end the message early
+        array.add(DataObject.empty().put("id", "-1").put("name", "\\\"}]"));
+        return DataObject.empty().put("op", 0).put("t", "GUILD_CREATE").put("d", array);
+    }
+
+    // Feeds the message in slices of random length, only the last slice completes the message
+    private byte[] decompressSlices(ZstdDecompressor decompressor, byte[] message, int slices)
+            throws DataFormatException {
+        int splitCount = Math.min(slices, message.length) - 1;
+        int[] splits = random.ints(1, message.length).distinct().limit(splitCount).sorted().toArray();
+        int start = 0;
+        for (int split : splits) {
+            assertThat(decompressor.decompress(Arrays.copyOfRange(message, start, split))).isNull();
+            start = split;
+        }
+        return decompressor.decompress(Arrays.copyOfRange(message, start, message.length));
+    }
+
+    private byte[] compress(DataObject payload) throws IOException {
+        return compress(payload.toJson());
+    }
+
+    // Like the gateway, all messages are part of one stream and flushed individually
+    private byte[] compress(byte[] payload) throws IOException {
+        if (stream == null) {
+            stream = new ZstdOutputStream(compressed);
+        }
+        compressed.reset();
+        stream.write(payload);
+        stream.flush();
+        return compressed.toByteArray();
+    }
+
+    private DataObject parse(ByteBuffer buffer) {
+        return DataObject.fromJson(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    }
+}